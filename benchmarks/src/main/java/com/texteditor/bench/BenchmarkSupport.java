@@ -0,0 +1,20 @@
+package com.texteditor.bench;
+
+import com.texteditor.model.DocumentManager;
+
+import javax.swing.*;
+
+// shared setup for the benchmarks: a DocumentManager wired to a real (never shown) JTextPane,
+// the same pairing TabManager creates for every tab
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static DocumentManager newDocument(String text) {
+        DocumentManager documentManager = new DocumentManager();
+        documentManager.setTextPane(new JTextPane());
+        documentManager.setText(text);
+        return documentManager;
+    }
+}
@@ -0,0 +1,86 @@
+package com.texteditor.bench;
+
+import com.texteditor.io.DelimitedFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// the table viewer's work on a CSV file: the background pass that finds every row (`index`),
+// sorting by a number column and by a text column whose values share long prefixes
+// (`sortNumbers`, `sortText`, dates like 2023-04-17 need the second 8-byte key), and parsing one
+// screen of 40 rows at a random place (`readScreen`, what each repaint costs). the rows are
+// generated from a fixed seed and written to a temp file, so they sit in the page cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class DelimitedFileBenchmark {
+
+    private static final String[] CITIES = {"Berlin", "Paris", "New York", "São Paulo", "Tokyo",
+            "Lagos", "Mumbai", "Sydney"};
+
+    @Param({"100000", "1000000", "10000000"})
+    public int rows;
+
+    private Path path;
+    private DelimitedFile file; // indexed once, for the sorts and reads
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        path = Files.createTempFile("delimited-bench", ".csv");
+        Random data = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("id,name,city,amount,date\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(i + ",\"Customer " + data.nextInt(1_000_000) + "\","
+                        + CITIES[data.nextInt(CITIES.length)] + "," + data.nextInt(100_000) / 100.0
+                        + ",2023-" + String.format("%02d-%02dT%02d:00", 1 + data.nextInt(12),
+                                1 + data.nextInt(28), data.nextInt(24)) + "\n");
+            }
+        }
+        file = DelimitedFile.open(path);
+        file.buildIndex(null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        file.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public int index() throws IOException, InterruptedException {
+        try (DelimitedFile fresh = DelimitedFile.open(path)) {
+            fresh.buildIndex(null);
+            return fresh.getRowCount();
+        }
+    }
+
+    @Benchmark
+    public int[] sortNumbers() throws InterruptedException {
+        return file.sortRows(3, true, 1, null);
+    }
+
+    @Benchmark
+    public int[] sortText() throws InterruptedException {
+        return file.sortRows(4, true, 1, null);
+    }
+
+    @Benchmark
+    public int readScreen() {
+        int first = 1 + random.nextInt(file.getRowCount() - 40);
+        int fields = 0;
+        for (int row = first; row < first + 40; row++) {
+            fields += file.getRow(row).length;
+        }
+        return fields;
+    }
+}
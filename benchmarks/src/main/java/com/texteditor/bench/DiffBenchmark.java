@@ -0,0 +1,49 @@
+package com.texteditor.bench;
+
+import com.texteditor.model.LineDiff;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// comparing a document with an edited copy of itself, as File > Compare with Saved does. the copy
+// changes one line in 100, drops one in 150 and inserts one every 200, spread over the whole text;
+// 100 MB is about 1.5 million lines
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class DiffBenchmark {
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "100MB"})
+    public String size;
+
+    private String original;
+    private String edited;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        original = SampleText.generate(size);
+        String[] lines = original.split("\n", -1);
+        StringBuilder copy = new StringBuilder(original.length() + 1024);
+        for (int i = 0; i < lines.length; i++) {
+            if (i % 200 == 199) {
+                copy.append("inserted line ").append(i).append('\n');
+            }
+            if (i % 150 == 149) {
+                continue;
+            }
+            copy.append(i % 100 == 99 ? "changed " + lines[i] : lines[i]);
+            if (i < lines.length - 1) {
+                copy.append('\n');
+            }
+        }
+        edited = copy.toString();
+    }
+
+    @Benchmark
+    public int compare() {
+        return LineDiff.compare(original, edited).getHunks().size();
+    }
+}
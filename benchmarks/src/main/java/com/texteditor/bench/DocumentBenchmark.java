@@ -0,0 +1,40 @@
+package com.texteditor.bench;
+
+import com.texteditor.model.DocumentManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// DocumentManager.getText/setText on a JTextPane: the whole-document copy behind saving,
+// searching and the status bar, and the whole-document swap behind opening a file
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class DocumentBenchmark {
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "100MB", "500MB"})
+    public String size;
+
+    private String text;
+    private DocumentManager documentManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        text = SampleText.generate(size);
+        documentManager = BenchmarkSupport.newDocument(text);
+    }
+
+    @Benchmark
+    public String getText() {
+        return documentManager.getText();
+    }
+
+    @Benchmark
+    public int setText() {
+        documentManager.setText(text);
+        return documentManager.getDocument().getLength();
+    }
+}
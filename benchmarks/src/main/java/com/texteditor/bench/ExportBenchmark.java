@@ -0,0 +1,88 @@
+package com.texteditor.bench;
+
+import com.texteditor.io.HtmlExporter;
+import com.texteditor.io.MarkdownExporter;
+import com.texteditor.io.RichTextCodec;
+import com.texteditor.io.RtfExporter;
+import com.texteditor.io.StyledTextExporter;
+import com.texteditor.model.FormattedDocument;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import java.awt.Color;
+import java.awt.Font;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// saving a formatted document as rich text and exporting it to HTML, Markdown and RTF, written
+// to a temporary file. run with -prof gc to check that extra memory does not grow with the size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class ExportBenchmark {
+
+    private static final int RUN_LENGTH = 48; // a formatting change every 48 characters
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "100MB"})
+    public String size;
+
+    @Param({"trt", "html", "md", "rtf"})
+    public String format;
+
+    private FormattedDocument document;
+    private StyledTextExporter exporter; // null for the native format
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        char[] text = SampleText.generate(size).toCharArray();
+        SimpleAttributeSet bold = new SimpleAttributeSet();
+        StyleConstants.setBold(bold, true);
+        SimpleAttributeSet colored = new SimpleAttributeSet();
+        StyleConstants.setItalic(colored, true);
+        StyleConstants.setForeground(colored, new Color(0x2E, 0x7D, 0x32));
+        AttributeSet[] styles = {SimpleAttributeSet.EMPTY, bold, SimpleAttributeSet.EMPTY, colored};
+
+        int runs = Math.max(1, (text.length + RUN_LENGTH - 1) / RUN_LENGTH);
+        int[] runLengths = new int[runs];
+        AttributeSet[] runAttributes = new AttributeSet[runs];
+        for (int i = 0; i < runs; i++) {
+            runLengths[i] = Math.min(RUN_LENGTH, text.length - i * RUN_LENGTH);
+            runAttributes[i] = styles[i % styles.length];
+        }
+        document = new FormattedDocument();
+        document.load(text, runLengths, runAttributes);
+
+        Font font = new Font(Font.MONOSPACED, Font.PLAIN, 14);
+        if (format.equals("html")) {
+            exporter = new HtmlExporter(font);
+        } else if (format.equals("md")) {
+            exporter = new MarkdownExporter();
+        } else if (format.equals("rtf")) {
+            exporter = new RtfExporter(font);
+        }
+        file = Files.createTempFile("tekst-export", "." + format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        if (exporter == null) {
+            RichTextCodec.write(file, document);
+        } else {
+            exporter.export(document, file);
+        }
+        return Files.size(file);
+    }
+}
@@ -0,0 +1,111 @@
+package com.texteditor.bench;
+
+import com.texteditor.model.JsonFormatter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// the single streaming pass behind Edit > JSON: reading minified records and writing them
+// pretty-printed (`pretty`), pretty-printed records written back minified (`minify`), and only
+// checking them (`validate`). the writer just counts characters, so the numbers are the
+// tokenizer's cost without the new tab's document inserts. stops at 100 MB: the pretty copy
+// is over twice as long
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class JsonFormatterBenchmark {
+
+    @Param({"1MB", "16MB", "100MB"})
+    public String size;
+
+    private String minified;
+    private String pretty;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JsonFormatter.SyntaxError {
+        minified = generate(SampleText.parseSize(size));
+        StringBuilder text = new StringBuilder(minified.length() * 2);
+        JsonFormatter.format(new StringReader(minified), new Writer() {
+            @Override
+            public void write(char[] chars, int start, int count) {
+                text.append(chars, start, count);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        }, JsonFormatter.Style.PRETTY);
+        pretty = text.toString();
+    }
+
+    @Benchmark
+    public long pretty() throws IOException, JsonFormatter.SyntaxError {
+        CountingWriter out = new CountingWriter();
+        JsonFormatter.format(new StringReader(minified), out, JsonFormatter.Style.PRETTY);
+        return out.count;
+    }
+
+    @Benchmark
+    public long minify() throws IOException, JsonFormatter.SyntaxError {
+        CountingWriter out = new CountingWriter();
+        JsonFormatter.format(new StringReader(pretty), out, JsonFormatter.Style.MINIFIED);
+        return out.count;
+    }
+
+    @Benchmark
+    public long validate() throws IOException, JsonFormatter.SyntaxError {
+        return JsonFormatter.format(new StringReader(minified), null,
+                JsonFormatter.Style.VALIDATE).getValues();
+    }
+
+    // an array of small records like an API dump: strings with escapes, numbers, literals and
+    // nested arrays and objects
+    private static String generate(int bytes) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(bytes + 256);
+        json.append('[');
+        for (int i = 0; json.length() < bytes; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"name\":\"Customer \\\"").append(random.nextInt(1_000_000))
+                    .append("\\\"\",\"amount\":").append(random.nextInt(100_000) / 100.0)
+                    .append(",\"score\":").append(random.nextGaussian())
+                    .append(",\"active\":").append(random.nextBoolean())
+                    .append(",\"manager\":null,\"tags\":[\"a\",\"b\\u00e9\",")
+                    .append(random.nextInt(10)).append("],\"address\":{\"city\":\"Berlin\","
+                            + "\"zip\":\"").append(10_000 + random.nextInt(90_000))
+                    .append("\"}}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static final class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(char[] chars, int start, int count) {
+            this.count += count;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
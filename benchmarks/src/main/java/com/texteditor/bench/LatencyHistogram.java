@@ -0,0 +1,100 @@
+package com.texteditor.bench;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// collects latency samples (nanoseconds) for one scenario and reports percentiles plus a
+// log-scale histogram, similar to what browser dev tools show for input latency
+public class LatencyHistogram {
+
+    // bucket upper bounds in milliseconds; the last bucket catches everything slower
+    private static final double[] BUCKETS_MS = {0.5, 1, 2, 4, 8, 16, 33, 50, 100, 250, 1000};
+
+    private final String name;
+    private long[] samples = new long[256];
+    private int count;
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public void add(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // nearest-rank percentile in milliseconds, p between 0 and 100
+    public double percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))] / 1_000_000.0;
+    }
+
+    public int[] bucketCounts() {
+        int[] counts = new int[BUCKETS_MS.length + 1];
+        for (int i = 0; i < count; i++) {
+            double ms = samples[i] / 1_000_000.0;
+            int bucket = 0;
+            while (bucket < BUCKETS_MS.length && ms > BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            counts[bucket]++;
+        }
+        return counts;
+    }
+
+    // one summary line plus a bar per non-empty bucket
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT,
+                "%-32s n=%-5d p50=%8.2f ms  p90=%8.2f ms  p99=%8.2f ms  max=%8.2f ms%n", name,
+                count, percentile(50), percentile(90), percentile(99), percentile(100)));
+
+        int[] counts = bucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            String label = i < BUCKETS_MS.length
+                    ? String.format(Locale.ROOT, "<= %6.1f ms", BUCKETS_MS[i])
+                    : String.format(Locale.ROOT, " > %6.1f ms", BUCKETS_MS[BUCKETS_MS.length - 1]);
+            int bar = (int) Math.ceil(counts[i] * 50.0 / count);
+            out.append(String.format(Locale.ROOT, "    %s %6d %s%n", label, counts[i],
+                    "#".repeat(bar)));
+        }
+        return out.toString();
+    }
+
+    // JSON object with the percentiles and bucket counts, for comparing runs across builds
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(Locale.ROOT,
+                "{\"name\": \"%s\", \"count\": %d, \"p50\": %.4f, \"p90\": %.4f, "
+                        + "\"p99\": %.4f, \"max\": %.4f, \"buckets\": [",
+                name, count, percentile(50), percentile(90), percentile(99), percentile(100)));
+        int[] counts = bucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            String bound = i < BUCKETS_MS.length ? String.valueOf(BUCKETS_MS[i]) : "null";
+            json.append("{\"le\": ").append(bound).append(", \"count\": ").append(counts[i])
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.texteditor.bench;
+
+import com.texteditor.io.MappedFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// the hex viewer's work on a memory-mapped file: searching for a pattern found 90% of the way in
+// (`indexOf`) and for one that isn't there at all (`indexOfMissing`, a full scan), and reading
+// one screen of 60 rows at a random offset (`readScreen`, what each repaint costs). the file is
+// SampleText written to a temp file, so after the first iteration it sits in the page cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class MappedFileBenchmark {
+
+    private static final byte[] NEEDLE = SampleText.NEEDLE.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MISSING = {0x00, 0x01, 0x02, 0x03};
+
+    @Param({"1MB", "16MB", "100MB", "500MB"})
+    public String size;
+
+    private Path path;
+    private MappedFile file;
+    private final byte[] screen = new byte[60 * 16];
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = Files.createTempFile("mapped-bench", ".bin");
+        Files.writeString(path, SampleText.generate(size), StandardCharsets.UTF_8);
+        file = MappedFile.open(path);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        file.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public long indexOf() throws InterruptedException {
+        return file.indexOf(NEEDLE, 0, file.size(), null);
+    }
+
+    @Benchmark
+    public long indexOfMissing() throws InterruptedException {
+        return file.indexOf(MISSING, 0, file.size(), null);
+    }
+
+    @Benchmark
+    public int readScreen() {
+        long offset = (long) (random.nextDouble() * file.size()) & ~15L;
+        return file.read(offset, screen, 0, screen.length);
+    }
+}
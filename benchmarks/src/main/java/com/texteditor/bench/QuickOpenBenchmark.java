@@ -0,0 +1,76 @@
+package com.texteditor.bench;
+
+import com.texteditor.model.FuzzyMatcher;
+import com.texteditor.service.PathIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// one keystroke in File > Go to File: ranking every path of a workspace index against a query,
+// from scratch (`search`) and going on from the results of the query one character shorter
+// (`narrow`, what typing does). the paths are generated from a fixed seed out of a small
+// vocabulary of folder and class names, so a one-letter query matches nearly all of them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class QuickOpenBenchmark {
+
+    private static final String[] FOLDERS = {
+            "src", "main", "java", "com", "texteditor", "ui", "service", "model", "test",
+            "resources", "docs", "lib", "util", "core", "api", "impl", "internal", "web"
+    };
+    private static final String[] WORDS = {
+            "File", "Controller", "Manager", "Tab", "Document", "Theme", "Style", "Index", "Path",
+            "Search", "Dialog", "Panel", "Tree", "Cache", "Watcher", "Recent", "Session", "Store"
+    };
+    private static final String[] EXTENSIONS = {".java", ".md", ".txt", ".js", ".css", ".json"};
+
+    @Param({"10000", "100000", "500000"})
+    public int files;
+
+    @Param({"f", "filecon", "tmsd", "ui/tab"})
+    public String query;
+
+    private PathIndex index;
+    private FuzzyMatcher matcher;
+    private PathIndex.Matches shorter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> paths = new ArrayList<>(files);
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < files; i++) {
+            path.setLength(0);
+            for (int depth = 2 + random.nextInt(6); depth > 0; depth--) {
+                path.append(FOLDERS[random.nextInt(FOLDERS.length)]).append('/');
+            }
+            for (int words = 1 + random.nextInt(3); words > 0; words--) {
+                path.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            path.append(random.nextInt(100)).append(EXTENSIONS[random.nextInt(EXTENSIONS.length)]);
+            paths.add(path.toString());
+        }
+        index = PathIndex.of(Paths.get("workspace"), paths);
+        matcher = new FuzzyMatcher(query);
+        shorter = index.search(new FuzzyMatcher(query.substring(0, query.length() - 1)), null,
+                50);
+    }
+
+    @Benchmark
+    public int search() {
+        return index.search(matcher, null, 50).getCount();
+    }
+
+    @Benchmark
+    public int narrow() {
+        return index.search(matcher, shorter, 50).getCount();
+    }
+}
@@ -0,0 +1,69 @@
+package com.texteditor.bench;
+
+import java.util.Random;
+
+// generates deterministic, prose-like test documents of a given size so every build is measured
+// against exactly the same text (same seed, same words, same line lengths)
+public final class SampleText {
+
+    // word that appears exactly once, 90% of the way into the text (worst case for a search)
+    public static final String NEEDLE = "xylophonequartz";
+
+    // common word, used for replace-all
+    public static final String COMMON_WORD = "lorem";
+
+    private static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "editor", "swing", "document", "caret",
+            "tab", "theme", "pixel", "status", "line", "column", "search", "replace", "buffer",
+            "a", "of", "the", "and", "to", "in", "is", "it", "for", "on", "with", "as"
+    };
+
+    private SampleText() {
+    }
+
+    // "1KB", "64KB", "1MB", "500MB" -> number of characters
+    public static int parseSize(String size) {
+        String value = size.trim().toUpperCase();
+        if (value.endsWith("KB")) {
+            return Integer.parseInt(value.substring(0, value.length() - 2)) * 1024;
+        }
+        if (value.endsWith("MB")) {
+            return Integer.parseInt(value.substring(0, value.length() - 2)) * 1024 * 1024;
+        }
+        return Integer.parseInt(value);
+    }
+
+    public static String generate(String size) {
+        return generate(parseSize(size));
+    }
+
+    // text of exactly the given length, lines of roughly 40-100 characters
+    public static String generate(int length) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(length + 128);
+        int needleAt = (int) (length * 0.9);
+        int lineLength = 0;
+        int lineLimit = 40 + random.nextInt(60);
+
+        while (text.length() < length) {
+            if (text.length() >= needleAt && needleAt >= 0) {
+                text.append(NEEDLE).append(' ');
+                needleAt = -1;
+                continue;
+            }
+
+            String word = WORDS[random.nextInt(WORDS.length)];
+            text.append(word);
+            lineLength += word.length() + 1;
+            if (lineLength >= lineLimit) {
+                text.append('\n');
+                lineLength = 0;
+                lineLimit = 40 + random.nextInt(60);
+            } else {
+                text.append(' ');
+            }
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+}
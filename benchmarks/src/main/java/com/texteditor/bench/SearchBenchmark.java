@@ -0,0 +1,59 @@
+package com.texteditor.bench;
+
+import com.texteditor.controller.EditController;
+import com.texteditor.model.DocumentManager;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.text.JTextComponent;
+import java.util.concurrent.TimeUnit;
+
+// EditController.findNext/replaceAll as the Find & Replace dialog calls them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class SearchBenchmark {
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "100MB", "500MB"})
+    public String size;
+
+    private EditController editController;
+    private JTextComponent textComponent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DocumentManager documentManager = BenchmarkSupport.newDocument(SampleText.generate(size));
+        editController = new EditController(documentManager);
+        textComponent = documentManager.getTextComponent();
+    }
+
+    // search from the top for a word near the end of the document
+    @Benchmark
+    public int findNextCaseSensitive() {
+        textComponent.setCaretPosition(0);
+        editController.findNext(SampleText.NEEDLE, true);
+        return textComponent.getSelectionStart();
+    }
+
+    @Benchmark
+    public int findNextIgnoreCase() {
+        textComponent.setCaretPosition(0);
+        editController.findNext(SampleText.NEEDLE.toUpperCase(), false);
+        return textComponent.getSelectionStart();
+    }
+
+    // replace a common word with itself, so the document is the same for every invocation
+    @Benchmark
+    public int replaceAllCaseSensitive() {
+        editController.replaceAll(SampleText.COMMON_WORD, SampleText.COMMON_WORD, true);
+        return textComponent.getDocument().getLength();
+    }
+
+    @Benchmark
+    public int replaceAllIgnoreCase() {
+        editController.replaceAll(SampleText.COMMON_WORD, SampleText.COMMON_WORD, false);
+        return textComponent.getDocument().getLength();
+    }
+}
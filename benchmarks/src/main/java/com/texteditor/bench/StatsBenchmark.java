@@ -0,0 +1,50 @@
+package com.texteditor.bench;
+
+import com.texteditor.ui.StatusBar;
+import com.texteditor.ui.TabManager;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.util.concurrent.TimeUnit;
+
+// the per-keystroke status bar work: document statistics after every edit and the caret
+// line/column after every caret move (a lookup in the line elements, caret at the end)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class StatsBenchmark {
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "100MB", "500MB"})
+    public String size;
+
+    private String text;
+    private PlainDocument document;
+    private StatusBar statusBar;
+
+    @Setup(Level.Trial)
+    public void setUp() throws BadLocationException {
+        text = SampleText.generate(size);
+        document = new PlainDocument();
+        document.insertString(0, text, null);
+        statusBar = new StatusBar();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        statusBar.dispose();
+    }
+
+    @Benchmark
+    public void updateDocumentStats() {
+        statusBar.updateDocumentStats(text);
+    }
+
+    @Benchmark
+    public int[] caretLineColumn() {
+        return TabManager.caretLineColumn(document, document.getLength());
+    }
+}
@@ -0,0 +1,495 @@
+package com.texteditor.bench;
+
+import com.formdev.flatlaf.FlatLightLaf;
+import com.texteditor.ui.MainWindow;
+import com.texteditor.ui.TabManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// measures input-to-paint latency in real Swing components: it scripts key typing, wheel
+// scrolling and tab switching against generated documents, timestamps when each event is posted,
+// when the EDT starts dispatching it and when the resulting paint has finished, and reports
+// p50/p99 histograms per scenario (like the "interaction to next paint" metric for web pages).
+//
+// headful mode runs the real MainWindow/TabManager and needs a display; on a CI box use Xvfb:
+//   xvfb-run -a java -cp target/benchmarks.jar com.texteditor.bench.UiLatencyHarness
+// without a display it falls back to offscreen mode: the same text panes in a JTabbedPane,
+// painted into an image after every event (no window, so no TabManager and no real focus)
+//
+// options: --mode auto|headful|offscreen  --size 1MB  --tabs 6  --samples 300  --warmup 50
+//          --pause 5 (ms between samples)  --json target/ui-latency.json
+public class UiLatencyHarness {
+
+    private static final String TYPED_TEXT = "the quick brown fox jumps over the lazy dog ";
+    private static final long PAINT_TIMEOUT_MS = 2000;
+
+    private final Options options;
+    private Target target;
+    private volatile Sample current;
+    private int scrollDirection = 1;
+
+    public UiLatencyHarness(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+
+        // keep the session, recovery journal and logs of the benchmarked editor out of ~/.tekst
+        if (System.getProperty("tekst.home") == null) {
+            System.setProperty("tekst.home",
+                    Files.createTempDirectory("tekst-ui-bench").toString());
+        }
+
+        UiLatencyHarness harness = new UiLatencyHarness(options);
+        List<LatencyHistogram> results = harness.run();
+
+        StringBuilder report = new StringBuilder();
+        report.append("UI latency (").append(harness.target.mode()).append(" mode, ")
+                .append(options.size).append(" documents, ").append(options.tabs)
+                .append(" tabs)\n");
+        for (LatencyHistogram histogram : results) {
+            report.append(histogram.report());
+        }
+        System.out.print(report);
+
+        if (options.json != null) {
+            harness.writeJson(results, Paths.get(options.json));
+        }
+        System.exit(0);
+    }
+
+    public List<LatencyHistogram> run() throws Exception {
+        String text = SampleText.generate(options.size);
+        boolean headful = options.mode.equals("headful")
+                || (options.mode.equals("auto") && !GraphicsEnvironment.isHeadless());
+
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                UIManager.setLookAndFeel(new FlatLightLaf());
+            } catch (UnsupportedLookAndFeelException e) {
+                System.err.println("Failed to initialize Look and Feel: " + e.getMessage());
+            }
+            target = headful ? new HeadfulTarget(text, options.tabs)
+                    : new OffscreenTarget(text, options.tabs);
+        });
+        target.awaitReady();
+
+        Toolkit.getDefaultToolkit().addAWTEventListener(dispatchListener,
+                AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_WHEEL_EVENT_MASK);
+        if (headful) {
+            RepaintManager.setCurrentManager(new TimingRepaintManager());
+        }
+
+        List<LatencyHistogram> results = new ArrayList<>();
+        runScenario("typing", this::typeOneCharacter, results);
+        runScenario("scrolling", this::scrollOneStep, results);
+        runScenario("tab switching", this::switchTab, results);
+        return results;
+    }
+
+    // one scenario: warmup samples are thrown away, the rest are recorded as total latency
+    // (posted -> painted) and paint latency (dispatch started -> painted)
+    private void runScenario(String name, SampleAction action, List<LatencyHistogram> results)
+            throws Exception {
+        LatencyHistogram total = new LatencyHistogram(name);
+        LatencyHistogram paint = new LatencyHistogram(name + " (dispatch->paint)");
+        int timeouts = 0;
+
+        SwingUtilities.invokeAndWait(target::prepare);
+        for (int i = 0; i < options.warmup + options.samples; i++) {
+            Sample sample = new Sample();
+            current = sample;
+            sample.postedAt = System.nanoTime();
+            action.post(i);
+            if (!target.paintsOnItsOwn()) {
+                SwingUtilities.invokeLater(() -> {
+                    target.paintOffscreen();
+                    painted();
+                });
+            }
+
+            boolean done = sample.painted.await(PAINT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            current = null;
+            SwingUtilities.invokeAndWait(() -> {
+                // let the EDT drain before the next sample so samples don't overlap
+            });
+
+            if (i < options.warmup) {
+                continue;
+            }
+            if (!done || sample.dispatchedAt == 0) {
+                timeouts++;
+                continue;
+            }
+            total.add(sample.paintedAt - sample.postedAt);
+            paint.add(sample.paintedAt - sample.dispatchedAt);
+            if (options.pauseMs > 0) {
+                Thread.sleep(options.pauseMs);
+            }
+        }
+
+        if (timeouts > 0) {
+            System.err.println(name + ": " + timeouts + " samples produced no paint within "
+                    + PAINT_TIMEOUT_MS + " ms");
+        }
+        results.add(total);
+        results.add(paint);
+    }
+
+    // typing: a real KEY_TYPED event when the text pane has focus, otherwise the same edit the
+    // default key-typed action makes (replaceSelection)
+    private void typeOneCharacter(int index) {
+        char c = TYPED_TEXT.charAt(index % TYPED_TEXT.length());
+        JTextPane textPane = target.textPane();
+        if (target.hasFocus()) {
+            EventQueue queue = Toolkit.getDefaultToolkit().getSystemEventQueue();
+            queue.postEvent(new KeyEvent(textPane, KeyEvent.KEY_TYPED,
+                    System.currentTimeMillis(), 0, KeyEvent.VK_UNDEFINED, c));
+        } else {
+            SwingUtilities.invokeLater(() -> {
+                dispatched();
+                textPane.replaceSelection(String.valueOf(c));
+            });
+        }
+    }
+
+    // scrolling: three-line wheel steps, changing direction at the top and bottom
+    private void scrollOneStep(int index) {
+        JTextPane textPane = target.textPane();
+        JScrollBar scrollBar = target.scrollPane().getVerticalScrollBar();
+        if (scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum()) {
+            scrollDirection = -1;
+        } else if (scrollBar.getValue() == 0) {
+            scrollDirection = 1;
+        }
+
+        EventQueue queue = Toolkit.getDefaultToolkit().getSystemEventQueue();
+        queue.postEvent(new MouseWheelEvent(textPane, MouseEvent.MOUSE_WHEEL,
+                System.currentTimeMillis(), 0, 20, 20, 0, false,
+                MouseWheelEvent.WHEEL_UNIT_SCROLL, 3, scrollDirection));
+    }
+
+    private void switchTab(int index) {
+        SwingUtilities.invokeLater(() -> {
+            dispatched();
+            target.selectTab((target.selectedTab() + 1) % target.tabCount());
+        });
+    }
+
+    // called on the EDT when the event for the current sample starts being handled
+    private void dispatched() {
+        Sample sample = current;
+        if (sample != null && sample.dispatchedAt == 0) {
+            sample.dispatchedAt = System.nanoTime();
+        }
+    }
+
+    // called on the EDT once a paint has completed after the current sample was dispatched
+    private void painted() {
+        Sample sample = current;
+        if (sample != null && sample.dispatchedAt != 0 && sample.paintedAt == 0) {
+            sample.paintedAt = System.nanoTime();
+            sample.painted.countDown();
+        }
+    }
+
+    private final AWTEventListener dispatchListener = event -> {
+        int id = event.getID();
+        if (id == KeyEvent.KEY_TYPED || id == MouseEvent.MOUSE_WHEEL) {
+            dispatched();
+        }
+    };
+
+    private void writeJson(List<LatencyHistogram> results, Path file) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"mode\": \"").append(target.mode()).append("\",\n")
+                .append("  \"documentSize\": \"").append(options.size).append("\",\n")
+                .append("  \"tabs\": ").append(options.tabs).append(",\n")
+                .append("  \"java\": \"").append(System.getProperty("java.version"))
+                .append("\",\n  \"scenarios\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            json.append("    ").append(results.get(i).toJson())
+                    .append(i < results.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        System.out.println("Results written to " + file);
+    }
+
+    // Swing's own repaint queue, timestamped when a batch of dirty regions is on screen
+    private class TimingRepaintManager extends RepaintManager {
+        @Override
+        public void paintDirtyRegions() {
+            super.paintDirtyRegions();
+            Toolkit.getDefaultToolkit().sync(); // flush to the X server / window system
+            painted();
+        }
+    }
+
+    private static class Sample {
+        final CountDownLatch painted = new CountDownLatch(1);
+        volatile long postedAt;
+        volatile long dispatchedAt;
+        volatile long paintedAt;
+    }
+
+    private interface SampleAction {
+        void post(int index) throws Exception;
+    }
+
+    // the components being driven, either inside the real editor window or offscreen
+    private interface Target {
+        String mode();
+
+        void awaitReady() throws Exception;
+
+        // on the EDT before each scenario: first tab selected, caret mid-document, at the top
+        void prepare();
+
+        JTextPane textPane();
+
+        JScrollPane scrollPane();
+
+        int tabCount();
+
+        int selectedTab();
+
+        void selectTab(int index);
+
+        boolean hasFocus();
+
+        boolean paintsOnItsOwn();
+
+        void paintOffscreen();
+    }
+
+    private static abstract class TargetBase implements Target {
+        @Override
+        public void prepare() {
+            selectTab(0);
+            JTextPane textPane = textPane();
+            textPane.getCaret().setBlinkRate(0); // no caret blink repaints between samples
+            textPane.setCaretPosition(textPane.getDocument().getLength() / 2);
+            scrollPane().getVerticalScrollBar().setValue(0);
+        }
+
+        @Override
+        public JScrollPane scrollPane() {
+            return (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, textPane());
+        }
+    }
+
+    // the real editor window, painted by Swing's RepaintManager
+    private static class HeadfulTarget extends TargetBase {
+        private final MainWindow window;
+        private final TabManager tabManager;
+        private final CountDownLatch focused = new CountDownLatch(1);
+
+        HeadfulTarget(String text, int tabs) {
+            window = new MainWindow();
+            tabManager = window.getTabManager();
+            for (int i = tabManager.getTabCount(); i < tabs; i++) {
+                tabManager.createNewTab("bench-" + (i + 1) + ".txt", null);
+            }
+            for (int i = 0; i < tabManager.getTabCount(); i++) {
+                tabManager.setSelectedIndex(i);
+                tabManager.getCurrentDocumentManager().setText(text);
+            }
+            tabManager.setSelectedIndex(0);
+
+            window.setSize(1200, 800);
+            window.setLocationRelativeTo(null);
+            window.setVisible(true);
+            textPane().requestFocusInWindow();
+            Timer focusCheck = new Timer(20, null);
+            focusCheck.addActionListener(e -> {
+                if (textPane().isFocusOwner()) {
+                    focusCheck.stop();
+                    focused.countDown();
+                } else {
+                    textPane().requestFocusInWindow();
+                }
+            });
+            focusCheck.start();
+        }
+
+        @Override
+        public String mode() {
+            return "headful";
+        }
+
+        @Override
+        public void awaitReady() throws Exception {
+            if (!focused.await(5, TimeUnit.SECONDS)) {
+                System.err.println("Text pane never got focus, typing uses replaceSelection");
+            }
+        }
+
+        @Override
+        public void prepare() {
+            super.prepare();
+            textPane().requestFocusInWindow();
+        }
+
+        @Override
+        public JTextPane textPane() {
+            return tabManager.getCurrentTextPane();
+        }
+
+        @Override
+        public int tabCount() {
+            return tabManager.getTabCount();
+        }
+
+        @Override
+        public int selectedTab() {
+            return tabManager.getSelectedIndex();
+        }
+
+        @Override
+        public void selectTab(int index) {
+            tabManager.setSelectedIndex(index);
+        }
+
+        @Override
+        public boolean hasFocus() {
+            return textPane().isFocusOwner();
+        }
+
+        @Override
+        public boolean paintsOnItsOwn() {
+            return true;
+        }
+
+        @Override
+        public void paintOffscreen() {
+        }
+    }
+
+    // no display: plain text panes in a JTabbedPane, laid out and painted into an image
+    private static class OffscreenTarget extends TargetBase {
+        private final JTabbedPane tabs = new JTabbedPane();
+        private final BufferedImage image = new BufferedImage(1200, 800,
+                BufferedImage.TYPE_INT_RGB);
+
+        OffscreenTarget(String text, int tabCount) {
+            for (int i = 0; i < tabCount; i++) {
+                JTextPane textPane = new JTextPane();
+                textPane.setText(text);
+                tabs.addTab("bench-" + (i + 1) + ".txt", new JScrollPane(textPane));
+            }
+            tabs.setSize(image.getWidth(), image.getHeight());
+            paintOffscreen();
+        }
+
+        @Override
+        public String mode() {
+            return "offscreen";
+        }
+
+        @Override
+        public void awaitReady() {
+        }
+
+        @Override
+        public JTextPane textPane() {
+            JScrollPane scrollPane = (JScrollPane) tabs.getSelectedComponent();
+            return (JTextPane) scrollPane.getViewport().getView();
+        }
+
+        @Override
+        public int tabCount() {
+            return tabs.getTabCount();
+        }
+
+        @Override
+        public int selectedTab() {
+            return tabs.getSelectedIndex();
+        }
+
+        @Override
+        public void selectTab(int index) {
+            tabs.setSelectedIndex(index);
+        }
+
+        @Override
+        public boolean hasFocus() {
+            return false;
+        }
+
+        @Override
+        public boolean paintsOnItsOwn() {
+            return false;
+        }
+
+        // without a peer validate() does nothing, so lay the tree out by hand
+        @Override
+        public void paintOffscreen() {
+            layout(tabs);
+            Graphics2D g = image.createGraphics();
+            try {
+                tabs.paint(g);
+            } finally {
+                g.dispose();
+            }
+        }
+
+        private static void layout(Component component) {
+            if (component instanceof Container container) {
+                container.doLayout();
+                for (Component child : container.getComponents()) {
+                    layout(child);
+                }
+            }
+        }
+    }
+
+    // command-line options
+    static class Options {
+        String mode = "auto";
+        String size = "1MB";
+        int tabs = 6;
+        int samples = 300;
+        int warmup = 50;
+        int pauseMs = 5;
+        String json;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--mode" -> options.mode = value;
+                    case "--size" -> options.size = value;
+                    case "--tabs" -> options.tabs = Math.max(1, Integer.parseInt(value));
+                    case "--samples" -> options.samples = Integer.parseInt(value);
+                    case "--warmup" -> options.warmup = Integer.parseInt(value);
+                    case "--pause" -> options.pauseMs = Integer.parseInt(value);
+                    case "--json" -> options.json = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            return options;
+        }
+    }
+}
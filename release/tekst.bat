@@ -28,9 +28,9 @@ if not exist "text-editor-1.0.0.jar" (
     exit /b 1
 )
 
-REM Launch TEKST
+REM Launch TEKST with a class-data-sharing archive (created on first run, reused afterwards)
 echo 🎯 Launching TEKST...
-java -jar text-editor-1.0.0.jar
+java -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=tekst.jsa -jar text-editor-1.0.0.jar
 
 echo.
 echo 👋 TEKST has been closed. Thank you for using TEKST!
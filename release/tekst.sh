@@ -19,7 +19,8 @@ fi
 echo "🚀 Starting TEKST - Advanced Text Editor"
 echo "☕ Java Version: $(java -version 2>&1 | head -n 1)"
 
-# Launch TEKST
-java -jar text-editor-1.0.0.jar
+# Launch TEKST with a class-data-sharing archive: the first run creates tekst.jsa, later runs
+# map the pre-parsed classes from it and start noticeably faster
+java -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=tekst.jsa -jar text-editor-1.0.0.jar
 
 echo "👋 TEKST has been closed. Thank you for using TEKST!"
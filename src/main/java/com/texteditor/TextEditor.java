@@ -1,6 +1,7 @@
 package com.texteditor;
 
 import com.formdev.flatlaf.FlatLightLaf;
+import com.texteditor.service.StartupTimeline;
 import com.texteditor.ui.MainWindow;
 
 import javax.swing.SwingUtilities;
@@ -10,6 +11,8 @@ import javax.swing.UnsupportedLookAndFeelException;
 // Main app class down here...
 public class TextEditor {
     public static void main(String[] args) {
+        StartupTimeline.mark("main entered");
+
         // setting up CSS for the GUI
         try {
             UIManager.setLookAndFeel(new FlatLightLaf());
@@ -21,11 +24,14 @@ public class TextEditor {
             System.err.println("Failed to initialize Look and Feel:  " + e.getMessage());
             // fall back to system default GUI if modern theme fails
         }
+        StartupTimeline.mark("look and feel ready");
 
         // launching GUI on the event dispatch thread(EDT)
         // similar to how React runs on the main thread
         SwingUtilities.invokeLater(() -> {
-            new MainWindow().setVisible(true);
+            MainWindow mainWindow = new MainWindow();
+            StartupTimeline.watch(mainWindow);
+            mainWindow.setVisible(true);
         });
     }
 }
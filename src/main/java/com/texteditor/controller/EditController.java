@@ -1,10 +1,20 @@
 package com.texteditor.controller;
 
 import com.texteditor.model.DocumentManager;
+import com.texteditor.model.DocumentReader;
+import com.texteditor.model.JsonFormatter;
+import com.texteditor.model.LineEnding;
+import com.texteditor.model.TextNormalizer;
+import com.texteditor.service.EditorEvents;
+import com.texteditor.ui.ViewerTab;
 import com.texteditor.ui.dialogs.FindReplaceDialog;
 
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultCaret;
+import javax.swing.text.Document;
 import javax.swing.text.JTextComponent;
+import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.UndoManager;
 import javax.swing.undo.UndoableEdit;
 import java.awt.*;
@@ -12,20 +22,28 @@ import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 
 // handles all text editing operations like cut, copy, paste, undo, redo, find/replace. this is like
 // your editing utilities in web apps.
 public class EditController {
 
+    private static final int PENDING_CHUNKS = 16; // formatted chunks waiting for the EDT at most
+
     private DocumentManager documentManager;
-    private final Clipboard clipboard;
+    private Clipboard clipboard; // looked up on first copy/paste
     private Component parentComponent;
     private FindReplaceDialog findReplaceDialog;
     private com.texteditor.ui.TabManager tabManager;
+    private SwingWorker<JsonFormatter.Result, Void> jsonJob; // the JSON pass running, or null
 
     public EditController(DocumentManager documentManager) {
         this.documentManager = documentManager;
-        this.clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
     }
 
     // Set the tab manager reference
@@ -47,6 +65,9 @@ public class EditController {
     // Cut selected text to clipboard
 
     public void cut() {
+        if (rejectInViewer("Cut")) {
+            return;
+        }
         JTextComponent textComponent = documentManager.getTextComponent();
         if (textComponent != null && textComponent.getSelectedText() != null) {
             copy(); // First copy the text
@@ -60,11 +81,17 @@ public class EditController {
     // Copy selected text to clipboard
 
     public void copy() {
+        ViewerTab viewer = currentViewer();
+        if (viewer != null) {
+            updateStatus(viewer.copySelection() ? "Selection copied to clipboard"
+                    : "Nothing selected to copy");
+            return;
+        }
         JTextComponent textComponent = documentManager.getTextComponent();
         if (textComponent != null && textComponent.getSelectedText() != null) {
             String selectedText = textComponent.getSelectedText();
             StringSelection stringSelection = new StringSelection(selectedText);
-            clipboard.setContents(stringSelection, null);
+            getClipboard().setContents(stringSelection, null);
             updateStatus("Text copied to clipboard");
         } else {
             updateStatus("No text selected to copy");
@@ -74,7 +101,11 @@ public class EditController {
     // Paste text from clipboard
 
     public void paste() {
+        if (rejectInViewer("Paste")) {
+            return;
+        }
         try {
+            Clipboard clipboard = getClipboard();
             if (clipboard.isDataFlavorAvailable(DataFlavor.stringFlavor)) {
                 String clipboardText = (String) clipboard.getData(DataFlavor.stringFlavor);
                 JTextComponent textComponent = documentManager.getTextComponent();
@@ -93,6 +124,9 @@ public class EditController {
     // Select all text in the document
 
     public void selectAll() {
+        if (rejectInViewer("Select All")) {
+            return;
+        }
         JTextComponent textComponent = documentManager.getTextComponent();
         if (textComponent != null) {
             textComponent.selectAll();
@@ -103,6 +137,9 @@ public class EditController {
     // Undo last action
 
     public void undo() {
+        if (rejectWhileBusy("Undo")) {
+            return;
+        }
         if (tabManager != null && tabManager.canUndo()) {
             tabManager.undo();
             updateUndoRedoButtons();
@@ -115,6 +152,9 @@ public class EditController {
     // Redo last undone action
 
     public void redo() {
+        if (rejectWhileBusy("Redo")) {
+            return;
+        }
         if (tabManager != null && tabManager.canRedo()) {
             tabManager.redo();
             updateUndoRedoButtons();
@@ -127,6 +167,11 @@ public class EditController {
     // Show find and replace dialog
 
     public void showFindReplaceDialog() {
+        ViewerTab viewer = currentViewer();
+        if (viewer != null) {
+            viewer.showFind(); // viewers search in their own way
+            return;
+        }
         if (findReplaceDialog == null) {
             Window parentWindow = SwingUtilities.getWindowAncestor(parentComponent);
             findReplaceDialog = new FindReplaceDialog(parentWindow, documentManager);
@@ -144,6 +189,9 @@ public class EditController {
             return;
         }
 
+        EditorEvents.Find event = new EditorEvents.Find();
+        event.begin();
+
         String content = textComponent.getText();
         String searchContent = caseSensitive ? content : content.toLowerCase();
         String searchTerm = caseSensitive ? searchText : searchText.toLowerCase();
@@ -163,6 +211,16 @@ public class EditController {
         } else {
             updateStatus("Text not found: " + searchText);
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.tabId = currentTabId();
+            event.documentLength = content.length();
+            event.searchLength = searchText.length();
+            event.caseSensitive = caseSensitive;
+            event.found = foundIndex != -1;
+            event.commit();
+        }
     }
 
     // Replace current selection with replacement text
@@ -190,12 +248,18 @@ public class EditController {
     // Replace all occurrences of search text
 
     public void replaceAll(String searchText, String replaceText, boolean caseSensitive) {
+        if (rejectWhileBusy("Replace All")) {
+            return;
+        }
         JTextComponent textComponent = documentManager.getTextComponent();
         if (textComponent == null || searchText == null || searchText.isEmpty()) {
             updateStatus("No search text provided");
             return;
         }
 
+        EditorEvents.ReplaceAll event = new EditorEvents.ReplaceAll();
+        event.begin();
+
         String content = textComponent.getText();
         String result;
         int replacements;
@@ -214,6 +278,318 @@ public class EditController {
 
         textComponent.setText(result);
         updateStatus("Replaced " + replacements + " occurrences");
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.tabId = currentTabId();
+            event.documentLength = content.length();
+            event.searchLength = searchText.length();
+            event.caseSensitive = caseSensitive;
+            event.replacements = replacements;
+            event.commit();
+        }
+    }
+
+    // Convert every line break to one style. Stray '\r' characters (files loaded with mixed
+    // endings) are rewritten to '\n' in a single streaming pass; all changes undo as one step
+
+    public void convertLineEndings(LineEnding lineEnding) {
+        if (rejectInViewer("Convert line endings") || rejectWhileBusy("Convert line endings")) {
+            return;
+        }
+        Document document = documentManager.getDocument();
+        if (document == null) {
+            return;
+        }
+
+        LineEnding previous = documentManager.getLineEnding();
+        int[] edits = new int[1];
+        runAsSingleEdit(() -> {
+            // first in the group so it is undone last, after the text edits have marked the tab
+            if (tabManager != null) {
+                tabManager.addUndoableEdit(new LineEndingEdit(documentManager, previous,
+                        lineEnding));
+            }
+            try {
+                edits[0] = TextNormalizer.normalize(document, true, false);
+            } catch (BadLocationException e) {
+                updateStatus("Could not convert line endings: " + e.getMessage());
+            }
+            documentManager.setLineEnding(lineEnding);
+        });
+
+        if (previous != lineEnding || edits[0] > 0) {
+            documentManager.setUnsavedChanges(true);
+        }
+        refreshStatusBar();
+        updateStatus("Line endings converted to " + lineEnding.getDisplayName() + " ("
+                + edits[0] + " edits)");
+    }
+
+    // Strip spaces and tabs at the end of every line, as one undoable edit
+
+    public void trimTrailingWhitespace() {
+        if (rejectInViewer("Trim whitespace") || rejectWhileBusy("Trim whitespace")) {
+            return;
+        }
+        Document document = documentManager.getDocument();
+        if (document == null) {
+            return;
+        }
+
+        int[] edits = new int[1];
+        runAsSingleEdit(() -> {
+            try {
+                edits[0] = TextNormalizer.normalize(document, false, true);
+            } catch (BadLocationException e) {
+                updateStatus("Could not trim whitespace: " + e.getMessage());
+            }
+        });
+        updateStatus("Trimmed trailing whitespace on " + edits[0] + " lines");
+    }
+
+    // Edit > JSON: pretty-print or minify the tab's JSON into a new tab, or only check it. the
+    // text streams out of the document on a background thread and the output goes into the new
+    // tab in chunks as it is produced, with at most a few chunks in flight, so a 300 MB payload
+    // is never held twice. the first syntax error closes the half-written tab and is selected in
+    // the source; a run replaced by a newer one closes its tab as well
+
+    public void formatJson(JsonFormatter.Style style) {
+        if (tabManager == null || rejectInViewer("JSON formatting")) {
+            return;
+        }
+        Document document = documentManager.getDocument();
+        JTextComponent sourcePane = documentManager.getTextComponent();
+        if (document == null || sourcePane == null) {
+            return;
+        }
+        if (jsonJob != null) {
+            SwingWorker<JsonFormatter.Result, Void> running = jsonJob;
+            jsonJob = null; // a newer run replaces it
+            running.cancel(true);
+        }
+
+        int sourceTab = tabManager.getCurrentTabId();
+        File file = documentManager.getCurrentFile();
+        String name = file != null ? file.getName() : "Untitled";
+        boolean validate = style == JsonFormatter.Style.VALIDATE;
+        String verb = validate ? "Checking" : style == JsonFormatter.Style.PRETTY ? "Formatting"
+                : "Minifying";
+        DocumentReader reader = new DocumentReader(document);
+        int outputTab = validate ? -1 : tabManager.createNewTab(name
+                + (style == JsonFormatter.Style.PRETTY ? " (formatted)" : " (minified)"), null);
+        DocumentManager output = validate ? null : tabManager.getCurrentDocumentManager();
+        UndoManager outputUndo = validate ? null : tabManager.getCurrentUndoManager();
+        // the caret stays at the top while chunks arrive, so appending neither scrolls the tab
+        // nor moves the caret (and with it the status bar's line and column) once per chunk
+        DefaultCaret outputCaret = validate ? null
+                : (DefaultCaret) tabManager.getCurrentTextPane().getCaret();
+        if (outputCaret != null) {
+            outputCaret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+            output.setBackgroundTask("JSON output");
+        }
+
+        Semaphore room = new Semaphore(PENDING_CHUNKS);
+        long started = System.nanoTime();
+        Timer progress = new Timer(250, e -> tabManager.showStatus(verb + " JSON… "
+                + (int) ((long) reader.getPosition() * 100 / Math.max(1, reader.getLength()))
+                + "%"));
+        SwingWorker<JsonFormatter.Result, Void> worker = new SwingWorker<>() {
+            @Override
+            protected JsonFormatter.Result doInBackground()
+                    throws IOException, JsonFormatter.SyntaxError {
+                SwingWorker<JsonFormatter.Result, Void> self = this;
+                Writer chunks = validate ? null : new Writer() {
+                    @Override
+                    public void write(char[] buffer, int offset, int length) throws IOException {
+                        try {
+                            room.acquire();
+                        } catch (InterruptedException e) {
+                            throw new InterruptedIOException("Cancelled");
+                        }
+                        String chunk = new String(buffer, offset, length);
+                        SwingUtilities.invokeLater(() -> {
+                            room.release();
+                            appendJsonChunk(self, output, outputTab, chunk);
+                        });
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+                try (DocumentReader in = reader) {
+                    return JsonFormatter.format(in, chunks, style);
+                }
+            }
+
+            // queued after every chunk, so the output is complete by now
+            @Override
+            protected void done() {
+                progress.stop();
+                if (outputCaret != null) {
+                    outputCaret.setUpdatePolicy(DefaultCaret.UPDATE_WHEN_ON_EDT);
+                    output.setBackgroundTask(null);
+                }
+                // a job cancelled before it started never opened the reader's try block, and
+                // its listener would stay on the source; closing twice is harmless
+                reader.close();
+                if (jsonJob != this || isCancelled()) {
+                    if (jsonJob == this) {
+                        jsonJob = null;
+                    }
+                    // replaced by a newer run or stopped: half the output is worth nothing
+                    if (!validate && tabManager.isTabOpen(outputTab)) {
+                        output.setUnsavedChanges(false);
+                        tabManager.closeTab(outputTab);
+                    }
+                    return;
+                }
+                jsonJob = null;
+                if (outputUndo != null) {
+                    outputUndo.discardAllEdits(); // the output is the starting point, not an edit
+                }
+                if (!validate) {
+                    tabManager.updateStatusBar(); // skipped while the chunks came in
+                }
+                try {
+                    JsonFormatter.Result result = get();
+                    String summary = String.format("%,d values, nested %d deep, %.1f s",
+                            result.getValues(), result.getMaxDepth(),
+                            (System.nanoTime() - started) / 1e9);
+                    tabManager.showStatus((validate ? "Valid JSON"
+                            : style == JsonFormatter.Style.PRETTY ? "Pretty-printed " + name
+                            : "Minified " + name) + ": " + summary);
+                    if (validate) {
+                        JOptionPane.showMessageDialog(parentComponent, name
+                                + " is valid JSON\n" + summary, "Validate JSON",
+                                JOptionPane.INFORMATION_MESSAGE);
+                    }
+                } catch (ExecutionException e) {
+                    if (!validate) {
+                        output.setUnsavedChanges(false); // nothing worth keeping
+                        tabManager.closeTab(outputTab);
+                    }
+                    tabManager.selectTab(sourceTab);
+                    showJsonError(e.getCause(), sourcePane, name);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        jsonJob = worker;
+        progress.start();
+        worker.execute();
+    }
+
+    // one chunk of output into the new tab, on the EDT; closing the tab stops the pass
+    private void appendJsonChunk(SwingWorker<JsonFormatter.Result, Void> worker,
+            DocumentManager output, int outputTab, String chunk) {
+        if (jsonJob != worker) {
+            return;
+        }
+        if (!tabManager.isTabOpen(outputTab)) {
+            jsonJob = null;
+            worker.cancel(true);
+            tabManager.showStatus("JSON formatting stopped, its tab was closed");
+            return;
+        }
+        try {
+            output.appendText(chunk);
+        } catch (BadLocationException e) {
+            worker.cancel(true); // can't happen at the document's end
+        }
+    }
+
+    // select where the JSON goes wrong and say what is wrong there
+    private void showJsonError(Throwable cause, JTextComponent sourcePane, String name) {
+        if (!(cause instanceof JsonFormatter.SyntaxError)) {
+            tabManager.showStatus("JSON failed: " + cause.getMessage());
+            JOptionPane.showMessageDialog(parentComponent, "Could not read " + name + ": "
+                    + cause.getMessage(), "JSON", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JsonFormatter.SyntaxError error = (JsonFormatter.SyntaxError) cause;
+        String where = String.format("line %,d, column %,d", error.getLine(), error.getColumn());
+        int length = sourcePane.getDocument().getLength();
+        int at = (int) Math.min(error.getOffset(), length);
+        sourcePane.select(at, Math.min(at + 1, length));
+        sourcePane.requestFocusInWindow();
+        tabManager.showStatus("Invalid JSON at " + where + ": " + error.getMessage());
+        JOptionPane.showMessageDialog(parentComponent, name + " is not valid JSON.\n"
+                + error.getMessage() + " at " + where + ".", "JSON", JOptionPane.ERROR_MESSAGE);
+    }
+
+    // id of the current tab for flight recorder events, -1 without tabs
+    private int currentTabId() {
+        return tabManager != null ? tabManager.getCurrentTabId() : -1;
+    }
+
+    private void runAsSingleEdit(Runnable changes) {
+        if (tabManager != null) {
+            tabManager.runAsSingleEdit(changes);
+        } else {
+            changes.run();
+        }
+    }
+
+    private void refreshStatusBar() {
+        if (tabManager != null) {
+            tabManager.updateStatusBar();
+        }
+    }
+
+    // Undo step for switching a document's line-ending style. undoing it also puts back the
+    // unsaved flag, unless the tab was saved since: then the style on disk is the new one
+    private static class LineEndingEdit extends AbstractUndoableEdit {
+        private final DocumentManager documentManager;
+        private final LineEnding before;
+        private final LineEnding after;
+        private final boolean unsavedBefore;
+        private final int saveCount;
+
+        LineEndingEdit(DocumentManager documentManager, LineEnding before, LineEnding after) {
+            this.documentManager = documentManager;
+            this.before = before;
+            this.after = after;
+            this.unsavedBefore = documentManager.hasUnsavedChanges();
+            this.saveCount = documentManager.getSaveCount();
+        }
+
+        @Override
+        public void undo() {
+            super.undo();
+            documentManager.setLineEnding(before);
+            documentManager.setUnsavedChanges(unsavedBefore
+                    || documentManager.getSaveCount() != saveCount);
+        }
+
+        @Override
+        public void redo() {
+            super.redo();
+            documentManager.setLineEnding(after);
+            if (before != after) {
+                documentManager.setUnsavedChanges(true);
+            }
+        }
+
+        @Override
+        public String getPresentationName() {
+            return "Line Endings";
+        }
+    }
+
+    // the system clipboard isn't available in headless runs (benchmarks), so don't touch it
+    // until it is actually needed
+    private Clipboard getClipboard() {
+        if (clipboard == null) {
+            clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+        }
+        return clipboard;
     }
 
     // Update undo/redo button states (this will be called from UI)
@@ -242,6 +618,33 @@ public class EditController {
         return tabManager != null ? tabManager.getCurrentUndoManager() : null;
     }
 
+    // the read-only viewer in the selected tab, null for an editor tab
+    private ViewerTab currentViewer() {
+        return tabManager != null ? tabManager.getCurrentViewer() : null;
+    }
+
+    // the controllers keep pointing at the last editor tab while a viewer is selected, so edits
+    // must not go through to it
+    private boolean rejectInViewer(String action) {
+        if (currentViewer() == null) {
+            return false;
+        }
+        updateStatus(action + " is not available in a read-only view");
+        return true;
+    }
+
+    // a tab being exported is read by a background thread under the document's read lock, so an
+    // edit would stall the EDT until the export is done; JSON output still coming in would be
+    // mixed up with an undo or a replacement
+    private boolean rejectWhileBusy(String action) {
+        String task = documentManager.getBackgroundTask();
+        if (task == null) {
+            return false;
+        }
+        updateStatus(action + " is not available until the " + task + " is done");
+        return true;
+    }
+
     // Set current components for multi-tab support
     public void setCurrentComponents(JTextPane textPane, DocumentManager documentManager) {
         // Update the document manager reference
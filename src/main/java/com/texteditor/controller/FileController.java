@@ -1,27 +1,76 @@
 package com.texteditor.controller;
 
+import com.texteditor.io.DelimitedFile;
+import com.texteditor.io.EncodingDetector;
+import com.texteditor.io.HtmlExporter;
+import com.texteditor.io.MappedFile;
+import com.texteditor.io.MarkdownExporter;
+import com.texteditor.io.RichTextCodec;
+import com.texteditor.io.RtfExporter;
+import com.texteditor.io.StyledTextExporter;
+import com.texteditor.io.TextFileCodec;
 import com.texteditor.model.DocumentManager;
+import com.texteditor.model.LineDiff;
+import com.texteditor.model.LineEnding;
+import com.texteditor.model.ThreeWayMerge;
+import com.texteditor.service.EditorEvents;
+import com.texteditor.service.FileWatcher;
+import com.texteditor.service.RecentFiles;
+import com.texteditor.ui.CsvViewer;
+import com.texteditor.ui.HexViewer;
+import com.texteditor.ui.dialogs.CompareDialog;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.PlainDocument;
 import java.awt.*;
 import java.io.*;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 // handles all file operations for the text editor. this is like your API service layer or file
 // handling utilities in web apps.
 public class FileController {
 
+    // .csv and .tsv files from this size open as a table; a text tab would hold all of it
+    private static final long TABLE_THRESHOLD = 16L * 1024 * 1024;
+
     private final DocumentManager documentManager;
     private JFileChooser fileChooser;
+    private JFileChooser exportChooser;
     private Component parentComponent;
     private com.texteditor.ui.TabManager tabManager; // Reference to TabManager for multi-tab
                                                      // operations
+    private FileWatcher fileWatcher; // notices other programs changing open files
+    private RecentFiles recentFiles; // File > Open Recent
+    private final Set<Path> promptedFiles = new HashSet<>(); // files with a change prompt open
 
     public FileController(DocumentManager documentManager) {
         this.documentManager = documentManager;
-        initializeFileChooser();
+    }
+
+    // The file chooser scans the home directory when created, so it is only built the first time
+    // a dialog is needed instead of during startup (like lazy-loading a heavy component)
+
+    private JFileChooser getFileChooser() {
+        if (fileChooser == null) {
+            initializeFileChooser();
+        }
+        return fileChooser;
     }
 
     // Initialize file chooser with proper filters (like setting up file input restrictions in HTML)
@@ -32,6 +81,8 @@ public class FileController {
         // Add file filters (like accept attribute in HTML file inputs)
         fileChooser
                 .addChoosableFileFilter(new FileNameExtensionFilter("Text Files (*.txt)", "txt"));
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("Rich Text (*."
+                + RichTextCodec.EXTENSION + ")", RichTextCodec.EXTENSION));
         fileChooser
                 .addChoosableFileFilter(new FileNameExtensionFilter("Java Files (*.java)", "java"));
         fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("All Files", "*"));
@@ -51,6 +102,27 @@ public class FileController {
         this.tabManager = tabManager;
     }
 
+    // Set the watcher that reports outside changes to open files (see handleExternalChange)
+    public void setFileWatcher(FileWatcher fileWatcher) {
+        this.fileWatcher = fileWatcher;
+    }
+
+    // Set the list that remembers opened and saved files
+    public void setRecentFiles(RecentFiles recentFiles) {
+        this.recentFiles = recentFiles;
+    }
+
+    // Files opened or saved most recently, newest first
+    public List<File> getRecentFiles() {
+        return recentFiles != null ? recentFiles.getFiles() : List.of();
+    }
+
+    public void clearRecentFiles() {
+        if (recentFiles != null) {
+            recentFiles.clear();
+        }
+    }
+
     // Get current DocumentManager from TabManager (for multi-tab mode)
     private DocumentManager getCurrentDocumentManager() {
         if (tabManager != null) {
@@ -60,6 +132,33 @@ public class FileController {
         return documentManager;
     }
 
+    // Viewer tabs (hex) have no document; the commands that need one say so instead of acting
+    // on the last editor tab
+
+    private boolean rejectInViewer(String action) {
+        if (tabManager == null || tabManager.getCurrentViewer() == null) {
+            return false;
+        }
+        showErrorMessage(action + " is not available for a read-only view.");
+        return true;
+    }
+
+    // a tab being exported or filled in the background takes no new content until that is done
+
+    private boolean rejectWhileBusy(String action, DocumentManager docManager) {
+        String task = docManager.getBackgroundTask();
+        if (task == null) {
+            return false;
+        }
+        showErrorMessage(action + " is not available until the " + task + " is done.");
+        return true;
+    }
+
+    // id of the current tab for flight recorder events, -1 without tabs
+    private int currentTabId() {
+        return tabManager != null ? tabManager.getCurrentTabId() : -1;
+    }
+
     // Create new document (creates a new tab in multi-tab mode)
 
     public void newDocument() {
@@ -83,16 +182,153 @@ public class FileController {
             return;
         }
 
-        int result = fileChooser.showOpenDialog(parentComponent);
+        JFileChooser chooser = getFileChooser();
+        int result = chooser.showOpenDialog(parentComponent);
         if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            loadFile(selectedFile);
+            File selectedFile = chooser.getSelectedFile();
+            if (tabManager != null && (tabManager.getCurrentViewer() != null
+                    || isBinary(selectedFile) || isLargeTable(selectedFile))) {
+                openFile(selectedFile); // a tab of its own, hex or table viewer
+            } else {
+                loadFile(selectedFile, true);
+            }
+        }
+    }
+
+    // File > Open in Hex Viewer...: any file as a hex dump, the current tab's file preselected
+
+    public void openInHexViewer() {
+        JFileChooser chooser = getFileChooser();
+        DocumentManager current = tabManager != null && tabManager.getCurrentViewer() == null
+                ? getCurrentDocumentManager() : null;
+        if (current != null && current.getCurrentFile() != null) {
+            chooser.setSelectedFile(current.getCurrentFile());
+        }
+        if (chooser.showDialog(parentComponent, "Open in Hex Viewer")
+                == JFileChooser.APPROVE_OPTION) {
+            openHexViewer(chooser.getSelectedFile());
+        }
+    }
+
+    // Show a file in a hex viewer tab. the file is memory-mapped rather than read, so this is as
+    // quick for 10 GB as for 10 KB
+
+    public void openHexViewer(File file) {
+        if (tabManager == null) {
+            return;
+        }
+        try {
+            MappedFile mapped = MappedFile.open(file.toPath());
+            tabManager.openViewer(file.getName(), new HexViewer(file, mapped));
+            if (recentFiles != null) {
+                recentFiles.add(file);
+            }
+        } catch (IOException e) {
+            showErrorMessage("Error opening file: " + e.getMessage());
+        }
+    }
+
+    // File > Open as Table...: a CSV, TSV or other delimited file as a sortable table
+
+    public void openInTableViewer() {
+        JFileChooser chooser = getFileChooser();
+        DocumentManager current = tabManager != null && tabManager.getCurrentViewer() == null
+                ? getCurrentDocumentManager() : null;
+        if (current != null && current.getCurrentFile() != null) {
+            chooser.setSelectedFile(current.getCurrentFile());
+        }
+        if (chooser.showDialog(parentComponent, "Open as Table")
+                == JFileChooser.APPROVE_OPTION) {
+            openTableViewer(chooser.getSelectedFile());
+        }
+    }
+
+    // Show a delimited file in a table tab. like the hex viewer the file is memory-mapped, and
+    // rows are indexed in the background while the first ones are already on screen
+
+    public void openTableViewer(File file) {
+        if (tabManager == null) {
+            return;
+        }
+        try {
+            DelimitedFile delimited = DelimitedFile.open(file.toPath());
+            tabManager.openViewer(file.getName(), new CsvViewer(file, delimited));
+            if (recentFiles != null) {
+                recentFiles.add(file);
+            }
+        } catch (IOException e) {
+            showErrorMessage("Error opening file: " + e.getMessage());
         }
     }
 
+    private static boolean isLargeTable(File file) {
+        String name = file.getName().toLowerCase();
+        return (name.endsWith(".csv") || name.endsWith(".tsv")) && file.length() >= TABLE_THRESHOLD;
+    }
+
+    // Sniff the first few KB for bytes that aren't text. rich text files are binary by design and
+    // unreadable files count as text, so loading them reports what is wrong
+
+    private static boolean isBinary(File file) {
+        if (RichTextCodec.isRichText(file.toPath())) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer sample = ByteBuffer.allocate(EncodingDetector.BINARY_SNIFF);
+            while (sample.hasRemaining() && channel.read(sample) > 0) {
+                // fill the sample
+            }
+            sample.flip();
+            return EncodingDetector.looksBinary(sample);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Open a file in a tab of its own, or switch to the tab already showing it (file tree, recent
+    // files). an empty untitled tab is reused, like a browser's new tab page
+
+    public void openFile(File file) {
+        if (!file.isFile()) {
+            if (recentFiles != null) {
+                recentFiles.remove(file);
+            }
+            showErrorMessage("File not found: " + file.getAbsolutePath());
+            return;
+        }
+        if (tabManager == null) {
+            if (checkUnsavedChanges()) {
+                loadFile(file, false);
+            }
+            return;
+        }
+        if (tabManager.selectTabForFile(file)) {
+            return;
+        }
+        if (isBinary(file)) {
+            openHexViewer(file);
+            return;
+        }
+        if (isLargeTable(file)) {
+            openTableViewer(file);
+            return;
+        }
+        DocumentManager current = getCurrentDocumentManager();
+        Document document = current.getDocument();
+        boolean emptyTab = tabManager.getCurrentViewer() == null && current.getCurrentFile() == null
+                && !current.hasUnsavedChanges() && document != null && document.getLength() == 0;
+        if (!emptyTab) {
+            tabManager.createNewTab(file.getName(), null);
+        }
+        loadFile(file, false);
+    }
+
     // Save current document (with existing file or show Save As dialog)
 
     public boolean saveDocument() {
+        if (rejectInViewer("Save")) {
+            return false;
+        }
         DocumentManager currentDocManager = getCurrentDocumentManager();
         File currentFile = currentDocManager.getCurrentFile();
         if (currentFile != null) {
@@ -105,13 +341,18 @@ public class FileController {
     // Show Save As dialog and save to selected location
 
     public boolean saveDocumentAs() {
-        int result = fileChooser.showSaveDialog(parentComponent);
+        if (rejectInViewer("Save As")) {
+            return false;
+        }
+        JFileChooser chooser = getFileChooser();
+        int result = chooser.showSaveDialog(parentComponent);
         if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
+            File selectedFile = chooser.getSelectedFile();
 
-            // Add .txt extension if no extension provided
+            // Add the chosen filter's extension (.txt by default) if none was typed
             if (!selectedFile.getName().contains(".")) {
-                selectedFile = new File(selectedFile.getAbsolutePath() + ".txt");
+                selectedFile = new File(selectedFile.getAbsolutePath() + "."
+                        + defaultExtension(chooser));
             }
 
             DocumentManager currentDocManager = getCurrentDocumentManager();
@@ -120,38 +361,260 @@ public class FileController {
         return false;
     }
 
-    // Load content from file (like fetching data from API)
+    private static String defaultExtension(JFileChooser chooser) {
+        javax.swing.filechooser.FileFilter filter = chooser.getFileFilter();
+        if (filter instanceof FileNameExtensionFilter) {
+            String extension = ((FileNameExtensionFilter) filter).getExtensions()[0];
+            if (!extension.equals("*")) {
+                return extension;
+            }
+        }
+        return "txt";
+    }
 
-    private void loadFile(File file) {
-        try {
-            String content = Files.readString(file.toPath());
-            DocumentManager currentDocManager = getCurrentDocumentManager();
-            currentDocManager.setContent(content);
-            currentDocManager.setCurrentFile(file);
-            updateWindowTitle(file.getName());
+    // Load content from file (like fetching data from API). Detecting the encoding and decoding
+    // happen on a background thread; only the finished text is handed to the EDT. announce shows
+    // a message once the file is in
 
-            // Update tab title if in multi-tab mode
-            if (tabManager != null) {
-                tabManager.updateTabTitle(file.getName());
+    private void loadFile(File file, boolean announce) {
+        DocumentManager currentDocManager = getCurrentDocumentManager();
+        if (rejectWhileBusy("Open", currentDocManager)) {
+            return;
+        }
+        int tabId = currentTabId(); // the user may switch tabs while the file is read
+        EditorEvents.FileLoad event = new EditorEvents.FileLoad();
+        event.tabId = tabId;
+        event.begin();
+
+        new SwingWorker<LoadedFile, Void>() {
+            @Override
+            protected LoadedFile doInBackground() throws IOException {
+                return LoadedFile.read(file);
             }
 
-            showSuccessMessage("File loaded successfully: " + file.getName());
+            @Override
+            protected void done() {
+                try {
+                    LoadedFile loaded = get();
+                    applyLoaded(loaded, currentDocManager);
+                    commitLoadEvent(event, file, loaded);
+                    if (tabManager == null || currentTabId() == tabId) {
+                        updateWindowTitle(file.getName());
+                    }
 
-        } catch (IOException e) {
-            showErrorMessage("Error loading file: " + e.getMessage());
+                    // Update tab title if in multi-tab mode
+                    if (tabManager != null) {
+                        tabManager.updateTabTitle(tabId, file.getName());
+                    }
+
+                    if (recentFiles != null) {
+                        recentFiles.add(file);
+                    }
+                    if (announce) {
+                        showSuccessMessage("File loaded successfully: " + file.getName() + " ("
+                                + loaded.describe() + ")");
+                    }
+                } catch (ExecutionException e) {
+                    commitLoadEvent(event, file, null);
+                    showErrorMessage("Error loading file: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    // Read a file into a tab in the background without any success popup (used for restoring
+    // tabs). once the file is read, tab is asked on the EDT for the document to fill (null when
+    // the tab was closed meanwhile) and loaded runs after the text is in, or the read failed
+
+    public void readFileInto(File file, int tabId, Supplier<DocumentManager> tab,
+            Runnable loaded) {
+        EditorEvents.FileLoad event = new EditorEvents.FileLoad();
+        event.tabId = tabId;
+        event.begin();
+
+        new SwingWorker<LoadedFile, Void>() {
+            @Override
+            protected LoadedFile doInBackground() throws IOException {
+                return LoadedFile.read(file);
+            }
+
+            @Override
+            protected void done() {
+                DocumentManager docManager = tab.get();
+                if (docManager == null) {
+                    return;
+                }
+                try {
+                    LoadedFile content = get();
+                    applyLoaded(content, docManager);
+                    commitLoadEvent(event, file, content);
+                } catch (ExecutionException e) {
+                    commitLoadEvent(event, file, null);
+                    showErrorMessage("Error loading file: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                loaded.run();
+            }
+        }.execute();
+    }
+
+    // Put a loaded file into a tab and watch it for outside changes from now on
+
+    private void applyLoaded(LoadedFile loaded, DocumentManager docManager) {
+        File previous = docManager.getCurrentFile();
+        loaded.applyTo(docManager);
+        watchFile(previous, docManager.getCurrentFile());
+    }
+
+    // Move the watch from the file a tab showed to the one it shows now; the same file again
+    // (reloaded or saved) just gets a fresh fingerprint
+
+    private void watchFile(File previous, File current) {
+        if (fileWatcher == null) {
+            return;
+        }
+        if (previous != null && !previous.equals(current)) {
+            fileWatcher.unwatch(previous.toPath());
+        }
+        if (current != null) {
+            if (current.equals(previous)) {
+                fileWatcher.refresh(current.toPath());
+            } else {
+                fileWatcher.watch(current.toPath());
+            }
+        }
+    }
+
+    // loaded is null when loading failed
+    private void commitLoadEvent(EditorEvents.FileLoad event, File file, LoadedFile loaded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = file.getAbsolutePath();
+            event.bytes = file.length();
+            event.succeeded = loaded != null;
+            if (loaded != null) {
+                event.characters = loaded.getLength();
+                event.charset = loaded.getCharsetName();
+            }
+            event.commit();
+        }
+    }
+
+    // A file read off the EDT, either plain text in its own encoding or a rich text document
+
+    private static final class LoadedFile {
+        private final File file;
+        private final TextFileCodec.DecodedText decoded; // null for rich text
+        private final RichTextCodec.RichText richText; // null for plain text
+
+        private LoadedFile(File file, TextFileCodec.DecodedText decoded,
+                RichTextCodec.RichText richText) {
+            this.file = file;
+            this.decoded = decoded;
+            this.richText = richText;
+        }
+
+        static LoadedFile read(File file) throws IOException {
+            if (RichTextCodec.isRichText(file.toPath())) {
+                return new LoadedFile(file, null, RichTextCodec.read(file.toPath()));
+            }
+            return new LoadedFile(file, TextFileCodec.read(file.toPath()), null);
+        }
+
+        // Put the content into a document and remember how the file was encoded
+        void applyTo(DocumentManager docManager) {
+            if (richText != null) {
+                docManager.setStyledText(richText.getText(), richText.getRunLengths(),
+                        richText.getRunAttributes());
+                docManager.setCharset(StandardCharsets.UTF_8);
+                docManager.setByteOrderMark(false);
+                docManager.setLineEnding(LineEnding.LF);
+                docManager.setSavedSnapshot(null); // a line merge would lose the formatting
+            } else {
+                docManager.setContent(decoded.getText());
+                docManager.setCharset(decoded.getCharset());
+                docManager.setByteOrderMark(decoded.hasByteOrderMark());
+                docManager.setLineEnding(decoded.getLineEnding());
+                docManager.setSavedSnapshot(decoded.getText());
+            }
+            docManager.setCurrentFile(file);
+        }
+
+        // the text as it would appear in a tab
+        String getText() {
+            return richText != null ? new String(richText.getText()) : decoded.getText();
+        }
+
+        int getLength() {
+            return richText != null ? richText.getText().length : decoded.getText().length();
+        }
+
+        String getCharsetName() {
+            return richText != null ? StandardCharsets.UTF_8.name() : decoded.getCharset().name();
+        }
+
+        // for the "loaded" message
+        String describe() {
+            if (richText != null) {
+                return "rich text";
+            }
+            return decoded.getCharset().displayName() + ", "
+                    + decoded.getLineEnding().getDisplayName();
         }
     }
 
     // Save content to file (like posting data to API)
 
     private boolean saveToFile(File file, DocumentManager docManager) {
+        Document document = docManager.getDocument();
+        if (document == null) {
+            document = new PlainDocument();
+        }
+        boolean richText = RichTextCodec.isRichText(file.toPath());
+        if (!richText && !file.equals(docManager.getPlainSaveAccepted())
+                && hasFormatting(document)) {
+            file = confirmPlainSave(file, docManager);
+            if (file == null) {
+                return false;
+            }
+            richText = RichTextCodec.isRichText(file.toPath());
+        }
+        File previous = docManager.getCurrentFile();
+        if (fileWatcher != null && file.equals(previous) && fileWatcher.isChanged(file.toPath())
+                && !confirmOverwrite(file, docManager)) {
+            return false;
+        }
+
+        // our own write must not look like another program's change, however long it takes
+        if (fileWatcher != null) {
+            fileWatcher.beginSave(file.toPath());
+        }
+        EditorEvents.FileSave event = new EditorEvents.FileSave();
+        event.begin();
         try {
-            String content = docManager.getContent();
-            Files.writeString(file.toPath(), content, StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                if (richText) {
+                    RichTextCodec.write(file.toPath(), document);
+                } else {
+                    // stream the document out in the charset and line endings it was loaded with
+                    TextFileCodec.write(file.toPath(), document, docManager.getCharset(),
+                            docManager.hasByteOrderMark(), docManager.getLineEnding());
+                }
+                event.succeeded = true;
+            } finally {
+                commitSaveEvent(event, file, docManager);
+            }
 
             docManager.setCurrentFile(file);
             docManager.markAsSaved();
+            docManager.setSavedSnapshot(!richText
+                    && document.getLength() <= DocumentManager.SNAPSHOT_LIMIT
+                            ? snapshotText(docManager) : null);
+            watchFile(previous, file);
             updateWindowTitle(file.getName());
 
             // Update tab title if in multi-tab mode
@@ -159,12 +622,502 @@ public class FileController {
                 tabManager.updateTabTitle(file.getName());
             }
 
+            if (recentFiles != null) {
+                recentFiles.add(file);
+            }
             showSuccessMessage("File saved successfully: " + file.getName());
             return true;
 
+        } catch (CharacterCodingException e) {
+            // e.g. a euro sign typed into a Latin-1 file
+            int choice = JOptionPane.showConfirmDialog(parentComponent,
+                    "The document contains characters that cannot be saved as "
+                            + docManager.getCharset().displayName()
+                            + " and the file was left as it was.\nSave as UTF-8 instead?",
+                    "Encoding", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (choice == JOptionPane.YES_OPTION) {
+                docManager.setCharset(StandardCharsets.UTF_8);
+                return saveToFile(file, docManager);
+            }
+            return false;
         } catch (IOException e) {
             showErrorMessage("Error saving file: " + e.getMessage());
             return false;
+        } finally {
+            if (fileWatcher != null) {
+                fileWatcher.endSave(file.toPath());
+            }
+        }
+    }
+
+    // Another program changed the file since it was loaded: overwrite it anyway, or merge the two
+    // versions first. returns true to go on with the save
+
+    private boolean confirmOverwrite(File file, DocumentManager docManager) {
+        boolean canMerge = docManager.getSavedSnapshot() != null;
+        Object[] options = canMerge ? new Object[] {"Overwrite", "Merge", "Cancel"}
+                : new Object[] {"Overwrite", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(parentComponent, file.getName()
+                + " has been changed by another program since it was opened.\n"
+                + "Saving now would replace those changes.", "File Changed on Disk",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, options,
+                options[options.length - 1]);
+        if (choice == 0) {
+            return true;
+        }
+        if (canMerge && choice == 1) {
+            mergeWithDisk(docManager);
+        }
+        return false;
+    }
+
+    // Whether any text carries character formatting that a plain text file would drop. stops at
+    // the first formatted run
+
+    private static boolean hasFormatting(Document document) {
+        Element root = document.getDefaultRootElement();
+        for (int i = 0; i < root.getElementCount(); i++) {
+            Element paragraph = root.getElement(i);
+            for (int j = 0; j < paragraph.getElementCount(); j++) {
+                Element run = paragraph.getElement(j);
+                if (run.getAttributes().getAttributeCount() > 0
+                        && run.getStartOffset() < document.getLength()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Ask before formatting is lost in a plain text file. returns the file to write, which is a
+    // rich text sibling when the user keeps the formatting, or null to cancel
+
+    private File confirmPlainSave(File file, DocumentManager docManager) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String richName = (dot > 0 ? name.substring(0, dot) : name) + "."
+                + RichTextCodec.EXTENSION;
+        Object[] options = {"Save as " + richName, "Save as Plain Text", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(parentComponent,
+                "This document has formatting that " + name + " cannot keep.",
+                "Formatting", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE, null,
+                options, options[0]);
+        switch (choice) {
+            case JOptionPane.YES_OPTION:
+                File richFile = new File(file.getParentFile(), richName);
+                if (!richFile.equals(docManager.getCurrentFile()) && !confirmReplace(richFile)) {
+                    return null;
+                }
+                return richFile;
+            case JOptionPane.NO_OPTION:
+                docManager.setPlainSaveAccepted(file); // don't ask again for this file
+                return file;
+            default:
+                return null;
+        }
+    }
+
+    // Ask before writing over an existing file (JFileChooser doesn't ask by itself)
+
+    private boolean confirmReplace(File file) {
+        if (!file.exists()) {
+            return true;
+        }
+        int choice = JOptionPane.showConfirmDialog(parentComponent,
+                file.getName() + " already exists. Do you want to replace it?", "Replace File",
+                JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        return choice == JOptionPane.YES_OPTION;
+    }
+
+    // Export the current document to another format (like a "download as" menu)
+
+    public void exportDocument() {
+        if (rejectInViewer("Export")) {
+            return;
+        }
+        DocumentManager currentDocManager = getCurrentDocumentManager();
+        Document document = currentDocManager.getDocument();
+        if (document == null || rejectWhileBusy("Export", currentDocManager)) {
+            return;
+        }
+        Font font = currentDocManager.getTextComponent().getFont();
+        List<StyledTextExporter> exporters = List.of(new HtmlExporter(font),
+                new MarkdownExporter(), new RtfExporter(font));
+
+        JFileChooser chooser = getExportChooser();
+        chooser.resetChoosableFileFilters();
+        chooser.setAcceptAllFileFilterUsed(false);
+        for (StyledTextExporter exporter : exporters) {
+            chooser.addChoosableFileFilter(new FileNameExtensionFilter(
+                    exporter.getDescription(), exporter.getExtension()));
+        }
+        File current = currentDocManager.getCurrentFile();
+        if (current != null) {
+            String name = current.getName();
+            int dot = name.lastIndexOf('.');
+            chooser.setSelectedFile(new File(dot > 0 ? name.substring(0, dot) : name));
+        }
+        if (chooser.showDialog(parentComponent, "Export") != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        StyledTextExporter exporter = exporters.get(0);
+        for (StyledTextExporter candidate : exporters) {
+            if (candidate.getDescription().equals(chooser.getFileFilter().getDescription())) {
+                exporter = candidate;
+            }
+        }
+        File selected = chooser.getSelectedFile();
+        File file = selected.getName().contains(".") ? selected
+                : new File(selected.getAbsolutePath() + "." + exporter.getExtension());
+        if (!confirmReplace(file)) {
+            return;
+        }
+        exportInBackground(exporter, currentDocManager, file);
+    }
+
+    // the export walks the document on a background thread under its read lock, so the window
+    // keeps painting; the tab is read-only meanwhile, so typing neither waits for the lock nor
+    // changes the text halfway through. commands that edit the text (undo, Replace All, line
+    // endings, formatting) check the tab's background task and refuse until the export is done
+
+    private void exportInBackground(StyledTextExporter exporter, DocumentManager docManager,
+            File file) {
+        Document document = docManager.getDocument();
+        JTextComponent textComponent = docManager.getTextComponent();
+        boolean editable = textComponent != null && textComponent.isEditable();
+        if (textComponent != null) {
+            textComponent.setEditable(false);
+        }
+        docManager.setBackgroundTask("export");
+        if (parentComponent != null) {
+            parentComponent.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+
+        EditorEvents.FileExport event = new EditorEvents.FileExport();
+        event.tabId = currentTabId();
+        event.format = exporter.getExtension();
+        event.path = file.getAbsolutePath();
+        event.characters = document.getLength();
+        event.begin();
+        long start = System.nanoTime();
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                IOException[] failure = new IOException[1];
+                document.render(() -> {
+                    try {
+                        exporter.export(document, file.toPath());
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                if (textComponent != null) {
+                    textComponent.setEditable(editable);
+                }
+                docManager.setBackgroundTask(null);
+                if (parentComponent != null) {
+                    parentComponent.setCursor(Cursor.getDefaultCursor());
+                }
+                File shown = docManager.getCurrentFile();
+                if (fileWatcher != null && shown != null && fileWatcher.isChanged(shown.toPath())) {
+                    // changed by another program during the export, when the tab couldn't reload
+                    handleExternalChange(shown.toPath(), !shown.exists());
+                }
+                try {
+                    get();
+                    event.succeeded = true;
+                } catch (ExecutionException e) {
+                    showErrorMessage("Error exporting file: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.bytes = file.length();
+                        event.commit();
+                    }
+                }
+                if (event.succeeded) {
+                    showSuccessMessage("Exported " + file.getName() + "\n"
+                            + formatThroughput(file.length(), System.nanoTime() - start));
+                }
+            }
+        }.execute();
+    }
+
+    // Compare the current tab with its file on disk (like `git diff` against the last commit).
+    // reading the file and diffing run on a background thread, only the snapshot of the tab's
+    // text is taken on the EDT
+
+    public void compareWithSavedFile() {
+        if (rejectInViewer("Compare")) {
+            return;
+        }
+        DocumentManager currentDocManager = getCurrentDocumentManager();
+        File file = currentDocManager.getCurrentFile();
+        if (file == null) {
+            showErrorMessage("This document has not been saved yet.");
+            return;
+        }
+        String text = snapshotText(currentDocManager);
+        if (text == null) {
+            return;
+        }
+        compareInBackground(file.getName() + " (saved)", file.getName() + " (current)",
+                () -> LoadedFile.read(file).getText(), text);
+    }
+
+    // Compare the current tab with another open tab picked from a list
+
+    public void compareWithTab() {
+        if (tabManager == null || rejectInViewer("Compare")) {
+            return;
+        }
+        Map<String, DocumentManager> others = tabManager.getOtherLoadedDocuments();
+        if (others.isEmpty()) {
+            showErrorMessage("Open another document to compare with.");
+            return;
+        }
+        Object choice = JOptionPane.showInputDialog(parentComponent, "Compare with:",
+                "Compare with Tab", JOptionPane.PLAIN_MESSAGE, null,
+                others.keySet().toArray(), null);
+        if (choice == null) {
+            return;
+        }
+        DocumentManager currentDocManager = getCurrentDocumentManager();
+        String current = snapshotText(currentDocManager);
+        String other = snapshotText(others.get(choice));
+        if (current == null || other == null) {
+            return;
+        }
+        File currentFile = currentDocManager.getCurrentFile();
+        compareInBackground(currentFile != null ? currentFile.getName() : "Current document",
+                choice.toString(), () -> current, other);
+    }
+
+    // Called on the EDT by the file watcher when another program changed or deleted a file that
+    // is open. every tab showing it is asked whether to reload; tabs with unsaved changes can
+    // merge both versions instead of losing one
+
+    public void handleExternalChange(Path path, boolean deleted) {
+        if (tabManager == null || !promptedFiles.add(path)) {
+            return; // a prompt for this file is already open, its answer covers this change too
+        }
+        // the report was queued before the editor itself saved or reloaded the file
+        if (deleted ? path.toFile().exists() : !fileWatcher.isChanged(path)) {
+            promptedFiles.remove(path);
+            return;
+        }
+        try {
+            for (DocumentManager docManager : tabManager.findDocuments(path.toFile())) {
+                if (docManager.getBackgroundTask() == null) {
+                    promptExternalChange(docManager, path, deleted); // else asked once it's done
+                }
+            }
+        } finally {
+            promptedFiles.remove(path);
+        }
+    }
+
+    private void promptExternalChange(DocumentManager docManager, Path path, boolean deleted) {
+        String name = path.getFileName().toString();
+        if (deleted) {
+            docManager.setUnsavedChanges(true); // saving writes it back
+            JOptionPane.showMessageDialog(parentComponent, name
+                    + " was deleted or moved by another program.\n"
+                    + "The tab keeps its text; save it to write the file again.",
+                    "File Deleted", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (!docManager.hasUnsavedChanges()) {
+            int choice = JOptionPane.showConfirmDialog(parentComponent, name
+                    + " has been changed by another program.\nReload it?", "File Changed",
+                    JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+            if (choice == JOptionPane.YES_OPTION) {
+                reloadFromDisk(docManager);
+            }
+            return;
+        }
+        boolean canMerge = docManager.getSavedSnapshot() != null;
+        Object[] options = canMerge
+                ? new Object[] {"Merge", "Reload (Discard My Changes)", "Keep My Version"}
+                : new Object[] {"Reload (Discard My Changes)", "Keep My Version"};
+        int choice = JOptionPane.showOptionDialog(parentComponent, name
+                + " has been changed by another program, and this tab has unsaved changes."
+                + (canMerge ? "\nMerge keeps both; lines changed on both sides are marked as"
+                        + " conflicts." : ""),
+                "File Changed", JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null,
+                options, options[0]);
+        if (canMerge && choice == 0) {
+            mergeWithDisk(docManager);
+        } else if (choice == (canMerge ? 1 : 0)) {
+            reloadFromDisk(docManager);
+        }
+    }
+
+    // Read the file again in the background and replace the tab's text with it
+
+    private void reloadFromDisk(DocumentManager docManager) {
+        File file = docManager.getCurrentFile();
+        new SwingWorker<LoadedFile, Void>() {
+            @Override
+            protected LoadedFile doInBackground() throws IOException {
+                return LoadedFile.read(file);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    LoadedFile loaded = get();
+                    int caret = docManager.getTextComponent().getCaretPosition();
+                    applyLoaded(loaded, docManager);
+                    docManager.getTextComponent().setCaretPosition(
+                            Math.min(caret, docManager.getDocument().getLength()));
+                } catch (ExecutionException e) {
+                    showErrorMessage("Error reloading file: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    // Three-way merge of the tab's text and the file on disk against the text last loaded or
+    // saved, computed in the background. the result stays unsaved, and the disk version becomes
+    // the new base, so saving it does not warn again. the tab is read-only until the merge is in,
+    // so nothing typed meanwhile is left out of it
+
+    private void mergeWithDisk(DocumentManager docManager) {
+        File file = docManager.getCurrentFile();
+        String base = docManager.getSavedSnapshot();
+        String mine = snapshotText(docManager);
+        if (base == null || mine == null) {
+            return;
+        }
+        JTextComponent textComponent = docManager.getTextComponent();
+        boolean editable = textComponent.isEditable();
+        textComponent.setEditable(false);
+        String[] disk = new String[1];
+        new SwingWorker<ThreeWayMerge, Void>() {
+            @Override
+            protected ThreeWayMerge doInBackground() throws IOException {
+                disk[0] = LoadedFile.read(file).getText();
+                return ThreeWayMerge.merge(base, mine, disk[0], "my changes", "on disk");
+            }
+
+            @Override
+            protected void done() {
+                textComponent.setEditable(editable);
+                try {
+                    ThreeWayMerge merge = get();
+                    int caret = docManager.getTextComponent().getCaretPosition();
+                    docManager.setContent(merge.getText());
+                    docManager.getTextComponent().setCaretPosition(
+                            Math.min(caret, docManager.getDocument().getLength()));
+                    docManager.setSavedSnapshot(disk[0]);
+                    docManager.setUnsavedChanges(true);
+                    if (fileWatcher != null) {
+                        fileWatcher.refresh(file.toPath());
+                    }
+                    if (merge.getConflicts() > 0) {
+                        JOptionPane.showMessageDialog(parentComponent, "Merged " + file.getName()
+                                + " with " + merge.getConflicts() + " conflict(s).\n"
+                                + "Both versions are kept between <<<<<<< and >>>>>>> lines.",
+                                "Merge", JOptionPane.WARNING_MESSAGE);
+                    } else {
+                        showSuccessMessage("Merged " + file.getName() + " without conflicts.");
+                    }
+                } catch (ExecutionException e) {
+                    showErrorMessage("Error merging file: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    // the whole text of a tab's document, null if there is none
+    private static String snapshotText(DocumentManager docManager) {
+        Document document = docManager.getDocument();
+        if (document == null) {
+            return null;
+        }
+        try {
+            return document.getText(0, document.getLength());
+        } catch (javax.swing.text.BadLocationException e) {
+            return null;
+        }
+    }
+
+    private void compareInBackground(String leftName, String rightName,
+            Callable<String> leftText, String rightText) {
+        if (parentComponent != null) {
+            parentComponent.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+        new SwingWorker<LineDiff, Void>() {
+            @Override
+            protected LineDiff doInBackground() throws Exception {
+                return LineDiff.compare(leftText.call(), rightText);
+            }
+
+            @Override
+            protected void done() {
+                if (parentComponent != null) {
+                    parentComponent.setCursor(Cursor.getDefaultCursor());
+                }
+                try {
+                    LineDiff diff = get();
+                    Window owner = parentComponent instanceof Window ? (Window) parentComponent
+                            : SwingUtilities.getWindowAncestor(parentComponent);
+                    new CompareDialog(owner, leftName, rightName, diff).setVisible(true);
+                } catch (ExecutionException e) {
+                    showErrorMessage("Error comparing: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    // e.g. "52.4 MB in 380 ms (137.9 MB/s)"
+    private static String formatThroughput(long bytes, long nanos) {
+        double megabytes = bytes / (1024.0 * 1024.0);
+        double millis = Math.max(nanos / 1_000_000.0, 0.001);
+        return String.format("%.1f MB in %.0f ms (%.1f MB/s)", megabytes, millis,
+                megabytes / (millis / 1000.0));
+    }
+
+    // The export dialog keeps its own folder and filters apart from open/save
+
+    private JFileChooser getExportChooser() {
+        if (exportChooser == null) {
+            exportChooser = new JFileChooser();
+            File directory = getFileChooser().getCurrentDirectory();
+            exportChooser.setCurrentDirectory(directory);
+        }
+        return exportChooser;
+    }
+
+    private void commitSaveEvent(EditorEvents.FileSave event, File file,
+            DocumentManager docManager) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.tabId = currentTabId();
+            event.path = file.getAbsolutePath();
+            event.bytes = file.length();
+            Document document = docManager.getDocument();
+            event.characters = document != null ? document.getLength() : 0;
+            event.charset = docManager.getCharset().name();
+            event.commit();
         }
     }
 
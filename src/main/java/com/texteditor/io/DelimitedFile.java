@@ -0,0 +1,541 @@
+package com.texteditor.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+// a delimited text file (CSV, TSV, ...) read lazily for the table view. the file is memory-mapped
+// and one background pass records where every row starts, quote-aware so a line break inside a
+// quoted field doesn't split its row; a row is only split into fields when it is asked for. the
+// row index grows while the pass runs, so the first rows can be shown right away. sorting works
+// on primitive arrays instead of a String per row: per row the order, the sort field's offset
+// and length (ints), its first 16 bytes as two longs and, while every value is a number, that
+// number as a double, so millions of rows sort without millions of objects. ASCII-compatible
+// charsets only (UTF-8, Latin-1, windows-1252); UTF-16 files are refused
+public final class DelimitedFile implements Closeable {
+
+    // a JTable can't scroll much further with 20 pixel rows in int coordinates
+    public static final int MAX_ROWS = 100_000_000;
+    private static final int MAX_ROW_BYTES = 1024 * 1024; // longer rows are cut off for display
+    private static final int MAX_COMPARE_BYTES = 4096; // text keys compare this far at most
+    private static final int SAMPLE = 64 * 1024; // bytes looked at for charset and delimiter
+    private static final int CHUNK = 64 * 1024;
+    private static final long PROGRESS_STEP = 16L * 1024 * 1024;
+    private static final char[] DELIMITERS = {',', '\t', ';', '|'};
+
+    // field states of the row scanner
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3; // a quote inside quotes: "" or the closing one
+
+    private final MappedFile file;
+    private final Charset charset;
+    private final int dataStart; // after a UTF-8 byte order mark
+    private final char delimiter;
+    // row i is the bytes [rowStarts[i], rowStarts[i + 1]); written by the indexing thread only,
+    // which replaces the array when it grows and publishes rowCount after each chunk
+    private volatile long[] rowStarts = new long[4096];
+    private volatile int rowCount;
+    private volatile boolean indexed;
+
+    private DelimitedFile(MappedFile file, Charset charset, int dataStart, char delimiter) {
+        this.file = file;
+        this.charset = charset;
+        this.dataStart = dataStart;
+        this.delimiter = delimiter;
+        rowStarts[0] = dataStart;
+    }
+
+    // map a file and guess its charset and delimiter from the first 64 KB
+    public static DelimitedFile open(Path path) throws IOException {
+        MappedFile file = MappedFile.open(path);
+        try {
+            byte[] sample = new byte[(int) Math.min(file.size(), SAMPLE)];
+            file.read(0, sample, 0, sample.length);
+            EncodingDetector.DetectedEncoding encoding = EncodingDetector.detect(
+                    ByteBuffer.wrap(sample), sample.length == file.size());
+            String name = encoding.getCharset().name();
+            if (name.startsWith("UTF-16") || name.startsWith("UTF-32")) {
+                throw new IOException("UTF-16 and UTF-32 files can't be shown as a table");
+            }
+            int start = encoding.getBomLength();
+            return new DelimitedFile(file, encoding.getCharset(), start,
+                    detectDelimiter(sample, start));
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // the candidate found the same number of times on each of the first lines wins, otherwise
+    // the most frequent one; a comma when there is none at all
+    static char detectDelimiter(byte[] sample, int start) {
+        char best = ',';
+        long bestScore = 0;
+        for (char candidate : DELIMITERS) {
+            List<Integer> counts = new ArrayList<>();
+            int count = 0;
+            boolean quoted = false;
+            for (int i = start; i < sample.length && counts.size() < 20; i++) {
+                byte b = sample[i];
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && b == '\n') {
+                    counts.add(count);
+                    count = 0;
+                } else if (!quoted && b == candidate) {
+                    count++;
+                }
+            }
+            if (counts.isEmpty()) {
+                counts.add(count); // a single line without a line break
+            }
+            int total = counts.stream().mapToInt(Integer::intValue).sum();
+            boolean consistent = counts.stream().allMatch(c -> c.equals(counts.get(0)));
+            long score = consistent && counts.get(0) > 0 ? 1_000_000L + counts.get(0) : total;
+            if (score > bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public long size() {
+        return file.size();
+    }
+
+    // rows found so far, the header row included
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    // true once buildIndex has gone through the whole file
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    // offset where a row starts
+    public long getRowStart(int row) {
+        return rowStarts[row];
+    }
+
+    // the row containing a byte offset, -1 past the rows indexed so far
+    public int rowAt(long offset) {
+        int count = rowCount;
+        long[] starts = rowStarts;
+        if (count == 0 || offset < starts[0] || offset >= starts[count]) {
+            return -1;
+        }
+        int found = Arrays.binarySearch(starts, 0, count + 1, offset);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    // first offset from where the text's bytes are, -1 if nowhere; see MappedFile.indexOf
+    public long indexOf(byte[] pattern, long from, LongConsumer progress)
+            throws InterruptedException {
+        return file.indexOf(pattern, from, file.size(), progress);
+    }
+
+    // the background pass: find every row boundary, publishing rows a chunk at a time. call once,
+    // off the EDT; percent gets how far it got every 16 MB. stops when the thread is interrupted
+    public void buildIndex(IntConsumer percent) throws InterruptedException {
+        long size = file.size();
+        byte[] chunk = new byte[CHUNK];
+        byte separator = (byte) delimiter;
+        long[] starts = rowStarts;
+        int count = 0;
+        int state = FIELD_START;
+        long nextReport = PROGRESS_STEP;
+
+        long position = dataStart;
+        while (position < size && count < MAX_ROWS) {
+            int length = file.read(position, chunk, 0, CHUNK);
+            for (int i = 0; i < length; i++) {
+                byte b = chunk[i];
+                if (state == QUOTED) {
+                    if (b == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    }
+                } else if (b == '\n') {
+                    state = FIELD_START;
+                    count++;
+                    if (count + 1 >= starts.length) {
+                        starts = Arrays.copyOf(starts, starts.length + (starts.length >> 1));
+                        rowStarts = starts;
+                    }
+                    starts[count] = position + i + 1;
+                    if (count == MAX_ROWS) {
+                        break;
+                    }
+                } else if (b == separator) {
+                    state = FIELD_START;
+                } else if (b == '"') {
+                    // opens a quoted field, or is the second half of "" inside one
+                    state = state == UNQUOTED ? UNQUOTED : QUOTED;
+                } else {
+                    state = UNQUOTED;
+                }
+            }
+            position += length;
+            rowCount = count;
+            if (position >= nextReport) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (percent != null) {
+                    percent.accept((int) (position * 100 / size));
+                }
+                nextReport += PROGRESS_STEP;
+            }
+        }
+
+        // the last row may not end with a line break
+        if (count < MAX_ROWS && starts[count] < size) {
+            if (count + 1 >= starts.length) {
+                starts = Arrays.copyOf(starts, starts.length + 1);
+                rowStarts = starts;
+            }
+            count++;
+            starts[count] = size;
+        }
+        rowCount = count;
+        indexed = true;
+    }
+
+    // the fields of a row, quotes removed
+    public String[] getRow(int row) {
+        long[] starts = rowStarts;
+        long start = starts[row];
+        int length = (int) Math.min(starts[row + 1] - start, MAX_ROW_BYTES);
+        byte[] bytes = new byte[length];
+        file.read(start, bytes, 0, length);
+        while (length > 0 && (bytes[length - 1] == '\n' || bytes[length - 1] == '\r')) {
+            length--;
+        }
+        return split(new String(bytes, 0, length, charset), delimiter);
+    }
+
+    // one line (or a row with quoted line breaks) into fields, RFC 4180 style
+    static String[] split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int state = FIELD_START;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (state == QUOTED) {
+                if (c == '"') {
+                    state = QUOTE_IN_QUOTED;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                state = FIELD_START;
+            } else if (c == '"' && state != UNQUOTED) {
+                if (state == QUOTE_IN_QUOTED) {
+                    field.append('"'); // "" inside quotes
+                }
+                state = QUOTED;
+            } else {
+                field.append(c);
+                state = UNQUOTED;
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    // the rows from firstRow on, ordered by one column (stable, so equal values keep file order).
+    // when every non-empty field of the column is a number they sort as numbers, otherwise as
+    // text ignoring ASCII case, with empty fields last either way. each row gets primitive keys:
+    // the number, or the first 16 bytes of the text packed into two longs so most comparisons
+    // are a long compare or two; only fields alike that far compare their bytes in the mapped
+    // file. percent reports how far it got; stops when the thread is interrupted
+    public int[] sortRows(int column, boolean ascending, int firstRow, IntConsumer percent)
+            throws InterruptedException {
+        int count = rowCount - firstRow;
+        long[] starts = rowStarts;
+        int[] fieldOffsets = new int[count]; // from the row start
+        int[] fieldLengths = new int[count];
+        long[] prefixes = new long[2 * count]; // bytes 0-7 and 8-15 of each field
+        double[] numbers = new double[count]; // dropped at the first field that isn't one
+        boolean anyValue = false;
+
+        byte[] row = new byte[256];
+        int[] span = new int[2];
+        for (int i = 0; i < count; i++) {
+            long start = starts[firstRow + i];
+            int length = (int) Math.min(starts[firstRow + i + 1] - start, MAX_ROW_BYTES);
+            if (length > row.length) {
+                row = new byte[Math.max(length, row.length * 2)];
+            }
+            file.read(start, row, 0, length);
+            if (locateField(row, length, column, span)) {
+                fieldOffsets[i] = span[0];
+                fieldLengths[i] = span[1] - span[0];
+                prefixes[2 * i] = prefix(row, span[0], span[1]);
+                prefixes[2 * i + 1] = prefix(row, span[0] + 8, span[1]);
+                if (fieldLengths[i] > 0) {
+                    anyValue = true;
+                    if (numbers != null) {
+                        numbers[i] = parseNumber(row, span[0], span[1]);
+                        if (Double.isNaN(numbers[i])) {
+                            numbers = null; // text after all
+                        }
+                    }
+                }
+            }
+            if ((i & 0xFFFF) == 0xFFFF) {
+                checkInterrupted();
+                if (percent != null) {
+                    percent.accept((int) (i * 50L / count));
+                }
+            }
+        }
+
+        int sign = ascending ? 1 : -1;
+        RowComparator comparator;
+        if (numbers != null && anyValue) {
+            double[] values = numbers;
+            comparator = (a, b) -> {
+                boolean emptyA = fieldLengths[a] == 0;
+                boolean emptyB = fieldLengths[b] == 0;
+                if (emptyA || emptyB) {
+                    return emptyA == emptyB ? 0 : emptyA ? 1 : -1;
+                }
+                return sign * Double.compare(values[a], values[b]);
+            };
+        } else {
+            byte[] left = new byte[MAX_COMPARE_BYTES];
+            byte[] right = new byte[MAX_COMPARE_BYTES];
+            comparator = (a, b) -> {
+                int lengthA = fieldLengths[a];
+                int lengthB = fieldLengths[b];
+                if (lengthA == 0 || lengthB == 0) {
+                    return lengthA == lengthB ? 0 : lengthA == 0 ? 1 : -1;
+                }
+                int result = Long.compareUnsigned(prefixes[2 * a], prefixes[2 * b]);
+                if (result == 0) {
+                    result = Long.compareUnsigned(prefixes[2 * a + 1], prefixes[2 * b + 1]);
+                }
+                if (result == 0) {
+                    // the same first 16 bytes: the rest decides, read back from the mapping
+                    result = lengthA > 16 && lengthB > 16
+                            ? compareFields(starts[firstRow + a] + fieldOffsets[a] + 16,
+                                    lengthA - 16, starts[firstRow + b] + fieldOffsets[b] + 16,
+                                    lengthB - 16, left, right)
+                            : Integer.compare(lengthA, lengthB);
+                }
+                return sign * result;
+            };
+        }
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        mergeSort(order, comparator, done -> {
+            if (percent != null) {
+                percent.accept(50 + done / 2);
+            }
+        });
+        for (int i = 0; i < count; i++) {
+            order[i] += firstRow;
+        }
+        return order;
+    }
+
+    // where a field's text is in a row: span gets [start, end) without the surrounding quotes.
+    // false when the row has fewer fields
+    private boolean locateField(byte[] row, int length, int column, int[] span) {
+        byte separator = (byte) delimiter;
+        int field = 0;
+        int i = 0;
+        while (field < column) {
+            boolean quoted = false;
+            while (i < length && (quoted || (row[i] != separator && row[i] != '\n'))) {
+                if (row[i] == '"') {
+                    quoted = !quoted;
+                }
+                i++;
+            }
+            if (i >= length || row[i] == '\n') {
+                return false;
+            }
+            i++;
+            field++;
+        }
+        int start = i;
+        boolean quoted = false;
+        while (i < length && (quoted || (row[i] != separator && row[i] != '\n'))) {
+            if (row[i] == '"') {
+                quoted = !quoted;
+            }
+            i++;
+        }
+        int end = i;
+        if (end > start && row[end - 1] == '\r') {
+            end--;
+        }
+        if (end - start >= 2 && row[start] == '"' && row[end - 1] == '"') {
+            start++;
+            end--;
+        }
+        span[0] = start;
+        span[1] = end;
+        return true;
+    }
+
+    // 8 bytes from start, ASCII lower-cased, as an unsigned big-endian long (shorter fields are
+    // padded with zeros, so they sort before longer ones with the same start)
+    private static long prefix(byte[] bytes, int start, int end) {
+        long key = 0;
+        for (int i = 0; i < 8; i++) {
+            key = key << 8 | (start + i < end ? lower(bytes[start + i]) & 0xFF : 0);
+        }
+        return key;
+    }
+
+    private int compareFields(long startA, int lengthA, long startB, int lengthB, byte[] left,
+            byte[] right) {
+        int a = file.read(startA, left, 0, Math.min(lengthA, left.length));
+        int b = file.read(startB, right, 0, Math.min(lengthB, right.length));
+        for (int i = 0; i < Math.min(a, b); i++) {
+            int result = Integer.compare(lower(left[i]) & 0xFF, lower(right[i]) & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(a, b);
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
+    // the value of digits with an optional sign, decimal point and exponent, spaces around
+    // allowed; NaN for anything else
+    private static double parseNumber(byte[] bytes, int start, int end) {
+        while (start < end && bytes[start] == ' ') {
+            start++;
+        }
+        while (end > start && bytes[end - 1] == ' ') {
+            end--;
+        }
+        if (end - start > 40) {
+            return Double.NaN;
+        }
+        int i = start;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < end && (bytes[i] >= '0' && bytes[i] <= '9' || bytes[i] == '.')) {
+            digits += bytes[i] == '.' ? 0 : 1;
+            i++;
+        }
+        if (digits > 0 && i < end && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+                i++;
+            }
+            while (i < end && bytes[i] >= '0' && bytes[i] <= '9') {
+                i++;
+            }
+        }
+        if (digits == 0 || i != end) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(
+                    new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN; // e.g. "1.2.3"
+        }
+    }
+
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    // stable bottom-up merge sort of an int array: insertion sort on runs of 32, then merge
+    // passes of doubling width. percent gets 0..100 after each pass
+    private static void mergeSort(int[] order, RowComparator comparator, IntConsumer percent)
+            throws InterruptedException {
+        int count = order.length;
+        int run = 32;
+        for (int low = 0; low < count; low += run) {
+            int high = Math.min(low + run, count);
+            for (int i = low + 1; i < high; i++) {
+                int value = order[i];
+                int j = i - 1;
+                while (j >= low && comparator.compare(order[j], value) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = value;
+            }
+        }
+
+        int passes = 0;
+        for (int width = run; width < count; width *= 2) {
+            passes++;
+        }
+        int[] source = order;
+        int[] target = new int[count];
+        int pass = 0;
+        for (int width = run; width < count; width *= 2) {
+            checkInterrupted();
+            for (int low = 0; low < count; low += 2 * width) {
+                int middle = Math.min(low + width, count);
+                int high = Math.min(low + 2 * width, count);
+                int i = low;
+                int j = middle;
+                int k = low;
+                while (i < middle && j < high) {
+                    target[k++] = comparator.compare(source[j], source[i]) < 0
+                            ? source[j++] : source[i++];
+                }
+                System.arraycopy(source, i, target, k, middle - i);
+                System.arraycopy(source, j, target, k + middle - i, high - j);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+            percent.accept(++pass * 100 / passes);
+        }
+        if (source != order) {
+            System.arraycopy(source, 0, order, 0, count);
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,203 @@
+package com.texteditor.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// guesses the charset of a file from its first bytes: byte order marks first, then a UTF-16
+// zero-byte pattern, then a strict UTF-8 validity scan, and finally a single-byte Latin fallback
+// that can decode (and re-encode) any byte sequence
+public final class EncodingDetector {
+
+    // how much of a file is looked at before decoding starts
+    public static final int SNIFF_LIMIT = 4 * 1024 * 1024;
+
+    // how much of a file looksBinary checks
+    public static final int BINARY_SNIFF = 8 * 1024;
+
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private EncodingDetector() {
+    }
+
+    // result of sniffing: the charset and how many BOM bytes precede the text
+    public static class DetectedEncoding {
+        private final Charset charset;
+        private final int bomLength;
+
+        DetectedEncoding(Charset charset, int bomLength) {
+            this.charset = charset;
+            this.bomLength = bomLength;
+        }
+
+        public Charset getCharset() {
+            return charset;
+        }
+
+        public int getBomLength() {
+            return bomLength;
+        }
+    }
+
+    // sniff the encoding; complete tells whether the sample is the whole file, in which case a
+    // multi-byte sequence cut off at the end really is an error
+    public static DetectedEncoding detect(ByteBuffer sample, boolean complete) {
+        int length = sample.remaining();
+        int start = sample.position();
+
+        // byte order marks
+        int b0 = length > 0 ? sample.get(start) & 0xFF : -1;
+        int b1 = length > 1 ? sample.get(start + 1) & 0xFF : -1;
+        int b2 = length > 2 ? sample.get(start + 2) & 0xFF : -1;
+        int b3 = length > 3 ? sample.get(start + 3) & 0xFF : -1;
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return new DetectedEncoding(StandardCharsets.UTF_8, 3);
+        }
+        if (b0 == 0xFF && b1 == 0xFE && b2 == 0 && b3 == 0) {
+            return new DetectedEncoding(Charset.forName("UTF-32LE"), 4);
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return new DetectedEncoding(StandardCharsets.UTF_16BE, 2);
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return new DetectedEncoding(StandardCharsets.UTF_16LE, 2);
+        }
+
+        // UTF-16 without BOM: mostly-ASCII text leaves every other byte zero
+        Charset utf16 = detectUtf16(sample, start, length);
+        if (utf16 != null) {
+            return new DetectedEncoding(utf16, 0);
+        }
+
+        if (isValidUtf8(sample, start, length, complete)) {
+            return new DetectedEncoding(StandardCharsets.UTF_8, 0);
+        }
+        return new DetectedEncoding(singleByteFallback(sample, start, length), 0);
+    }
+
+    // true when the sample is not text in any charset detect() knows, so it should open in the
+    // hex viewer: a zero byte outside a UTF-16/32 pattern, or more than one control character in
+    // ten (tabs, line breaks, form feeds and escapes don't count). only the first BINARY_SNIFF
+    // bytes are looked at
+    public static boolean looksBinary(ByteBuffer sample) {
+        int start = sample.position();
+        int length = Math.min(sample.remaining(), BINARY_SNIFF);
+        String charset = detect(sample, false).getCharset().name();
+        if (charset.startsWith("UTF-16") || charset.startsWith("UTF-32")) {
+            return false;
+        }
+        int controls = 0;
+        for (int i = start; i < start + length; i++) {
+            int b = sample.get(i) & 0xFF;
+            if (b == 0) {
+                return true;
+            }
+            if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1B) {
+                controls++;
+            }
+        }
+        return controls * 10 > length;
+    }
+
+    // encoding for bytes that turned out not to be valid in the sniffed charset
+    public static Charset fallbackCharset() {
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    private static Charset detectUtf16(ByteBuffer sample, int start, int length) {
+        int pairs = Math.min(length, 64 * 1024) / 2;
+        if (pairs < 2) {
+            return null;
+        }
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for (int i = 0; i < pairs; i++) {
+            if (sample.get(start + 2 * i) == 0) {
+                evenZeros++;
+            }
+            if (sample.get(start + 2 * i + 1) == 0) {
+                oddZeros++;
+            }
+        }
+        // require a strong, one-sided pattern so binary files are not misread as text
+        if (oddZeros > pairs * 0.4 && evenZeros < pairs * 0.05) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (evenZeros > pairs * 0.4 && oddZeros < pairs * 0.05) {
+            return StandardCharsets.UTF_16BE;
+        }
+        return null;
+    }
+
+    // strict UTF-8 check (rejects overlong forms and surrogates)
+    static boolean isValidUtf8(ByteBuffer sample, int start, int length, boolean complete) {
+        int end = start + length;
+        int i = start;
+        while (i < end) {
+            int b = sample.get(i) & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+
+            int extra;
+            int min;
+            if (b >= 0xC2 && b <= 0xDF) {
+                extra = 1;
+                min = 0x80;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                extra = 2;
+                min = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                extra = 3;
+                min = 0x10000;
+            } else {
+                return false;
+            }
+
+            if (i + extra >= end) {
+                // sequence runs past the sample: fine if the file continues, an error if not
+                if (complete) {
+                    return false;
+                }
+                for (int k = i + 1; k < end; k++) {
+                    if ((sample.get(k) & 0xC0) != 0x80) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            int codePoint = b & (0x3F >> extra);
+            for (int k = 1; k <= extra; k++) {
+                int next = sample.get(i + k) & 0xFF;
+                if ((next & 0xC0) != 0x80) {
+                    return false;
+                }
+                codePoint = (codePoint << 6) | (next & 0x3F);
+            }
+            if (codePoint < min || codePoint > 0x10FFFF
+                    || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+                return false;
+            }
+            i += extra + 1;
+        }
+        return true;
+    }
+
+    // windows-1252 when the C1 range only holds bytes it defines (smart quotes, euro sign, ...),
+    // otherwise ISO-8859-1 which maps every byte one to one
+    private static Charset singleByteFallback(ByteBuffer sample, int start, int length) {
+        boolean usesC1Range = false;
+        for (int i = start; i < start + length; i++) {
+            int b = sample.get(i) & 0xFF;
+            if (b >= 0x80 && b <= 0x9F) {
+                if (b == 0x81 || b == 0x8D || b == 0x8F || b == 0x90 || b == 0x9D) {
+                    return StandardCharsets.ISO_8859_1;
+                }
+                usesC1Range = true;
+            }
+        }
+        return usesC1Range ? WINDOWS_1252 : StandardCharsets.ISO_8859_1;
+    }
+}
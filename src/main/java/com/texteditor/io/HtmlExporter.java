@@ -0,0 +1,146 @@
+package com.texteditor.io;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.StyleConstants;
+import java.awt.Color;
+import java.awt.Font;
+import java.io.IOException;
+
+// exports to a standalone HTML page. every line becomes a <p> and every run is wrapped in the
+// tags for its formatting, with fonts and colours in an inline style. written as the document is
+// walked, unlike HTMLEditorKit which renders the whole page into a String first
+public class HtmlExporter extends StyledTextExporter {
+
+    private final Font baseFont; // font of text without a family or size of its own
+    private boolean emptyParagraph;
+
+    public HtmlExporter(Font baseFont) {
+        this.baseFont = baseFont;
+    }
+
+    @Override
+    public String getExtension() {
+        return "html";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Web Page (*.html)";
+    }
+
+    @Override
+    protected void startDocument(Document document) throws IOException {
+        String family = escape(baseFont.getFamily().replace("'", "\\'"));
+        out.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>"
+                + escape(title) + "</title>\n<style>\n"
+                + "body { font-family: '" + family + "'; font-size: " + baseFont.getSize()
+                + "pt; }\n"
+                + "p { margin: 0; white-space: pre-wrap; }\n</style>\n</head>\n<body>\n");
+    }
+
+    @Override
+    protected void startParagraph(Element paragraph) throws IOException {
+        out.write("<p>");
+        emptyParagraph = true;
+    }
+
+    @Override
+    protected void startRun(RunMarkup runMarkup) throws IOException {
+        emptyParagraph = false;
+        super.startRun(runMarkup);
+    }
+
+    @Override
+    protected RunMarkup createMarkup(AttributeSet attributes) {
+        StringBuilder opening = new StringBuilder();
+        StringBuilder closing = new StringBuilder();
+        StringBuilder style = new StringBuilder();
+        if (attributes.isDefined(StyleConstants.FontFamily)) {
+            style.append("font-family: '")
+                    .append(StyleConstants.getFontFamily(attributes).replace("'", "\\'"))
+                    .append("'; ");
+        }
+        if (attributes.isDefined(StyleConstants.FontSize)) {
+            style.append("font-size: ").append(StyleConstants.getFontSize(attributes))
+                    .append("pt; ");
+        }
+        if (attributes.isDefined(StyleConstants.Foreground)) {
+            style.append("color: ").append(hex(StyleConstants.getForeground(attributes)))
+                    .append("; ");
+        }
+        if (attributes.isDefined(StyleConstants.Background)) {
+            style.append("background-color: ")
+                    .append(hex(StyleConstants.getBackground(attributes))).append("; ");
+        }
+        if (style.length() > 0) {
+            style.setLength(style.length() - 1);
+            opening.append("<span style=\"").append(escape(style.toString())).append("\">");
+            closing.insert(0, "</span>");
+        }
+        tag(StyleConstants.isBold(attributes), "b", opening, closing);
+        tag(StyleConstants.isItalic(attributes), "i", opening, closing);
+        tag(StyleConstants.isUnderline(attributes), "u", opening, closing);
+        tag(StyleConstants.isStrikeThrough(attributes), "s", opening, closing);
+        tag(StyleConstants.isSubscript(attributes), "sub", opening, closing);
+        tag(StyleConstants.isSuperscript(attributes), "sup", opening, closing);
+        return new RunMarkup(opening.toString(), closing.toString());
+    }
+
+    private static void tag(boolean enabled, String tag, StringBuilder opening,
+            StringBuilder closing) {
+        if (enabled) {
+            opening.append('<').append(tag).append('>');
+            closing.insert(0, "</" + tag + ">");
+        }
+    }
+
+    @Override
+    protected void writeText(char[] text, int offset, int length) throws IOException {
+        int runStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            String entity;
+            switch (text[i]) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '"':
+                    entity = "&quot;";
+                    break;
+                default:
+                    continue;
+            }
+            out.write(text, runStart, i - runStart);
+            out.write(entity);
+            runStart = i + 1;
+        }
+        out.write(text, runStart, end - runStart);
+    }
+
+    @Override
+    protected void endParagraph(Element paragraph, boolean last) throws IOException {
+        out.write(emptyParagraph ? "<br></p>\n" : "</p>\n"); // keeps blank lines visible
+    }
+
+    @Override
+    protected void endDocument() throws IOException {
+        out.write("</body>\n</html>\n");
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;");
+    }
+
+    private static String hex(Color color) {
+        return String.format("#%02x%02x%02x", color.getRed(), color.getGreen(), color.getBlue());
+    }
+}
@@ -0,0 +1,187 @@
+package com.texteditor.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+// a read-only file mapped into memory, for looking at files of any size without reading them:
+// the OS pages bytes in when they are touched and drops them again under memory pressure, so a
+// multi-GB file costs only the pages on screen. a single mapping can't be larger than 2 GB, so
+// the file is mapped as consecutive 1 GB regions (address space only, nothing is read yet). safe
+// to read from several threads at once, e.g. painting on the EDT while a search runs
+public final class MappedFile implements Closeable {
+
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_SIZE = 1L << REGION_SHIFT;
+    private static final int REGION_MASK = (int) (REGION_SIZE - 1);
+    private static final int CHUNK = 64 * 1024; // bytes searched per copy
+    private static final long PROGRESS_STEP = 16L * 1024 * 1024; // bytes between progress calls
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer[] regions;
+
+    private MappedFile(Path path, FileChannel channel, long size, MappedByteBuffer[] regions) {
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+        this.regions = regions;
+    }
+
+    // map a whole file; it is expected not to shrink while mapped
+    public static MappedFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((size + REGION_SIZE - 1)
+                    >>> REGION_SHIFT)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = (long) i << REGION_SHIFT;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(REGION_SIZE, size - start));
+            }
+            return new MappedFile(path, channel, size, regions);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // copy up to length bytes starting at offset, fewer at the end of the file; returns the count
+    public int read(long offset, byte[] into, int start, int length) {
+        int count = (int) Math.max(0, Math.min(length, size - offset));
+        int done = 0;
+        while (done < count) {
+            long position = offset + done;
+            int index = (int) position & REGION_MASK;
+            int chunk = Math.min(count - done, (int) (REGION_SIZE - index));
+            regions[(int) (position >>> REGION_SHIFT)].get(index, into, start + done, chunk);
+            done += chunk;
+        }
+        return count;
+    }
+
+    // first offset in [from, to) where pattern starts and ends before to, -1 if there is none.
+    // Boyer-Moore-Horspool: a mismatch skips ahead by up to the pattern length, so longer
+    // patterns search faster. the bytes are copied out 64 KB at a time, which is a plain memory
+    // copy and makes the scan itself run on a byte array instead of through buffer bounds checks.
+    // progress gets the offset reached every 16 MB; the search stops with InterruptedException
+    // when its thread is interrupted
+    public long indexOf(byte[] pattern, long from, long to, LongConsumer progress)
+            throws InterruptedException {
+        int length = pattern.length;
+        long end = Math.min(to, size) - length; // last possible start
+        long position = Math.max(0, from);
+        if (length == 0 || position > end) {
+            return -1;
+        }
+        int[] shift = new int[256];
+        Arrays.fill(shift, length);
+        for (int i = 0; i < length - 1; i++) {
+            shift[pattern[i] & 0xFF] = length - 1 - i;
+        }
+        byte last = pattern[length - 1];
+
+        byte[] chunk = new byte[CHUNK + length - 1];
+        long nextReport = position + PROGRESS_STEP;
+        while (position <= end) {
+            int count = read(position, chunk, 0, (int) Math.min(chunk.length,
+                    end + length - position));
+            int limit = count - length; // last start inside the chunk
+            int i = 0;
+            while (i <= limit) {
+                byte b = chunk[i + length - 1];
+                if (b == last && matchesAt(chunk, i, pattern)) {
+                    return position + i;
+                }
+                i += shift[b & 0xFF];
+            }
+            position += i; // the next candidate, at most length - 1 bytes before the chunk end
+            if (position >= nextReport) {
+                report(position, progress);
+                nextReport = position + PROGRESS_STEP;
+            }
+        }
+        return -1;
+    }
+
+    // last offset in [from, to] where pattern starts and fits in the file, -1 if there is none;
+    // scans backwards from to, otherwise like indexOf
+    public long lastIndexOf(byte[] pattern, long from, long to, LongConsumer progress)
+            throws InterruptedException {
+        int length = pattern.length;
+        long start = Math.max(0, from);
+        long position = Math.min(to, size - length); // last possible start
+        if (length == 0 || position < start) {
+            return -1;
+        }
+        // mirrored Horspool: shift by the distance from the pattern start to a byte's first use
+        int[] shift = new int[256];
+        Arrays.fill(shift, length);
+        for (int i = length - 1; i > 0; i--) {
+            shift[pattern[i] & 0xFF] = i;
+        }
+        byte first = pattern[0];
+
+        byte[] chunk = new byte[CHUNK + length - 1];
+        long nextReport = position - PROGRESS_STEP;
+        while (position >= start) {
+            long chunkStart = Math.max(start, position - CHUNK + 1);
+            read(chunkStart, chunk, 0, (int) (position - chunkStart) + length);
+            int i = (int) (position - chunkStart);
+            while (i >= 0) {
+                byte b = chunk[i];
+                if (b == first && matchesAt(chunk, i, pattern)) {
+                    return chunkStart + i;
+                }
+                i -= shift[b & 0xFF];
+            }
+            position = chunkStart + i;
+            if (position <= nextReport) {
+                report(position, progress);
+                nextReport = position - PROGRESS_STEP;
+            }
+        }
+        return -1;
+    }
+
+    private static void report(long position, LongConsumer progress)
+            throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (progress != null) {
+            progress.accept(position);
+        }
+    }
+
+    private static boolean matchesAt(byte[] chunk, int index, byte[] pattern) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (chunk[index + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the mappings themselves go away when they are garbage collected; Java has no way to unmap
+    // them earlier, but the file handle is released now
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,136 @@
+package com.texteditor.io;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.Element;
+import javax.swing.text.StyleConstants;
+import java.io.IOException;
+
+// exports to Markdown (CommonMark with ~~strikethrough~~). bold, italic and strikethrough use
+// Markdown's own markers, underline and sub/superscript fall back to inline HTML, and fonts and
+// colours are dropped because Markdown has no syntax for them. every line keeps its own line
+// through a hard break. written as the document is walked, with a few characters of state
+public class MarkdownExporter extends StyledTextExporter {
+
+    // escaped wherever they appear, they would start emphasis, links, code or inline HTML
+    private static final String SPECIAL = "\\`*_[]<>~|&";
+    // escaped at the start of a line, where they would start a heading, list or quote
+    private static final String LINE_START = "#+-=>";
+
+    private static final int LINE_EMPTY = 0;
+    private static final int LINE_DIGITS = 1; // only digits so far, a '.' would make a list
+    private static final int LINE_TEXT = 2;
+
+    private RunMarkup current; // markers of the current run, opened before its first letter
+    private boolean opened;
+    private final StringBuilder pendingSpace = new StringBuilder(); // kept outside the markers
+    private int lineState;
+
+    @Override
+    public String getExtension() {
+        return "md";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Markdown (*.md)";
+    }
+
+    @Override
+    protected void startParagraph(Element paragraph) throws IOException {
+        lineState = LINE_EMPTY;
+    }
+
+    @Override
+    protected RunMarkup createMarkup(AttributeSet attributes) {
+        StringBuilder open = new StringBuilder();
+        StringBuilder close = new StringBuilder();
+        marker(StyleConstants.isBold(attributes), "**", "**", open, close);
+        marker(StyleConstants.isItalic(attributes), "*", "*", open, close);
+        marker(StyleConstants.isStrikeThrough(attributes), "~~", "~~", open, close);
+        marker(StyleConstants.isUnderline(attributes), "<u>", "</u>", open, close);
+        marker(StyleConstants.isSubscript(attributes), "<sub>", "</sub>", open, close);
+        marker(StyleConstants.isSuperscript(attributes), "<sup>", "</sup>", open, close);
+        return new RunMarkup(open.toString(), close.toString());
+    }
+
+    @Override
+    protected void startRun(RunMarkup runMarkup) throws IOException {
+        current = runMarkup;
+        opened = false;
+    }
+
+    private static void marker(boolean enabled, String open, String close, StringBuilder opening,
+            StringBuilder closing) {
+        if (enabled) {
+            opening.append(open);
+            closing.insert(0, close);
+        }
+    }
+
+    // emphasis may not start or end with whitespace ("** bold**" is not bold), so spaces around
+    // a run's text stay outside its markers, and a run of spaces alone gets none
+    @Override
+    protected void writeText(char[] text, int offset, int length) throws IOException {
+        int runStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = text[i];
+            boolean space = c == ' ' || c == '\t';
+            boolean markers = !current.getClosing().isEmpty();
+            if (opened && lineState == LINE_TEXT && pendingSpace.length() == 0
+                    && !(space && markers) && SPECIAL.indexOf(c) < 0) {
+                continue; // plain text inside the run, written in one piece below
+            }
+            out.write(text, runStart, i - runStart);
+            runStart = i + 1;
+            if (space) {
+                if (lineState == LINE_EMPTY) {
+                    // indentation would turn the line into a code block
+                    out.write(c == ' ' ? "&nbsp;" : "&nbsp;&nbsp;&nbsp;&nbsp;");
+                } else if (opened && markers) {
+                    pendingSpace.append(c);
+                } else {
+                    out.write(c);
+                }
+                continue;
+            }
+            writePendingSpace();
+            if (!opened) {
+                out.write(current.getOpening());
+                opened = true;
+            }
+            boolean numbered = lineState == LINE_DIGITS && (c == '.' || c == ')');
+            boolean lineStart = lineState == LINE_EMPTY && LINE_START.indexOf(c) >= 0;
+            if (SPECIAL.indexOf(c) >= 0 || numbered || lineStart) {
+                out.write('\\');
+            }
+            out.write(c);
+            boolean digit = c >= '0' && c <= '9';
+            lineState = digit && lineState != LINE_TEXT ? LINE_DIGITS : LINE_TEXT;
+        }
+        out.write(text, runStart, end - runStart);
+    }
+
+    @Override
+    protected void endRun(RunMarkup runMarkup) throws IOException {
+        if (opened) {
+            out.write(runMarkup.getClosing());
+            opened = false;
+        }
+        writePendingSpace();
+    }
+
+    // Writer.append(CharSequence) would copy the builder into a String every time
+    private void writePendingSpace() throws IOException {
+        for (int i = 0; i < pendingSpace.length(); i++) {
+            out.write(pendingSpace.charAt(i));
+        }
+        pendingSpace.setLength(0);
+    }
+
+    @Override
+    protected void endParagraph(Element paragraph, boolean last) throws IOException {
+        // two trailing spaces are a hard line break, an empty line separates paragraphs
+        out.write(lineState == LINE_EMPTY || last ? "\n" : "  \n");
+    }
+}
@@ -0,0 +1,308 @@
+package com.texteditor.io;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// tekst's own rich text format (.trt): the text plus a run-length table of its character styles,
+// so formatting survives a save. the tables come first and the text is streamed after them in
+// one sequential pass each way, without building the document as a String:
+//
+//     "TKRT" version:u16
+//     styles:varint  { attributes:u8 { key:u8 value } }     every distinct style once
+//     runs:varint    { style:varint length:varint }          consecutive equal runs merged
+//     chars:varint   UTF-8 text up to the end of the file
+public final class RichTextCodec {
+
+    public static final String EXTENSION = "trt";
+
+    private static final int MAGIC = 0x544B5254; // "TKRT"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // attributes stored in a style, the position is the key written to the file. only append,
+    // a new key needs a new VERSION because older readers can't skip values they don't know
+    private static final Object[] KEYS = {StyleConstants.Bold, StyleConstants.Italic,
+            StyleConstants.Underline, StyleConstants.StrikeThrough, StyleConstants.Subscript,
+            StyleConstants.Superscript, StyleConstants.FontSize, StyleConstants.FontFamily,
+            StyleConstants.Foreground, StyleConstants.Background};
+
+    private RichTextCodec() {
+    }
+
+    // whether a file should be read and written as rich text, by extension
+    public static boolean isRichText(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT)
+                .endsWith("." + EXTENSION);
+    }
+
+    // a loaded rich text file: the text and its runs, in document order
+    public static class RichText {
+        private final char[] text;
+        private final int[] runLengths;
+        private final AttributeSet[] runAttributes;
+
+        RichText(char[] text, int[] runLengths, AttributeSet[] runAttributes) {
+            this.text = text;
+            this.runLengths = runLengths;
+            this.runAttributes = runAttributes;
+        }
+
+        public char[] getText() {
+            return text;
+        }
+
+        // run lengths add up to the text length
+        public int[] getRunLengths() {
+            return runLengths;
+        }
+
+        // the style of each run; runs with the same style share one set
+        public AttributeSet[] getRunAttributes() {
+            return runAttributes;
+        }
+    }
+
+    // write a document with its character formatting. plain documents are saved as one run. like
+    // a plain text save it goes through a temp file, so a failure leaves the old file as it was
+    public static void write(Path path, Document document) throws IOException {
+        TextFileCodec.replace(path, temp -> writeTo(temp, document));
+    }
+
+    private static void writeTo(Path path, Document document) throws IOException {
+        int length = document.getLength();
+        Runs runs = collectRuns(document, length);
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeVarint(out, runs.styles.size());
+            for (AttributeSet style : runs.styles.keySet()) {
+                writeStyle(out, style);
+            }
+            writeVarint(out, runs.count);
+            for (int i = 0; i < runs.count; i++) {
+                writeVarint(out, runs.styleIndexes[i]);
+                writeVarint(out, runs.lengths[i]);
+            }
+            writeVarint(out, length);
+
+            // straight from the document's segments into the encoder
+            Writer text = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            int offset = 0;
+            while (offset < length) {
+                document.getText(offset, Math.min(BUFFER_SIZE, length - offset), segment);
+                text.write(segment.array, segment.offset, segment.count);
+                offset += segment.count;
+            }
+            text.flush();
+        } catch (BadLocationException e) {
+            throw new IOException("Document changed while saving", e);
+        }
+    }
+
+    // one pass over the leaves (no text is read), numbering each distinct style on first use
+    private static Runs collectRuns(Document document, int length) {
+        Runs runs = new Runs();
+        Element root = document.getDefaultRootElement();
+        for (int i = 0; i < root.getElementCount(); i++) {
+            Element paragraph = root.getElement(i);
+            if (paragraph.isLeaf()) {
+                runs.add(paragraph, length); // plain documents have lines as leaves
+                continue;
+            }
+            for (int j = 0; j < paragraph.getElementCount(); j++) {
+                runs.add(paragraph.getElement(j), length);
+            }
+        }
+        return runs;
+    }
+
+    // run table being built, equal neighbours (also across paragraphs) are merged
+    private static class Runs {
+        final Map<AttributeSet, Integer> styles = new LinkedHashMap<>();
+        int[] styleIndexes = new int[16];
+        int[] lengths = new int[16];
+        int count;
+
+        void add(Element leaf, int documentLength) {
+            // the last leaf also covers the newline every document implies past its end
+            int length = Math.min(leaf.getEndOffset(), documentLength) - leaf.getStartOffset();
+            if (length <= 0) {
+                return;
+            }
+            // an element is an attribute set compared by identity, its copy is the immutable
+            // set it holds, which compares by value
+            AttributeSet attributes = leaf.getAttributes().copyAttributes();
+            Integer style = styles.get(attributes);
+            if (style == null) {
+                style = styles.size();
+                styles.put(attributes, style);
+            }
+            if (count > 0 && styleIndexes[count - 1] == style) {
+                lengths[count - 1] += length;
+                return;
+            }
+            if (count == lengths.length) {
+                styleIndexes = Arrays.copyOf(styleIndexes, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            styleIndexes[count] = style;
+            lengths[count] = length;
+            count++;
+        }
+    }
+
+    private static void writeStyle(DataOutputStream out, AttributeSet style) throws IOException {
+        int defined = 0;
+        for (Object key : KEYS) {
+            if (style.isDefined(key)) {
+                defined++;
+            }
+        }
+        out.writeByte(defined);
+        for (int key = 0; key < KEYS.length; key++) {
+            if (!style.isDefined(KEYS[key])) {
+                continue;
+            }
+            Object name = KEYS[key];
+            Object value = style.getAttribute(name);
+            out.writeByte(key);
+            if (name == StyleConstants.FontSize) {
+                out.writeInt(((Number) value).intValue());
+            } else if (name == StyleConstants.FontFamily) {
+                out.writeUTF(String.valueOf(value));
+            } else if (name == StyleConstants.Foreground || name == StyleConstants.Background) {
+                out.writeInt(((Color) value).getRGB());
+            } else {
+                out.writeBoolean(Boolean.TRUE.equals(value));
+            }
+        }
+    }
+
+    // read a rich text file into its text and runs
+    public static RichText read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path.getFileName() + " is not a rich text file");
+            }
+            if (in.readUnsignedShort() > VERSION) {
+                throw new IOException(path.getFileName()
+                        + " was saved by a newer version of the editor");
+            }
+
+            AttributeSet[] styles = new AttributeSet[readVarint(in)];
+            for (int i = 0; i < styles.length; i++) {
+                styles[i] = readStyle(in);
+            }
+            int runCount = readVarint(in);
+            int[] runLengths = new int[runCount];
+            AttributeSet[] runAttributes = new AttributeSet[runCount];
+            long total = 0;
+            for (int i = 0; i < runCount; i++) {
+                int style = readVarint(in);
+                if (style >= styles.length) {
+                    throw corrupt(path);
+                }
+                runAttributes[i] = styles[style];
+                runLengths[i] = readVarint(in);
+                total += runLengths[i];
+            }
+            int length = readVarint(in);
+            if (total != length) {
+                throw corrupt(path);
+            }
+
+            // a strict decoder, broken bytes are an error rather than silently replaced
+            Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder());
+            char[] text = new char[length];
+            int read = 0;
+            while (read < length) {
+                int count = reader.read(text, read, length - read);
+                if (count < 0) {
+                    throw corrupt(path);
+                }
+                read += count;
+            }
+            if (reader.read() >= 0) {
+                throw corrupt(path);
+            }
+            return new RichText(text, runLengths, runAttributes);
+        }
+    }
+
+    private static AttributeSet readStyle(DataInputStream in) throws IOException {
+        SimpleAttributeSet style = new SimpleAttributeSet();
+        int defined = in.readUnsignedByte();
+        for (int i = 0; i < defined; i++) {
+            int key = in.readUnsignedByte();
+            if (key >= KEYS.length) {
+                throw new IOException("Unknown style attribute " + key);
+            }
+            Object name = KEYS[key];
+            if (name == StyleConstants.FontSize) {
+                style.addAttribute(name, in.readInt());
+            } else if (name == StyleConstants.FontFamily) {
+                style.addAttribute(name, in.readUTF());
+            } else if (name == StyleConstants.Foreground || name == StyleConstants.Background) {
+                style.addAttribute(name, new Color(in.readInt(), true));
+            } else {
+                style.addAttribute(name, in.readBoolean());
+            }
+        }
+        return style;
+    }
+
+    private static IOException corrupt(Path path) {
+        return new IOException(path.getFileName() + " is damaged or incomplete");
+    }
+
+    // unsigned LEB128, one byte for most run lengths and style numbers
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Invalid number in rich text file");
+    }
+}
@@ -0,0 +1,141 @@
+package com.texteditor.io;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.StyleConstants;
+import java.awt.Color;
+import java.awt.Font;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// exports to RTF for word processors. fonts and colours are numbered in a first pass over the
+// run attributes (no text is read), then every run is written as a group holding its formatting
+// controls and text. the file is plain ASCII, other characters are written as unicode escapes
+public class RtfExporter extends StyledTextExporter {
+
+    private final Font baseFont; // font of text without a family or size of its own
+    private final Map<String, Integer> fonts = new LinkedHashMap<>();
+    private final Map<Color, Integer> colors = new LinkedHashMap<>();
+
+    public RtfExporter(Font baseFont) {
+        this.baseFont = baseFont;
+    }
+
+    @Override
+    public String getExtension() {
+        return "rtf";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Rich Text Format (*.rtf)";
+    }
+
+    @Override
+    protected void startDocument(Document document) throws IOException {
+        fonts.clear();
+        colors.clear();
+        fonts.put(baseFont.getFamily(), 0);
+        forEachRun(document, attributes -> {
+            if (attributes.isDefined(StyleConstants.FontFamily)) {
+                fonts.putIfAbsent(StyleConstants.getFontFamily(attributes), fonts.size());
+            }
+            if (attributes.isDefined(StyleConstants.Foreground)) {
+                colors.putIfAbsent(StyleConstants.getForeground(attributes), colors.size() + 1);
+            }
+            if (attributes.isDefined(StyleConstants.Background)) {
+                colors.putIfAbsent(StyleConstants.getBackground(attributes), colors.size() + 1);
+            }
+        });
+
+        out.write("{\\rtf1\\ansi\\deff0\\uc1\n{\\fonttbl");
+        for (Map.Entry<String, Integer> font : fonts.entrySet()) {
+            out.write("{\\f" + font.getValue() + "\\fnil ");
+            writeText(font.getKey().toCharArray(), 0, font.getKey().length());
+            out.write(";}");
+        }
+        out.write("}\n{\\colortbl;"); // colour 0 is "automatic"
+        for (Color color : colors.keySet()) {
+            out.write("\\red" + color.getRed() + "\\green" + color.getGreen() + "\\blue"
+                    + color.getBlue() + ";");
+        }
+        out.write("}\n\\pard\\plain\\f0\\fs" + baseFont.getSize() * 2 + "\n");
+    }
+
+    @Override
+    protected RunMarkup createMarkup(AttributeSet attributes) {
+        StringBuilder controls = new StringBuilder("{");
+        if (StyleConstants.isBold(attributes)) {
+            controls.append("\\b");
+        }
+        if (StyleConstants.isItalic(attributes)) {
+            controls.append("\\i");
+        }
+        if (StyleConstants.isUnderline(attributes)) {
+            controls.append("\\ul");
+        }
+        if (StyleConstants.isStrikeThrough(attributes)) {
+            controls.append("\\strike");
+        }
+        if (StyleConstants.isSubscript(attributes)) {
+            controls.append("\\sub");
+        } else if (StyleConstants.isSuperscript(attributes)) {
+            controls.append("\\super");
+        }
+        if (attributes.isDefined(StyleConstants.FontFamily)) {
+            controls.append("\\f").append(fonts.get(StyleConstants.getFontFamily(attributes)));
+        }
+        if (attributes.isDefined(StyleConstants.FontSize)) {
+            controls.append("\\fs").append(StyleConstants.getFontSize(attributes) * 2);
+        }
+        if (attributes.isDefined(StyleConstants.Foreground)) {
+            controls.append("\\cf").append(colors.get(StyleConstants.getForeground(attributes)));
+        }
+        if (attributes.isDefined(StyleConstants.Background)) {
+            controls.append("\\chcbpat")
+                    .append(colors.get(StyleConstants.getBackground(attributes)));
+        }
+        if (controls.length() > 1) {
+            controls.append(' '); // ends the last control word, a space after '{' would be text
+        }
+        return new RunMarkup(controls.toString(), "}");
+    }
+
+    @Override
+    protected void writeText(char[] text, int offset, int length) throws IOException {
+        int runStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = text[i];
+            if (c >= ' ' && c < 0x80 && c != '\\' && c != '{' && c != '}') {
+                continue;
+            }
+            out.write(text, runStart, i - runStart);
+            runStart = i + 1;
+            if (c == '\\' || c == '{' || c == '}') {
+                out.write('\\');
+                out.write(c);
+            } else if (c == '\t') {
+                out.write("\\tab ");
+            } else if (c >= 0x80) {
+                out.write("\\u" + (short) c + "?"); // signed 16-bit, '?' for old readers
+            }
+            // other control characters are dropped
+        }
+        out.write(text, runStart, end - runStart);
+    }
+
+    @Override
+    protected void endParagraph(Element paragraph, boolean last) throws IOException {
+        if (!last) {
+            out.write("\\par\n");
+        }
+    }
+
+    @Override
+    protected void endDocument() throws IOException {
+        out.write("}\n");
+    }
+}
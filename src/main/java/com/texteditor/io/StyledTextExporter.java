@@ -0,0 +1,172 @@
+package com.texteditor.io;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// exports a document to another format in a single walk over its element tree, like a streaming
+// template renderer: each paragraph and run is handed to the format as it is reached and the text
+// is read through partial segments, so nothing the size of the document is built in memory.
+// subclasses write to out, which is only set while an export runs
+public abstract class StyledTextExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected Writer out;
+    protected String title = "Untitled"; // the file name without extension when exporting a file
+    // markup per distinct style, like memoized components: documents use a handful of styles
+    // for millions of runs, so each style's tags are built once per export
+    private final Map<AttributeSet, RunMarkup> markup = new HashMap<>();
+    private final Function<AttributeSet, RunMarkup> markupFactory = this::createMarkup;
+
+    // file name extension of the format, without the dot
+    public abstract String getExtension();
+
+    // name of the format for file choosers
+    public abstract String getDescription();
+
+    // export a document to a file (UTF-8). the text goes through one buffer into the channel,
+    // so memory use is the same for a small and a huge document
+    public void export(Document document, Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        title = dot > 0 ? fileName.substring(0, dot) : fileName;
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE); // a lone surrogate becomes '?'
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                Writer writer = new BufferedWriter(Channels.newWriter(channel, encoder, -1),
+                        BUFFER_SIZE)) {
+            export(document, writer);
+        }
+    }
+
+    // export a document to a writer, which is flushed but not closed
+    public void export(Document document, Writer writer) throws IOException {
+        out = writer;
+        markup.clear();
+        try {
+            startDocument(document);
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            Element root = document.getDefaultRootElement();
+            int paragraphs = root.getElementCount();
+            for (int i = 0; i < paragraphs; i++) {
+                Element paragraph = root.getElement(i);
+                startParagraph(paragraph);
+                if (paragraph.isLeaf()) {
+                    writeRun(document, paragraph, paragraph, segment); // plain documents
+                } else {
+                    for (int j = 0; j < paragraph.getElementCount(); j++) {
+                        writeRun(document, paragraph, paragraph.getElement(j), segment);
+                    }
+                }
+                endParagraph(paragraph, i == paragraphs - 1);
+            }
+            endDocument();
+            out.flush();
+        } catch (BadLocationException e) {
+            throw new IOException("Document changed while exporting", e);
+        } finally {
+            out = null;
+            markup.clear();
+        }
+    }
+
+    // the run's text without its paragraph's newline (for the last paragraph that is the newline
+    // every document implies past its end); runs left empty are skipped
+    private void writeRun(Document document, Element paragraph, Element run, Segment segment)
+            throws IOException, BadLocationException {
+        int offset = run.getStartOffset();
+        int end = Math.min(run.getEndOffset(), paragraph.getEndOffset() - 1);
+        if (offset >= end) {
+            return;
+        }
+        // an element compares by identity, its copy is the immutable set it holds
+        RunMarkup runMarkup =
+                markup.computeIfAbsent(run.getAttributes().copyAttributes(), markupFactory);
+        startRun(runMarkup);
+        while (offset < end) {
+            document.getText(offset, end - offset, segment);
+            writeText(segment.array, segment.offset, segment.count);
+            offset += segment.count;
+        }
+        endRun(runMarkup);
+    }
+
+    // the attributes of every run in document order, without reading any text. for formats that
+    // need a table up front (fonts, colours)
+    protected static void forEachRun(Document document, Consumer<AttributeSet> action) {
+        Element root = document.getDefaultRootElement();
+        for (int i = 0; i < root.getElementCount(); i++) {
+            Element paragraph = root.getElement(i);
+            if (paragraph.isLeaf()) {
+                action.accept(paragraph.getAttributes());
+            }
+            for (int j = 0; j < paragraph.getElementCount(); j++) {
+                action.accept(paragraph.getElement(j).getAttributes());
+            }
+        }
+    }
+
+    protected void startDocument(Document document) throws IOException {
+    }
+
+    protected void startParagraph(Element paragraph) throws IOException {
+    }
+
+    // the tags around runs with these attributes, called once per style and export
+    protected abstract RunMarkup createMarkup(AttributeSet attributes);
+
+    protected void startRun(RunMarkup runMarkup) throws IOException {
+        out.write(runMarkup.getOpening());
+    }
+
+    // a piece of a run's text, a long run arrives in several pieces. never contains '\n'
+    protected abstract void writeText(char[] text, int offset, int length) throws IOException;
+
+    protected void endRun(RunMarkup runMarkup) throws IOException {
+        out.write(runMarkup.getClosing());
+    }
+
+    protected void endParagraph(Element paragraph, boolean last) throws IOException {
+    }
+
+    protected void endDocument() throws IOException {
+    }
+
+    // what a format writes before and after the text of a run
+    protected static final class RunMarkup {
+        private final String opening;
+        private final String closing;
+
+        public RunMarkup(String opening, String closing) {
+            this.opening = opening;
+            this.closing = closing;
+        }
+
+        public String getOpening() {
+            return opening;
+        }
+
+        public String getClosing() {
+            return closing;
+        }
+    }
+}
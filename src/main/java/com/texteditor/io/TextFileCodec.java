@@ -0,0 +1,366 @@
+package com.texteditor.io;
+
+import com.texteditor.model.LineEnding;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+
+// reads and writes text files in their own charset and line-ending style. loading sniffs the
+// encoding, then decodes the file in one streaming pass that also counts and normalizes line
+// breaks; saving streams the document back out chunk by chunk so it round-trips byte for byte.
+// a save goes to a temp file next to the target first, so a failure never leaves it half written
+public final class TextFileCodec {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private TextFileCodec() {
+    }
+
+    // decoded file content plus everything needed to write it back unchanged
+    public static class DecodedText {
+        private final String text;
+        private final Charset charset;
+        private final boolean byteOrderMark;
+        private final LineEnding lineEnding;
+
+        DecodedText(String text, Charset charset, boolean byteOrderMark, LineEnding lineEnding) {
+            this.text = text;
+            this.charset = charset;
+            this.byteOrderMark = byteOrderMark;
+            this.lineEnding = lineEnding;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public Charset getCharset() {
+            return charset;
+        }
+
+        public boolean hasByteOrderMark() {
+            return byteOrderMark;
+        }
+
+        public LineEnding getLineEnding() {
+            return lineEnding;
+        }
+    }
+
+    // read a file, detecting its charset and line endings
+    public static DecodedText read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer sample =
+                    ByteBuffer.allocate((int) Math.min(size, EncodingDetector.SNIFF_LIMIT));
+            while (sample.hasRemaining() && channel.read(sample) > 0) {
+                // fill the sample
+            }
+            sample.flip();
+
+            EncodingDetector.DetectedEncoding encoding =
+                    EncodingDetector.detect(sample, sample.limit() >= size);
+            Charset charset = encoding.getCharset();
+            int bomLength = encoding.getBomLength();
+
+            DecodedText decoded;
+            try {
+                decoded = decode(channel, charset, bomLength);
+            } catch (CharacterCodingException e) {
+                // the sniffed part looked like UTF-8 but something later does not
+                charset = EncodingDetector.fallbackCharset();
+                bomLength = 0;
+                decoded = decode(channel, charset, bomLength);
+            }
+            return decoded;
+        }
+    }
+
+    // one streaming pass: bytes -> chars with a reusable decoder, counting line breaks on the way
+    private static DecodedText decode(FileChannel channel, Charset charset, int bomLength)
+            throws IOException {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        long size = channel.size();
+        StringBuilder text = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 16,
+                (long) ((size - bomLength) * (double) decoder.averageCharsPerByte())));
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        LineCounter counter = new LineCounter(text);
+
+        channel.position(bomLength);
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            endOfInput = channel.read(bytes) < 0;
+            bytes.flip();
+            while (true) {
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                drain(chars, counter);
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            bytes.compact();
+        }
+        CoderResult result = decoder.flush(chars);
+        if (result.isError()) {
+            result.throwException();
+        }
+        drain(chars, counter);
+        counter.finish();
+
+        return new DecodedText(text.toString(), charset, bomLength > 0,
+                LineEnding.fromCounts(counter.lf, counter.crlf, counter.cr));
+    }
+
+    private static void drain(CharBuffer chars, LineCounter counter) {
+        chars.flip();
+        counter.accept(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        chars.clear();
+    }
+
+    // counts LF / CRLF / CR and rewrites all of them to '\n', across buffer boundaries. once a
+    // second style shows up the file is MIXED and must keep its '\r' characters to save exactly as
+    // it was read: the text so far had a single style, so it is expanded back in place and the
+    // rest is copied as it is, still in the same pass
+    private static class LineCounter {
+        final StringBuilder out;
+        boolean normalize = true;
+        long lf;
+        long crlf;
+        long cr;
+        boolean pendingCr;
+
+        LineCounter(StringBuilder out) {
+            this.out = out;
+        }
+
+        void accept(char[] buffer, int offset, int length) {
+            int runStart = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                char c = buffer[i];
+                if (pendingCr) {
+                    pendingCr = false;
+                    if (c == '\n') {
+                        if (normalize && (lf > 0 || cr > 0)) {
+                            stopNormalizing(true); // this '\n' joins the next run
+                        } else if (normalize) {
+                            runStart = i + 1; // the '\n' was already written for the '\r'
+                        }
+                        crlf++;
+                        continue;
+                    }
+                    countCr();
+                }
+                if (c == '\r') {
+                    pendingCr = true;
+                    if (normalize) {
+                        out.append(buffer, runStart, i - runStart).append('\n');
+                        runStart = i + 1;
+                    }
+                } else if (c == '\n') {
+                    if (normalize && (crlf > 0 || cr > 0)) {
+                        out.append(buffer, runStart, i - runStart);
+                        runStart = i;
+                        stopNormalizing(false);
+                    }
+                    lf++;
+                }
+            }
+            out.append(buffer, runStart, end - runStart);
+        }
+
+        void finish() {
+            if (pendingCr) {
+                pendingCr = false;
+                countCr();
+            }
+        }
+
+        // a lone '\r', which was written as the last '\n' of out
+        private void countCr() {
+            if (normalize && (lf > 0 || crlf > 0)) {
+                stopNormalizing(true);
+            }
+            cr++;
+        }
+
+        // every '\n' in out goes back to the one style seen so far; endsWithCr when the last one
+        // was written for the '\r' that turned out to be a second style
+        private void stopNormalizing(boolean endsWithCr) {
+            normalize = false;
+            int end = endsWithCr ? out.length() - 1 : out.length();
+            if (crlf > 0) {
+                int breaks = 0;
+                for (int i = 0; i < end; i++) {
+                    if (out.charAt(i) == '\n') {
+                        breaks++;
+                    }
+                }
+                // widen from the back so every char moves only once
+                out.setLength(out.length() + breaks);
+                int to = end + breaks - 1;
+                for (int from = end - 1; from >= 0 && to > from; from--) {
+                    char c = out.charAt(from);
+                    out.setCharAt(to--, c);
+                    if (c == '\n') {
+                        out.setCharAt(to--, '\r');
+                    }
+                }
+            } else if (cr > 0) {
+                for (int i = 0; i < end; i++) {
+                    if (out.charAt(i) == '\n') {
+                        out.setCharAt(i, '\r');
+                    }
+                }
+            }
+            if (endsWithCr) {
+                out.setCharAt(out.length() - 1, '\r');
+            }
+        }
+    }
+
+    // write a document in the given charset and line-ending style, straight from the document's
+    // segments into the file without building the whole text as a String first. the bytes go to a
+    // temp file in the same folder that then replaces the target in one move, so text that can't
+    // be encoded (a € in a Latin-1 file) or a full disk leaves the original untouched
+    public static void write(Path path, Document document, Charset charset, boolean byteOrderMark,
+            LineEnding lineEnding) throws IOException {
+        replace(path, temp -> encodeTo(temp, document, charset, byteOrderMark, lineEnding));
+    }
+
+    // writes the new content of a file into the (empty) temp file it is given
+    interface Content {
+        void writeTo(Path temp) throws IOException;
+    }
+
+    // replace a file with new content written to a temp file in the same folder first, then moved
+    // over the target in one step with the target's permissions. used for every kind of save
+    static void replace(Path path, Content content) throws IOException {
+        Path target = Files.isSymbolicLink(path) ? path.toRealPath() : path;
+        Path directory = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            content.writeTo(temp);
+            copyPermissions(target, temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp); // only still there when something failed
+        }
+    }
+
+    // a replaced file keeps the permissions of the one it replaces (temp files start private)
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        PosixFileAttributeView source =
+                Files.getFileAttributeView(from, PosixFileAttributeView.class);
+        if (source == null || !Files.exists(from)) {
+            return;
+        }
+        Set<PosixFilePermission> permissions = source.readAttributes().permissions();
+        Files.getFileAttributeView(to, PosixFileAttributeView.class).setPermissions(permissions);
+    }
+
+    private static void encodeTo(Path path, Document document, Charset charset,
+            boolean byteOrderMark, LineEnding lineEnding) throws IOException {
+        CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        String separator = lineEnding.getSeparator();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE * 4);
+            if (byteOrderMark) {
+                encode(encoder, CharBuffer.wrap("\uFEFF"), bytes, channel, false);
+            }
+
+            CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE * 2);
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            int offset = 0;
+            int length = document.getLength();
+            while (offset < length) {
+                document.getText(offset, Math.min(BUFFER_SIZE, length - offset), segment);
+                for (int i = segment.offset; i < segment.offset + segment.count; i++) {
+                    char c = segment.array[i];
+                    if (c == '\n' && separator.length() > 1) {
+                        chars.put(separator);
+                    } else if (c == '\n') {
+                        chars.put(separator.charAt(0));
+                    } else {
+                        chars.put(c);
+                    }
+                    if (chars.remaining() < 2) {
+                        flushChars(encoder, chars, bytes, channel);
+                    }
+                }
+                offset += segment.count;
+            }
+            flushChars(encoder, chars, bytes, channel);
+            chars.flip();
+            encode(encoder, chars, bytes, channel, true);
+            CoderResult result = encoder.flush(bytes);
+            if (result.isError()) {
+                result.throwException();
+            }
+            writeBytes(bytes, channel);
+        } catch (BadLocationException e) {
+            throw new IOException("Document changed while saving", e);
+        }
+    }
+
+    private static void flushChars(CharsetEncoder encoder, CharBuffer chars, ByteBuffer bytes,
+            FileChannel channel) throws IOException {
+        chars.flip();
+        encode(encoder, chars, bytes, channel, false);
+        chars.compact(); // keeps a dangling high surrogate for the next round
+    }
+
+    private static void encode(CharsetEncoder encoder, CharBuffer chars, ByteBuffer bytes,
+            FileChannel channel, boolean endOfInput) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isOverflow()) {
+                writeBytes(bytes, channel);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void writeBytes(ByteBuffer bytes, FileChannel channel) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
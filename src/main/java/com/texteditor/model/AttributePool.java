@@ -0,0 +1,177 @@
+package com.texteditor.model;
+
+import com.texteditor.service.CacheStats;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.StyleContext;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// one StyleContext shared by every tab, so equal attribute sets are stored once for the whole
+// editor (like string interning). StyleContext already keeps immutable sets in a weak pool, but
+// each DefaultStyledDocument normally gets its own context and sets with more than 9 attributes
+// are never pooled; here the pool is global and the size limit is raised. sets drop out of the
+// pool once no run references them any more
+public final class AttributePool extends StyleContext {
+
+    private static final int COMPRESSION_THRESHOLD = 32; // StyleContext's default is 9
+    private static final CacheStats stats = CacheStats.register("Attribute sets");
+    private static final AttributePool shared = new AttributePool();
+
+    // every pooled set still alive; null while StyleContext's constructor runs
+    private Set<AttributeSet> pooled = Collections.newSetFromMap(new WeakHashMap<>());
+    // the last count of each measured document, guarded by itself (never by the pool's lock,
+    // which the EDT takes while it holds a document's write lock)
+    private final Map<Document, DocumentUsage> usages = new WeakHashMap<>();
+
+    private AttributePool() {
+    }
+
+    public static AttributePool shared() {
+        return shared;
+    }
+
+    // number of distinct attribute sets currently pooled
+    public synchronized int getPooledCount() {
+        return pooled.size();
+    }
+
+    @Override
+    protected int getCompressionThreshold() {
+        return COMPRESSION_THRESHOLD;
+    }
+
+    @Override
+    public synchronized AttributeSet addAttributes(AttributeSet old, AttributeSet attributes) {
+        AttributeSet result = super.addAttributes(old, attributes);
+        if (pooled != null && result instanceof SmallAttributeSet) {
+            if (pooled.add(result)) {
+                stats.miss(); // first set with these values
+            } else {
+                stats.hit();
+            }
+        }
+        return result;
+    }
+
+    // count the style runs of some documents and how many attribute sets they really use, for
+    // View > Performance. call off the EDT: each document is walked under its read lock, and
+    // only again once it has changed
+    public Usage measure(List<? extends Document> documents) {
+        long runs = 0;
+        int unpooled = 0;
+        Set<AttributeSet> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<AttributeSet> values = new HashSet<>();
+        synchronized (usages) {
+            for (Document document : documents) {
+                DocumentUsage usage = usages.get(document);
+                if (usage == null) {
+                    usage = new DocumentUsage();
+                    usages.put(document, usage);
+                    document.addDocumentListener(usage);
+                }
+                if (usage.changed) {
+                    DocumentUsage counting = usage;
+                    document.render(() -> counting.count(document));
+                }
+                runs += usage.runs;
+                unpooled += usage.unpooled;
+                instances.addAll(usage.instances);
+                values.addAll(usage.instances);
+            }
+        }
+        // a set too big for the pool is its own copy in every run by design, not a duplicate
+        return new Usage(runs, instances.size() + unpooled, values.size() + unpooled,
+                getPooledCount());
+    }
+
+    // the runs of one document, counted again after any change to it
+    private static final class DocumentUsage implements DocumentListener {
+        volatile boolean changed = true;
+        long runs;
+        int unpooled; // runs with a set over the compression threshold
+        final Set<AttributeSet> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // under the document's read lock
+        void count(Document document) {
+            changed = false;
+            runs = 0;
+            unpooled = 0;
+            instances.clear();
+            Element root = document.getDefaultRootElement();
+            for (int i = 0; i < root.getElementCount(); i++) {
+                Element paragraph = root.getElement(i);
+                for (int j = 0; j < paragraph.getElementCount(); j++) {
+                    // elements are attribute sets themselves; an immutable set's copy is the set
+                    // the element really holds, while a large (mutable) one would be copied
+                    AttributeSet attributes = paragraph.getElement(j).getAttributes();
+                    runs++;
+                    if (attributes.getAttributeCount() > COMPRESSION_THRESHOLD) {
+                        unpooled++;
+                    } else {
+                        instances.add(attributes.copyAttributes());
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            changed = true;
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            changed = true;
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            changed = true;
+        }
+    }
+
+    // attribute set usage across documents
+    public static class Usage {
+        private final long runs;
+        private final int instances;
+        private final int values;
+        private final int pooled;
+
+        Usage(long runs, int instances, int values, int pooled) {
+            this.runs = runs;
+            this.instances = instances;
+            this.values = values;
+            this.pooled = pooled;
+        }
+
+        // style runs (leaf elements) in all documents
+        public long getRuns() {
+            return runs;
+        }
+
+        // distinct attribute set objects referenced by those runs
+        public int getInstances() {
+            return instances;
+        }
+
+        // distinct attribute values; instances above this are duplicates the pool missed
+        public int getValues() {
+            return values;
+        }
+
+        // sets alive in the shared pool (also counts styles and sets used by undo history)
+        public int getPooled() {
+            return pooled;
+        }
+    }
+}
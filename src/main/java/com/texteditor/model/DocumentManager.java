@@ -3,20 +3,40 @@ package com.texteditor.model;
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import javax.swing.text.JTextComponent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
 import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * DocumentManager handles document state and file operations Supports both JTextArea (legacy) and
  * JTextPane (new rich text) components
  */
 public class DocumentManager {
+    public static final String UNSAVED_CHANGES_PROPERTY = "unsavedChanges";
+    // longest text kept as the saved snapshot, a copy beyond this would cost too much memory
+    public static final int SNAPSHOT_LIMIT = 16 * 1024 * 1024; // characters
+
     private JTextArea textArea; // Legacy text component
     private JTextPane textPane; // New rich text component
     private File currentFile;
     private boolean hasUnsavedChanges;
+    private int saveCount; // bumped by markAsSaved, tells undo steps a save happened since
+    private Charset charset = StandardCharsets.UTF_8; // encoding the file is written back in
+    private boolean byteOrderMark; // whether the file started with a BOM
+    private LineEnding lineEnding = LineEnding.LF; // line breaks written on save
+    private String savedSnapshot; // text as last loaded or saved, base for merging outside edits
+    private File plainSaveAccepted; // file the user chose to save without formatting, see below
     private DocumentListener documentListener;
+    private boolean replacingContent; // true while setText swaps the whole document
+    private boolean appending; // true while appendText adds generated output
+    private String backgroundTask; // see getBackgroundTask
+    private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
 
     public DocumentManager() {
         this.hasUnsavedChanges = false;
@@ -85,16 +105,62 @@ public class DocumentManager {
         return "";
     }
 
-    // Set text content (works with both components)
+    // Set text content (works with both components). the text goes straight into the document:
+    // JTextPane.setText reads it through the editor kit, which turns every "\r\n" and '\r' into
+    // '\n' and would lose the line breaks a MIXED file has to be saved back with
     public void setText(String text) {
-        if (textPane != null) {
-            textPane.setText(text);
-        } else if (textArea != null) {
-            textArea.setText(text);
+        Document document = getDocument();
+        if (document == null) {
+            return;
+        }
+        replacingContent = true;
+        try {
+            document.remove(0, document.getLength());
+            if (text != null && !text.isEmpty()) {
+                document.insertString(0, text, null);
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e); // offsets are always in range here
+        } finally {
+            replacingContent = false;
         }
         setUnsavedChanges(false); // Reset unsaved changes flag after setting text
     }
 
+    // Set styled text content (rich text files); a plain component only gets the text
+    public void setStyledText(char[] text, int[] runLengths, AttributeSet[] runAttributes) {
+        if (textPane == null || !(textPane.getDocument() instanceof FormattedDocument)) {
+            setText(new String(text));
+            return;
+        }
+        replacingContent = true;
+        try {
+            ((FormattedDocument) textPane.getDocument()).load(text, runLengths, runAttributes);
+            textPane.setCaretPosition(0);
+        } finally {
+            replacingContent = false;
+        }
+        setUnsavedChanges(false);
+    }
+
+    // Add generated text at the end, one chunk of output streamed into a tab (JSON formatting).
+    // like setText it counts as content being replaced, so the chunks are not journaled one by
+    // one, and the status bar skips them until the stream is done
+    public void appendText(String text) throws BadLocationException {
+        Document document = getDocument();
+        if (document == null) {
+            return;
+        }
+        replacingContent = true;
+        appending = true;
+        try {
+            document.insertString(document.getLength(), text, null);
+        } finally {
+            replacingContent = false;
+            appending = false;
+        }
+    }
+
     // Get the current document (works with both components)
     public Document getDocument() {
         if (textPane != null) {
@@ -134,19 +200,100 @@ public class DocumentManager {
         this.currentFile = file;
     }
 
+    // File format, remembered from loading so saving reproduces the same bytes
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    public boolean hasByteOrderMark() {
+        return byteOrderMark;
+    }
+
+    public void setByteOrderMark(boolean byteOrderMark) {
+        this.byteOrderMark = byteOrderMark;
+    }
+
+    public LineEnding getLineEnding() {
+        return lineEnding;
+    }
+
+    public void setLineEnding(LineEnding lineEnding) {
+        this.lineEnding = lineEnding;
+    }
+
+    // Text as it was last loaded from or saved to disk, the common ancestor when merging changes
+    // another program made to the file. null when unknown, for rich text, or over SNAPSHOT_LIMIT
+    public String getSavedSnapshot() {
+        return savedSnapshot;
+    }
+
+    public void setSavedSnapshot(String text) {
+        savedSnapshot = text != null && text.length() <= SNAPSHOT_LIMIT ? text : null;
+    }
+
+    // The file this tab may be saved to as plain text even though it has formatting, because the
+    // user already said so; null until then
+    public File getPlainSaveAccepted() {
+        return plainSaveAccepted;
+    }
+
+    public void setPlainSaveAccepted(File file) {
+        this.plainSaveAccepted = file;
+    }
+
     // Unsaved changes tracking
     public boolean hasUnsavedChanges() {
         return hasUnsavedChanges;
     }
 
     public void setUnsavedChanges(boolean hasUnsavedChanges) {
+        boolean oldValue = this.hasUnsavedChanges;
         this.hasUnsavedChanges = hasUnsavedChanges;
+        if (oldValue != hasUnsavedChanges) {
+            changeSupport.firePropertyChange(UNSAVED_CHANGES_PROPERTY, oldValue, hasUnsavedChanges);
+        }
+    }
+
+    // Whether the document events currently firing come from a whole-content replacement
+    public boolean isReplacingContent() {
+        return replacingContent;
+    }
+
+    // Whether the document events currently firing come from appendText
+    public boolean isAppending() {
+        return appending;
+    }
+
+    // What a background task is doing with the document ("export", "JSON output"), or null. an
+    // edit would wait on the EDT for the task's lock or get in its way, so the tab takes none
+    // until the task is done
+    public String getBackgroundTask() {
+        return backgroundTask;
+    }
+
+    public void setBackgroundTask(String task) {
+        this.backgroundTask = task;
+    }
+
+    // Listen for state changes such as UNSAVED_CHANGES_PROPERTY (like an event emitter)
+    public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        changeSupport.addPropertyChangeListener(propertyName, listener);
+    }
+
+    public void removePropertyChangeListener(String propertyName,
+            PropertyChangeListener listener) {
+        changeSupport.removePropertyChangeListener(propertyName, listener);
     }
 
     // Clear the document
     public void clear() {
         setText("");
         setCurrentFile(null);
+        setSavedSnapshot(null);
         setUnsavedChanges(false);
     }
 
@@ -174,6 +321,11 @@ public class DocumentManager {
     }
 
     public void markAsSaved() {
+        saveCount++;
         setUnsavedChanges(false);
     }
+
+    public int getSaveCount() {
+        return saveCount;
+    }
 }
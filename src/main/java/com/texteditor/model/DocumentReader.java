@@ -0,0 +1,89 @@
+package com.texteditor.model;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.io.IOException;
+import java.io.Reader;
+
+// a document's text as a Reader, for streaming passes that run off the EDT (JSON formatting).
+// each read copies one chunk out of the document's segments under its read lock
+// (Document.render), so no full copy of the text is ever made and the EDT can go on between
+// chunks. an edit while the reader is open makes the next read fail instead of mixing two
+// versions of the text. open on the EDT; reading and closing are safe from any thread
+public final class DocumentReader extends Reader {
+
+    private final Document document;
+    private final int length; // when opened
+    private final Segment segment = new Segment();
+    private final DocumentListener listener;
+    private volatile boolean changed;
+    private volatile int position;
+
+    public DocumentReader(Document document) {
+        this.document = document;
+        this.length = document.getLength();
+        segment.setPartialReturn(true);
+        listener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                changed = true;
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                changed = true;
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // formatting doesn't change the text
+            }
+        };
+        document.addDocumentListener(listener);
+    }
+
+    // characters read so far, for progress
+    public int getPosition() {
+        return position;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public int read(char[] into, int start, int count) throws IOException {
+        if (position >= length) {
+            return -1;
+        }
+        int wanted = Math.min(count, length - position);
+        int[] copied = new int[1];
+        BadLocationException[] failure = new BadLocationException[1];
+        // edits take the write lock, so nothing changes between the check and the copy
+        document.render(() -> {
+            if (changed) {
+                return;
+            }
+            try {
+                document.getText(position, wanted, segment);
+                System.arraycopy(segment.array, segment.offset, into, start, segment.count);
+                copied[0] = segment.count;
+            } catch (BadLocationException e) {
+                failure[0] = e;
+            }
+        });
+        if (changed || failure[0] != null) {
+            throw new IOException("The document was edited while it was being read");
+        }
+        position += copied[0];
+        return copied[0];
+    }
+
+    @Override
+    public void close() {
+        document.removeDocumentListener(listener);
+    }
+}
@@ -0,0 +1,250 @@
+package com.texteditor.model;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.Element;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// styled document that applies character formatting in batches. DefaultStyledDocument splits a
+// run at every setCharacterAttributes call and never joins runs again, so heavy formatting leaves
+// thousands of tiny elements that slow down layout. here every change (or batch of changes)
+// rebuilds the runs of the touched paragraphs once, merging neighbours that ended up with equal
+// attributes, and is reported as a single document event and a single undoable edit
+public class FormattedDocument extends DefaultStyledDocument {
+
+    // all tabs share one attribute pool, see AttributePool
+    public FormattedDocument() {
+        super(AttributePool.shared());
+    }
+
+    // start collecting changes, nothing happens until apply()
+    public Batch batch() {
+        return new Batch();
+    }
+
+    // replace the whole content with styled text in one go, for loading a saved document. the
+    // element tree is built directly, one paragraph per line and one leaf per run piece, instead
+    // of inserting the text and formatting it afterwards. runLengths must add up to text.length
+    public void load(char[] text, int[] runLengths, AttributeSet[] runAttributes) {
+        SimpleAttributeSet paragraph = new SimpleAttributeSet();
+        paragraph.setResolveParent(getStyle(StyleContext.DEFAULT_STYLE));
+
+        List<ElementSpec> specs = new ArrayList<>();
+        specs.add(new ElementSpec(null, ElementSpec.StartTagType)); // the root section
+        int run = -1;
+        int runEnd = 0;
+        int lineStart = 0;
+        while (true) {
+            int lineEnd = lineStart;
+            while (lineEnd < text.length && text[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            boolean lastLine = lineEnd == text.length;
+            ElementSpec start = new ElementSpec(paragraph, ElementSpec.StartTagType);
+            if (lastLine) {
+                // the document's last paragraph already exists and holds the implied newline
+                start.setDirection(ElementSpec.JoinNextDirection);
+            } else {
+                lineEnd++; // the newline belongs to its paragraph
+            }
+            specs.add(start);
+
+            for (int position = lineStart; position < lineEnd; ) {
+                while (runEnd <= position) {
+                    runEnd += runLengths[++run];
+                }
+                int end = Math.min(runEnd, lineEnd);
+                // ElementSpec copies the whole array it is given, so each gets only its piece
+                specs.add(new ElementSpec(runAttributes[run], ElementSpec.ContentType,
+                        Arrays.copyOfRange(text, position, end), 0, end - position));
+                position = end;
+            }
+            if (lastLine) {
+                break;
+            }
+            specs.add(new ElementSpec(null, ElementSpec.EndTagType));
+            lineStart = lineEnd;
+        }
+        create(specs.toArray(new ElementSpec[0]));
+    }
+
+    // every formatting path (popup, editor kit actions, JTextPane) goes through the batch code
+    @Override
+    public void setCharacterAttributes(int offset, int length, AttributeSet attributes,
+            boolean replace) {
+        batch().setCharacterAttributes(offset, length, attributes, replace).apply();
+    }
+
+    // several attribute changes applied together, like one React state update
+    public class Batch {
+        private final List<Change> changes = new ArrayList<>();
+
+        public Batch setCharacterAttributes(int offset, int length, AttributeSet attributes,
+                boolean replace) {
+            AttributeContext context = getAttributeContext();
+            AttributeSet pooled = context.addAttributes(context.getEmptySet(), attributes);
+            changes.add(new Change(offset, offset + length, pooled, replace));
+            return this;
+        }
+
+        public void apply() {
+            applyChanges(new ArrayList<>(changes));
+            changes.clear();
+        }
+    }
+
+    private void applyChanges(List<Change> changes) {
+        int length = getLength();
+        int start = Integer.MAX_VALUE;
+        int end = 0;
+        for (Change change : changes) {
+            change.start = Math.max(0, change.start);
+            change.end = Math.min(length, change.end);
+            if (change.start < change.end) {
+                start = Math.min(start, change.start);
+                end = Math.max(end, change.end);
+            }
+        }
+        if (start >= end) {
+            return; // nothing to format
+        }
+
+        writeLock();
+        try {
+            DefaultDocumentEvent event =
+                    new DefaultDocumentEvent(start, end - start, DocumentEvent.EventType.CHANGE);
+            Element root = getDefaultRootElement();
+            boolean changed = false;
+            for (int i = root.getElementIndex(start); i <= root.getElementIndex(end - 1); i++) {
+                changed |= restyleParagraph((BranchElement) root.getElement(i), changes, event);
+            }
+            event.end();
+            if (changed) {
+                fireChangedUpdate(event);
+                fireUndoableEditUpdate(new UndoableEditEvent(this, event));
+            }
+        } finally {
+            writeUnlock();
+        }
+    }
+
+    // replace the runs of one paragraph with restyled, compacted ones. old runs are never
+    // modified, so undo only has to put them back (ElementEdit)
+    private boolean restyleParagraph(BranchElement paragraph, List<Change> changes,
+            DefaultDocumentEvent event) {
+        Element[] oldRuns = new Element[paragraph.getElementCount()];
+        List<Element> newRuns = new ArrayList<>(oldRuns.length);
+        int segmentStart = -1;
+        int segmentEnd = -1;
+        AttributeSet segmentAttributes = null;
+        Element segmentSource = null; // the old run when the segment is exactly that run
+
+        for (int i = 0; i < oldRuns.length; i++) {
+            Element run = paragraph.getElement(i);
+            oldRuns[i] = run;
+            int runEnd = run.getEndOffset();
+            int pieceStart = run.getStartOffset();
+            while (pieceStart < runEnd) {
+                int pieceEnd = nextBoundary(pieceStart, runEnd, changes);
+                AttributeSet attributes = restyle(run.getAttributes(), pieceStart, pieceEnd,
+                        changes);
+
+                if (segmentAttributes != null && segmentAttributes.isEqual(attributes)) {
+                    segmentEnd = pieceEnd; // same look as the previous piece, extend the run
+                    segmentSource = null;
+                } else {
+                    if (segmentAttributes != null) {
+                        newRuns.add(createRun(paragraph, segmentSource, segmentAttributes,
+                                segmentStart, segmentEnd));
+                    }
+                    segmentStart = pieceStart;
+                    segmentEnd = pieceEnd;
+                    segmentAttributes = attributes;
+                    boolean whole = pieceStart == run.getStartOffset() && pieceEnd == runEnd;
+                    segmentSource = whole && attributes == run.getAttributes() ? run : null;
+                }
+                pieceStart = pieceEnd;
+            }
+        }
+        if (segmentAttributes != null) {
+            newRuns.add(createRun(paragraph, segmentSource, segmentAttributes, segmentStart,
+                    segmentEnd));
+        }
+
+        if (newRuns.size() == oldRuns.length && sameRuns(oldRuns, newRuns)) {
+            return false;
+        }
+        Element[] added = newRuns.toArray(new Element[0]);
+        paragraph.replace(0, oldRuns.length, added);
+        event.addEdit(new ElementEdit(paragraph, 0, oldRuns, added));
+        return true;
+    }
+
+    private Element createRun(BranchElement paragraph, Element source, AttributeSet attributes,
+            int start, int end) {
+        return source != null ? source : createLeafElement(paragraph, attributes, start, end);
+    }
+
+    private static boolean sameRuns(Element[] oldRuns, List<Element> newRuns) {
+        for (int i = 0; i < oldRuns.length; i++) {
+            if (oldRuns[i] != newRuns.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the next offset after position where a change starts or ends, or limit
+    private static int nextBoundary(int position, int limit, List<Change> changes) {
+        int boundary = limit;
+        for (Change change : changes) {
+            if (change.start > position && change.start < boundary) {
+                boundary = change.start;
+            }
+            if (change.end > position && change.end < boundary) {
+                boundary = change.end;
+            }
+        }
+        return boundary;
+    }
+
+    // attributes of [start, end) after all changes covering it, in the order they were added.
+    // returns the original set when nothing covers the piece
+    private static AttributeSet restyle(AttributeSet attributes, int start, int end,
+            List<Change> changes) {
+        SimpleAttributeSet result = null;
+        for (Change change : changes) {
+            if (change.start <= start && change.end >= end) {
+                if (change.replace) {
+                    result = new SimpleAttributeSet(change.attributes);
+                } else {
+                    if (result == null) {
+                        result = new SimpleAttributeSet(attributes);
+                    }
+                    result.addAttributes(change.attributes);
+                }
+            }
+        }
+        return result == null ? attributes : result;
+    }
+
+    private static class Change {
+        int start;
+        int end;
+        final AttributeSet attributes;
+        final boolean replace;
+
+        Change(int start, int end, AttributeSet attributes, boolean replace) {
+            this.start = start;
+            this.end = end;
+            this.attributes = attributes;
+            this.replace = replace;
+        }
+    }
+}
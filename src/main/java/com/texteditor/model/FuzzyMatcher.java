@@ -0,0 +1,277 @@
+package com.texteditor.model;
+
+// fuzzy matching for quick open and the command palette, like the file search of an IDE: the
+// characters of the query have to appear in the text in order (case is ignored), and a match
+// scores higher when they start words, follow each other or fall in the file name (or command
+// title) instead of a folder. a query is prepared once and then scored against many texts kept
+// in char arrays. each text also has a 64-bit mask of the letters and digits it contains, which
+// rules most texts out before a single character is compared. immutable, so one matcher can be
+// used by several threads at once
+public final class FuzzyMatcher {
+
+    public static final int NO_MATCH = Integer.MIN_VALUE;
+
+    private static final int MATCH = 16;
+    private static final int NAME_START = 14; // first character of the file name
+    private static final int BOUNDARY = 10; // after / _ - . or a space, or a camelCase hump
+    private static final int CONSECUTIVE = 8;
+    private static final int IN_NAME = 4; // in the file name rather than a folder
+    private static final int EXACT_CASE = 1;
+    private static final int MAX_GAP_PENALTY = 10;
+
+    // character classes of ASCII, looked up instead of asking Character for each match
+    private static final byte OTHER = 0;
+    private static final byte SEPARATOR = 1;
+    private static final byte LOWER = 2;
+    private static final byte UPPER = 3;
+    private static final byte DIGIT = 4;
+    private static final byte[] KIND = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            KIND[c] = LOWER;
+            KIND[c - 'a' + 'A'] = UPPER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            KIND[c] = DIGIT;
+        }
+        for (char c : "/_-. ".toCharArray()) {
+            KIND[c] = SEPARATOR;
+        }
+    }
+
+    private final char[] query; // lower case, without spaces
+    private final char[] upper; // the same in upper case, so scans compare without folding
+    private final char[] fold; // 0x20 for ASCII letters: (c | fold) == query ignores case
+    private final boolean ascii; // every query character is ASCII, so fold alone is enough
+    private final char[] typed; // as typed, for the exact-case bonus
+    private final boolean hasSeparator; // a query with '/' matches the whole path
+    private final long mask;
+
+    public FuzzyMatcher(String query) {
+        StringBuilder compact = new StringBuilder(query.length());
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                compact.append(c == '\\' ? '/' : c);
+            }
+        }
+        typed = compact.toString().toCharArray();
+        this.query = new char[typed.length];
+        upper = new char[typed.length];
+        fold = new char[typed.length];
+        boolean allAscii = true;
+        for (int i = 0; i < typed.length; i++) {
+            this.query[i] = lower(typed[i]);
+            upper[i] = Character.toUpperCase(this.query[i]);
+            fold[i] = this.query[i] >= 'a' && this.query[i] <= 'z' ? (char) 0x20 : 0;
+            allAscii &= typed[i] < 128;
+        }
+        ascii = allAscii;
+        hasSeparator = compact.indexOf("/") >= 0;
+        mask = mask(this.query, 0, this.query.length);
+    }
+
+    public boolean isEmpty() {
+        return query.length == 0;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    // whether every text this matcher accepts was accepted by the previous one too, so a search
+    // can go on from the previous results instead of the whole index (typing more of a query)
+    public boolean narrows(FuzzyMatcher previous) {
+        if (previous.hasSeparator && !hasSeparator) {
+            return false;
+        }
+        int k = 0;
+        for (int i = 0; i < query.length && k < previous.query.length; i++) {
+            if (query[i] == previous.query[k]) {
+                k++;
+            }
+        }
+        return k == previous.query.length;
+    }
+
+    // bit per letter a-z and digit 0-9 found in the text, case ignored
+    public static long mask(char[] text, int start, int end) {
+        long bits = 0;
+        for (int i = start; i < end; i++) {
+            bits |= bit(text[i]);
+        }
+        return bits;
+    }
+
+    public static long mask(CharSequence text) {
+        long bits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            bits |= bit(text.charAt(i));
+        }
+        return bits;
+    }
+
+    // score of the text in chars[start..end), NO_MATCH if the query is not in it. the query is
+    // looked for in the file name first and in the whole path when it is not all there
+    public int score(char[] text, int start, int end) {
+        return score(text, start, nameStart(text, start, end), end);
+    }
+
+    // the same with the start of the file name already known, as an index keeps it
+    public int score(char[] text, int start, int nameStart, int end) {
+        if (query.length == 0) {
+            return 0;
+        }
+        // most texts don't match at all, and one forward scan is enough to tell
+        int last = forwardEnd(text, start, end);
+        if (last < 0) {
+            return NO_MATCH;
+        }
+        int nameLast = hasSeparator || nameStart == start ? -1
+                : forwardEnd(text, nameStart, end);
+        int score = nameLast >= 0 ? scoreWindow(text, nameLast, start, nameStart)
+                : scoreWindow(text, last, start, nameStart);
+        return score - ((end - start) >> 3); // shorter paths first among equal matches
+    }
+
+    // indexes of the matched characters, in the same places score() picks; null if no match
+    public int[] positions(char[] text, int start, int end) {
+        return positions(text, start, nameStart(text, start, end), end);
+    }
+
+    public int[] positions(char[] text, int start, int nameStart, int end) {
+        if (query.length == 0) {
+            return new int[0];
+        }
+        int last = forwardEnd(text, start, end);
+        if (last < 0) {
+            return null;
+        }
+        int nameLast = hasSeparator || nameStart == start ? -1
+                : forwardEnd(text, nameStart, end);
+        int[] positions = new int[query.length];
+        int k = query.length - 1;
+        for (int i = nameLast >= 0 ? nameLast : last; k >= 0; i--) {
+            if (matches(text[i], k)) {
+                positions[k--] = i;
+            }
+        }
+        return positions;
+    }
+
+    // walk back from the character that completed the query on the forward scan to the latest
+    // place the query starts, so the window is as tight as a single pass can make it, adding up
+    // the score on the way
+    private int scoreWindow(char[] text, int last, int start, int nameStart) {
+        int score = 0;
+        int next = -1; // position of the query character after the current one
+        int k = query.length - 1;
+        for (int i = last; k >= 0; i--) {
+            char c = text[i];
+            if (!matches(c, k)) {
+                continue;
+            }
+            score += MATCH;
+            if (i == nameStart) {
+                score += NAME_START;
+            } else if (i == start || isBoundary(text[i - 1], c)) {
+                score += BOUNDARY;
+            }
+            if (i >= nameStart) {
+                score += IN_NAME;
+            }
+            if (c == typed[k]) {
+                score += EXACT_CASE;
+            }
+            if (next >= 0) {
+                score += next == i + 1 ? CONSECUTIVE : -Math.min(next - i - 1, MAX_GAP_PENALTY);
+            }
+            next = i;
+            k--;
+        }
+        return score;
+    }
+
+    // index of the character that completes the query on a forward scan, -1 if it never does
+    private int forwardEnd(char[] text, int from, int end) {
+        if (ascii) {
+            // the hot loop of every search: one OR and one compare per character
+            int k = 0;
+            char wanted = query[0];
+            char caseBit = fold[0];
+            for (int i = from; i < end; i++) {
+                if ((text[i] | caseBit) == wanted) {
+                    if (++k == query.length) {
+                        return i;
+                    }
+                    wanted = query[k];
+                    caseBit = fold[k];
+                }
+            }
+            return -1;
+        }
+        int k = 0;
+        char lowerChar = query[0];
+        char upperChar = upper[0];
+        for (int i = from; i < end; i++) {
+            char c = text[i];
+            if (c == lowerChar || c == upperChar || (c >= 128 && lower(c) == lowerChar)) {
+                if (++k == query.length) {
+                    return i;
+                }
+                lowerChar = query[k];
+                upperChar = upper[k];
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(char c, int k) {
+        if (ascii) {
+            return (c | fold[k]) == query[k];
+        }
+        return c == query[k] || c == upper[k] || (c >= 128 && lower(c) == query[k]);
+    }
+
+    // where the file name begins, after the last '/'
+    public static int nameStart(char[] text, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (text[i] == '/') {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static boolean isBoundary(char previous, char c) {
+        if (previous < 128 && c < 128) {
+            byte before = KIND[previous];
+            byte kind = KIND[c];
+            return before == SEPARATOR || (before == LOWER && kind == UPPER)
+                    || (before != DIGIT && kind == DIGIT);
+        }
+        return (Character.isLowerCase(previous) && Character.isUpperCase(c))
+                || (!Character.isDigit(previous) && Character.isDigit(c));
+    }
+
+    private static char lower(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static long bit(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1L << (c - 'a');
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return 1L << (c - 'A');
+        }
+        if (c >= '0' && c <= '9') {
+            return 1L << (26 + c - '0');
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,386 @@
+package com.texteditor.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+// pretty-print, minify or just validate JSON as one streaming pass: characters go from the reader
+// through a tokenizer straight to the writer, so memory stays constant however large the input
+// is. nothing is parsed into objects (unlike JSON.parse + JSON.stringify), strings and numbers
+// are copied through a character at a time while being checked, and the only state is a stack
+// with one byte per open object or array. the first syntax error stops the pass and reports
+// where it is
+public final class JsonFormatter {
+
+    public enum Style {
+        PRETTY, // two-space indent, one value per line
+        MINIFIED, // no whitespace at all
+        VALIDATE // no output
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int EOF = -1;
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+    private static final String INDENT = "  ";
+
+    private final Reader in;
+    private final Writer out; // null when validating
+    private final boolean pretty;
+    private final char[] input = new char[BUFFER_SIZE];
+    private int inputPosition;
+    private int inputLength;
+    private final char[] output = new char[BUFFER_SIZE];
+    private int outputLength;
+    private byte[] stack = new byte[64];
+    private int depth;
+    private int maxDepth;
+    private long values;
+
+    // position of the character last read, for errors
+    private long offset = -1;
+    private long line = 1;
+    private long lineStart;
+    private boolean afterNewline;
+    private int pushedBack = EOF - 1; // a character read one too far, none when below EOF
+
+    private JsonFormatter(Reader in, Writer out, Style style) {
+        this.in = in;
+        this.out = style == Style.VALIDATE ? null : out;
+        this.pretty = style == Style.PRETTY;
+    }
+
+    // run one pass; out may be null for VALIDATE. throws SyntaxError at the first mistake, after
+    // writing (and flushing) everything before it
+    public static Result format(Reader in, Writer out, Style style)
+            throws IOException, SyntaxError {
+        JsonFormatter formatter = new JsonFormatter(in, out, style);
+        try {
+            formatter.document();
+        } finally {
+            formatter.flush();
+        }
+        // having read the end, offset is one past the last character: the count
+        return new Result(formatter.offset, formatter.values, formatter.maxDepth);
+    }
+
+    // one value with nothing but whitespace around it. objects and arrays are walked with the
+    // stack instead of recursion, so deep nesting can't overflow the thread's stack
+    private void document() throws IOException, SyntaxError {
+        int c = nextNonSpace();
+        if (c == EOF) {
+            throw error("The document is empty");
+        }
+        while (true) {
+            // c starts a value
+            values++;
+            if (c == '{' || c == '[') {
+                write((char) c);
+                int first = nextNonSpace();
+                if (first == (c == '{' ? '}' : ']')) {
+                    write((char) first); // {} or []
+                } else {
+                    push(c == '{' ? OBJECT : ARRAY);
+                    newLine();
+                    c = c == '{' ? property(first) : first;
+                    continue;
+                }
+            } else if (c == '"') {
+                string();
+            } else if (c == '-' || (c >= '0' && c <= '9')) {
+                number(c);
+            } else if (c == 't') {
+                literal("true");
+            } else if (c == 'f') {
+                literal("false");
+            } else if (c == 'n') {
+                literal("null");
+            } else {
+                throw unexpected(c, "a value");
+            }
+
+            // after a value: a comma and the next one, or the end of the containers it closes
+            while (true) {
+                c = nextNonSpace();
+                if (depth == 0) {
+                    if (c != EOF) {
+                        throw unexpected(c, "the end of the document");
+                    }
+                    return;
+                }
+                byte container = stack[depth - 1];
+                if (c == ',') {
+                    write(',');
+                    newLine();
+                    int next = nextNonSpace();
+                    c = container == OBJECT ? property(next) : next;
+                    break;
+                }
+                if (c == (container == OBJECT ? '}' : ']')) {
+                    depth--;
+                    newLine();
+                    write((char) c);
+                } else {
+                    throw unexpected(c, container == OBJECT ? "',' or '}'" : "',' or ']'");
+                }
+            }
+        }
+    }
+
+    // a property name and its colon; returns the first character of the value
+    private int property(int c) throws IOException, SyntaxError {
+        if (c != '"') {
+            throw unexpected(c, "a property name in double quotes");
+        }
+        string();
+        int colon = nextNonSpace();
+        if (colon != ':') {
+            throw unexpected(colon, "':'");
+        }
+        write(':');
+        if (pretty) {
+            write(' ');
+        }
+        return nextNonSpace();
+    }
+
+    // the rest of a string after its opening quote, escapes checked and kept as they are
+    private void string() throws IOException, SyntaxError {
+        write('"');
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                write('"');
+                return;
+            }
+            if (c == EOF) {
+                throw error("The string is not closed");
+            }
+            if (c < 0x20) {
+                throw error(c == '\n' ? "Line break inside a string (use \\n)"
+                        : "Control character inside a string");
+            }
+            write((char) c);
+            if (c == '\\') {
+                int escape = next();
+                if (escape == 'u') {
+                    write('u');
+                    for (int i = 0; i < 4; i++) {
+                        int digit = next();
+                        if (Character.digit(digit, 16) < 0 || digit > 'f') {
+                            throw unexpected(digit, "a hex digit of a \\u escape");
+                        }
+                        write((char) digit);
+                    }
+                } else if (escape >= 0 && "\"\\/bfnrt".indexOf(escape) >= 0) {
+                    write((char) escape);
+                } else {
+                    throw unexpected(escape, "an escape character (\\\" \\\\ \\/ \\b \\f \\n \\r "
+                            + "\\t \\u)");
+                }
+            }
+        }
+    }
+
+    // -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?, first is already read
+    private void number(int first) throws IOException, SyntaxError {
+        int c = first;
+        if (c == '-') {
+            write('-');
+            c = next();
+        }
+        if (c == '0') {
+            write('0');
+            c = next();
+        } else if (c >= '1' && c <= '9') {
+            c = digits(c);
+        } else {
+            throw unexpected(c, "a digit");
+        }
+        if (c == '.') {
+            write('.');
+            c = next();
+            if (c < '0' || c > '9') {
+                throw unexpected(c, "a digit after the decimal point");
+            }
+            c = digits(c);
+        }
+        if (c == 'e' || c == 'E') {
+            write((char) c);
+            c = next();
+            if (c == '+' || c == '-') {
+                write((char) c);
+                c = next();
+            }
+            if (c < '0' || c > '9') {
+                throw unexpected(c, "a digit in the exponent");
+            }
+            c = digits(c);
+        }
+        pushBack(c);
+    }
+
+    // copy digits starting with c; returns the first character after them
+    private int digits(int c) throws IOException {
+        while (c >= '0' && c <= '9') {
+            write((char) c);
+            c = next();
+        }
+        return c;
+    }
+
+    // true, false or null, the first letter already read
+    private void literal(String word) throws IOException, SyntaxError {
+        write(word.charAt(0));
+        for (int i = 1; i < word.length(); i++) {
+            int c = next();
+            if (c != word.charAt(i)) {
+                throw unexpected(c, "'" + word + "'");
+            }
+            write((char) c);
+        }
+    }
+
+    private void push(byte container) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = container;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private int nextNonSpace() throws IOException {
+        int c = next();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            c = next();
+        }
+        return c;
+    }
+
+    private int next() throws IOException {
+        if (pushedBack >= EOF) {
+            int c = pushedBack;
+            pushedBack = EOF - 1;
+            return c;
+        }
+        if (inputPosition == inputLength) {
+            inputLength = in.read(input, 0, input.length);
+            inputPosition = 0;
+            if (inputLength <= 0) {
+                inputLength = 0;
+                offset++; // errors at the end point just past the last character
+                return EOF;
+            }
+        }
+        char c = input[inputPosition++];
+        offset++;
+        if (afterNewline) {
+            line++;
+            lineStart = offset;
+        }
+        afterNewline = c == '\n';
+        return c;
+    }
+
+    // only one character, read past the end of a number, ever goes back; the position stays on
+    // it, which is where an error about it should point anyway
+    private void pushBack(int c) {
+        pushedBack = c;
+    }
+
+    // a line break and the indent for the current depth, pretty-printing only
+    private void newLine() throws IOException {
+        if (!pretty) {
+            return;
+        }
+        write('\n');
+        for (int i = 0; i < depth; i++) {
+            write(INDENT.charAt(0));
+            write(INDENT.charAt(1));
+        }
+    }
+
+    private void write(char c) throws IOException {
+        if (out == null) {
+            return;
+        }
+        if (outputLength == output.length) {
+            flush();
+        }
+        output[outputLength++] = c;
+    }
+
+    private void flush() throws IOException {
+        if (out != null && outputLength > 0) {
+            out.write(output, 0, outputLength);
+            outputLength = 0;
+        }
+    }
+
+    private SyntaxError unexpected(int c, String expected) {
+        if (c == EOF) {
+            return error("Expected " + expected + " but the document ends");
+        }
+        String found = c == '\n' ? "a line break" : c < 0x20 ? String.format("\\u%04x", c)
+                : "'" + (char) c + "'";
+        return error("Expected " + expected + " but found " + found);
+    }
+
+    private SyntaxError error(String message) {
+        return new SyntaxError(message, offset, line, offset - lineStart + 1);
+    }
+
+    // what a successful pass went through
+    public static final class Result {
+        private final long characters;
+        private final long values;
+        private final int maxDepth;
+
+        Result(long characters, long values, int maxDepth) {
+            this.characters = characters;
+            this.values = values;
+            this.maxDepth = maxDepth;
+        }
+
+        // characters read, whitespace included
+        public long getCharacters() {
+            return characters;
+        }
+
+        // objects, arrays, strings, numbers and literals, property names not counted
+        public long getValues() {
+            return values;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+    }
+
+    // the first mistake in the input; line and column count from 1, offset from 0
+    public static final class SyntaxError extends Exception {
+        private final long offset;
+        private final long line;
+        private final long column;
+
+        SyntaxError(String message, long offset, long line, long column) {
+            super(message);
+            this.offset = offset;
+            this.line = line;
+            this.column = column;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public long getColumn() {
+            return column;
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.texteditor.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// line-by-line comparison of two texts, like `git diff`. every distinct line is interned to a
+// small int first, so the algorithms only ever compare ints. the core is Myers' O(ND) diff in
+// its linear-space form (find the middle of the edit path, recurse on both halves); ranges of
+// many lines are first cut at lines that occur exactly once on each side (patience diff), which
+// keeps huge files fast and lines up moved blocks the way a reader expects. pure computation
+// with no Swing access, meant to run off the EDT
+public final class LineDiff {
+
+    private static final int PATIENCE_THRESHOLD = 10_000; // lines in both sides of a range
+    // Myers steps before giving up on a range: the whole diff, or one gap between patience anchors
+    private static final long WORK_LIMIT = 100_000_000L;
+
+    private final String left;
+    private final String right;
+    private final int[] leftLineStarts;
+    private final int[] rightLineStarts;
+    private final List<Hunk> hunks;
+
+    private LineDiff(String left, String right, int[] leftLineStarts, int[] rightLineStarts,
+            List<Hunk> hunks) {
+        this.left = left;
+        this.right = right;
+        this.leftLineStarts = leftLineStarts;
+        this.rightLineStarts = rightLineStarts;
+        this.hunks = hunks;
+    }
+
+    // compare two texts with '\n' line breaks
+    public static LineDiff compare(String left, String right) {
+        LineInterner interner = new LineInterner();
+        int[] leftLineStarts = lineStarts(left);
+        int[] rightLineStarts = lineStarts(right);
+        int[] a = interner.internLines(left, leftLineStarts);
+        int[] b = interner.internLines(right, rightLineStarts);
+        Differ differ = new Differ(a, b, interner.size());
+        differ.compare(0, a.length, 0, b.length);
+        return new LineDiff(left, right, leftLineStarts, rightLineStarts,
+                Collections.unmodifiableList(differ.hunks));
+    }
+
+    public int getLeftLineCount() {
+        return leftLineStarts.length - 1;
+    }
+
+    public int getRightLineCount() {
+        return rightLineStarts.length - 1;
+    }
+
+    public String getLeftLine(int line) {
+        return line(left, leftLineStarts, line);
+    }
+
+    public String getRightLine(int line) {
+        return line(right, rightLineStarts, line);
+    }
+
+    // characters in the longest line on either side, for sizing a view
+    public int getLongestLineLength() {
+        int longest = 0;
+        for (int[] starts : new int[][] {leftLineStarts, rightLineStarts}) {
+            for (int line = 0; line + 1 < starts.length; line++) {
+                longest = Math.max(longest, starts[line + 1] - starts[line]);
+            }
+        }
+        return longest;
+    }
+
+    // changed regions in order; lines between them are equal on both sides
+    public List<Hunk> getHunks() {
+        return hunks;
+    }
+
+    public boolean isIdentical() {
+        return hunks.isEmpty();
+    }
+
+    private static String line(String text, int[] lineStarts, int line) {
+        int end = lineStarts[line + 1];
+        if (end > lineStarts[line] && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return text.substring(lineStarts[line], end);
+    }
+
+    // start offset of every line plus the text length; an empty text still has one empty line
+    private static int[] lineStarts(String text) {
+        int count = 1;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+            count++;
+        }
+        int[] starts = new int[count + 1];
+        int line = 1;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+            starts[line++] = i + 1;
+        }
+        starts[count] = text.length();
+        return starts;
+    }
+
+    // a changed region: lines [leftStart, leftEnd) were replaced by [rightStart, rightEnd). one
+    // side is empty for a pure insertion or deletion
+    public static final class Hunk {
+        private final int leftStart;
+        private int leftEnd;
+        private final int rightStart;
+        private int rightEnd;
+
+        Hunk(int leftStart, int leftEnd, int rightStart, int rightEnd) {
+            this.leftStart = leftStart;
+            this.leftEnd = leftEnd;
+            this.rightStart = rightStart;
+            this.rightEnd = rightEnd;
+        }
+
+        public int getLeftStart() {
+            return leftStart;
+        }
+
+        public int getLeftEnd() {
+            return leftEnd;
+        }
+
+        public int getRightStart() {
+            return rightStart;
+        }
+
+        public int getRightEnd() {
+            return rightEnd;
+        }
+    }
+
+    // maps each distinct line to a dense id without creating a String per line: an open
+    // addressing table of ids, compared against the text they were first seen in
+    private static final class LineInterner {
+        private int[] slots = new int[1024]; // id + 1, 0 is empty
+        private int[] hashes = new int[256];
+        private int[] starts = new int[256];
+        private int[] lengths = new int[256];
+        private String[] texts = new String[256];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int[] internLines(String text, int[] lineStarts) {
+            int[] ids = new int[lineStarts.length - 1];
+            for (int line = 0; line < ids.length; line++) {
+                int start = lineStarts[line];
+                int end = lineStarts[line + 1];
+                if (end > start && text.charAt(end - 1) == '\n') {
+                    end--;
+                }
+                ids[line] = intern(text, start, end - start);
+            }
+            return ids;
+        }
+
+        private int intern(String text, int start, int length) {
+            int hash = 0;
+            for (int i = start; i < start + length; i++) {
+                hash = 31 * hash + text.charAt(i);
+            }
+            int mask = slots.length - 1;
+            int slot = (hash ^ (hash >>> 16)) * 0x9E3779B9 & mask;
+            while (slots[slot] != 0) {
+                int id = slots[slot] - 1;
+                if (hashes[id] == hash && lengths[id] == length
+                        && text.regionMatches(start, texts[id], starts[id], length)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == hashes.length) {
+                int capacity = size * 2;
+                hashes = Arrays.copyOf(hashes, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+            }
+            int id = size++;
+            hashes[id] = hash;
+            starts[id] = start;
+            lengths[id] = length;
+            texts[id] = text;
+            slots[slot] = id + 1;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = (hashes[id] ^ (hashes[id] >>> 16)) * 0x9E3779B9 & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id + 1;
+            }
+        }
+    }
+
+    // the diff itself, over two arrays of line ids
+    private static final class Differ {
+        private final int[] a;
+        private final int[] b;
+        private final List<Hunk> hunks = new ArrayList<>();
+        // patience bookkeeping, indexed by line id and cleared after every use
+        private final int[] countA;
+        private final int[] countB;
+        private final int[] positionB;
+        // Myers' furthest-reaching x per diagonal, forward and backward, reused across calls
+        private int[] forward = new int[0];
+        private int[] backward = new int[0];
+        private int splitA;
+        private int splitB;
+        private long work; // Myers steps spent on the current range, see compareRange
+
+        Differ(int[] a, int[] b, int ids) {
+            this.a = a;
+            this.b = b;
+            countA = new int[ids];
+            countB = new int[ids];
+            positionB = new int[ids];
+        }
+
+        // diff a[aStart, aEnd) against b[bStart, bEnd), adding hunks in order
+        void compare(int aStart, int aEnd, int bStart, int bEnd) {
+            while (aStart < aEnd && bStart < bEnd && a[aStart] == b[bStart]) {
+                aStart++;
+                bStart++;
+            }
+            while (aStart < aEnd && bStart < bEnd && a[aEnd - 1] == b[bEnd - 1]) {
+                aEnd--;
+                bEnd--;
+            }
+            if (aStart == aEnd || bStart == bEnd) {
+                addHunk(aStart, aEnd, bStart, bEnd);
+                return;
+            }
+            if ((aEnd - aStart) + (bEnd - bStart) > PATIENCE_THRESHOLD
+                    && compareByUniqueLines(aStart, aEnd, bStart, bEnd)) {
+                return;
+            }
+            if (bisect(aStart, aEnd, bStart, bEnd)) {
+                int middleA = splitA;
+                int middleB = splitB;
+                compare(aStart, middleA, bStart, middleB);
+                compare(middleA, aEnd, middleB, bEnd);
+            } else {
+                addHunk(aStart, aEnd, bStart, bEnd); // too different, show it as one block
+            }
+        }
+
+        // patience diff: lines that occur exactly once on each side are matched up along their
+        // longest common order, and the gaps between them are compared on their own. returns
+        // false when there is no such line to anchor on
+        private boolean compareByUniqueLines(int aStart, int aEnd, int bStart, int bEnd) {
+            for (int i = aStart; i < aEnd; i++) {
+                countA[a[i]]++;
+            }
+            for (int j = bStart; j < bEnd; j++) {
+                countB[b[j]]++;
+                positionB[b[j]] = j;
+            }
+            int[] anchorA = new int[Math.min(aEnd - aStart, bEnd - bStart)];
+            int[] anchorB = new int[anchorA.length];
+            int anchors = 0;
+            for (int i = aStart; i < aEnd && anchors < anchorA.length; i++) {
+                int id = a[i];
+                if (countA[id] == 1 && countB[id] == 1) {
+                    anchorA[anchors] = i;
+                    anchorB[anchors] = positionB[id];
+                    anchors++;
+                }
+            }
+            for (int i = aStart; i < aEnd; i++) {
+                countA[a[i]] = 0;
+            }
+            for (int j = bStart; j < bEnd; j++) {
+                countB[b[j]] = 0;
+            }
+            if (anchors == 0) {
+                return false;
+            }
+
+            int[] chain = longestIncreasing(anchorB, anchors);
+            int previousA = aStart;
+            int previousB = bStart;
+            for (int index : chain) {
+                compareRange(previousA, anchorA[index], previousB, anchorB[index]);
+                previousA = anchorA[index] + 1;
+                previousB = anchorB[index] + 1;
+            }
+            compareRange(previousA, aEnd, previousB, bEnd);
+            return true;
+        }
+
+        // compare a gap between anchors with a work limit of its own, so one noisy block can't
+        // use up what the gaps after it need and turn each of them into one coarse hunk
+        private void compareRange(int aStart, int aEnd, int bStart, int bEnd) {
+            long outer = work;
+            work = 0;
+            compare(aStart, aEnd, bStart, bEnd);
+            work = outer;
+        }
+
+        // indexes of the longest strictly increasing subsequence of values[0, count), by patience
+        // sorting: O(n log n)
+        private static int[] longestIncreasing(int[] values, int count) {
+            int[] tails = new int[count]; // index of the smallest tail of each pile
+            int[] previous = new int[count];
+            int piles = 0;
+            for (int i = 0; i < count; i++) {
+                int low = 0;
+                int high = piles;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (values[tails[middle]] < values[i]) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                previous[i] = low > 0 ? tails[low - 1] : -1;
+                tails[low] = i;
+                if (low == piles) {
+                    piles++;
+                }
+            }
+            int[] chain = new int[piles];
+            for (int i = tails[piles - 1], k = piles - 1; k >= 0; i = previous[i], k--) {
+                chain[k] = i;
+            }
+            return chain;
+        }
+
+        // Myers' middle snake: walks the edit graph from both corners at once until the paths
+        // meet, and leaves a point on an optimal path in splitA/splitB. memory is two arrays of
+        // diagonals, not a table. false when the work limit is used up
+        private boolean bisect(int aStart, int aEnd, int bStart, int bEnd) {
+            int n = aEnd - aStart;
+            int m = bEnd - bStart;
+            int maxD = (n + m + 1) / 2;
+            int offset = maxD;
+            int length = 2 * maxD + 2;
+            if (forward.length < length) {
+                forward = new int[length];
+                backward = new int[length];
+            }
+            Arrays.fill(forward, 0, length, -1);
+            Arrays.fill(backward, 0, length, -1);
+            forward[offset + 1] = 0;
+            backward[offset + 1] = 0;
+            int delta = n - m;
+            boolean odd = (delta & 1) != 0; // which direction can detect the overlap
+            int forwardStart = 0;
+            int forwardEnd = 0;
+            int backwardStart = 0;
+            int backwardEnd = 0;
+
+            for (int d = 0; d < maxD; d++) {
+                work += 2L * d + 2;
+                if (work > WORK_LIMIT) {
+                    return false;
+                }
+                for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+                    int index = offset + k;
+                    int x = k == -d || (k != d && forward[index - 1] < forward[index + 1])
+                            ? forward[index + 1] : forward[index - 1] + 1;
+                    int y = x - k;
+                    while (x < n && y < m && a[aStart + x] == b[bStart + y]) {
+                        x++;
+                        y++;
+                    }
+                    forward[index] = x;
+                    if (x > n) {
+                        forwardEnd += 2; // ran off the right edge
+                    } else if (y > m) {
+                        forwardStart += 2; // ran off the bottom edge
+                    } else if (odd) {
+                        int reverse = offset + delta - k;
+                        if (reverse >= 0 && reverse < length && backward[reverse] != -1
+                                && x >= n - backward[reverse]) {
+                            splitA = aStart + x;
+                            splitB = bStart + y;
+                            return true;
+                        }
+                    }
+                }
+                for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+                    int index = offset + k;
+                    int x = k == -d || (k != d && backward[index - 1] < backward[index + 1])
+                            ? backward[index + 1] : backward[index - 1] + 1;
+                    int y = x - k;
+                    while (x < n && y < m && a[aEnd - 1 - x] == b[bEnd - 1 - y]) {
+                        x++;
+                        y++;
+                    }
+                    backward[index] = x;
+                    if (x > n) {
+                        backwardEnd += 2;
+                    } else if (y > m) {
+                        backwardStart += 2;
+                    } else if (!odd) {
+                        int reverse = offset + delta - k;
+                        if (reverse >= 0 && reverse < length && forward[reverse] != -1) {
+                            int forwardX = forward[reverse];
+                            if (forwardX >= n - x) {
+                                splitA = aStart + forwardX;
+                                splitB = bStart + forwardX - (reverse - offset);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        // append a changed region, joining it to the previous one when they touch
+        private void addHunk(int aStart, int aEnd, int bStart, int bEnd) {
+            if (aStart == aEnd && bStart == bEnd) {
+                return;
+            }
+            if (!hunks.isEmpty()) {
+                Hunk last = hunks.get(hunks.size() - 1);
+                if (last.leftEnd == aStart && last.rightEnd == bStart) {
+                    last.leftEnd = aEnd;
+                    last.rightEnd = bEnd;
+                    return;
+                }
+            }
+            hunks.add(new Hunk(aStart, aEnd, bStart, bEnd));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.texteditor.model;
+
+// line-ending style of a text file. documents always hold '\n' internally (that's what Swing
+// expects); the style decides what is written back on save. MIXED files keep their '\r'
+// characters in the document so they still save byte for byte
+public enum LineEnding {
+    LF("\n", "LF"),
+    CRLF("\r\n", "CRLF"),
+    CR("\r", "CR"),
+    MIXED("\n", "Mixed");
+
+    private final String separator;
+    private final String displayName;
+
+    LineEnding(String separator, String displayName) {
+        this.separator = separator;
+        this.displayName = displayName;
+    }
+
+    // what a '\n' in the document becomes on disk
+    public String getSeparator() {
+        return separator;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // pick the style from the number of each kind of line break seen in a file
+    public static LineEnding fromCounts(long lf, long crlf, long cr) {
+        int kinds = (lf > 0 ? 1 : 0) + (crlf > 0 ? 1 : 0) + (cr > 0 ? 1 : 0);
+        if (kinds > 1) {
+            return MIXED;
+        }
+        if (crlf > 0) {
+            return CRLF;
+        }
+        if (cr > 0) {
+            return CR;
+        }
+        return LF;
+    }
+}
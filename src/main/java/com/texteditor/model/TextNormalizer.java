@@ -0,0 +1,112 @@
+package com.texteditor.model;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.util.Arrays;
+import java.util.BitSet;
+
+// line-break and trailing-whitespace cleanup done as one streaming pass over a document. the scan
+// reads the document in segments (no copy of the text) and only records the ranges to change in
+// primitive arrays; the edits are then applied back to front so earlier offsets stay valid
+public final class TextNormalizer {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private TextNormalizer() {
+    }
+
+    // rewrite stray '\r' / "\r\n" to '\n' and/or strip spaces and tabs at line ends; returns the
+    // number of edits made (call on the EDT, ideally inside one compound undoable edit)
+    public static int normalize(Document document, boolean unifyLineBreaks,
+            boolean trimTrailingWhitespace) throws BadLocationException {
+        EditList edits = scan(document, unifyLineBreaks, trimTrailingWhitespace);
+
+        for (int i = edits.size - 1; i >= 0; i--) {
+            document.remove(edits.starts[i], edits.lengths[i]);
+            if (edits.newlines.get(i)) {
+                document.insertString(edits.starts[i], "\n", null);
+            }
+        }
+        return edits.size;
+    }
+
+    private static EditList scan(Document document, boolean unifyLineBreaks,
+            boolean trimTrailingWhitespace) throws BadLocationException {
+        EditList edits = new EditList();
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+
+        int length = document.getLength();
+        int whitespaceStart = -1; // start of the current run of spaces/tabs
+        int pendingCr = -1; // offset of a '\r' whose next char we haven't seen yet
+        int offset = 0;
+
+        while (offset < length) {
+            document.getText(offset, Math.min(CHUNK_SIZE, length - offset), segment);
+            char[] array = segment.array;
+            int base = offset - segment.offset;
+
+            for (int i = segment.offset; i < segment.offset + segment.count; i++) {
+                char c = array[i];
+                int position = base + i;
+
+                if (pendingCr >= 0) {
+                    // "\r\n" loses the '\r', a lone '\r' becomes '\n'
+                    edits.add(pendingCr, 1, c != '\n');
+                    pendingCr = -1;
+                }
+
+                if (c == ' ' || c == '\t') {
+                    if (whitespaceStart < 0) {
+                        whitespaceStart = position;
+                    }
+                } else {
+                    boolean lineBreak = c == '\n' || c == '\r';
+                    if (lineBreak && trimTrailingWhitespace && whitespaceStart >= 0) {
+                        edits.add(whitespaceStart, position - whitespaceStart, false);
+                    }
+                    whitespaceStart = -1;
+                    if (c == '\r' && unifyLineBreaks) {
+                        pendingCr = position;
+                    }
+                }
+            }
+            offset += segment.count;
+        }
+
+        if (pendingCr >= 0) {
+            edits.add(pendingCr, 1, true);
+        }
+        if (trimTrailingWhitespace && whitespaceStart >= 0) {
+            edits.add(whitespaceStart, length - whitespaceStart, false);
+        }
+        return edits;
+    }
+
+    // growable list of (start, length, insert '\n') edits, merging touching removals
+    private static class EditList {
+        int[] starts = new int[256];
+        int[] lengths = new int[256];
+        final BitSet newlines = new BitSet();
+        int size;
+
+        void add(int start, int length, boolean newline) {
+            if (size > 0 && !newlines.get(size - 1)
+                    && starts[size - 1] + lengths[size - 1] == start) {
+                // e.g. trailing spaces followed by the '\r' of "\r\n"
+                lengths[size - 1] += length;
+                newlines.set(size - 1, newline);
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            starts[size] = start;
+            lengths[size] = length;
+            newlines.set(size, newline);
+            size++;
+        }
+    }
+}
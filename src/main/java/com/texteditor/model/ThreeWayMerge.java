@@ -0,0 +1,152 @@
+package com.texteditor.model;
+
+import java.util.List;
+
+// line-based three-way merge, like `git merge-file`: both new versions are diffed against their
+// common ancestor, changes made on only one side are taken as they are, and regions both sides
+// changed differently are written out between conflict markers for the user to resolve. pure
+// computation, meant to run off the EDT
+public final class ThreeWayMerge {
+
+    private final String text;
+    private final int conflicts;
+
+    private ThreeWayMerge(String text, int conflicts) {
+        this.text = text;
+        this.conflicts = conflicts;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    // merge mine and theirs, both edited from base. the labels name the sides in the markers
+    public static ThreeWayMerge merge(String base, String mine, String theirs, String mineLabel,
+            String theirsLabel) {
+        LineDiff ours = LineDiff.compare(base, mine);
+        LineDiff others = LineDiff.compare(base, theirs);
+        List<LineDiff.Hunk> ourHunks = ours.getHunks();
+        List<LineDiff.Hunk> otherHunks = others.getHunks();
+        Output out = new Output(mine.length() + theirs.length() - base.length());
+
+        int baseLine = 0;
+        int ourDelta = 0; // lines added minus removed by the hunks before, on each side
+        int otherDelta = 0;
+        int i = 0;
+        int j = 0;
+        int conflicts = 0;
+        while (i < ourHunks.size() || j < otherHunks.size()) {
+            // a group starts at the first hunk left and takes in every hunk it overlaps
+            boolean oursFirst = j == otherHunks.size() || (i < ourHunks.size()
+                    && ourHunks.get(i).getLeftStart() <= otherHunks.get(j).getLeftStart());
+            LineDiff.Hunk first = oursFirst ? ourHunks.get(i) : otherHunks.get(j);
+            int groupStart = first.getLeftStart();
+            int groupEnd = first.getLeftEnd();
+            int ourFrom = i;
+            int otherFrom = j;
+            boolean grew = true;
+            while (grew) {
+                grew = false;
+                if (i < ourHunks.size() && overlaps(groupStart, groupEnd, ourHunks.get(i))) {
+                    groupEnd = Math.max(groupEnd, ourHunks.get(i++).getLeftEnd());
+                    grew = true;
+                }
+                if (j < otherHunks.size() && overlaps(groupStart, groupEnd, otherHunks.get(j))) {
+                    groupEnd = Math.max(groupEnd, otherHunks.get(j++).getLeftEnd());
+                    grew = true;
+                }
+            }
+
+            for (int line = baseLine; line < groupStart; line++) {
+                out.line(ours.getLeftLine(line));
+            }
+            int ourStart = groupStart + ourDelta;
+            ourDelta += delta(ourHunks, ourFrom, i);
+            int ourEnd = groupEnd + ourDelta;
+            int otherStart = groupStart + otherDelta;
+            otherDelta += delta(otherHunks, otherFrom, j);
+            int otherEnd = groupEnd + otherDelta;
+
+            if (otherFrom == j) {
+                out.rightLines(ours, ourStart, ourEnd); // only we changed this
+            } else if (ourFrom == i || sameLines(ours, ourStart, ourEnd, others, otherStart,
+                    otherEnd)) {
+                out.rightLines(others, otherStart, otherEnd); // only they did, or both alike
+            } else {
+                conflicts++;
+                out.line("<<<<<<< " + mineLabel);
+                out.rightLines(ours, ourStart, ourEnd);
+                out.line("=======");
+                out.rightLines(others, otherStart, otherEnd);
+                out.line(">>>>>>> " + theirsLabel);
+            }
+            baseLine = groupEnd;
+        }
+        for (int line = baseLine; line < ours.getLeftLineCount(); line++) {
+            out.line(ours.getLeftLine(line));
+        }
+        return new ThreeWayMerge(out.toString(), conflicts);
+    }
+
+    // whether a hunk touches a group of base lines. changes that only meet at a boundary are
+    // independent, except two insertions (or an insertion and a change) at the same line
+    private static boolean overlaps(int groupStart, int groupEnd, LineDiff.Hunk hunk) {
+        return hunk.getLeftStart() < groupEnd || hunk.getLeftStart() == groupStart;
+    }
+
+    private static int delta(List<LineDiff.Hunk> hunks, int from, int to) {
+        int delta = 0;
+        for (int k = from; k < to; k++) {
+            LineDiff.Hunk hunk = hunks.get(k);
+            delta += (hunk.getRightEnd() - hunk.getRightStart())
+                    - (hunk.getLeftEnd() - hunk.getLeftStart());
+        }
+        return delta;
+    }
+
+    private static boolean sameLines(LineDiff a, int aStart, int aEnd, LineDiff b, int bStart,
+            int bEnd) {
+        if (aEnd - aStart != bEnd - bStart) {
+            return false;
+        }
+        for (int k = 0; k < aEnd - aStart; k++) {
+            if (!a.getRightLine(aStart + k).equals(b.getRightLine(bStart + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // joins lines with '\n', so a text split into lines and written back comes out unchanged
+    private static final class Output {
+        private final StringBuilder text;
+        private boolean empty = true;
+
+        Output(int capacity) {
+            text = new StringBuilder(Math.max(capacity, 16));
+        }
+
+        void line(String line) {
+            if (!empty) {
+                text.append('\n');
+            }
+            text.append(line);
+            empty = false;
+        }
+
+        void rightLines(LineDiff diff, int start, int end) {
+            for (int line = start; line < end; line++) {
+                line(diff.getRightLine(line));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
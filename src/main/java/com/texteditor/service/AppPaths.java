@@ -0,0 +1,32 @@
+package com.texteditor.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// central place for where the editor keeps its own files (like a ~/.config folder for web tools).
+// can be redirected with -Dtekst.home=... which is handy for benchmarks and throwaway profiles
+public final class AppPaths {
+
+    private static final Path DATA_DIR = Paths.get(System.getProperty("tekst.home",
+            Paths.get(System.getProperty("user.home"), ".tekst").toString()));
+
+    private AppPaths() {
+    }
+
+    // root data directory, e.g. ~/.tekst
+    public static Path dataDir() {
+        return DATA_DIR;
+    }
+
+    // resolve a file or folder inside the data directory
+    public static Path resolve(String name) {
+        return DATA_DIR.resolve(name);
+    }
+
+    // resolve a folder inside the data directory and make sure it exists
+    public static Path directory(String name) throws IOException {
+        return Files.createDirectories(DATA_DIR.resolve(name));
+    }
+}
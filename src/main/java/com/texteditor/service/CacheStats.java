@@ -0,0 +1,59 @@
+package com.texteditor.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+// hit/miss counters for one of the editor's caches, shown in View > Performance. caches register
+// themselves once (like a named metric in a web app's telemetry) and count every lookup
+public final class CacheStats {
+
+    private static final List<CacheStats> registry = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private CacheStats(String name) {
+        this.name = name;
+    }
+
+    // create and register the counters for a cache
+    public static CacheStats register(String name) {
+        CacheStats stats = new CacheStats(name);
+        registry.add(stats);
+        return stats;
+    }
+
+    public static List<CacheStats> all() {
+        return new ArrayList<>(registry);
+    }
+
+    public void hit() {
+        hits.incrementAndGet();
+    }
+
+    public void miss() {
+        misses.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // 0..1, or -1 before the first lookup
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? -1 : (double) h / total;
+    }
+}
@@ -0,0 +1,189 @@
+package com.texteditor.service;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// directory listings for the file tree, like a cached fetch with invalidation. a directory is
+// read once on a background thread through a DirectoryStream and kept as one sorted name array;
+// a WatchService on every listed directory drops its listing when anything in it changes and,
+// once the changes settle, tells the listener so it can ask again
+public class DirectoryCache {
+
+    private static final long SETTLE_MS = 300;
+    private static final Comparator<String> NAME_ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    // told on the EDT that a listed directory changed
+    public interface Listener {
+        void directoryChanged(Path directory);
+    }
+
+    private final Listener listener;
+    private final ScheduledExecutorService scanner;
+    private WatchService watchService; // null if the platform has none, listings never expire
+    private final Map<Path, Listing> listings = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
+    private final Set<Path> pendingChanges = ConcurrentHashMap.newKeySet();
+
+    public DirectoryCache(Listener listener) {
+        this.listener = listener;
+        scanner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "directory-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Thread watchThread = new Thread(this::watchLoop, "directory-watch");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("File tree will not refresh by itself: " + e.getMessage());
+        }
+    }
+
+    // hand the listing of a directory to the callback on the EDT: right away when it is cached,
+    // otherwise once it has been read in the background
+    public void list(Path directory, Consumer<Listing> callback) {
+        Listing cached = listings.get(directory);
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+        scanner.execute(() -> {
+            Listing listing = scan(directory);
+            if (listing.getError() == null) {
+                listings.put(directory, listing);
+                watch(directory);
+            }
+            SwingUtilities.invokeLater(() -> callback.accept(listing));
+        });
+    }
+
+    // forget every listing and stop watching, e.g. when another workspace is opened
+    public void clear() {
+        scanner.execute(() -> {
+            for (WatchKey watchKey : watchKeys.values()) {
+                watchKey.cancel();
+            }
+            watchKeys.clear();
+            listings.clear();
+        });
+    }
+
+    public void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close(); // ends the watch loop
+            } catch (IOException e) {
+                System.err.println("Could not close directory watcher: " + e.getMessage());
+            }
+        }
+        scanner.shutdownNow();
+    }
+
+    // runs on the scanner thread
+    private static Listing scan(Path directory) {
+        List<String> directories = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path entry : stream) {
+                String name = entry.getFileName().toString();
+                (Files.isDirectory(entry) ? directories : files).add(name);
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            return new Listing(new String[0], 0, e.getMessage() != null ? e.getMessage()
+                    : e.getClass().getSimpleName());
+        }
+        directories.sort(NAME_ORDER);
+        files.sort(NAME_ORDER);
+        String[] names = new String[directories.size() + files.size()];
+        int i = 0;
+        for (String name : directories) {
+            names[i++] = name;
+        }
+        for (String name : files) {
+            names[i++] = name;
+        }
+        return new Listing(names, directories.size(), null);
+    }
+
+    // runs on the scanner thread
+    private void watch(Path directory) {
+        if (watchService == null || watchKeys.containsKey(directory)) {
+            return;
+        }
+        try {
+            watchKeys.put(directory, directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE));
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // runs on the directory-watch thread until the service is closed. only names appearing and
+    // disappearing matter to a listing, so edits to file contents are not even reported
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey watchKey = watchService.take();
+                Path directory = (Path) watchKey.watchable();
+                watchKey.pollEvents();
+                listings.remove(directory);
+                if (!watchKey.reset()) {
+                    watchKeys.remove(directory); // the directory itself is gone
+                }
+                if (pendingChanges.add(directory)) {
+                    scanner.schedule(() -> {
+                        pendingChanges.remove(directory);
+                        SwingUtilities.invokeLater(() -> listener.directoryChanged(directory));
+                    }, SETTLE_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // shut down
+        }
+    }
+
+    // the entries of one directory: subdirectories first, then files, each sorted by name
+    public static final class Listing {
+        private final String[] names;
+        private final int directoryCount;
+        private final String error; // null when the directory could be read
+
+        Listing(String[] names, int directoryCount, String error) {
+            this.names = names;
+            this.directoryCount = directoryCount;
+            this.error = error;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String getName(int index) {
+            return names[index];
+        }
+
+        public boolean isDirectory(int index) {
+            return index < directoryCount;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
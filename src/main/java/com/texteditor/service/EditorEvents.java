@@ -0,0 +1,191 @@
+package com.texteditor.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// custom Java Flight Recorder events for the editor's significant operations. they cost next to
+// nothing unless a recording is running (View > Start Flight Recording or
+// -XX:StartFlightRecording) and then show up in JDK Mission Control under "TEKST" next to GC,
+// allocation and lock events. usage: begin() before the work, fill the fields, commit() after
+public final class EditorEvents {
+
+    private static final String CATEGORY = "TEKST";
+
+    private EditorEvents() {
+    }
+
+    @Name("com.texteditor.FileLoad")
+    @Label("File Load")
+    @Category(CATEGORY)
+    @Description("Reading and decoding a file into a tab")
+    public static class FileLoad extends Event {
+        @Label("Tab Id")
+        public int tabId;
+
+        @Label("Path")
+        public String path;
+
+        @Label("File Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Characters")
+        public long characters;
+
+        @Label("Charset")
+        public String charset;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("com.texteditor.FileSave")
+    @Label("File Save")
+    @Category(CATEGORY)
+    @Description("Encoding and writing a tab to its file")
+    public static class FileSave extends Event {
+        @Label("Tab Id")
+        public int tabId;
+
+        @Label("Path")
+        public String path;
+
+        @Label("File Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Characters")
+        public long characters;
+
+        @Label("Charset")
+        public String charset;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("com.texteditor.FileExport")
+    @Label("File Export")
+    @Category(CATEGORY)
+    @Description("Exporting a tab to another format (RTF, HTML, Markdown)")
+    public static class FileExport extends Event {
+        @Label("Tab Id")
+        public int tabId;
+
+        @Label("Format")
+        public String format;
+
+        @Label("Path")
+        public String path;
+
+        @Label("File Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Characters")
+        public long characters;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("com.texteditor.Find")
+    @Label("Find")
+    @Category(CATEGORY)
+    @Description("Find next in the current tab")
+    public static class Find extends Event {
+        @Label("Tab Id")
+        public int tabId;
+
+        @Label("Document Length")
+        public int documentLength;
+
+        @Label("Search Length")
+        public int searchLength;
+
+        @Label("Case Sensitive")
+        public boolean caseSensitive;
+
+        @Label("Found")
+        public boolean found;
+    }
+
+    @Name("com.texteditor.ReplaceAll")
+    @Label("Replace All")
+    @Category(CATEGORY)
+    @Description("Replace all in the current tab")
+    public static class ReplaceAll extends Event {
+        @Label("Tab Id")
+        public int tabId;
+
+        @Label("Document Length")
+        public int documentLength;
+
+        @Label("Search Length")
+        public int searchLength;
+
+        @Label("Case Sensitive")
+        public boolean caseSensitive;
+
+        @Label("Replacements")
+        public int replacements;
+    }
+
+    @Name("com.texteditor.ThemeSwitch")
+    @Label("Theme Switch")
+    @Category(CATEGORY)
+    @Description("Applying a theme to the main window")
+    public static class ThemeSwitch extends Event {
+        @Label("Theme")
+        public String theme;
+
+        @Label("Open Tabs")
+        public int tabs;
+    }
+
+    @Name("com.texteditor.TabCreate")
+    @Label("Tab Create")
+    @Category(CATEGORY)
+    @Description("Creating the components of a new tab")
+    public static class TabCreate extends Event {
+        @Label("Tab Id")
+        public int tabId;
+
+        @Label("Title")
+        public String title;
+    }
+
+    @Name("com.texteditor.TabClose")
+    @Label("Tab Close")
+    @Category(CATEGORY)
+    @Description("Closing a tab, including the unsaved-changes prompt")
+    public static class TabClose extends Event {
+        @Label("Tab Id")
+        public int tabId;
+
+        @Label("Document Length")
+        public int documentLength;
+
+        @Label("Closed")
+        public boolean closed;
+    }
+
+    @Name("com.texteditor.WorkspaceIndex")
+    @Label("Workspace Index")
+    @Category(CATEGORY)
+    @Description("Listing every file under the workspace folder for Go to File")
+    public static class WorkspaceIndex extends Event {
+        @Label("Root")
+        public String root;
+
+        @Label("Files")
+        public int files;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+}
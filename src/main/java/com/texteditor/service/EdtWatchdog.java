@@ -0,0 +1,191 @@
+package com.texteditor.service;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// watches the event dispatch thread for freezes, like the "long task" warnings in browser dev
+// tools. a background thread keeps one heartbeat queued on the EDT; when a heartbeat waits longer
+// than the threshold the EDT is stuck, so its stack is sampled until the heartbeat finally runs.
+// the most common stacks go to ~/.tekst/stalls.log and a one-line summary to the listener
+public class EdtWatchdog {
+
+    private static final long HEARTBEAT_INTERVAL_MS = 100;
+    private static final long SAMPLE_INTERVAL_MS = 50;
+    private static final int STACK_DEPTH = 12; // frames kept per sample
+    private static final int STACKS_IN_REPORT = 3;
+    private static final String OWN_PACKAGE = "com.texteditor.";
+
+    private final long thresholdMs;
+    private final Path logFile;
+    private final Consumer<String> stallListener;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile Thread edtThread; // refreshed by every heartbeat, the EDT can be replaced
+    private volatile long heartbeatPostedAt; // 0 when no heartbeat is waiting
+    private volatile long stallCount;
+    private volatile long longestStallMs;
+
+    // stallListener is called on the EDT with a short summary after each stall
+    public EdtWatchdog(Path logFile, Consumer<String> stallListener) {
+        this.thresholdMs = Long.getLong("tekst.stallThresholdMs", 500);
+        this.logFile = logFile;
+        this.stallListener = stallListener;
+        this.thread = new Thread(this::watch, "edt-watchdog");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void shutdown() {
+        running = false;
+        thread.interrupt();
+    }
+
+    public long getStallCount() {
+        return stallCount;
+    }
+
+    public long getLongestStallMs() {
+        return longestStallMs;
+    }
+
+    // how long the pending heartbeat has been waiting, i.e. the current EDT queue delay
+    public long getCurrentDelayMs() {
+        long postedAt = heartbeatPostedAt;
+        return postedAt == 0 ? 0 : (System.nanoTime() - postedAt) / 1_000_000;
+    }
+
+    private void watch() {
+        try {
+            while (running) {
+                postHeartbeat();
+                Thread.sleep(HEARTBEAT_INTERVAL_MS);
+
+                if (getCurrentDelayMs() >= thresholdMs) {
+                    sampleStall();
+                }
+            }
+        } catch (InterruptedException e) {
+            // shutting down
+        }
+    }
+
+    private void postHeartbeat() {
+        if (heartbeatPostedAt != 0) {
+            return; // the previous one hasn't run yet
+        }
+        heartbeatPostedAt = System.nanoTime();
+        SwingUtilities.invokeLater(() -> {
+            edtThread = Thread.currentThread();
+            heartbeatPostedAt = 0;
+        });
+    }
+
+    // sample the EDT until the heartbeat gets through, then report what it was doing
+    private void sampleStall() throws InterruptedException {
+        long stallStart = heartbeatPostedAt;
+        Thread edt = edtThread;
+        if (stallStart == 0 || edt == null) {
+            return;
+        }
+
+        Map<String, StackSample> samples = new LinkedHashMap<>();
+        int sampleCount = 0;
+        while (running && heartbeatPostedAt == stallStart) {
+            StackTraceElement[] stack = edt.getStackTrace();
+            if (stack.length > 0) {
+                String key = stackKey(stack);
+                samples.computeIfAbsent(key, k -> new StackSample(stack)).count++;
+                sampleCount++;
+            }
+            Thread.sleep(SAMPLE_INTERVAL_MS);
+        }
+
+        long durationMs = (System.nanoTime() - stallStart) / 1_000_000;
+        stallCount++;
+        longestStallMs = Math.max(longestStallMs, durationMs);
+        report(durationMs, sampleCount, samples);
+    }
+
+    private static String stackKey(StackTraceElement[] stack) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < Math.min(STACK_DEPTH, stack.length); i++) {
+            key.append(stack[i]).append('\n');
+        }
+        return key.toString();
+    }
+
+    private void report(long durationMs, int sampleCount, Map<String, StackSample> samples) {
+        List<StackSample> stacks = new ArrayList<>(samples.values());
+        stacks.sort((a, b) -> Integer.compare(b.count, a.count));
+        String culprit = stacks.isEmpty() ? "unknown code" : stacks.get(0).culprit();
+
+        StringBuilder report = new StringBuilder();
+        report.append("EDT stall (").append(LocalDateTime.now()).append("): ")
+                .append(durationMs).append(" ms, ").append(sampleCount).append(" samples\n");
+        report.append("  most likely in ").append(culprit).append('\n');
+        for (int i = 0; i < Math.min(STACKS_IN_REPORT, stacks.size()); i++) {
+            StackSample sample = stacks.get(i);
+            report.append(String.format("  %3d%% of samples:%n", sample.count * 100 / sampleCount));
+            for (int f = 0; f < Math.min(STACK_DEPTH, sample.stack.length); f++) {
+                report.append("      at ").append(sample.stack[f]).append('\n');
+            }
+        }
+        System.err.print(report);
+        appendToLog(report.toString());
+
+        String summary = "UI froze for " + durationMs + " ms in " + culprit;
+        SwingUtilities.invokeLater(() -> stallListener.accept(summary));
+    }
+
+    private void appendToLog(String report) {
+        try {
+            Files.createDirectories(logFile.getParent());
+            Files.writeString(logFile, report, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Could not write stall log: " + e.getMessage());
+        }
+    }
+
+    // one distinct EDT stack and how often it was seen during a stall
+    private static class StackSample {
+        final StackTraceElement[] stack;
+        int count;
+
+        StackSample(StackTraceElement[] stack) {
+            this.stack = stack;
+        }
+
+        // the innermost editor frame, e.g. TabManager.lambda$...(TabManager.java:331); JDK frames
+        // like String.indexOf say less about which feature froze the UI
+        String culprit() {
+            for (StackTraceElement frame : stack) {
+                if (frame.getClassName().startsWith(OWN_PACKAGE)) {
+                    return shortName(frame);
+                }
+            }
+            return shortName(stack[0]);
+        }
+
+        private static String shortName(StackTraceElement frame) {
+            String className = frame.getClassName();
+            String simpleName = className.substring(className.lastIndexOf('.') + 1);
+            return simpleName + "." + frame.getMethodName() + "(" + frame.getFileName() + ":"
+                    + frame.getLineNumber() + ")";
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.texteditor.service;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+// notices when another program changes a file that is open in a tab, like the file watcher of a
+// dev server. one WatchService covers the directories of all open files. events are left to
+// settle for a moment (programs often write a file in several steps, or write a temporary file
+// and rename it) and then the file is checked against a fingerprint taken when it was loaded or
+// saved: size and modification time first, and only when the size is the same, a CRC of the
+// contents read in a stream. watching, hashing and registering directories all happen on
+// background threads; the listener is called on the EDT
+public class FileWatcher {
+
+    private static final long SETTLE_MS = 250;
+    private static final int HASH_BUFFER_SIZE = 256 * 1024;
+
+    // told about a file that changed or disappeared, on the EDT
+    public interface Listener {
+        void fileChanged(Path file, boolean deleted);
+    }
+
+    private final Listener listener;
+    private WatchService watchService;
+    private ScheduledExecutorService checker; // settles events and fingerprints files
+    private final Map<Path, WatchedFile> files = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    private final Set<Path> pendingChecks = ConcurrentHashMap.newKeySet();
+
+    public FileWatcher(Listener listener) {
+        this.listener = listener;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("File change detection disabled: " + e.getMessage());
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "file-watcher-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread watchThread = new Thread(this::watchLoop, "file-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    public boolean isEnabled() {
+        return checker != null;
+    }
+
+    // start watching a file (call on the EDT when a tab loads or saves it). a file open in
+    // several tabs is watched once and counted
+    public void watch(Path file) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path key = key(file);
+        WatchedFile watched = files.computeIfAbsent(key, k -> new WatchedFile());
+        boolean first;
+        synchronized (watched) {
+            first = ++watched.references == 1;
+        }
+        if (first) {
+            checker.execute(() -> {
+                registerDirectory(key.getParent());
+                takeBaseline(key, watched);
+            });
+        }
+    }
+
+    // the editor is about to write the file (call on the EDT before saving). until endSave its
+    // own writes are not reported, however long they take
+    public void beginSave(Path file) {
+        WatchedFile watched = isEnabled() ? files.get(key(file)) : null;
+        if (watched != null) {
+            watched.saving = true;
+        }
+    }
+
+    // the save is over, written or not. after a successful one refresh has already taken the new
+    // fingerprint; one more check catches anything another program did meanwhile
+    public void endSave(Path file) {
+        Path key = key(file);
+        WatchedFile watched = isEnabled() ? files.get(key) : null;
+        if (watched != null) {
+            watched.saving = false;
+            scheduleCheck(key);
+        }
+    }
+
+    // the file was just loaded or saved by the editor, so what is on disk is the tab's version
+    // again. until the new fingerprint is taken the file counts as unchanged, and a check that
+    // was already running against the old one is thrown away
+    public void refresh(Path file) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path key = key(file);
+        WatchedFile watched = files.get(key);
+        if (watched != null) {
+            synchronized (watched) {
+                watched.generation++;
+                watched.baseline = null;
+                watched.changed = false;
+                watched.saving = false;
+            }
+            checker.execute(() -> takeBaseline(key, watched));
+        }
+    }
+
+    // stop watching a file once no tab shows it, and its directory once no watched file is in it
+    public void unwatch(Path file) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path key = key(file);
+        WatchedFile watched = files.get(key);
+        if (watched == null) {
+            return;
+        }
+        synchronized (watched) {
+            if (--watched.references > 0) {
+                return;
+            }
+        }
+        files.remove(key);
+        Path directory = key.getParent();
+        checker.execute(() -> {
+            boolean inUse = files.keySet().stream()
+                    .anyMatch(path -> directory.equals(path.getParent()));
+            WatchKey watchKey = inUse ? null : directories.remove(directory);
+            if (watchKey != null) {
+                watchKey.cancel();
+            }
+        });
+    }
+
+    // whether the file was seen to change since the editor last loaded or saved it. cheap enough
+    // for the EDT: the watcher's verdict, or a single stat call when that is still pending
+    public boolean isChanged(Path file) {
+        WatchedFile watched = files.get(key(file));
+        if (watched == null) {
+            return false;
+        }
+        if (watched.changed) {
+            return true;
+        }
+        Fingerprint baseline = watched.baseline;
+        if (baseline == null) {
+            return false; // still being fingerprinted right after a load or save
+        }
+        Fingerprint current = Fingerprint.stat(key(file));
+        return current == null || !current.sameStat(baseline);
+    }
+
+    public void shutdown() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            watchService.close(); // ends the watch loop
+        } catch (IOException e) {
+            System.err.println("Could not close file watcher: " + e.getMessage());
+        }
+        checker.shutdownNow();
+    }
+
+    private static Path key(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    // runs on the file-watcher thread until the service is closed
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey watchKey = watchService.take();
+                Path directory = (Path) watchKey.watchable();
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // events were dropped, check everything in this directory
+                        for (Path file : files.keySet()) {
+                            if (directory.equals(file.getParent())) {
+                                scheduleCheck(file);
+                            }
+                        }
+                        continue;
+                    }
+                    Path file = directory.resolve((Path) event.context());
+                    if (files.containsKey(file)) {
+                        scheduleCheck(file);
+                    }
+                }
+                watchKey.reset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // shut down
+        }
+    }
+
+    // a burst of events for one file becomes one check after it settles (like a debounce)
+    private void scheduleCheck(Path file) {
+        if (pendingChecks.add(file)) {
+            checker.schedule(() -> {
+                pendingChecks.remove(file);
+                check(file);
+            }, SETTLE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // runs on the checker thread
+    private void registerDirectory(Path directory) {
+        if (directory == null || directories.containsKey(directory)) {
+            return;
+        }
+        try {
+            directories.put(directory, directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE));
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // runs on the checker thread
+    private void takeBaseline(Path file, WatchedFile watched) {
+        Fingerprint fingerprint = Fingerprint.stat(file);
+        watched.baseline = fingerprint != null ? fingerprint.withHash(file) : null;
+        watched.reported = null;
+    }
+
+    // runs on the checker thread: compare the file with its fingerprint, hashing only when size
+    // and time alone cannot tell
+    private void check(Path file) {
+        WatchedFile watched = files.get(file);
+        if (watched == null || watched.saving) {
+            return; // not watched anymore, or the editor is writing it
+        }
+        long generation = watched.generation;
+        Fingerprint baseline = watched.baseline;
+        if (baseline == null) {
+            return; // its fingerprint is still being taken
+        }
+        Fingerprint current = Fingerprint.stat(file);
+        if (current != null && current.sameStat(baseline)) {
+            return;
+        }
+        Fingerprint hashed = current != null && current.size == baseline.size
+                ? current.withHash(file) : null;
+        // the editor may have saved or reloaded the file while this check ran
+        synchronized (watched) {
+            if (watched.generation != generation || watched.saving) {
+                return;
+            }
+            if (hashed != null && hashed.hash == baseline.hash) {
+                watched.baseline = hashed; // touched or rewritten with the same content
+                watched.changed = false;
+                return;
+            }
+            watched.changed = true;
+            Fingerprint reported = watched.reported;
+            if (reported != null && current != null && current.sameStat(reported)) {
+                return; // this version was already reported
+            }
+            watched.reported = current;
+        }
+        boolean deleted = current == null;
+        SwingUtilities.invokeLater(() -> listener.fileChanged(file, deleted));
+    }
+
+    // what the editor knows about one watched file
+    private static final class WatchedFile {
+        int references; // tabs showing the file, guarded by the object's lock
+        volatile long generation; // bumped by refresh, written under the object's lock
+        volatile Fingerprint baseline; // as last loaded or saved, null while being taken
+        volatile Fingerprint reported; // last change passed to the listener
+        volatile boolean changed;
+        volatile boolean saving; // between beginSave and endSave or refresh
+    }
+
+    // size, modification time and (when computed) a CRC32C of a file's contents
+    private static final class Fingerprint {
+        final long size;
+        final long modified;
+        final long hash; // -1 when not computed
+
+        Fingerprint(long size, long modified, long hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        // null if the file is gone
+        static Fingerprint stat(Path file) {
+            try {
+                BasicFileAttributes attributes =
+                        Files.readAttributes(file, BasicFileAttributes.class);
+                return new Fingerprint(attributes.size(),
+                        attributes.lastModifiedTime().toMillis(), -1);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        boolean sameStat(Fingerprint other) {
+            return size == other.size && modified == other.modified;
+        }
+
+        // read the file once through a direct buffer; CRC32C is computed by a CPU instruction
+        // where there is one, so this runs at disk speed. null if the file can't be read
+        Fingerprint withHash(Path file) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    crc.update(buffer);
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                return null;
+            }
+            return new Fingerprint(size, modified, crc.getValue());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.texteditor.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// starts and stops a Java Flight Recorder recording from inside the editor, so a real user
+// session can be profiled without restarting with -XX:StartFlightRecording. recordings use the
+// JDK's "profile" settings plus the editor's own events and go to ~/.tekst/recordings
+public final class FlightRecording {
+
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Recording recording;
+
+    private FlightRecording() {
+    }
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    public static synchronized void start() throws IOException {
+        if (recording != null) {
+            return;
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration("profile");
+        } catch (ParseException e) {
+            throw new IOException("Could not read the JFR profile settings", e);
+        }
+
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName("TEKST session");
+        newRecording.setToDisk(true);
+        newRecording.start();
+        recording = newRecording;
+    }
+
+    // stop the recording and write it out; returns the .jfr file (slow for long recordings, so
+    // call it off the EDT)
+    public static Path stop() throws IOException {
+        Recording finished;
+        synchronized (FlightRecording.class) {
+            finished = recording;
+            recording = null;
+        }
+        if (finished == null) {
+            return null;
+        }
+
+        try {
+            Path directory = AppPaths.directory("recordings");
+            Path file = directory.resolve(
+                    "tekst-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+            finished.stop();
+            finished.dump(file);
+            return Files.exists(file) ? file : null;
+        } finally {
+            finished.close();
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.texteditor.service;
+
+import com.texteditor.model.FuzzyMatcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// every file under a workspace folder, for quick open (like the file index of an IDE). the paths
+// are relative to the folder, use '/' and sit back to back in a single char array with an
+// offset table, so half a million files cost one allocation instead of half a million Strings;
+// next to each path are where its file name starts and the bit mask FuzzyMatcher uses to skip
+// it cheaply. the folder is walked with one fork/join task per directory, and a search splits
+// the paths into chunks that are scored in parallel. immutable once built
+public final class PathIndex {
+
+    public static final int MAX_FILES = 2_000_000; // a home folder must not fill the heap
+    private static final int CHUNK = 16 * 1024; // paths per parallel search task
+    private static final Set<String> SKIPPED = Set.of(".git", ".hg", ".svn", "node_modules");
+
+    private final Path root;
+    private final char[] chars;
+    private final int[] starts; // path i is chars[starts[i]..starts[i + 1])
+    private final int[] nameStarts; // where the file name of path i begins
+    private final long[] masks;
+    private final int size;
+
+    private PathIndex(Path root, char[] chars, int[] starts, int[] nameStarts, long[] masks,
+            int size) {
+        this.root = root;
+        this.chars = chars;
+        this.starts = starts;
+        this.nameStarts = nameStarts;
+        this.masks = masks;
+        this.size = size;
+    }
+
+    // walk a folder, skipping version control folders, node_modules and symbolic links to
+    // folders. slow on a big tree, so call it off the EDT
+    public static PathIndex build(Path root) {
+        Queue<Batch> batches = new ConcurrentLinkedQueue<>();
+        AtomicInteger files = new AtomicInteger();
+        ForkJoinPool.commonPool().invoke(new ScanTask(root, "", batches, files));
+        List<Batch> sorted = new ArrayList<>(batches);
+        sorted.sort(Comparator.comparing(batch -> batch.prefix));
+        return pack(root, sorted);
+    }
+
+    // an index over paths that are already known, relative to root and separated by '/'
+    public static PathIndex of(Path root, List<String> paths) {
+        return pack(root, List.of(new Batch("", paths.toArray(new String[0]))));
+    }
+
+    private static PathIndex pack(Path root, List<Batch> batches) {
+        long length = 0;
+        int size = 0;
+        for (Batch batch : batches) {
+            for (String name : batch.names) {
+                length += batch.prefix.length() + name.length();
+            }
+            size += batch.names.length;
+        }
+        if (length > Integer.MAX_VALUE - 16) {
+            throw new IllegalStateException("Too many files to index under " + root);
+        }
+        char[] chars = new char[(int) length];
+        int[] starts = new int[size + 1];
+        int[] nameStarts = new int[size];
+        long[] masks = new long[size];
+        int path = 0;
+        int offset = 0;
+        for (Batch batch : batches) {
+            for (String name : batch.names) {
+                starts[path] = offset;
+                batch.prefix.getChars(0, batch.prefix.length(), chars, offset);
+                offset += batch.prefix.length();
+                name.getChars(0, name.length(), chars, offset);
+                offset += name.length();
+                nameStarts[path] = FuzzyMatcher.nameStart(chars, starts[path], offset);
+                masks[path] = FuzzyMatcher.mask(chars, starts[path], offset);
+                path++;
+            }
+        }
+        starts[size] = offset;
+        return new PathIndex(root, chars, starts, nameStarts, masks, size);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // the path relative to the root, with '/' between folders
+    public String getPath(int index) {
+        return new String(chars, starts[index], starts[index + 1] - starts[index]);
+    }
+
+    public File getFile(int index) {
+        return root.resolve(getPath(index)).toFile();
+    }
+
+    // indexes of the matched characters within getPath(index), for highlighting
+    public int[] matchPositions(FuzzyMatcher matcher, int index) {
+        int[] positions = matcher.positions(chars, starts[index], starts[index + 1]);
+        if (positions != null) {
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] -= starts[index];
+            }
+        }
+        return positions;
+    }
+
+    // the best `limit` paths for a query, best first, plus the number of paths that matched at
+    // all. when the query only adds to the one behind `previous`, just the paths that matched
+    // then are scored again
+    public Matches search(FuzzyMatcher matcher, Matches previous, int limit) {
+        boolean narrowed = previous != null && previous.index == this
+                && matcher.narrows(previous.matcher);
+        int[] candidates = narrowed ? previous.all : null;
+        int candidateCount = narrowed ? previous.count : size;
+        int chunks = (candidateCount + CHUNK - 1) / CHUNK;
+        ChunkResult[] results = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> searchChunk(matcher, candidates, chunk * CHUNK,
+                        Math.min(candidateCount, (chunk + 1) * CHUNK), limit))
+                .toArray(ChunkResult[]::new);
+
+        int count = 0;
+        for (ChunkResult result : results) {
+            count += result.count;
+        }
+        int[] all = new int[count];
+        TopScores best = new TopScores(limit);
+        int at = 0;
+        for (ChunkResult result : results) {
+            System.arraycopy(result.matched, 0, all, at, result.count);
+            at += result.count;
+            best.addAll(result.best);
+        }
+        return new Matches(this, matcher, all, count, best.sortedIndexes());
+    }
+
+    private ChunkResult searchChunk(FuzzyMatcher matcher, int[] candidates, int from, int to,
+            int limit) {
+        long queryMask = matcher.getMask();
+        int[] matched = new int[to - from];
+        int count = 0;
+        TopScores best = new TopScores(limit);
+        for (int i = from; i < to; i++) {
+            int path = candidates != null ? candidates[i] : i;
+            if ((queryMask & ~masks[path]) != 0) {
+                continue;
+            }
+            int score = matcher.score(chars, starts[path], nameStarts[path], starts[path + 1]);
+            if (score != FuzzyMatcher.NO_MATCH) {
+                matched[count++] = path;
+                best.add(score, path);
+            }
+        }
+        return new ChunkResult(matched, count, best);
+    }
+
+    // the outcome of a search
+    public static final class Matches {
+        private final PathIndex index;
+        private final FuzzyMatcher matcher;
+        private final int[] all; // every matching path, in index order
+        private final int count;
+        private final int[] best;
+
+        Matches(PathIndex index, FuzzyMatcher matcher, int[] all, int count, int[] best) {
+            this.index = index;
+            this.matcher = matcher;
+            this.all = all;
+            this.count = count;
+            this.best = best;
+        }
+
+        public PathIndex getIndex() {
+            return index;
+        }
+
+        public FuzzyMatcher getMatcher() {
+            return matcher;
+        }
+
+        // how many paths matched, usually far more than are kept
+        public int getCount() {
+            return count;
+        }
+
+        // path indexes of the best matches, best first
+        public int[] getBest() {
+            return best;
+        }
+    }
+
+    private static final class ChunkResult {
+        final int[] matched;
+        final int count;
+        final TopScores best;
+
+        ChunkResult(int[] matched, int count, TopScores best) {
+            this.matched = matched;
+            this.count = count;
+            this.best = best;
+        }
+    }
+
+    // the highest scores seen, as a min-heap of score and path packed into longs, so the worst
+    // kept entry is always at the top and most candidates are turned away by one comparison.
+    // on equal scores the path that comes first in the index wins
+    private static final class TopScores {
+        private final long[] heap;
+        private int size;
+
+        TopScores(int limit) {
+            heap = new long[limit];
+        }
+
+        void add(int score, int path) {
+            add(((long) score << 32) | (0xFFFFFFFFL - path));
+        }
+
+        void addAll(TopScores other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.heap[i]);
+            }
+        }
+
+        private void add(long entry) {
+            if (size < heap.length) {
+                int i = size++;
+                while (i > 0 && heap[(i - 1) >> 1] > entry) {
+                    heap[i] = heap[(i - 1) >> 1];
+                    i = (i - 1) >> 1;
+                }
+                heap[i] = entry;
+            } else if (size > 0 && entry > heap[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && heap[child + 1] < heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] >= entry) {
+                        break;
+                    }
+                    heap[i] = heap[child];
+                    i = child;
+                }
+                heap[i] = entry;
+            }
+        }
+
+        int[] sortedIndexes() {
+            long[] entries = Arrays.copyOf(heap, size);
+            Arrays.sort(entries);
+            int[] paths = new int[size];
+            for (int i = 0; i < size; i++) {
+                paths[i] = (int) (0xFFFFFFFFL - (entries[size - 1 - i] & 0xFFFFFFFFL));
+            }
+            return paths;
+        }
+    }
+
+    // the files of one directory, named relative to the root by prefix + name
+    private static final class Batch {
+        final String prefix;
+        final String[] names;
+
+        Batch(String prefix, String[] names) {
+            this.prefix = prefix;
+            this.names = names;
+        }
+    }
+
+    // lists one directory and forks a task for each folder in it
+    private static final class ScanTask extends RecursiveAction {
+        private final Path directory;
+        private final String prefix;
+        private final Queue<Batch> batches;
+        private final AtomicInteger files;
+
+        ScanTask(Path directory, String prefix, Queue<Batch> batches, AtomicInteger files) {
+            this.directory = directory;
+            this.prefix = prefix;
+            this.batches = batches;
+            this.files = files;
+        }
+
+        @Override
+        protected void compute() {
+            List<String> names = new ArrayList<>();
+            List<ScanTask> folders = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    String name = entry.getFileName().toString();
+                    BasicFileAttributes attributes = Files.readAttributes(entry,
+                            BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isDirectory()) {
+                        if (!SKIPPED.contains(name)) {
+                            folders.add(new ScanTask(entry, prefix + name + "/", batches,
+                                    files));
+                        }
+                    } else if ((!attributes.isSymbolicLink() || Files.isRegularFile(entry))
+                            && files.incrementAndGet() <= MAX_FILES) {
+                        names.add(name);
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                // unreadable folders are left out, like the file tree shows them empty
+            }
+            if (!names.isEmpty()) {
+                String[] sorted = names.toArray(new String[0]);
+                Arrays.sort(sorted);
+                batches.add(new Batch(prefix, sorted));
+            }
+            invokeAll(folders);
+        }
+    }
+}
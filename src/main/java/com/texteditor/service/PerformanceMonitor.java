@@ -0,0 +1,149 @@
+package com.texteditor.service;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// collects the live numbers behind View > Performance while that panel is open: the latest
+// editor operations (streamed in-process from the EditorEvents flight recorder events) and
+// individual GC pauses (from GarbageCollectorMXBean notifications). nothing runs while stopped
+public class PerformanceMonitor {
+
+    private static final int OPERATION_HISTORY = 20;
+    private static final int PAUSE_HISTORY = 10;
+
+    private final Deque<Sample> operations = new ArrayDeque<>();
+    private final Deque<Sample> pauses = new ArrayDeque<>();
+    private final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+    private final NotificationListener gcListener = this::onGcNotification;
+    private RecordingStream stream;
+
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EditorEvents.FileLoad.class);
+        stream.enable(EditorEvents.FileSave.class);
+        stream.enable(EditorEvents.Find.class);
+        stream.enable(EditorEvents.ReplaceAll.class);
+        stream.enable(EditorEvents.ThemeSwitch.class);
+        stream.enable(EditorEvents.TabCreate.class);
+        stream.enable(EditorEvents.TabClose.class);
+        stream.onEvent(this::onEditorEvent);
+        stream.startAsync();
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(gcListener, null, null);
+                gcEmitters.add(emitter);
+            }
+        }
+    }
+
+    public synchronized void stop() {
+        if (stream == null) {
+            return;
+        }
+        stream.close();
+        stream = null;
+
+        for (NotificationEmitter emitter : gcEmitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (Exception e) {
+                // already gone
+            }
+        }
+        gcEmitters.clear();
+    }
+
+    // newest first
+    public synchronized List<Sample> getRecentOperations() {
+        return new ArrayList<>(operations);
+    }
+
+    // newest first
+    public synchronized List<Sample> getRecentPauses() {
+        return new ArrayList<>(pauses);
+    }
+
+    private void onEditorEvent(RecordedEvent event) {
+        StringBuilder detail = new StringBuilder();
+        if (event.hasField("tabId") && event.getInt("tabId") >= 0) {
+            detail.append("tab ").append(event.getInt("tabId"));
+        }
+        for (String field : new String[] {"characters", "documentLength"}) {
+            if (event.hasField(field)) {
+                long value = ((Number) event.getValue(field)).longValue();
+                detail.append(detail.length() > 0 ? ", " : "").append(value).append(" chars");
+            }
+        }
+        if (event.hasField("theme")) {
+            detail.append(event.getString("theme"));
+        }
+        add(operations, OPERATION_HISTORY, new Sample(event.getEventType().getLabel(),
+                event.getDuration().toNanos(), detail.toString()));
+    }
+
+    private void onGcNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+                .equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                .from((CompositeData) notification.getUserData());
+        add(pauses, PAUSE_HISTORY, new Sample(info.getGcName(),
+                info.getGcInfo().getDuration() * 1_000_000, info.getGcCause()));
+    }
+
+    private synchronized void add(Deque<Sample> history, int limit, Sample sample) {
+        history.addFirst(sample);
+        while (history.size() > limit) {
+            history.removeLast();
+        }
+    }
+
+    // one timed operation or GC pause
+    public static class Sample {
+        private final LocalTime time = LocalTime.now();
+        private final String name;
+        private final long nanos;
+        private final String detail;
+
+        Sample(String name, long nanos, String detail) {
+            this.name = name;
+            this.nanos = nanos;
+            this.detail = detail;
+        }
+
+        public LocalTime getTime() {
+            return time;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.texteditor.service;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// the most recently opened files, newest first, the workspace folder shown in the file tree and
+// the commands run last from the command palette, kept between runs in a small binary file like
+// SessionStore (like "recent projects" in an IDE). used on the EDT only
+public class RecentFiles {
+
+    private static final int MAGIC = 0x544B5232; // "TKR2"
+    private static final int MAGIC_WITHOUT_COMMANDS = 0x544B5231; // "TKR1", still read
+    public static final int MAX_FILES = 15;
+
+    private final Path file;
+    private final List<String> paths = new ArrayList<>();
+    private String workspace; // null when no folder is open
+    private final List<String> commands = new ArrayList<>(); // command ids, newest first
+
+    public RecentFiles(Path file) {
+        this.file = file;
+        load();
+    }
+
+    // move a file to the top of the list
+    public void add(File recent) {
+        String path = recent.getAbsolutePath();
+        paths.remove(path);
+        paths.add(0, path);
+        while (paths.size() > MAX_FILES) {
+            paths.remove(paths.size() - 1);
+        }
+    }
+
+    public void remove(File recent) {
+        paths.remove(recent.getAbsolutePath());
+    }
+
+    public void clear() {
+        paths.clear();
+    }
+
+    public List<File> getFiles() {
+        List<File> files = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            files.add(new File(path));
+        }
+        return files;
+    }
+
+    public File getWorkspace() {
+        return workspace != null ? new File(workspace) : null;
+    }
+
+    public void setWorkspace(File folder) {
+        workspace = folder != null ? folder.getAbsolutePath() : null;
+    }
+
+    public List<String> getCommands() {
+        return new ArrayList<>(commands);
+    }
+
+    public void setCommands(List<String> ids) {
+        commands.clear();
+        commands.addAll(ids);
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            int magic = in.readInt();
+            if (magic != MAGIC && magic != MAGIC_WITHOUT_COMMANDS) {
+                return;
+            }
+            workspace = in.readBoolean() ? in.readUTF() : null;
+            int count = in.readInt();
+            for (int i = 0; i < count && i < MAX_FILES; i++) {
+                paths.add(in.readUTF());
+            }
+            if (magic == MAGIC) {
+                int commandCount = in.readInt();
+                for (int i = 0; i < commandCount; i++) {
+                    commands.add(in.readUTF());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read recent files: " + e.getMessage());
+            paths.clear();
+            workspace = null;
+            commands.clear();
+        }
+    }
+
+    // write to a temp file first so a crash mid-write never corrupts the old list
+    public void save() {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeBoolean(workspace != null);
+                if (workspace != null) {
+                    out.writeUTF(workspace);
+                }
+                out.writeInt(paths.size());
+                for (String path : paths) {
+                    out.writeUTF(path);
+                }
+                out.writeInt(commands.size());
+                for (String command : commands) {
+                    out.writeUTF(command);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Could not save recent files: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package com.texteditor.service;
+
+import com.texteditor.model.DocumentManager;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.beans.PropertyChangeListener;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// crash-recovery journal for unsaved tabs. every edit is recorded as a small delta on the EDT and a
+// background thread appends the deltas to one journal file per tab in batches (think of it as a
+// write-ahead log). journals are compacted into a fresh snapshot once they grow, deleted as soon as
+// a tab is saved or closed, and replayed on the next startup if the editor died with unsaved work.
+// snapshots are streamed from the document by the background thread too; the EDT only asks for one
+public class RecoveryJournal {
+
+    private static final int MAGIC = 0x544B4A31; // "TKJ1"
+    private static final String EXTENSION = ".journal";
+    private static final String TEMP_EXTENSION = EXTENSION + ".tmp";
+    private static final long STALE_TEMP_MS = 60_000; // compaction temp files live milliseconds
+
+    // record types
+    private static final byte SNAPSHOT = 'S';
+    private static final byte INSERT = 'I';
+    private static final byte REMOVE = 'R';
+    private static final byte DISCARD = 'D';
+
+    private static final long FLUSH_INTERVAL_MS = 500;
+    private static final long COMPACT_THRESHOLD_BYTES = 4L * 1024 * 1024;
+
+    private final Path directory;
+    private final String sessionKey; // unique per launch so journal names never collide
+    private final Map<Integer, TabJournal> journals = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    public RecoveryJournal(Path directory) {
+        this.directory = directory;
+        this.sessionKey = Long.toString(System.currentTimeMillis(), 36);
+
+        try {
+            Files.createDirectories(directory);
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "recovery-journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushAll, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+            flusher.execute(this::deleteStaleTempFiles);
+        } catch (IOException e) {
+            // without a journal directory we simply run without crash recovery
+            System.err.println("Crash recovery disabled: " + e.getMessage());
+            flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return flusher != null;
+    }
+
+    // start journaling a tab's document (call on the EDT)
+    public void attach(int tabId, String title, DocumentManager documentManager) {
+        Document document = documentManager.getDocument();
+        if (!isEnabled() || document == null) {
+            return;
+        }
+
+        TabJournal journal = new TabJournal(tabId, title, documentManager, document);
+        journals.put(tabId, journal);
+        document.addDocumentListener(journal.documentListener);
+        documentManager.addPropertyChangeListener(DocumentManager.UNSAVED_CHANGES_PROPERTY,
+                journal.savedStateListener);
+    }
+
+    // stop journaling a tab and throw its journal away (tab closed)
+    public void detach(int tabId) {
+        TabJournal journal = journals.get(tabId);
+        if (journal == null) {
+            return;
+        }
+        journal.document.removeDocumentListener(journal.documentListener);
+        journal.documentManager.removePropertyChangeListener(
+                DocumentManager.UNSAVED_CHANGES_PROPERTY, journal.savedStateListener);
+        journal.detached = true;
+        journal.pending.add(new Entry(DISCARD));
+    }
+
+    // the tab's title changed (Save As); journals written from now on carry the new one
+    public void rename(int tabId, String title) {
+        TabJournal journal = journals.get(tabId);
+        if (journal == null || journal.detached || title.equals(journal.title)) {
+            return;
+        }
+        journal.title = title;
+        if (!journal.needsBase) {
+            journal.enqueueSnapshot(); // the title lives in the header, so rewrite it
+        }
+    }
+
+    // write a full snapshot of a tab right now, replacing its delta history (call on the EDT)
+    public void checkpoint(int tabId) {
+        TabJournal journal = journals.get(tabId);
+        if (journal != null && !journal.detached) {
+            journal.enqueueSnapshot();
+        }
+    }
+
+    // flush everything and stop; journals of open tabs are deleted because the user either saved
+    // or explicitly chose to discard their changes
+    public void shutdown() {
+        if (!isEnabled()) {
+            return;
+        }
+        for (TabJournal journal : journals.values()) {
+            journal.pending.add(new Entry(DISCARD));
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    // read back journals left behind by a previous run that did not exit cleanly
+    public List<RecoveredTab> recover() {
+        List<RecoveredTab> recovered = new ArrayList<>();
+        if (!isEnabled()) {
+            return recovered;
+        }
+
+        try (DirectoryStream<Path> stream =
+                Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().startsWith(sessionKey + "-")) {
+                    continue; // our own journal
+                }
+                RecoveredTab tab = replay(file);
+                if (tab != null) {
+                    recovered.add(tab);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not scan recovery journals: " + e.getMessage());
+        }
+
+        recovered.sort((a, b) -> a.source.getFileName().compareTo(b.source.getFileName()));
+        return recovered;
+    }
+
+    // delete journals that were restored into new tabs, after the new tabs' own snapshots are
+    // written so there is never a moment without a copy on disk
+    public void deleteRecovered(List<RecoveredTab> recovered) {
+        if (!isEnabled() || recovered.isEmpty()) {
+            return;
+        }
+        flusher.execute(() -> {
+            flushAll();
+            for (RecoveredTab tab : recovered) {
+                deleteQuietly(tab.source);
+            }
+        });
+    }
+
+    // temp files of compactions cut short by a crash; fresh ones may belong to another running
+    // editor that is compacting right now, so only old ones go (runs on the journal thread)
+    private void deleteStaleTempFiles() {
+        long cutoff = System.currentTimeMillis() - STALE_TEMP_MS;
+        try (DirectoryStream<Path> stream =
+                Files.newDirectoryStream(directory, "*" + TEMP_EXTENSION)) {
+            for (Path file : stream) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not scan recovery journals: " + e.getMessage());
+        }
+    }
+
+    // replay one journal file into plain text; returns null for locked or unreadable files
+    private RecoveredTab replay(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            FileLock lock = tryLock(channel);
+            if (lock == null) {
+                return null; // still owned by another running editor
+            }
+
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            String title = in.readUTF();
+            String path = in.readUTF();
+            StringBuilder text = new StringBuilder();
+
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == SNAPSHOT) {
+                        text.setLength(0);
+                        text.append(readString(in));
+                    } else if (type == INSERT) {
+                        int offset = in.readInt();
+                        text.insert(Math.min(offset, text.length()), readString(in));
+                    } else if (type == REMOVE) {
+                        int offset = Math.min(in.readInt(), text.length());
+                        int length = in.readInt();
+                        text.delete(offset, Math.min(offset + length, text.length()));
+                    } else {
+                        break; // unknown record, keep what we have
+                    }
+                }
+            } catch (EOFException e) {
+                // end of journal, or a record cut short by the crash
+            }
+
+            return new RecoveredTab(file, title, path.isEmpty() ? null : path, text.toString());
+        } catch (IOException e) {
+            System.err.println("Skipping unreadable journal " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // write all queued deltas to disk (runs on the journal thread)
+    private synchronized void flushAll() {
+        for (TabJournal journal : journals.values()) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                System.err.println("Recovery journal write failed: " + e.getMessage());
+                journal.closeAndDelete();
+                journal.needsBase = true;
+            }
+            if (journal.detached && journal.pending.isEmpty()) {
+                journals.remove(journal.tabId, journal);
+            }
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // returns the number of bytes written
+    private static int writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return 4 + bytes.length;
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    // a tab restored from a journal
+    public static class RecoveredTab {
+        private final Path source;
+        private final String title;
+        private final String filePath;
+        private final String text;
+
+        RecoveredTab(Path source, String title, String filePath, String text) {
+            this.source = source;
+            this.title = title;
+            this.filePath = filePath;
+            this.text = text;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        // original file of the tab, or null if it was never saved
+        public String getFilePath() {
+            return filePath;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    // one queued journal record
+    private static class Entry {
+        final byte type;
+        final int offset;
+        final int length;
+        final String text;
+        final String path; // snapshot requests only
+
+        final long sequence; // deltas are numbered in document order, see snapshotThrough
+
+        Entry(byte type) {
+            this(type, 0, 0, null, null, 0);
+        }
+
+        Entry(byte type, int offset, int length, String text, String path, long sequence) {
+            this.type = type;
+            this.offset = offset;
+            this.length = length;
+            this.text = text;
+            this.path = path;
+            this.sequence = sequence;
+        }
+    }
+
+    // per-tab journal state; listener callbacks run on the EDT, flush() on the journal thread
+    private class TabJournal {
+        final int tabId;
+        volatile String title;
+        final DocumentManager documentManager;
+        final Document document;
+        final Path file;
+        final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+        final DocumentListener documentListener;
+        final PropertyChangeListener savedStateListener;
+
+        // the journal has no base snapshot yet, so the next edit writes the whole text
+        volatile boolean needsBase = true;
+        volatile boolean detached;
+        volatile boolean compactionRequested;
+        // number of the last queued delta; bumped by the document listener, so under the
+        // document's write lock
+        volatile long sequence;
+
+        // journal thread only
+        private FileChannel channel;
+        private DataOutputStream out;
+        private long bytesSinceSnapshot;
+        private long snapshotThrough; // deltas up to this number are already in the snapshot
+
+        TabJournal(int tabId, String title, DocumentManager documentManager, Document document) {
+            this.tabId = tabId;
+            this.title = title;
+            this.documentManager = documentManager;
+            this.document = document;
+            this.file = directory.resolve(sessionKey + "-" + tabId + EXTENSION);
+
+            documentListener = new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) {
+                    recordInsert(e.getOffset(), e.getLength());
+                }
+
+                @Override
+                public void removeUpdate(DocumentEvent e) {
+                    recordRemove(e.getOffset(), e.getLength());
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent e) {
+                    // attribute changes are not journaled, only text
+                }
+            };
+
+            // a clean (saved or freshly loaded) document has nothing worth recovering
+            savedStateListener = e -> {
+                if (Boolean.FALSE.equals(e.getNewValue())) {
+                    needsBase = true;
+                    pending.add(new Entry(DISCARD));
+                }
+            };
+        }
+
+        void recordInsert(int offset, int length) {
+            if (skipEvent()) {
+                return;
+            }
+            try {
+                pending.add(new Entry(INSERT, offset, length, document.getText(offset, length),
+                        null, ++sequence));
+            } catch (BadLocationException e) {
+                needsBase = true;
+            }
+        }
+
+        void recordRemove(int offset, int length) {
+            if (!skipEvent()) {
+                pending.add(new Entry(REMOVE, offset, length, null, null, ++sequence));
+            }
+        }
+
+        // whole-content replacements (file loads) are not journaled; the first real edit after a
+        // clean state asks for the full text once instead of a delta
+        private boolean skipEvent() {
+            if (documentManager.isReplacingContent()) {
+                needsBase = true;
+                return true;
+            }
+            if (needsBase) {
+                enqueueSnapshot();
+                return true;
+            }
+            return false;
+        }
+
+        // only a request: the text is read by the journal thread, so a keystroke never copies
+        // the whole document
+        void enqueueSnapshot() {
+            File currentFile = documentManager.getCurrentFile();
+            pending.add(new Entry(SNAPSHOT, 0, 0, null,
+                    currentFile != null ? currentFile.getAbsolutePath() : "", 0));
+            needsBase = false;
+        }
+
+        void flush() throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<Entry> batch = new ArrayList<>();
+            for (Entry entry; (entry = pending.poll()) != null;) {
+                if (entry.type == DISCARD) {
+                    batch.clear(); // nothing queued before a discard matters any more
+                    closeAndDelete();
+                } else {
+                    batch.add(entry);
+                }
+            }
+
+            for (Entry entry : batch) {
+                if (entry.type == SNAPSHOT) {
+                    writeSnapshot(entry);
+                } else if (out != null && entry.sequence > snapshotThrough) {
+                    out.writeByte(entry.type);
+                    out.writeInt(entry.offset);
+                    if (entry.type == INSERT) {
+                        bytesSinceSnapshot += writeString(out, entry.text);
+                    } else {
+                        out.writeInt(entry.length);
+                        bytesSinceSnapshot += 4;
+                    }
+                    bytesSinceSnapshot += 5; // type and offset
+                }
+            }
+
+            if (out != null) {
+                out.flush();
+            }
+
+            if (bytesSinceSnapshot > COMPACT_THRESHOLD_BYTES && !compactionRequested) {
+                compactionRequested = true;
+                SwingUtilities.invokeLater(() -> checkpoint(tabId));
+            }
+        }
+
+        // compaction: write header + snapshot to a temp file and swap it in atomically. the text
+        // is streamed from the document in segments under its read lock, so it holds every delta
+        // queued so far and those are skipped when they come up
+        private void writeSnapshot(Entry snapshot) throws IOException {
+            close();
+            Path temp = file.resolveSibling(sessionKey + "-" + tabId + TEMP_EXTENSION);
+            try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                DataOutputStream tempOut = new DataOutputStream(new BufferedOutputStream(
+                        Channels.newOutputStream(tempChannel), 64 * 1024));
+                tempOut.writeInt(MAGIC);
+                tempOut.writeUTF(title);
+                tempOut.writeUTF(snapshot.path);
+                tempOut.writeByte(SNAPSHOT);
+                int lengthAt = tempOut.size();
+                tempOut.writeInt(0); // byte length of the text, filled in below
+
+                IOException[] failure = new IOException[1];
+                document.render(() -> {
+                    try {
+                        snapshotThrough = sequence;
+                        writeText(tempOut);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+                tempOut.flush();
+                ByteBuffer length = ByteBuffer.allocate(4)
+                        .putInt(tempOut.size() - lengthAt - 4).flip();
+                tempChannel.write(length, lengthAt);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            tryLock(channel); // keeps other editor instances from "recovering" a live journal
+            out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            bytesSinceSnapshot = 0;
+            compactionRequested = false;
+        }
+
+        // the document text as UTF-8, read a segment at a time
+        private void writeText(DataOutputStream tempOut) throws IOException {
+            Writer text = new OutputStreamWriter(tempOut, StandardCharsets.UTF_8);
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            int length = document.getLength();
+            int offset = 0;
+            try {
+                while (offset < length) {
+                    document.getText(offset, Math.min(64 * 1024, length - offset), segment);
+                    text.write(segment.array, segment.offset, segment.count);
+                    offset += segment.count;
+                }
+            } catch (BadLocationException e) {
+                throw new IOException("Document changed while journaling", e);
+            }
+            text.flush();
+        }
+
+        private void close() {
+            try {
+                if (out != null) {
+                    out.close();
+                } else if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                // nothing sensible to do, the file is about to be replaced or deleted
+            }
+            out = null;
+            channel = null;
+        }
+
+        void closeAndDelete() {
+            close();
+            deleteQuietly(file);
+            bytesSinceSnapshot = 0;
+        }
+    }
+}
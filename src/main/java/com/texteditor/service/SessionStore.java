@@ -0,0 +1,119 @@
+package com.texteditor.service;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// remembers which files were open, where the caret and scroll bars were and which tab was active,
+// in a small binary file (like restoring browser tabs after a restart)
+public class SessionStore {
+
+    private static final int MAGIC = 0x544B5331; // "TKS1"
+
+    private final Path file;
+
+    public SessionStore(Path file) {
+        this.file = file;
+    }
+
+    // read the last session; an empty session if there is none or it can't be read
+    public Session load() {
+        Session session = new Session();
+        if (!Files.isRegularFile(file)) {
+            return session;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                return session;
+            }
+            int count = in.readInt();
+            session.setActiveIndex(in.readInt());
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                int caretPosition = in.readInt();
+                int scrollX = in.readInt();
+                int scrollY = in.readInt();
+                session.getTabs().add(new TabState(path, caretPosition, scrollX, scrollY));
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read session: " + e.getMessage());
+            return new Session();
+        }
+        return session;
+    }
+
+    // write the session to a temp file first so a crash mid-write never corrupts the old one
+    public void save(Session session) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(session.getTabs().size());
+                out.writeInt(session.getActiveIndex());
+                for (TabState tab : session.getTabs()) {
+                    out.writeUTF(tab.getPath());
+                    out.writeInt(tab.getCaretPosition());
+                    out.writeInt(tab.getScrollX());
+                    out.writeInt(tab.getScrollY());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Could not save session: " + e.getMessage());
+        }
+    }
+
+    // the set of open tabs
+    public static class Session {
+        private final List<TabState> tabs = new ArrayList<>();
+        private int activeIndex;
+
+        public List<TabState> getTabs() {
+            return tabs;
+        }
+
+        public int getActiveIndex() {
+            return activeIndex;
+        }
+
+        public void setActiveIndex(int activeIndex) {
+            this.activeIndex = activeIndex;
+        }
+    }
+
+    // one file-backed tab and its view position
+    public static class TabState {
+        private final String path;
+        private final int caretPosition;
+        private final int scrollX;
+        private final int scrollY;
+
+        public TabState(String path, int caretPosition, int scrollX, int scrollY) {
+            this.path = path;
+            this.caretPosition = caretPosition;
+            this.scrollX = scrollX;
+            this.scrollY = scrollY;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public int getCaretPosition() {
+            return caretPosition;
+        }
+
+        public int getScrollX() {
+            return scrollX;
+        }
+
+        public int getScrollY() {
+            return scrollY;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.texteditor.service;
+
+import javax.swing.*;
+import java.awt.AWTEvent;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// records how long each startup phase takes up to the first keystroke, like the performance
+// timeline in browser dev tools. the report is added to ~/.tekst/startup.log, which keeps the
+// last LOG_REPORTS launches, so time-to-first-keystroke can be compared between releases; it is
+// only printed as well when running with -Dtekst.startupReport=true
+public final class StartupTimeline {
+
+    private static final long ORIGIN = System.nanoTime();
+    private static final int LOG_REPORTS = 20;
+    private static final String HEADER = "Startup timeline (";
+    private static final List<String> phases = new ArrayList<>();
+    private static final List<Long> times = new ArrayList<>();
+    private static boolean finished;
+
+    private StartupTimeline() {
+    }
+
+    // record that a startup phase has completed
+    public static synchronized void mark(String phase) {
+        if (!finished) {
+            phases.add(phase);
+            times.add(System.nanoTime() - ORIGIN);
+        }
+    }
+
+    // watch the main window for the first frame and the first key press, then report
+    public static void watch(JFrame frame) {
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                frame.removeWindowListener(this);
+                mark("first frame shown");
+
+                // -Dtekst.exitAfterStartup=true is the training run for the AppCDS archive
+                if (Boolean.getBoolean("tekst.exitAfterStartup")) {
+                    SwingUtilities.invokeLater(() -> {
+                        finish();
+                        System.exit(0);
+                    });
+                }
+            }
+        });
+
+        Toolkit.getDefaultToolkit().addAWTEventListener(new AWTEventListener() {
+            @Override
+            public void eventDispatched(AWTEvent event) {
+                if (event.getID() == KeyEvent.KEY_PRESSED) {
+                    Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+                    mark("first keystroke");
+                    finish();
+                }
+            }
+        }, AWTEvent.KEY_EVENT_MASK);
+    }
+
+    // log the report off the EDT, and print it when asked to
+    private static void finish() {
+        String report;
+        synchronized (StartupTimeline.class) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            report = buildReport();
+        }
+        if (Boolean.getBoolean("tekst.startupReport")) {
+            System.out.print(report);
+        }
+
+        Thread writer = new Thread(() -> appendToLog(report), "startup-timeline");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static String buildReport() {
+        // JVM boot time before main() ran, only looked up now to keep it off the startup path
+        long sinceOriginMs = (System.nanoTime() - ORIGIN) / 1_000_000;
+        long jvmBootMs = Math.max(0,
+                ManagementFactory.getRuntimeMXBean().getUptime() - sinceOriginMs);
+
+        StringBuilder report = new StringBuilder();
+        report.append(HEADER).append(LocalDateTime.now()).append(")\n");
+        report.append(String.format("  %9.1f ms  JVM boot before main%n", (double) jvmBootMs));
+        for (int i = 0; i < phases.size(); i++) {
+            report.append(String.format("  %9.1f ms  %s%n", times.get(i) / 1_000_000.0,
+                    phases.get(i)));
+        }
+        return report.toString();
+    }
+
+    // the log is rewritten with the oldest reports dropped, it stays a few KB
+    private static void appendToLog(String report) {
+        try {
+            Path log = AppPaths.dataDir().resolve("startup.log");
+            Files.createDirectories(log.getParent());
+            List<String> lines = Files.exists(log)
+                    ? Files.readAllLines(log, StandardCharsets.UTF_8) : new ArrayList<>();
+            int start = lines.size();
+            int reports = 0;
+            while (start > 0 && reports < LOG_REPORTS - 1) {
+                start--;
+                if (lines.get(start).startsWith(HEADER)) {
+                    reports++;
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (String line : lines.subList(start, lines.size())) {
+                text.append(line).append('\n');
+            }
+            text.append(report);
+            Files.writeString(log, text, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Could not write startup log: " + e.getMessage());
+        }
+    }
+}
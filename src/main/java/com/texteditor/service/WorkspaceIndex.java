@@ -0,0 +1,103 @@
+package com.texteditor.service;
+
+import javax.swing.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// keeps the PathIndex of the workspace folder, like stale-while-revalidate: a caller gets the
+// index it already has at once, and when that is more than a few seconds old the folder is
+// walked again in the background and the fresh index delivered as well. used on the EDT only
+public class WorkspaceIndex {
+
+    private static final long MAX_AGE_MS = 10_000;
+
+    private final ExecutorService builder;
+    private PathIndex index; // null until the first build
+    private long builtAt;
+    private boolean building;
+    private final List<Request> waiting = new ArrayList<>();
+
+    public WorkspaceIndex() {
+        builder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workspace-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // hand the index of a folder to the callback, possibly twice: the cached one right away and
+    // then a rebuilt one
+    public void get(Path root, Consumer<PathIndex> callback) {
+        if (index != null && index.getRoot().equals(root)) {
+            callback.accept(index);
+            if (System.currentTimeMillis() - builtAt < MAX_AGE_MS) {
+                return;
+            }
+        }
+        waiting.add(new Request(root, callback));
+        if (!building) {
+            build(root);
+        }
+    }
+
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    private void build(Path root) {
+        building = true;
+        builder.execute(() -> {
+            EditorEvents.WorkspaceIndex event = new EditorEvents.WorkspaceIndex();
+            event.begin();
+            PathIndex built;
+            try {
+                built = PathIndex.build(root);
+                event.succeeded = true;
+            } catch (RuntimeException e) {
+                System.err.println("Could not index " + root + ": " + e.getMessage());
+                built = PathIndex.of(root, List.of());
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.root = root.toString();
+                event.files = built.size();
+                event.commit();
+            }
+            PathIndex result = built;
+            SwingUtilities.invokeLater(() -> finished(result));
+        });
+    }
+
+    private void finished(PathIndex built) {
+        building = false;
+        index = built;
+        builtAt = System.currentTimeMillis();
+        List<Request> requests = new ArrayList<>(waiting);
+        waiting.clear();
+        Path latest = requests.isEmpty() ? null : requests.get(requests.size() - 1).root;
+        for (Request request : requests) {
+            if (request.root.equals(built.getRoot())) {
+                request.callback.accept(built);
+            } else if (request.root.equals(latest)) {
+                waiting.add(request); // another workspace was opened while this one was walked
+            }
+        }
+        if (!waiting.isEmpty()) {
+            build(waiting.get(waiting.size() - 1).root);
+        }
+    }
+
+    private static final class Request {
+        final Path root;
+        final Consumer<PathIndex> callback;
+
+        Request(Path root, Consumer<PathIndex> callback) {
+            this.root = root;
+            this.callback = callback;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.texteditor.ui;
+
+import com.texteditor.model.FuzzyMatcher;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// every command of the editor in one place under an id like "file.save", like a route table:
+// the menu bar, the toolbar and the command palette are all built from it, so a command is
+// defined once and can be found and run by name. each command is a Swing Action, so menu items
+// and buttons take its title, shortcut and checked state from it and follow later changes. for
+// the palette every command keeps its "Category: Title" label as a char array next to the letter
+// mask FuzzyMatcher uses, worked out once when the command is registered, and the registry
+// remembers which commands were run last so they rank first. used on the EDT only
+public class ActionRegistry {
+
+    public static final int MAX_RECENT = 20;
+    private static final int RECENT_BONUS = 40; // for the command run last, less for older ones
+
+    private final Map<String, Command> commands = new LinkedHashMap<>();
+    private final List<String> recent = new ArrayList<>(); // ids, most recent first
+
+    // add a command. description and accelerator may be null
+    public Command register(String id, String category, String title, String description,
+            KeyStroke accelerator, Runnable run) {
+        if (commands.containsKey(id)) {
+            throw new IllegalArgumentException("Command registered twice: " + id);
+        }
+        Command command = new Command(id, category, title, description, accelerator, run);
+        commands.put(id, command);
+        return command;
+    }
+
+    public Command get(String id) {
+        Command command = commands.get(id);
+        if (command == null) {
+            throw new IllegalArgumentException("Unknown command: " + id);
+        }
+        return command;
+    }
+
+    // in the order they were registered
+    public Collection<Command> getCommands() {
+        return Collections.unmodifiableCollection(commands.values());
+    }
+
+    // run a command by id, false if there is no such command or it is disabled
+    public boolean invoke(String id) {
+        Command command = commands.get(id);
+        if (command == null || !command.isEnabled()) {
+            return false;
+        }
+        command.actionPerformed(new ActionEvent(this, ActionEvent.ACTION_PERFORMED, id));
+        return true;
+    }
+
+    // ids of the commands run most recently, newest first, for keeping between runs
+    public List<String> getRecentIds() {
+        return new ArrayList<>(recent);
+    }
+
+    public void setRecentIds(List<String> ids) {
+        recent.clear();
+        for (String id : ids) {
+            if (commands.containsKey(id) && !recent.contains(id) && recent.size() < MAX_RECENT) {
+                recent.add(id);
+            }
+        }
+    }
+
+    // enabled commands matching the query, best first; commands run lately get a bonus. an
+    // empty query lists the recent commands first and then the rest in registration order
+    public List<Command> search(FuzzyMatcher matcher, int limit) {
+        List<Command> found = new ArrayList<>();
+        if (matcher.isEmpty()) {
+            for (String id : recent) {
+                addIfEnabled(found, commands.get(id));
+            }
+            for (Command command : commands.values()) {
+                if (!recent.contains(command.id)) {
+                    addIfEnabled(found, command);
+                }
+            }
+            return found.size() > limit ? found.subList(0, limit) : found;
+        }
+
+        long queryMask = matcher.getMask();
+        for (Command command : commands.values()) {
+            if (!command.isEnabled() || (queryMask & ~command.mask) != 0) {
+                continue;
+            }
+            int score = matcher.score(command.label, 0, command.titleStart,
+                    command.label.length);
+            if (score != FuzzyMatcher.NO_MATCH) {
+                int age = recent.indexOf(command.id);
+                command.score = score + (age < 0 ? 0 : RECENT_BONUS - 2 * age);
+                found.add(command);
+            }
+        }
+        // stable, so equal scores keep registration order
+        found.sort((a, b) -> Integer.compare(b.score, a.score));
+        return found.size() > limit ? found.subList(0, limit) : found;
+    }
+
+    private static void addIfEnabled(List<Command> found, Command command) {
+        if (command.isEnabled()) {
+            found.add(command);
+        }
+    }
+
+    private void used(Command command) {
+        recent.remove(command.id);
+        recent.add(0, command.id);
+        if (recent.size() > MAX_RECENT) {
+            recent.remove(recent.size() - 1);
+        }
+    }
+
+    // a Ctrl+Shift+S style description of a key stroke
+    public static String describe(KeyStroke keyStroke) {
+        String modifiers = KeyEvent.getModifiersExText(keyStroke.getModifiers());
+        String key = KeyEvent.getKeyText(keyStroke.getKeyCode());
+        return modifiers.isEmpty() ? key : modifiers + "+" + key;
+    }
+
+    // one registered command. the title is the Action's NAME; running it through the Action
+    // (menu item, button, palette) counts as a use
+    public final class Command extends AbstractAction {
+        private final String id;
+        private final String category;
+        private final Runnable run;
+        private char[] label; // "Category: Title", what the palette matches against
+        private int titleStart;
+        private long mask;
+        private int score; // of the last search, only meaningful inside search()
+
+        private Command(String id, String category, String title, String description,
+                KeyStroke accelerator, Runnable run) {
+            super(title);
+            this.id = id;
+            this.category = category;
+            this.run = run;
+            if (description != null) {
+                putValue(SHORT_DESCRIPTION, description);
+            }
+            if (accelerator != null) {
+                putValue(ACCELERATOR_KEY, accelerator);
+            }
+            updateLabel();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getTitle() {
+            return (String) getValue(NAME);
+        }
+
+        // rename the command, e.g. "Start Recording" -> "Stop Recording"; menu items follow
+        public void setTitle(String title) {
+            putValue(NAME, title);
+            updateLabel();
+        }
+
+        public KeyStroke getAccelerator() {
+            return (KeyStroke) getValue(ACCELERATOR_KEY);
+        }
+
+        // the shortcut as text, null if the command has none
+        public String getShortcutText() {
+            KeyStroke accelerator = getAccelerator();
+            return accelerator != null ? describe(accelerator) : null;
+        }
+
+        // description and shortcut, for a toolbar button
+        public String getToolTip() {
+            Object description = getValue(SHORT_DESCRIPTION);
+            String text = description != null ? description.toString() : getTitle();
+            String shortcut = getShortcutText();
+            return shortcut != null ? text + " (" + shortcut + ")" : text;
+        }
+
+        // checked state of a toggle; check box menu items bound to the command follow it
+        public void setSelected(boolean selected) {
+            putValue(SELECTED_KEY, selected);
+        }
+
+        public String getLabel() {
+            return new String(label);
+        }
+
+        public int getTitleStart() {
+            return titleStart;
+        }
+
+        // indexes of the characters of getLabel() the query matched, for highlighting
+        public int[] matchPositions(FuzzyMatcher matcher) {
+            return matcher.positions(label, 0, titleStart, label.length);
+        }
+
+        private void updateLabel() {
+            String text = category + ": " + getTitle();
+            label = text.toCharArray();
+            titleStart = category.length() + 2;
+            mask = FuzzyMatcher.mask(label, 0, label.length);
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            used(this);
+            run.run();
+        }
+    }
+}
@@ -0,0 +1,562 @@
+package com.texteditor.ui;
+
+import com.texteditor.io.DelimitedFile;
+import com.texteditor.ui.themes.ThemeManager;
+import com.texteditor.ui.themes.ThemeStyle;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableColumn;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+// read-only table of a delimited file (CSV, TSV, ...) of any size. a background pass indexes where
+// the rows start and the table grows as it goes, so the first rows show up at once and a 10
+// million row file is scrollable within seconds. the table is virtual: JTable only asks for the
+// cells on screen, and only those rows are read from the mapping and split into fields, with a
+// small cache for repaints (like a virtualized list in React, where only visible items render).
+// the first row is the header. clicking a header sorts by that column on a background thread,
+// again descending, a third time back to file order; Ctrl+F finds text in the file
+public class CsvViewer extends JPanel implements ViewerTab {
+
+    private static final int CACHED_ROWS = 512;
+    private static final int MAX_COPY_ROWS = 10_000;
+    private static final int SAMPLED_ROWS = 100; // looked at for the column count and widths
+
+    private final File source;
+    private final DelimitedFile file;
+    private String[] columnNames = new String[0]; // before the table, which asks for them
+    private final RowModel model = new RowModel();
+    private final JTable table = new JTable(model);
+    private final JScrollPane scrollPane = new JScrollPane(table);
+    private final JPanel header = new JPanel(new BorderLayout(8, 0));
+    private final JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+    private final JLabel searchLabel = new JLabel("Find:");
+    private final JTextField searchField = new JTextField(20);
+    private final JButton nextButton = new JButton("▼");
+    private final JLabel statusLabel = new JLabel();
+
+    // parsed rows by file row, least recently used first
+    private final Map<Integer, String[]> cache = new LinkedHashMap<>(CACHED_ROWS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+            return size() > CACHED_ROWS;
+        }
+    };
+    private int shownRows; // data rows the table knows about, in file order
+    private int indexPercent;
+    private int[] order; // file row of each table row while sorted, null in file order
+    private int sortColumn = -1;
+    private boolean ascending;
+    private SwingWorker<Void, Integer> indexer;
+    private SwingWorker<int[], Integer> sorter; // the sort running, null when idle
+    private SwingWorker<Long, Long> search; // the search running, null when idle
+
+    public CsvViewer(File source, DelimitedFile file) {
+        super(new BorderLayout());
+        this.source = source;
+        this.file = file;
+
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        table.setCellSelectionEnabled(true);
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.setDefaultRenderer(Object.class, new CellRenderer());
+        table.getTableHeader().setToolTipText("Click to sort; again for descending, a third time "
+                + "for file order");
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column >= 0 && e.getButton() == MouseEvent.BUTTON1) {
+                    sortBy(table.convertColumnIndexToModel(column));
+                }
+            }
+        });
+
+        searchField.setToolTipText("Text to find in the file, case-sensitive; Enter finds the "
+                + "next row with it");
+        searchField.addActionListener(e -> find());
+        nextButton.setToolTipText("Find next (Enter)");
+        nextButton.addActionListener(e -> find());
+        controls.add(searchLabel);
+        controls.add(searchField);
+        controls.add(nextButton);
+        header.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 8));
+        header.add(controls, BorderLayout.WEST);
+        header.add(statusLabel, BorderLayout.EAST);
+        add(header, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+
+        getInputMap(WHEN_ANCESTOR_OF_FOCUSED_COMPONENT).put(
+                KeyStroke.getKeyStroke(KeyEvent.VK_F, KeyEvent.CTRL_DOWN_MASK), "find");
+        getActionMap().put("find", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                showFind();
+            }
+        });
+        getInputMap(WHEN_ANCESTOR_OF_FOCUSED_COMPONENT).put(
+                KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "cancel");
+        getActionMap().put("cancel", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                cancelSearch();
+                table.requestFocusInWindow();
+            }
+        });
+
+        applyTheme(ThemeManager.getInstance().getCurrentTheme().getStyle());
+        startIndexing();
+    }
+
+    // the table takes the keyboard as soon as the tab is shown
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        SwingUtilities.invokeLater(table::requestFocusInWindow);
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return this;
+    }
+
+    @Override
+    public File getFile() {
+        return source;
+    }
+
+    @Override
+    public void showFind() {
+        searchField.requestFocusInWindow();
+        searchField.selectAll();
+    }
+
+    // the selected cells as tab-separated lines, which spreadsheets paste as cells
+    @Override
+    public boolean copySelection() {
+        int[] rows = table.getSelectedRows();
+        int[] columns = table.getSelectedColumns();
+        if (rows.length == 0 || columns.length == 0) {
+            return false;
+        }
+        int count = Math.min(rows.length, MAX_COPY_ROWS);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < columns.length; j++) {
+                if (j > 0) {
+                    text.append('\t');
+                }
+                Object value = model.getValueAt(rows[i], table.convertColumnIndexToModel(
+                        columns[j]));
+                text.append(value.toString().replace('\t', ' ').replace("\r", "")
+                        .replace('\n', ' '));
+            }
+            text.append('\n');
+        }
+        Toolkit.getDefaultToolkit().getSystemClipboard()
+                .setContents(new StringSelection(text.toString()), null);
+        if (count < rows.length) {
+            statusLabel.setText(String.format("Copied the first %,d rows of the selection",
+                    MAX_COPY_ROWS));
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        cancelSearch();
+        if (sorter != null) {
+            sorter.cancel(true);
+            sorter = null;
+        }
+        if (indexer != null) {
+            indexer.cancel(true);
+            indexer = null;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            System.err.println("Could not close " + source + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void applyTheme(ThemeStyle style) {
+        header.setBackground(style.getMenuBackground());
+        controls.setBackground(style.getMenuBackground());
+        style.applyToLabel(searchLabel, style.getMenuForeground());
+        style.applyToLabel(statusLabel, style.getMenuForeground());
+        searchField.setFont(style.getComponentFont());
+        searchField.setBackground(style.getTextBackground());
+        searchField.setForeground(style.getTextForeground());
+        searchField.setCaretColor(style.getTextForeground());
+        style.applyToButton(nextButton);
+
+        Font textFont = style.getTextFont();
+        table.setFont(textFont != null ? textFont : table.getFont());
+        table.setRowHeight(table.getFontMetrics(table.getFont()).getHeight() + 4);
+        table.setBackground(style.getTextBackground());
+        table.setForeground(style.getTextForeground());
+        table.setSelectionBackground(style.getSelection());
+        table.setSelectionForeground(style.getTextForeground());
+        table.setGridColor(style.getMenuBackground());
+        JTableHeader tableHeader = table.getTableHeader();
+        tableHeader.setFont(style.getComponentFont());
+        tableHeader.setBackground(style.getMenuBackground());
+        tableHeader.setForeground(style.getMenuForeground());
+        scrollPane.getViewport().setBackground(style.getTextBackground());
+        shownRows = Math.min(shownRows, rowLimit()); // the limit depends on the row height
+        model.fireTableDataChanged();
+    }
+
+    // rows past this would be below the int pixel coordinates a JTable scrolls in
+    private int rowLimit() {
+        return Integer.MAX_VALUE / Math.max(1, table.getRowHeight()) - 1;
+    }
+
+    // the background pass over the file; rows show up in the table as they are found
+    private void startIndexing() {
+        indexer = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() throws InterruptedException {
+                file.buildIndex(this::publish);
+                return null;
+            }
+
+            @Override
+            protected void process(List<Integer> percents) {
+                if (indexer == this) {
+                    indexPercent = percents.get(percents.size() - 1);
+                    showNewRows();
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (indexer != this) {
+                    return; // closed
+                }
+                indexer = null;
+                try {
+                    get();
+                } catch (ExecutionException e) {
+                    statusLabel.setText("Indexing failed: " + e.getCause().getMessage());
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                showNewRows();
+            }
+        };
+        indexer.execute();
+        updateStatus();
+    }
+
+    // tell the table about rows indexed since the last call
+    private void showNewRows() {
+        if (columnNames.length == 0 && file.getRowCount() > 0) {
+            setUpColumns();
+        }
+        int before = shownRows;
+        shownRows = Math.min(Math.max(0, file.getRowCount() - 1), rowLimit());
+        if (order == null && shownRows > before) {
+            model.fireTableRowsInserted(before, shownRows - 1);
+        }
+        updateStatus();
+    }
+
+    // names from the header row; as many columns as the widest of the first rows has
+    private void setUpColumns() {
+        String[] names = file.getRow(0);
+        int rows = Math.min(file.getRowCount(), SAMPLED_ROWS);
+        int columns = names.length;
+        for (int row = 1; row < rows; row++) {
+            columns = Math.max(columns, row(row).length);
+        }
+        columnNames = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            columnNames[i] = i < names.length && !names[i].isBlank() ? names[i].trim()
+                    : "Column " + (i + 1);
+        }
+        model.fireTableStructureChanged();
+
+        // widths to fit the header and the first rows, within limits
+        FontMetrics cells = table.getFontMetrics(table.getFont());
+        FontMetrics headers = table.getFontMetrics(table.getTableHeader().getFont());
+        for (int i = 0; i < columns; i++) {
+            int width = headers.stringWidth(columnNames[i] + " ▲");
+            for (int row = 1; row < rows; row++) {
+                String[] fields = row(row);
+                if (i < fields.length) {
+                    width = Math.max(width, cells.stringWidth(fields[i]));
+                }
+            }
+            table.getColumnModel().getColumn(i).setPreferredWidth(
+                    Math.max(60, Math.min(400, width + 16)));
+        }
+    }
+
+    private String[] row(int fileRow) {
+        String[] fields = cache.get(fileRow);
+        if (fields == null) {
+            fields = file.getRow(fileRow);
+            cache.put(fileRow, fields);
+        }
+        return fields;
+    }
+
+    // file row shown in a table row; the header is file row 0
+    private int fileRow(int tableRow) {
+        return order != null ? order[tableRow] : tableRow + 1;
+    }
+
+    // ascending, then descending, then back to file order
+    private void sortBy(int column) {
+        if (!file.isIndexed()) {
+            statusLabel.setText("Sorting works once the whole file is indexed");
+            return;
+        }
+        if (sorter != null) {
+            sorter.cancel(true);
+            sorter = null;
+        }
+        if (column == sortColumn && !ascending) {
+            showSorted(null, -1, false);
+            return;
+        }
+        boolean up = column != sortColumn;
+        statusLabel.setText("Sorting…");
+        SwingWorker<int[], Integer> worker = new SwingWorker<>() {
+            @Override
+            protected int[] doInBackground() throws InterruptedException {
+                return file.sortRows(column, up, 1, this::publish);
+            }
+
+            @Override
+            protected void process(List<Integer> percents) {
+                if (sorter == this) {
+                    statusLabel.setText("Sorting… " + percents.get(percents.size() - 1) + "%");
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (sorter != this) {
+                    return; // cancelled or overtaken by a newer sort
+                }
+                sorter = null;
+                try {
+                    showSorted(get(), column, up);
+                } catch (ExecutionException e) {
+                    statusLabel.setText("Sorting failed: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        sorter = worker;
+        worker.execute();
+    }
+
+    private void showSorted(int[] rows, int column, boolean up) {
+        order = rows;
+        sortColumn = column;
+        ascending = up;
+        for (int i = 0; i < columnNames.length; i++) {
+            TableColumn tableColumn = table.getColumnModel().getColumn(
+                    table.convertColumnIndexToView(i));
+            tableColumn.setHeaderValue(model.getColumnName(i));
+        }
+        table.getTableHeader().repaint();
+        model.fireTableDataChanged();
+        updateStatus();
+    }
+
+    // the next row containing the text after the selected one, in file order, wrapping around.
+    // runs over the raw bytes on a background thread, so it also finds text in rows not yet
+    // indexed; those can be selected once indexing gets there. the header is skipped, it is not a
+    // row that could be selected
+    private void find() {
+        String text = searchField.getText();
+        if (text.isEmpty()) {
+            statusLabel.setText("Type text to find");
+            return;
+        }
+        cancelSearch();
+        byte[] pattern = text.getBytes(file.getCharset());
+        int selected = table.getSelectedRow();
+        long from = selected >= 0 && file.getRowCount() > 1
+                ? file.getRowStart(fileRow(selected) + 1) : 0;
+        long size = file.size();
+        statusLabel.setText("Searching…");
+        SwingWorker<Long, Long> worker = new SwingWorker<>() {
+            private boolean wrapped;
+
+            @Override
+            protected Long doInBackground() throws InterruptedException {
+                long found = findFrom(from);
+                if (found < 0 && from > 0) {
+                    wrapped = true;
+                    found = findFrom(0);
+                }
+                return found;
+            }
+
+            private long findFrom(long start) throws InterruptedException {
+                long found = file.indexOf(pattern, start, this::publish);
+                if (found >= 0 && file.rowAt(found) == 0) {
+                    found = file.indexOf(pattern, file.getRowStart(1), this::publish);
+                }
+                return found;
+            }
+
+            @Override
+            protected void process(List<Long> offsets) {
+                if (search == this && size > 0) {
+                    long offset = offsets.get(offsets.size() - 1);
+                    statusLabel.setText("Searching… " + offset * 100 / size + "%");
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (search != this) {
+                    return; // cancelled or overtaken by a newer search
+                }
+                search = null;
+                try {
+                    showFound(get(), wrapped);
+                } catch (ExecutionException e) {
+                    statusLabel.setText("Search failed: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        search = worker;
+        worker.execute();
+    }
+
+    private void showFound(long offset, boolean wrapped) {
+        updateStatus();
+        if (offset < 0) {
+            statusLabel.setText("Not found · " + statusLabel.getText());
+            return;
+        }
+        int fileRow = file.rowAt(offset);
+        if (fileRow < 0) {
+            statusLabel.setText("Found past the rows indexed so far · " + statusLabel.getText());
+            return;
+        }
+        int tableRow = fileRow - 1;
+        if (order != null) {
+            // a linear scan of the sort order, milliseconds for millions of rows; rows indexed
+            // after the sort are not in it
+            int sorted = 0;
+            while (sorted < order.length && order[sorted] != fileRow) {
+                sorted++;
+            }
+            tableRow = sorted < order.length ? sorted : -1;
+        }
+        if (tableRow < 0 || tableRow >= table.getRowCount()) {
+            statusLabel.setText(String.format("Found in row %,d, which the table can't show · ",
+                    fileRow) + statusLabel.getText());
+            return;
+        }
+        table.changeSelection(tableRow, 0, false, false);
+        table.setColumnSelectionInterval(0, table.getColumnCount() - 1);
+        table.requestFocusInWindow();
+        if (wrapped) {
+            statusLabel.setText("Wrapped around · " + statusLabel.getText());
+        }
+    }
+
+    private void cancelSearch() {
+        if (search != null) {
+            SwingWorker<Long, Long> running = search;
+            search = null;
+            running.cancel(true);
+            updateStatus();
+        }
+    }
+
+    // e.g. "1,234,567 rows · 12 columns · comma-separated · indexing 45%"
+    private void updateStatus() {
+        StringBuilder status = new StringBuilder(String.format(
+                "%,d rows · %d columns · %s-separated", shownRows, columnNames.length,
+                separatorName()));
+        if (!file.isIndexed()) {
+            status.append(" · indexing ").append(indexPercent).append('%');
+        } else if (shownRows < file.getRowCount() - 1
+                || file.getRowCount() == DelimitedFile.MAX_ROWS) {
+            status.append(" · only the first rows are shown");
+        }
+        if (sortColumn >= 0) {
+            status.append(" · sorted by ").append(columnNames[sortColumn]);
+        }
+        statusLabel.setText(status.toString());
+    }
+
+    private String separatorName() {
+        switch (file.getDelimiter()) {
+            case '\t':
+                return "tab";
+            case ';':
+                return "semicolon";
+            case '|':
+                return "pipe";
+            default:
+                return "comma";
+        }
+    }
+
+    // the rows indexed so far minus the header, as many as the table can scroll to
+    private final class RowModel extends AbstractTableModel {
+        @Override
+        public int getRowCount() {
+            return order != null ? Math.min(order.length, rowLimit()) : shownRows;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            if (column != sortColumn) {
+                return columnNames[column];
+            }
+            return columnNames[column] + (ascending ? " ▲" : " ▼");
+        }
+
+        @Override
+        public Object getValueAt(int tableRow, int column) {
+            String[] fields = row(fileRow(tableRow));
+            return column < fields.length ? fields[column] : "";
+        }
+    }
+
+    // quoted fields can hold line breaks, which a one-line cell shows as spaces
+    private static final class CellRenderer extends DefaultTableCellRenderer {
+        @Override
+        protected void setValue(Object value) {
+            String text = value == null ? "" : value.toString();
+            super.setValue(text.indexOf('\n') >= 0 ? text.replace("\r", "").replace('\n', ' ')
+                    : text);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.texteditor.ui;
+
+import com.texteditor.controller.FileController;
+import com.texteditor.service.DirectoryCache;
+import com.texteditor.service.RecentFiles;
+import com.texteditor.ui.themes.ThemeStyle;
+import com.texteditor.ui.themes.Themeable;
+
+import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeCellRenderer;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// side panel with the files of a workspace folder, like the explorer in an IDE. a folder is only
+// read when it is first expanded, on DirectoryCache's background thread, and shows "Loading…"
+// meanwhile; listings refresh by themselves when files appear or disappear. nodes hold just a
+// name (paths are built from the parents when needed) and the tree uses a fixed row height, so a
+// folder with 100k entries expands without measuring every row
+public class FileTreePanel extends JPanel implements Themeable {
+
+    private static final String LOADING = "Loading…";
+
+    private final FileController fileController;
+    private final RecentFiles recentFiles;
+    private final DirectoryCache directoryCache = new DirectoryCache(this::directoryChanged);
+    private final DefaultTreeModel model = new DefaultTreeModel(null, true);
+    private final JTree tree = new JTree(model);
+    private final DefaultTreeCellRenderer renderer = new DefaultTreeCellRenderer();
+    private final JLabel titleLabel = new JLabel("No folder open");
+    private final JButton openButton = new JButton("📂");
+    private final JPanel header = new JPanel(new BorderLayout());
+
+    public FileTreePanel(FileController fileController, RecentFiles recentFiles) {
+        super(new BorderLayout());
+        this.fileController = fileController;
+        this.recentFiles = recentFiles;
+
+        tree.setCellRenderer(renderer);
+        tree.setRootVisible(true);
+        tree.setShowsRootHandles(true);
+        tree.setLargeModel(true);
+        tree.setRowHeight(20);
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                Object node = event.getPath().getLastPathComponent();
+                if (node instanceof FileNode && !((FileNode) node).loaded) {
+                    load((FileNode) node);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+            }
+        });
+        tree.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    TreePath path = tree.getPathForLocation(e.getX(), e.getY());
+                    openNode(path);
+                }
+            }
+        });
+        tree.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "openFile");
+        tree.getActionMap().put("openFile", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                openNode(tree.getSelectionPath());
+            }
+        });
+
+        openButton.setToolTipText("Open Folder...");
+        openButton.setFocusable(false);
+        openButton.addActionListener(e -> chooseWorkspace());
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        header.add(titleLabel, BorderLayout.CENTER);
+        header.add(openButton, BorderLayout.EAST);
+
+        add(header, BorderLayout.NORTH);
+        add(new JScrollPane(tree), BorderLayout.CENTER);
+        setPreferredSize(new Dimension(240, 0));
+        setMinimumSize(new Dimension(120, 0));
+    }
+
+    // show a folder as the workspace and remember it for the next run
+    public void setWorkspace(File folder) {
+        directoryCache.clear();
+        recentFiles.setWorkspace(folder);
+        if (folder == null) {
+            model.setRoot(null);
+            titleLabel.setText("No folder open");
+            return;
+        }
+        FileNode root = new FileNode(folder.getName().isEmpty() ? folder.getPath()
+                : folder.getName(), true);
+        root.rootPath = folder.toPath().toAbsolutePath();
+        root.add(new DefaultMutableTreeNode(LOADING, false));
+        model.setRoot(root);
+        titleLabel.setText(root.name);
+        titleLabel.setToolTipText(folder.getAbsolutePath());
+        tree.expandPath(new TreePath(root));
+    }
+
+    public File getWorkspace() {
+        return recentFiles.getWorkspace();
+    }
+
+    // pick the workspace folder, false if the user cancelled
+    public boolean chooseWorkspace() {
+        JFileChooser chooser = new JFileChooser(getWorkspace());
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setDialogTitle("Open Folder");
+        if (chooser.showOpenDialog(SwingUtilities.getWindowAncestor(this))
+                != JFileChooser.APPROVE_OPTION) {
+            return false;
+        }
+        setWorkspace(chooser.getSelectedFile());
+        return true;
+    }
+
+    public void shutdown() {
+        directoryCache.shutdown();
+    }
+
+    private void openNode(TreePath path) {
+        if (path != null && path.getLastPathComponent() instanceof FileNode) {
+            FileNode node = (FileNode) path.getLastPathComponent();
+            if (!node.directory) {
+                fileController.openFile(node.toPath().toFile());
+            }
+        }
+    }
+
+    private void load(FileNode node) {
+        directoryCache.list(node.toPath(), listing -> showListing(node, listing));
+    }
+
+    // the folder changed on disk: read it again if the tree has already shown it
+    private void directoryChanged(Path directory) {
+        FileNode node = findLoaded(directory);
+        if (node != null) {
+            load(node);
+        }
+    }
+
+    // replace a folder's children with a listing, keeping the subtrees of folders that are still
+    // there and whatever was expanded below them
+    private void showListing(FileNode node, DirectoryCache.Listing listing) {
+        if (node.getRoot() != model.getRoot()) {
+            return; // another workspace was opened in the meantime
+        }
+        TreePath nodePath = new TreePath(node.getPath());
+        List<TreePath> expanded = new ArrayList<>();
+        Enumeration<TreePath> descendants = tree.getExpandedDescendants(nodePath);
+        while (descendants != null && descendants.hasMoreElements()) {
+            expanded.add(descendants.nextElement());
+        }
+        Map<String, FileNode> oldFolders = new HashMap<>();
+        for (int i = 0; i < node.getChildCount(); i++) {
+            Object child = node.getChildAt(i);
+            if (child instanceof FileNode && ((FileNode) child).loaded) {
+                oldFolders.put(((FileNode) child).name, (FileNode) child);
+            }
+        }
+
+        node.removeAllChildren();
+        if (listing.getError() != null) {
+            node.add(new DefaultMutableTreeNode("(" + listing.getError() + ")", false));
+        }
+        for (int i = 0; i < listing.size(); i++) {
+            String name = listing.getName(i);
+            FileNode child = listing.isDirectory(i) ? oldFolders.get(name) : null;
+            if (child == null) {
+                child = new FileNode(name, listing.isDirectory(i));
+                if (child.directory) {
+                    child.add(new DefaultMutableTreeNode(LOADING, false));
+                }
+            }
+            node.add(child);
+        }
+        node.loaded = listing.getError() == null;
+        model.nodeStructureChanged(node);
+        for (TreePath path : expanded) {
+            tree.expandPath(path);
+        }
+    }
+
+    // the node of a folder whose listing is shown, null if there is none
+    private FileNode findLoaded(Path directory) {
+        Object root = model.getRoot();
+        if (!(root instanceof FileNode) || !directory.startsWith(((FileNode) root).rootPath)) {
+            return null;
+        }
+        FileNode node = (FileNode) root;
+        Path relative = node.rootPath.relativize(directory);
+        for (Path name : relative.toString().isEmpty() ? List.<Path>of() : relative) {
+            if (!node.loaded) {
+                return null;
+            }
+            FileNode next = null;
+            for (int i = 0; i < node.getChildCount() && next == null; i++) {
+                Object child = node.getChildAt(i);
+                if (child instanceof FileNode && ((FileNode) child).directory
+                        && ((FileNode) child).name.equals(name.toString())) {
+                    next = (FileNode) child;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            node = next;
+        }
+        return node.loaded ? node : null;
+    }
+
+    @Override
+    public void applyTheme(ThemeStyle style) {
+        setBackground(style.getBackground());
+        header.setBackground(style.getMenuBackground());
+        style.applyToLabel(titleLabel, style.getMenuForeground());
+        style.applyToButton(openButton);
+        tree.setBackground(style.getTextBackground());
+        tree.setFont(style.getComponentFont());
+        renderer.setBackgroundNonSelectionColor(style.getTextBackground());
+        renderer.setTextNonSelectionColor(style.getTextForeground());
+        renderer.setBackgroundSelectionColor(style.getSelection());
+        renderer.setTextSelectionColor(style.getTextForeground());
+        renderer.setBorderSelectionColor(style.getAccent());
+        tree.setRowHeight(Math.max(20, tree.getFontMetrics(style.getComponentFont()).getHeight()
+                + 4));
+        tree.repaint();
+    }
+
+    // a file or folder in the tree. only the root keeps a whole path
+    private static final class FileNode extends DefaultMutableTreeNode {
+        final String name;
+        final boolean directory;
+        boolean loaded; // children come from a successful listing
+        Path rootPath; // set on the root only
+
+        FileNode(String name, boolean directory) {
+            super(name, directory);
+            this.name = name;
+            this.directory = directory;
+        }
+
+        Path toPath() {
+            return rootPath != null ? rootPath : ((FileNode) getParent()).toPath().resolve(name);
+        }
+    }
+}
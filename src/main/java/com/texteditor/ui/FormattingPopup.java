@@ -1,7 +1,8 @@
 package com.texteditor.ui;
 
+import com.texteditor.model.FormattedDocument;
 import com.texteditor.ui.themes.ThemeManager;
-import com.texteditor.ui.themes.PixelatedTheme;
+import com.texteditor.ui.themes.ThemeStyle;
 import javax.swing.*;
 import javax.swing.text.*;
 import java.awt.*;
@@ -34,6 +35,7 @@ public class FormattingPopup extends JPopupMenu {
     private String fontFamily = "Consolas";
     private Color textColor = Color.BLACK;
     private Color highlightColor = Color.YELLOW;
+    private ThemeStyle appliedStyle; // style the popup was last painted with
 
     public FormattingPopup(JTextPane textPane) {
         this.textPane = textPane;
@@ -128,45 +130,47 @@ public class FormattingPopup extends JPopupMenu {
         setPreferredSize(new Dimension(450, 50));
     }
 
-    // Apply current theme to the popup
+    // Apply current theme to the popup; skipped when the popup already shows this style
     public void applyTheme() {
-        ThemeManager themeManager = ThemeManager.getInstance();
-        PixelatedTheme currentTheme = themeManager.getCurrentTheme();
+        ThemeStyle style = ThemeManager.getInstance().getCurrentTheme().getStyle();
+        if (style == appliedStyle) {
+            return;
+        }
+        appliedStyle = style;
 
         // Apply theme to popup background
-        setBackground(currentTheme.getMenuBackgroundColor());
-        setBorder(BorderFactory.createLineBorder(currentTheme.getBorderColor(), 2));
+        setBackground(style.getMenuBackground());
+        setBorder(style.getPanelBorder());
 
         // Apply theme to all buttons
         Component[] components = getComponents();
         for (Component component : components) {
             if (component instanceof JButton) {
                 JButton button = (JButton) component;
-                currentTheme.applyToButton(button);
+                style.applyToButton(button);
 
                 // Special handling for color buttons
                 if (button == textColorButton || button == highlightButton) {
                     // Keep the color background but apply theme border
-                    button.setBorder(
-                            BorderFactory.createLineBorder(currentTheme.getBorderColor(), 1));
+                    button.setBorder(style.getThinBorder());
                 }
             } else if (component instanceof JComboBox) {
                 JComboBox<?> combo = (JComboBox<?>) component;
-                combo.setBackground(currentTheme.getButtonBackgroundColor());
-                combo.setForeground(currentTheme.getButtonForegroundColor());
-                combo.setBorder(BorderFactory.createLineBorder(currentTheme.getBorderColor(), 1));
+                combo.setBackground(style.getButtonBackground());
+                combo.setForeground(style.getButtonForeground());
+                combo.setBorder(style.getThinBorder());
 
                 // Apply theme font
-                if (!currentTheme.getThemeName().equals("Normal (Default)")) {
-                    combo.setFont(PixelatedTheme.PIXELATED_FONT_SMALL);
+                if (style.isPixelated()) {
+                    combo.setFont(style.getSmallFont());
                 }
             } else if (component instanceof JLabel) {
                 JLabel label = (JLabel) component;
-                label.setForeground(currentTheme.getMenuForegroundColor());
+                label.setForeground(style.getMenuForeground());
 
                 // Apply theme font
-                if (!currentTheme.getThemeName().equals("Normal (Default)")) {
-                    label.setFont(PixelatedTheme.PIXELATED_FONT_SMALL);
+                if (style.isPixelated()) {
+                    label.setFont(style.getSmallFont());
                 }
             }
         }
@@ -276,30 +280,26 @@ public class FormattingPopup extends JPopupMenu {
         }
     }
 
-    // Apply current formatting to selected text
+    // Apply current formatting to selected text: every attribute goes into one batch, so the
+    // document restyles the selection once, merges equal runs and records a single undo step
     private void applyFormatting() {
         if (selectedText == null || selectedText.trim().isEmpty()) {
             return;
         }
 
-        // Get the styled document from the text pane
-        StyledDocument doc = textPane.getStyledDocument();
-
         // Create attribute set for formatting
         SimpleAttributeSet attrs = new SimpleAttributeSet();
 
         // Set font attributes
         StyleConstants.setBold(attrs, isBold);
-        StyleConstants.setItalic(attrs, isUnderline);
+        StyleConstants.setItalic(attrs, isItalic);
         StyleConstants.setUnderline(attrs, isUnderline);
         StyleConstants.setFontSize(attrs, fontSize);
         StyleConstants.setFontFamily(attrs, fontFamily);
         StyleConstants.setForeground(attrs, textColor);
 
         // Apply formatting to selected text
-        doc.setCharacterAttributes(selectionStart, selectionEnd - selectionStart, attrs, false);
-
-        textPane.revalidate();
+        formatSelection(attrs);
         textPane.repaint();
 
         // Hide popup after applying formatting
@@ -312,15 +312,30 @@ public class FormattingPopup extends JPopupMenu {
             return;
         }
 
-        // Use StyledDocument for proper highlighting
-        StyledDocument doc = textPane.getStyledDocument();
         SimpleAttributeSet attrs = new SimpleAttributeSet();
         StyleConstants.setBackground(attrs, highlightColor);
 
         // Apply highlight to selected text
-        doc.setCharacterAttributes(selectionStart, selectionEnd - selectionStart, attrs, false);
+        formatSelection(attrs);
 
         // Hide popup after applying highlight
         setVisible(false);
     }
+
+    // a read-only tab (being exported or merged) keeps its formatting; changing it would wait for
+    // the background task's lock on the EDT
+    private void formatSelection(AttributeSet attrs) {
+        if (!textPane.isEditable()) {
+            return;
+        }
+        StyledDocument doc = textPane.getStyledDocument();
+        int length = selectionEnd - selectionStart;
+        if (doc instanceof FormattedDocument) {
+            ((FormattedDocument) doc).batch()
+                    .setCharacterAttributes(selectionStart, length, attrs, false)
+                    .apply();
+        } else {
+            doc.setCharacterAttributes(selectionStart, length, attrs, false);
+        }
+    }
 }
@@ -0,0 +1,644 @@
+package com.texteditor.ui;
+
+import com.texteditor.io.MappedFile;
+import com.texteditor.ui.themes.ThemeManager;
+import com.texteditor.ui.themes.ThemeStyle;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongUnaryOperator;
+
+// read-only hex dump of a file of any size; binary files open here instead of as garbled text.
+// each row shows an offset, 16 bytes in hex and the same bytes as characters. the file is
+// memory-mapped and only the rows on screen are painted, straight from the mapping, so a 10 GB
+// file opens as fast as a small one and only the pages looked at are ever read. the scroll bar
+// counts rows instead of pixels, because a JScrollPane's int coordinates overflow at about 2 GB
+// of file. Ctrl+G jumps to an offset; Ctrl+F searches for hex bytes or text on a background
+// thread, Enter for the next match and Shift+Enter for the previous one
+public class HexViewer extends JPanel implements ViewerTab {
+
+    public static final int BYTES_PER_ROW = 16;
+    private static final int MAX_COPY = 1024 * 1024; // bytes copied to the clipboard at most
+    private static final int MAX_SCROLL = 1 << 30; // scroll bar steps, rows are scaled above it
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final File source;
+    private final MappedFile file;
+    private final long rowCount;
+    private final long scrollScale; // rows per scroll bar step, 1 for files up to 16 GB
+    private final HexView view; // needs the file, so created in the constructor
+    private final JScrollBar scrollBar = new JScrollBar(JScrollBar.VERTICAL);
+    private final JPanel header = new JPanel(new BorderLayout(8, 0));
+    private final JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+    private final JLabel offsetLabel = new JLabel("Go to:");
+    private final JTextField offsetField = new JTextField(12);
+    private final JLabel searchLabel = new JLabel("Find:");
+    private final JTextField searchField = new JTextField(20);
+    private final JComboBox<String> searchMode = new JComboBox<>(new String[] {"Hex", "Text"});
+    private final JButton previousButton = new JButton("▲");
+    private final JButton nextButton = new JButton("▼");
+    private final JLabel statusLabel = new JLabel();
+
+    private long topRow;
+    private long caret; // the byte the caret is on
+    private long anchor; // the other end of the selection; both ends are selected
+    private boolean syncingScrollBar;
+    private SwingWorker<Long, Long> search; // the search running, null when idle
+
+    public HexViewer(File source, MappedFile file) {
+        super(new BorderLayout());
+        this.source = source;
+        this.file = file;
+        rowCount = (file.size() + BYTES_PER_ROW - 1) / BYTES_PER_ROW;
+        scrollScale = Math.max(1, (rowCount + MAX_SCROLL - 1) / MAX_SCROLL);
+        view = new HexView();
+
+        offsetField.setToolTipText("Offset in hex (0x1F40, 1F40h) or decimal (8000)");
+        offsetField.addActionListener(e -> goToOffset(offsetField.getText()));
+        searchField.setToolTipText("Bytes in hex (4D 5A 90) or text; Enter finds the next match, "
+                + "Shift+Enter the previous one");
+        searchField.addActionListener(e -> find(true));
+        searchField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER,
+                KeyEvent.SHIFT_DOWN_MASK), "findPrevious");
+        searchField.getActionMap().put("findPrevious", action(() -> find(false)));
+        previousButton.setToolTipText("Find previous (Shift+Enter)");
+        previousButton.addActionListener(e -> find(false));
+        nextButton.setToolTipText("Find next (Enter)");
+        nextButton.addActionListener(e -> find(true));
+
+        controls.add(offsetLabel);
+        controls.add(offsetField);
+        controls.add(Box.createHorizontalStrut(12));
+        controls.add(searchLabel);
+        controls.add(searchField);
+        controls.add(searchMode);
+        controls.add(previousButton);
+        controls.add(nextButton);
+        header.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 8));
+        header.add(controls, BorderLayout.WEST);
+        header.add(statusLabel, BorderLayout.EAST);
+
+        scrollBar.addAdjustmentListener(e -> {
+            if (!syncingScrollBar) {
+                topRow = Math.min(scrollBar.getValue() * scrollScale, maxTopRow());
+                view.repaint();
+            }
+        });
+        add(header, BorderLayout.NORTH);
+        add(view, BorderLayout.CENTER);
+        add(scrollBar, BorderLayout.EAST);
+
+        // shortcuts anywhere in the viewer; they win over the menu's while the viewer has focus
+        bindShortcut(KeyStroke.getKeyStroke(KeyEvent.VK_G, KeyEvent.CTRL_DOWN_MASK), "goTo",
+                () -> {
+                    offsetField.requestFocusInWindow();
+                    offsetField.selectAll();
+                });
+        bindShortcut(KeyStroke.getKeyStroke(KeyEvent.VK_F, KeyEvent.CTRL_DOWN_MASK), "find",
+                this::showFind);
+        bindShortcut(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "cancel", () -> {
+            cancelSearch();
+            view.requestFocusInWindow();
+        });
+
+        applyTheme(ThemeManager.getInstance().getCurrentTheme().getStyle());
+        updateStatus();
+    }
+
+    // the dump takes the keyboard as soon as the tab is shown
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        SwingUtilities.invokeLater(view::requestFocusInWindow);
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return this;
+    }
+
+    @Override
+    public File getFile() {
+        return source;
+    }
+
+    @Override
+    public void showFind() {
+        searchField.requestFocusInWindow();
+        searchField.selectAll();
+    }
+
+    // the selected bytes as hex pairs ("4D 5A 90"), which the Find field takes back as they are
+    @Override
+    public boolean copySelection() {
+        if (file.size() == 0) {
+            return false;
+        }
+        long start = selectionStart();
+        int length = (int) Math.min(selectionEnd() - start + 1, MAX_COPY);
+        byte[] bytes = new byte[length];
+        file.read(start, bytes, 0, length);
+        StringBuilder hex = new StringBuilder(length * 3);
+        for (byte b : bytes) {
+            if (hex.length() > 0) {
+                hex.append(' ');
+            }
+            hex.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        Toolkit.getDefaultToolkit().getSystemClipboard()
+                .setContents(new StringSelection(hex.toString()), null);
+        if (length < selectionEnd() - start + 1) {
+            statusLabel.setText("Copied the first " + MAX_COPY / 1024 + " KB of the selection");
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        cancelSearch();
+        try {
+            file.close();
+        } catch (IOException e) {
+            System.err.println("Could not close " + source + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void applyTheme(ThemeStyle style) {
+        header.setBackground(style.getMenuBackground());
+        controls.setBackground(style.getMenuBackground());
+        for (JLabel label : new JLabel[] {offsetLabel, searchLabel, statusLabel}) {
+            style.applyToLabel(label, style.getMenuForeground());
+        }
+        for (JTextField field : new JTextField[] {offsetField, searchField}) {
+            field.setFont(style.getComponentFont());
+            field.setBackground(style.getTextBackground());
+            field.setForeground(style.getTextForeground());
+            field.setCaretColor(style.getTextForeground());
+        }
+        searchMode.setFont(style.getSmallFont());
+        style.applyToButton(previousButton);
+        style.applyToButton(nextButton);
+        scrollBar.setBackground(style.getBackground());
+        view.applyTheme(style);
+        updateScrollBar();
+    }
+
+    // jump to an offset typed as hex (0x1F40, 1F40h, or anything with a-f in it) or decimal
+    private void goToOffset(String text) {
+        long offset = parseOffset(text);
+        if (offset < 0) {
+            statusLabel.setText("Not an offset: " + text.trim());
+            return;
+        }
+        if (offset >= file.size()) {
+            statusLabel.setText("Offset is past the end of the file");
+            return;
+        }
+        moveCaret(offset, false);
+        view.requestFocusInWindow();
+    }
+
+    // -1 when the text is not a number
+    static long parseOffset(String text) {
+        String value = text.trim().replace("_", "").replace(",", "");
+        int radix = 10;
+        if (value.startsWith("0x") || value.startsWith("0X")) {
+            value = value.substring(2);
+            radix = 16;
+        } else if (value.endsWith("h") || value.endsWith("H")) {
+            value = value.substring(0, value.length() - 1);
+            radix = 16;
+        } else if (value.chars().anyMatch(c -> Character.digit(c, 16) > 9)) {
+            radix = 16;
+        }
+        try {
+            long offset = Long.parseLong(value, radix);
+            return offset >= 0 ? offset : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // the bytes to look for: hex pairs, optionally spaced or 0x-prefixed, or text as UTF-8.
+    // null when hex was asked for and the text isn't
+    static byte[] parsePattern(String text, boolean hex) {
+        if (!hex) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        StringBuilder digits = new StringBuilder();
+        for (String token : text.trim().split("[\\s,]+")) {
+            digits.append(token.startsWith("0x") || token.startsWith("0X")
+                    ? token.substring(2) : token);
+        }
+        if (digits.length() % 2 != 0) {
+            return null;
+        }
+        byte[] bytes = new byte[digits.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(digits.charAt(2 * i), 16);
+            int low = Character.digit(digits.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    // look for the pattern after (or before) the selection, wrapping around the end of the file
+    private void find(boolean forward) {
+        boolean hex = searchMode.getSelectedIndex() == 0;
+        byte[] pattern = parsePattern(searchField.getText(), hex);
+        if (pattern == null || pattern.length == 0) {
+            statusLabel.setText(hex ? "Type bytes in hex, like 4D 5A 90" : "Type text to find");
+            return;
+        }
+        cancelSearch();
+
+        long size = file.size();
+        long from = forward ? selectionStart() + 1 : selectionStart() - 1;
+        statusLabel.setText("Searching…");
+        SwingWorker<Long, Long> worker = new SwingWorker<>() {
+            private boolean wrapped;
+
+            @Override
+            protected Long doInBackground() throws InterruptedException {
+                long found;
+                if (forward) {
+                    found = file.indexOf(pattern, from, size, this::publish);
+                    if (found < 0 && from > 0) {
+                        wrapped = true;
+                        found = file.indexOf(pattern, 0, from - 1 + pattern.length,
+                                this::publish);
+                    }
+                } else {
+                    found = file.lastIndexOf(pattern, 0, from, this::publish);
+                    if (found < 0 && from + 1 < size) {
+                        wrapped = true;
+                        found = file.lastIndexOf(pattern, from + 1, size, this::publish);
+                    }
+                }
+                return found;
+            }
+
+            @Override
+            protected void process(List<Long> offsets) {
+                if (search == this && size > 0) {
+                    long offset = offsets.get(offsets.size() - 1);
+                    statusLabel.setText("Searching… " + offset * 100 / size + "%");
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (search != this) {
+                    return; // cancelled or overtaken by a newer search
+                }
+                search = null;
+                try {
+                    long found = get();
+                    if (found < 0) {
+                        updateStatus();
+                        statusLabel.setText("Not found · " + statusLabel.getText());
+                        return;
+                    }
+                    anchor = found;
+                    moveCaret(found + pattern.length - 1, true);
+                    if (wrapped) {
+                        statusLabel.setText("Wrapped around · " + statusLabel.getText());
+                    }
+                } catch (ExecutionException e) {
+                    statusLabel.setText("Search failed: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        search = worker;
+        worker.execute();
+    }
+
+    private void cancelSearch() {
+        if (search != null) {
+            SwingWorker<Long, Long> running = search;
+            search = null;
+            running.cancel(true);
+            updateStatus();
+        }
+    }
+
+    private long selectionStart() {
+        return Math.min(caret, anchor);
+    }
+
+    private long selectionEnd() {
+        return Math.max(caret, anchor);
+    }
+
+    // put the caret on a byte, keeping the anchor to extend the selection, and scroll to it
+    private void moveCaret(long offset, boolean extend) {
+        caret = Math.max(0, Math.min(offset, file.size() - 1));
+        if (!extend) {
+            anchor = caret;
+        }
+        long row = caret / BYTES_PER_ROW;
+        int visible = view.visibleRows();
+        if (row < topRow) {
+            setTopRow(row);
+        } else if (row >= topRow + visible) {
+            setTopRow(row - visible + 1);
+        }
+        updateStatus();
+        view.repaint();
+    }
+
+    private long maxTopRow() {
+        return Math.max(0, rowCount - view.visibleRows());
+    }
+
+    private void setTopRow(long row) {
+        topRow = Math.max(0, Math.min(row, maxTopRow()));
+        updateScrollBar();
+        view.repaint();
+    }
+
+    private void updateScrollBar() {
+        int visible = view.visibleRows();
+        int extent = (int) Math.max(1, visible / scrollScale);
+        int maximum = (int) Math.max(extent, (rowCount + scrollScale - 1) / scrollScale);
+        syncingScrollBar = true;
+        try {
+            scrollBar.setValues((int) (topRow / scrollScale), extent, 0, maximum);
+            scrollBar.setBlockIncrement(extent);
+        } finally {
+            syncingScrollBar = false;
+        }
+    }
+
+    // e.g. "Offset 0x1A2F (6,703) · 4 bytes · 3.2 GB"
+    private void updateStatus() {
+        long size = file.size();
+        String total = size < 1024 * 1024 ? String.format("%,d bytes", size)
+                : size < 1024L * 1024 * 1024
+                        ? String.format("%.1f MB", size / (1024.0 * 1024))
+                        : String.format("%.1f GB", size / (1024.0 * 1024 * 1024));
+        if (size == 0) {
+            statusLabel.setText("Empty file");
+            return;
+        }
+        long selected = selectionEnd() - selectionStart() + 1;
+        statusLabel.setText(String.format("Offset 0x%X (%,d)%s · %s", caret, caret,
+                selected > 1 ? String.format(" · %,d bytes", selected) : "", total));
+    }
+
+    private void bindShortcut(KeyStroke keyStroke, String name, Runnable run) {
+        getInputMap(WHEN_ANCESTOR_OF_FOCUSED_COMPONENT).put(keyStroke, name);
+        getActionMap().put(name, action(run));
+    }
+
+    private static Action action(Runnable run) {
+        return new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                run.run();
+            }
+        };
+    }
+
+    // the dump itself: paints the visible rows and turns keys and clicks into caret moves
+    private final class HexView extends JComponent {
+        private static final int PADDING = 8;
+
+        private final byte[] rowBytes = new byte[BYTES_PER_ROW];
+        private final int offsetDigits; // at least 8, more for files past 4 GB
+        private final int hexColumn; // in characters from the left
+        private final int textColumn;
+        private final char[] line;
+        private Color offsetColor = Color.GRAY;
+        private Color selectionColor = new Color(184, 207, 229);
+        private Color caretColor = Color.BLACK;
+
+        HexView() {
+            int digits = 8;
+            while (digits < 16 && Math.max(0, file.size() - 1) >>> (4 * digits) != 0) {
+                digits++;
+            }
+            offsetDigits = digits;
+            hexColumn = offsetDigits + 2;
+            textColumn = hexColumn + BYTES_PER_ROW * 3 + 2;
+            line = new char[textColumn + BYTES_PER_ROW];
+            setFocusable(true);
+            setOpaque(true);
+
+            bindMove(KeyEvent.VK_LEFT, "left", offset -> offset - 1);
+            bindMove(KeyEvent.VK_RIGHT, "right", offset -> offset + 1);
+            bindMove(KeyEvent.VK_UP, "up", offset -> offset - BYTES_PER_ROW);
+            bindMove(KeyEvent.VK_DOWN, "down", offset -> offset + BYTES_PER_ROW);
+            bindMove(KeyEvent.VK_PAGE_UP, "pageUp",
+                    offset -> offset - (long) visibleRows() * BYTES_PER_ROW);
+            bindMove(KeyEvent.VK_PAGE_DOWN, "pageDown",
+                    offset -> offset + (long) visibleRows() * BYTES_PER_ROW);
+            bindMove(KeyEvent.VK_HOME, "rowStart", offset -> offset - offset % BYTES_PER_ROW);
+            bindMove(KeyEvent.VK_END, "rowEnd",
+                    offset -> offset - offset % BYTES_PER_ROW + BYTES_PER_ROW - 1);
+            bindMove(KeyStroke.getKeyStroke(KeyEvent.VK_HOME, KeyEvent.CTRL_DOWN_MASK),
+                    "fileStart", offset -> 0);
+            bindMove(KeyStroke.getKeyStroke(KeyEvent.VK_END, KeyEvent.CTRL_DOWN_MASK),
+                    "fileEnd", offset -> Long.MAX_VALUE);
+
+            MouseAdapter mouse = new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    requestFocusInWindow();
+                    if (file.size() > 0) {
+                        moveCaret(offsetAt(e.getX(), e.getY()), e.isShiftDown());
+                    }
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    if (file.size() > 0) {
+                        moveCaret(offsetAt(e.getX(), e.getY()), true);
+                    }
+                }
+
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    setTopRow(topRow + (long) e.getWheelRotation() * 3);
+                }
+            };
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
+            addMouseWheelListener(mouse);
+            addFocusListener(new FocusAdapter() {
+                @Override
+                public void focusGained(FocusEvent e) {
+                    repaint(); // the caret is only drawn while focused
+                }
+
+                @Override
+                public void focusLost(FocusEvent e) {
+                    repaint();
+                }
+            });
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentResized(ComponentEvent e) {
+                    setTopRow(topRow); // the number of visible rows changed
+                }
+            });
+        }
+
+        void applyTheme(ThemeStyle style) {
+            Font textFont = style.getTextFont();
+            setFont(new Font(Font.MONOSPACED, Font.PLAIN, textFont != null
+                    ? textFont.getSize() : 14));
+            setBackground(style.getTextBackground());
+            setForeground(style.getTextForeground());
+            offsetColor = style.getAccent();
+            selectionColor = style.getSelection();
+            caretColor = style.getCaret() != null ? style.getCaret() : style.getTextForeground();
+            repaint();
+        }
+
+        int visibleRows() {
+            return Math.max(1, getHeight() / getFontMetrics(getFont()).getHeight());
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            FontMetrics metrics = getFontMetrics(getFont());
+            return new Dimension(2 * PADDING + line.length * metrics.charWidth('0'),
+                    20 * metrics.getHeight());
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setFont(getFont());
+            FontMetrics metrics = g.getFontMetrics();
+            int charWidth = metrics.charWidth('0');
+            int lineHeight = metrics.getHeight();
+            long selectionStart = selectionStart();
+            long selectionEnd = selectionEnd();
+            long size = file.size();
+
+            int rows = getHeight() / lineHeight + 1;
+            for (int i = 0; i < rows; i++) {
+                long offset = (topRow + i) * BYTES_PER_ROW;
+                if (offset >= size) {
+                    break;
+                }
+                int count = file.read(offset, rowBytes, 0, BYTES_PER_ROW);
+                int y = i * lineHeight;
+
+                // selection and caret behind the text, in both the hex and the character column
+                long first = Math.max(selectionStart, offset);
+                long last = Math.min(selectionEnd, offset + count - 1);
+                if (first <= last) {
+                    int from = (int) (first - offset);
+                    int to = (int) (last - offset);
+                    g.setColor(selectionColor);
+                    g.fillRect(x(hexChar(from), charWidth), y,
+                            (hexChar(to) + 2 - hexChar(from)) * charWidth, lineHeight);
+                    g.fillRect(x(textColumn + from, charWidth), y, (to - from + 1) * charWidth,
+                            lineHeight);
+                }
+                if (caret >= offset && caret < offset + count && isFocusOwner()) {
+                    int index = (int) (caret - offset);
+                    g.setColor(caretColor);
+                    g.drawRect(x(hexChar(index), charWidth), y, 2 * charWidth - 1,
+                            lineHeight - 1);
+                    g.drawRect(x(textColumn + index, charWidth), y, charWidth - 1,
+                            lineHeight - 1);
+                }
+
+                fillLine(offset, count);
+                int baseline = y + metrics.getAscent();
+                g.setColor(offsetColor);
+                g.drawChars(line, 0, offsetDigits, PADDING, baseline);
+                g.setColor(getForeground());
+                g.drawChars(line, hexColumn, line.length - hexColumn, x(hexColumn, charWidth),
+                        baseline);
+            }
+        }
+
+        // one row as characters: offset, hex pairs with a gap after eight, then the characters
+        private void fillLine(long offset, int count) {
+            java.util.Arrays.fill(line, ' ');
+            for (int d = offsetDigits - 1; d >= 0; d--) {
+                line[d] = HEX[(int) (offset & 0xF)];
+                offset >>>= 4;
+            }
+            for (int i = 0; i < count; i++) {
+                int b = rowBytes[i] & 0xFF;
+                int at = hexChar(i);
+                line[at] = HEX[b >> 4];
+                line[at + 1] = HEX[b & 0xF];
+                line[textColumn + i] = b >= 0x20 && b < 0x7F ? (char) b : '.';
+            }
+        }
+
+        // column of the first hex digit of byte i in a row
+        private int hexChar(int i) {
+            return hexColumn + i * 3 + (i >= BYTES_PER_ROW / 2 ? 1 : 0);
+        }
+
+        private int x(int column, int charWidth) {
+            return PADDING + column * charWidth;
+        }
+
+        // the byte under a point, in either column
+        private long offsetAt(int x, int y) {
+            FontMetrics metrics = getFontMetrics(getFont());
+            int column = (x - PADDING) / Math.max(1, metrics.charWidth('0'));
+            long row = topRow + Math.max(0, y) / metrics.getHeight();
+            int index;
+            if (column >= textColumn - 1) {
+                index = column - textColumn;
+            } else {
+                int inHex = column - hexColumn;
+                int half = BYTES_PER_ROW / 2 * 3;
+                index = inHex < half ? inHex / 3 : BYTES_PER_ROW / 2 + (inHex - half - 1) / 3;
+            }
+            index = Math.max(0, Math.min(BYTES_PER_ROW - 1, index));
+            return row * BYTES_PER_ROW + index;
+        }
+
+        private void bindMove(int keyCode, String name, LongUnaryOperator move) {
+            bindMove(KeyStroke.getKeyStroke(keyCode, 0), name, move);
+        }
+
+        // the key moves the caret; with Shift it extends the selection
+        private void bindMove(KeyStroke keyStroke, String name, LongUnaryOperator move) {
+            KeyStroke extend = KeyStroke.getKeyStroke(keyStroke.getKeyCode(),
+                    keyStroke.getModifiers() | KeyEvent.SHIFT_DOWN_MASK);
+            getInputMap().put(keyStroke, name);
+            getInputMap().put(extend, name + "Extend");
+            getActionMap().put(name, HexViewer.action(() -> moveBy(move, false)));
+            getActionMap().put(name + "Extend", HexViewer.action(() -> moveBy(move, true)));
+        }
+
+        private void moveBy(LongUnaryOperator move, boolean extend) {
+            if (file.size() > 0) {
+                moveCaret(move.applyAsLong(caret), extend); // clamped to the file
+            }
+        }
+    }
+}
@@ -3,25 +3,56 @@ package com.texteditor.ui;
 import com.texteditor.controller.FileController;
 import com.texteditor.controller.EditController;
 import com.texteditor.model.DocumentManager;
+import com.texteditor.model.JsonFormatter;
+import com.texteditor.model.LineEnding;
+import com.texteditor.service.AppPaths;
+import com.texteditor.service.EdtWatchdog;
+import com.texteditor.service.FileWatcher;
+import com.texteditor.service.FlightRecording;
+import com.texteditor.service.RecentFiles;
+import com.texteditor.service.RecoveryJournal;
+import com.texteditor.service.SessionStore;
+import com.texteditor.service.StartupTimeline;
+import com.texteditor.service.WorkspaceIndex;
+import com.texteditor.ui.dialogs.CommandPaletteDialog;
+import com.texteditor.ui.dialogs.PerformanceDialog;
+import com.texteditor.ui.dialogs.QuickOpenDialog;
 import com.texteditor.ui.themes.ThemeManager;
+import com.texteditor.ui.themes.ThemedDialogs;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 // main class similar to how React runs on the main thread
 
 public class MainWindow extends JFrame {
     private FileController fileController;
     private EditController editController;
+    private RecoveryJournal recoveryJournal; // crash-recovery journal for unsaved tabs
+    private SessionStore sessionStore; // open tabs of the last run
+    private EdtWatchdog edtWatchdog; // reports UI freezes to stalls.log and the status bar
+    private FileWatcher fileWatcher; // notices other programs changing open files
+    private RecentFiles recentFiles; // recently opened files and the workspace folder
+    private WorkspaceIndex workspaceIndex; // every workspace path, for quick open
+    private final ActionRegistry actions = new ActionRegistry(); // every command, by id
+    private PerformanceDialog performanceDialog; // created on first use
 
     // here comes the UI components;
     private MenuBar menuBar;
     private ToolBar toolBar;
     private TabManager tabManager; // changed from single textArea to tab manager
     private StatusBar statusBar;
+    private FileTreePanel fileTreePanel; // workspace folder, left of the tabs
+    private JSplitPane workspaceSplit;
 
     // constants for windows config
 
@@ -30,13 +61,16 @@ public class MainWindow extends JFrame {
     private static final int DEFAULT_WIDTH = 1200;
 
     public MainWindow() {
+        StartupTimeline.mark("main window construction started");
         initializeComponents();
+        StartupTimeline.mark("components created");
         setupEventHandlers();
         configureWindow();
         setupLayout();
 
         // Initialize and apply pixelated theme
         initializeTheme();
+        StartupTimeline.mark("main window constructed");
     }
 
     // initialize the pixelated theme system
@@ -44,6 +78,13 @@ public class MainWindow extends JFrame {
         ThemeManager themeManager = ThemeManager.getInstance();
         themeManager.setMainWindow(this);
 
+        // components restyled on every theme switch
+        themeManager.register(menuBar);
+        themeManager.register(toolBar);
+        themeManager.register(tabManager);
+        themeManager.register(statusBar);
+        themeManager.register(fileTreePanel);
+
         // Start with normal theme - don't auto-apply pixelated theme
         // User can choose from View menu when they want to switch
         SwingUtilities.invokeLater(() -> {
@@ -61,15 +102,22 @@ public class MainWindow extends JFrame {
         fileController = new FileController(tempDocManager);
         editController = new EditController(tempDocManager);
 
+        // The journal must exist before the first tab so recovered work can be restored into it
+        recoveryJournal = new RecoveryJournal(AppPaths.resolve("recovery"));
+        sessionStore = new SessionStore(AppPaths.resolve("session.bin"));
+        // before the tabs, restored tabs start watching their files as they load
+        fileWatcher = new FileWatcher(fileController::handleExternalChange);
+        fileController.setFileWatcher(fileWatcher);
+        recentFiles = new RecentFiles(AppPaths.resolve("recent.bin"));
+        fileController.setRecentFiles(recentFiles);
+        workspaceIndex = new WorkspaceIndex(); // builds nothing until quick open is first used
+
+        // Status bar first, restored tabs report caret positions while they are created
+        statusBar = new StatusBar();
+
         // Initialize tab manager (this will create the first tab with its own DocumentManager)
         tabManager = new TabManager(this);
 
-        // Create components with controllers
-        menuBar = new MenuBar(fileController, editController);
-        toolBar = new ToolBar(fileController, editController);
-        statusBar = new StatusBar();
-        statusBar.setName("statusBar"); // Add name for ThemeManager to find
-
         // Update controllers to use the actual current DocumentManager from TabManager
         DocumentManager currentDocManager = tabManager.getCurrentDocumentManager();
         if (currentDocManager != null) {
@@ -87,6 +135,25 @@ public class MainWindow extends JFrame {
         // Set TabManager reference in controllers
         fileController.setTabManager(tabManager);
         editController.setTabManager(tabManager);
+
+        // the tree only reads a folder once it is expanded, so restoring the workspace is cheap
+        fileTreePanel = new FileTreePanel(fileController, recentFiles);
+        File workspace = recentFiles.getWorkspace();
+        if (workspace != null && workspace.isDirectory()) {
+            fileTreePanel.setWorkspace(workspace);
+        } else {
+            fileTreePanel.setVisible(false);
+        }
+
+        // menu bar and toolbar are built from the registered commands
+        registerActions();
+        actions.setRecentIds(recentFiles.getCommands());
+        menuBar = new MenuBar(actions, fileController);
+        toolBar = new ToolBar(actions);
+
+        edtWatchdog = new EdtWatchdog(AppPaths.resolve("stalls.log"),
+                summary -> statusBar.showWarning(summary + " (see stalls.log)"));
+        edtWatchdog.start();
     }
 
     // setting up layout CSS(grid/flex)
@@ -95,7 +162,12 @@ public class MainWindow extends JFrame {
         setJMenuBar(menuBar);
         setLayout(new BorderLayout());
         add(toolBar, BorderLayout.NORTH);
-        add(tabManager, BorderLayout.CENTER); // use tab manager instead of scroll pane
+        // file tree and tabs side by side, like a sidebar next to the main content
+        workspaceSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, fileTreePanel, tabManager);
+        workspaceSplit.setBorder(null);
+        workspaceSplit.setContinuousLayout(true);
+        workspaceSplit.setResizeWeight(0);
+        add(workspaceSplit, BorderLayout.CENTER);
         add(statusBar, BorderLayout.SOUTH);
     }
 
@@ -166,11 +238,11 @@ public class MainWindow extends JFrame {
             switch (option) {
                 case JOptionPane.YES_OPTION:
                     if (tabManager.saveAllModified()) {
-                        System.exit(0);
+                        exitApplication();
                     }
                     break;
                 case JOptionPane.NO_OPTION:
-                    System.exit(0);
+                    exitApplication();
                     break;
                 case JOptionPane.CANCEL_OPTION:
                 default:
@@ -178,10 +250,24 @@ public class MainWindow extends JFrame {
                     return;
             }
         } else {
-            System.exit(0);
+            exitApplication();
         }
     }
 
+    // clean exit: remember the open files for next time; the user saved or discarded everything,
+    // so no recovery journals are kept
+    private void exitApplication() {
+        sessionStore.save(tabManager.captureSession());
+        recentFiles.setCommands(actions.getRecentIds());
+        recentFiles.save();
+        fileTreePanel.shutdown();
+        recoveryJournal.shutdown();
+        edtWatchdog.shutdown();
+        fileWatcher.shutdown();
+        workspaceIndex.shutdown();
+        System.exit(0);
+    }
+
     // handle text selection changes - delegated to TabManager
     private void handleTextSelection() {
         // TabManager handles text selection per tab
@@ -214,4 +300,258 @@ public class MainWindow extends JFrame {
     public TabManager getTabManager() {
         return tabManager;
     }
+
+    public RecoveryJournal getRecoveryJournal() {
+        return recoveryJournal;
+    }
+
+    public SessionStore getSessionStore() {
+        return sessionStore;
+    }
+
+    public EdtWatchdog getEdtWatchdog() {
+        return edtWatchdog;
+    }
+
+    public FileWatcher getFileWatcher() {
+        return fileWatcher;
+    }
+
+    public FileTreePanel getFileTreePanel() {
+        return fileTreePanel;
+    }
+
+    public ActionRegistry getActions() {
+        return actions;
+    }
+
+    // every command of the editor, like a route table: id, category, title, description and
+    // shortcut, and what it runs. MenuBar, ToolBar and the command palette all work from these
+
+    private void registerActions() {
+        int ctrl = KeyEvent.CTRL_DOWN_MASK;
+        int ctrlShift = KeyEvent.CTRL_DOWN_MASK | KeyEvent.SHIFT_DOWN_MASK;
+
+        actions.register("file.new", "File", "New", "Create new document",
+                KeyStroke.getKeyStroke(KeyEvent.VK_N, ctrl), fileController::newDocument);
+        actions.register("file.open", "File", "Open", "Open document",
+                KeyStroke.getKeyStroke(KeyEvent.VK_O, ctrl), fileController::openDocument);
+        actions.register("file.openHex", "File", "Open in Hex Viewer...",
+                "Show any file as a hex dump, however large", null,
+                fileController::openInHexViewer);
+        actions.register("file.openTable", "File", "Open as Table...",
+                "Show a CSV or TSV file as a sortable table, however large", null,
+                fileController::openInTableViewer);
+        actions.register("file.openFolder", "File", "Open Folder...",
+                "Show a folder in the file tree", null, this::openFolder);
+        actions.register("file.goToFile", "File", "Go to File...",
+                "Find a file in the workspace folder by name",
+                KeyStroke.getKeyStroke(KeyEvent.VK_P, ctrl), this::showQuickOpen);
+        actions.register("file.clearRecent", "File", "Clear Recent Files", null, null,
+                fileController::clearRecentFiles);
+        actions.register("file.save", "File", "Save", "Save document",
+                KeyStroke.getKeyStroke(KeyEvent.VK_S, ctrl), fileController::saveDocument);
+        actions.register("file.saveAs", "File", "Save As...", "Save document with new name",
+                KeyStroke.getKeyStroke(KeyEvent.VK_S, ctrlShift), fileController::saveDocumentAs);
+        actions.register("file.export", "File", "Export...",
+                "Export document as HTML, Markdown or RTF", null, fileController::exportDocument);
+        actions.register("file.compareSaved", "File", "Compare with Saved",
+                "Show changes since the last save", null, fileController::compareWithSavedFile);
+        actions.register("file.compareTab", "File", "Compare with Tab...",
+                "Compare with another open tab", null, fileController::compareWithTab);
+        actions.register("file.exit", "File", "Exit", null,
+                KeyStroke.getKeyStroke(KeyEvent.VK_Q, ctrl), this::requestExit);
+
+        actions.register("edit.undo", "Edit", "Undo", "Undo last action",
+                KeyStroke.getKeyStroke(KeyEvent.VK_Z, ctrl), editController::undo);
+        actions.register("edit.redo", "Edit", "Redo", "Redo last action",
+                KeyStroke.getKeyStroke(KeyEvent.VK_Y, ctrl), editController::redo);
+        actions.register("edit.cut", "Edit", "Cut", null,
+                KeyStroke.getKeyStroke(KeyEvent.VK_X, ctrl), editController::cut);
+        actions.register("edit.copy", "Edit", "Copy", null,
+                KeyStroke.getKeyStroke(KeyEvent.VK_C, ctrl), editController::copy);
+        actions.register("edit.paste", "Edit", "Paste", null,
+                KeyStroke.getKeyStroke(KeyEvent.VK_V, ctrl), editController::paste);
+        actions.register("edit.selectAll", "Edit", "Select All", null,
+                KeyStroke.getKeyStroke(KeyEvent.VK_A, ctrl), editController::selectAll);
+        actions.register("edit.findReplace", "Edit", "Find & Replace...",
+                "Find and replace text", KeyStroke.getKeyStroke(KeyEvent.VK_F, ctrl),
+                editController::showFindReplaceDialog);
+        for (LineEnding lineEnding : new LineEnding[] {LineEnding.LF, LineEnding.CRLF,
+                LineEnding.CR}) {
+            actions.register("edit.lineEndings." + lineEnding.name().toLowerCase(),
+                    "Line Endings", "Convert to " + lineEnding.getDisplayName(), null, null,
+                    () -> editController.convertLineEndings(lineEnding));
+        }
+        actions.register("edit.trimWhitespace", "Edit", "Trim Trailing Whitespace", null, null,
+                editController::trimTrailingWhitespace);
+        actions.register("edit.json.pretty", "JSON", "Pretty Print",
+                "Indent the tab's JSON into a new tab", null,
+                () -> editController.formatJson(JsonFormatter.Style.PRETTY));
+        actions.register("edit.json.minify", "JSON", "Minify",
+                "Strip the whitespace from the tab's JSON into a new tab", null,
+                () -> editController.formatJson(JsonFormatter.Style.MINIFIED));
+        actions.register("edit.json.validate", "JSON", "Validate",
+                "Check the tab's JSON and show the first syntax error", null,
+                () -> editController.formatJson(JsonFormatter.Style.VALIDATE));
+
+        ThemeManager themeManager = ThemeManager.getInstance();
+        List<String> themeNames = themeManager.getThemeNames();
+        for (int i = 0; i < themeNames.size(); i++) {
+            int themeIndex = i;
+            actions.register("view.theme." + i, "Theme", themeNames.get(i), null, null,
+                    () -> switchTheme(themeIndex))
+                    .setSelected(i == themeManager.getCurrentThemeIndex());
+        }
+        actions.register("view.refreshTheme", "View", "🔄 Refresh Theme", null, null, () -> {
+            themeManager.applyCurrentTheme();
+            ThemedDialogs.showInfoDialog(this,
+                    "Theme refreshed: " + themeManager.getCurrentTheme().getThemeName(),
+                    "Theme Applied");
+        });
+        actions.register("view.fileTree", "View", "File Tree", "Show or hide the file tree",
+                KeyStroke.getKeyStroke(KeyEvent.VK_E, ctrlShift),
+                () -> setFileTreeVisible(!isFileTreeVisible()))
+                .setSelected(isFileTreeVisible());
+        actions.register("view.commandPalette", "View", "Command Palette...",
+                "Find and run any command", KeyStroke.getKeyStroke(KeyEvent.VK_P, ctrlShift),
+                this::showCommandPalette);
+        actions.register("view.performance", "View", "📊 Performance", null, null,
+                this::showPerformanceDialog);
+        // Java Flight Recorder session recording (open the .jfr in JDK Mission Control)
+        actions.register("view.flightRecording", "View", "⏺ Start Flight Recording", null, null,
+                this::toggleFlightRecording);
+
+        actions.register("help.about", "Help", "About", null, null,
+                () -> ThemedDialogs.showAboutDialog(this));
+        actions.register("help.quickHelp", "Help", "Quick Help", "Show help information", null,
+                () -> ThemedDialogs.showQuickHelpDialog(this));
+    }
+
+    // the command palette over every registered command (View > Command Palette...)
+    public void showCommandPalette() {
+        new CommandPaletteDialog(this, actions).setVisible(true);
+    }
+
+    // a user theme's file was deleted (or came back): its command is disabled, which hides it in
+    // the menu and the palette, and a deleted active theme gives way to the default one
+    public void setThemeAvailable(int themeIndex, boolean available) {
+        actions.get("view.theme." + themeIndex).setEnabled(available);
+        ThemeManager themeManager = ThemeManager.getInstance();
+        if (!available && themeManager.getCurrentThemeIndex() == themeIndex) {
+            switchTheme(0);
+        }
+    }
+
+    private void switchTheme(int themeIndex) {
+        ThemeManager.getInstance().switchTheme(themeIndex);
+        for (ActionRegistry.Command command : actions.getCommands()) {
+            if (command.getId().startsWith("view.theme.")) {
+                command.setSelected(command.getId().equals("view.theme." + themeIndex));
+            }
+        }
+    }
+
+    // Close the window the same way the title bar does, so unsaved changes and the session are
+    // handled in one place
+
+    private void requestExit() {
+        dispatchEvent(new WindowEvent(this, WindowEvent.WINDOW_CLOSING));
+    }
+
+    // Show the performance panel (kept after closing, it stops refreshing while hidden)
+
+    private void showPerformanceDialog() {
+        if (performanceDialog == null) {
+            performanceDialog = new PerformanceDialog(this);
+        }
+        performanceDialog.setVisible(true);
+        performanceDialog.toFront();
+    }
+
+    // Start a recording, or stop it and write the .jfr file on a background thread
+
+    private void toggleFlightRecording() {
+        ActionRegistry.Command command = actions.get("view.flightRecording");
+        if (!FlightRecording.isRecording()) {
+            try {
+                FlightRecording.start();
+                command.setTitle("⏹ Stop Flight Recording");
+            } catch (IOException | IllegalStateException e) {
+                ThemedDialogs.showErrorDialog(this,
+                        "Could not start flight recording: " + e.getMessage(), "Flight Recorder");
+            }
+            return;
+        }
+
+        command.setEnabled(false);
+        new SwingWorker<Path, Void>() {
+            @Override
+            protected Path doInBackground() throws IOException {
+                return FlightRecording.stop();
+            }
+
+            @Override
+            protected void done() {
+                command.setTitle("⏺ Start Flight Recording");
+                command.setEnabled(true);
+                try {
+                    Path file = get();
+                    if (file != null) {
+                        ThemedDialogs.showInfoDialog(MainWindow.this,
+                                "Recording saved to\n" + file, "Flight Recorder");
+                    }
+                } catch (ExecutionException e) {
+                    ThemedDialogs.showErrorDialog(MainWindow.this,
+                            "Could not save flight recording: " + e.getCause().getMessage(),
+                            "Flight Recorder");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    // pick a workspace folder and show it in the file tree (File > Open Folder...)
+    public void openFolder() {
+        if (fileTreePanel.chooseWorkspace()) {
+            setFileTreeVisible(true);
+        } else {
+            actions.get("view.fileTree").setSelected(isFileTreeVisible());
+        }
+    }
+
+    // quick open over the workspace folder (File > Go to File...), asking for a folder first if
+    // none is open. the palette shows up at once and fills in when the index is ready
+    public void showQuickOpen() {
+        File workspace = fileTreePanel.getWorkspace();
+        if (workspace == null || !workspace.isDirectory()) {
+            openFolder();
+            workspace = fileTreePanel.getWorkspace();
+            if (workspace == null || !workspace.isDirectory()) {
+                return;
+            }
+        }
+        QuickOpenDialog dialog = new QuickOpenDialog(this, fileController);
+        workspaceIndex.get(workspace.toPath().toAbsolutePath(), dialog::setIndex);
+        dialog.setVisible(true);
+    }
+
+    // show or hide the file tree (View > File Tree); showing it without a folder asks for one
+    public void setFileTreeVisible(boolean visible) {
+        if (visible && fileTreePanel.getWorkspace() == null) {
+            openFolder();
+            return;
+        }
+        fileTreePanel.setVisible(visible);
+        if (visible) {
+            workspaceSplit.resetToPreferredSizes();
+        }
+        workspaceSplit.revalidate();
+        actions.get("view.fileTree").setSelected(visible);
+    }
+
+    public boolean isFileTreeVisible() {
+        return fileTreePanel.isVisible();
+    }
 }
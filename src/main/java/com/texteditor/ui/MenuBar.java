@@ -1,29 +1,36 @@
 package com.texteditor.ui;
 
 import com.texteditor.controller.FileController;
-import com.texteditor.controller.EditController;
 import com.texteditor.ui.themes.ThemeManager;
-import com.texteditor.ui.themes.PixelatedTheme;
-import com.texteditor.ui.themes.ThemedDialogs;
+import com.texteditor.ui.themes.ThemeStyle;
+import com.texteditor.ui.themes.Themeable;
 
 import javax.swing.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 import java.awt.event.KeyEvent;
+import java.io.File;
+import java.util.List;
 
 // creates and manages the application menu bar. this is like your navigation component in React
-// apps.
-public class MenuBar extends JMenuBar {
+// apps. the items are bound to the commands of the ActionRegistry, so titles, shortcuts and check
+// marks come from there and the same commands are found in the toolbar and the command palette
+public class MenuBar extends JMenuBar implements Themeable {
 
+    private final ActionRegistry actions;
     private final FileController fileController;
-    private final EditController editController;
 
-    public MenuBar(FileController fileController, EditController editController) {
+    public MenuBar(ActionRegistry actions, FileController fileController) {
+        this.actions = actions;
         this.fileController = fileController;
-        this.editController = editController;
         createMenus();
     }
 
+    @Override
+    public void applyTheme(ThemeStyle style) {
+        style.applyToMenuBar(this);
+    }
+
     // create all menus and menu items (like rendering your navigation structure)
     private void createMenus() {
         add(createFileMenu());
@@ -32,117 +39,141 @@ public class MenuBar extends JMenuBar {
         add(createHelpMenu());
     }
 
+    // a menu item for a registered command, with an Alt key mnemonic (0 for none)
+    private JMenuItem item(String id, int mnemonic) {
+        return withMnemonic(new JMenuItem(actions.get(id)), mnemonic);
+    }
+
+    private static JMenuItem withMnemonic(JMenuItem item, int mnemonic) {
+        if (mnemonic != 0) {
+            item.setMnemonic(mnemonic);
+        }
+        return item;
+    }
+
     // Create File menu with all file operations (like grouping related actions in a dropdown)
 
     private JMenu createFileMenu() {
         JMenu fileMenu = new JMenu("File");
         fileMenu.setMnemonic(KeyEvent.VK_F); // Alt+F shortcut
 
-        // New Document
-        JMenuItem newItem = new JMenuItem("New");
-        newItem.setMnemonic(KeyEvent.VK_N);
-        newItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_N, KeyEvent.CTRL_DOWN_MASK));
-        newItem.addActionListener(e -> fileController.newDocument());
-        fileMenu.add(newItem);
+        fileMenu.add(item("file.new", KeyEvent.VK_N));
+        fileMenu.add(item("file.open", KeyEvent.VK_O));
+        fileMenu.add(item("file.openHex", KeyEvent.VK_H));
+        fileMenu.add(item("file.openTable", KeyEvent.VK_B));
+        fileMenu.add(item("file.openFolder", KeyEvent.VK_F));
+
+        // Recently opened files, filled in each time the submenu opens
+        JMenu recentMenu = new JMenu("Open Recent");
+        recentMenu.setMnemonic(KeyEvent.VK_R);
+        recentMenu.addMenuListener(new MenuListener() {
+            @Override
+            public void menuSelected(MenuEvent e) {
+                fillRecentMenu(recentMenu);
+            }
+
+            @Override
+            public void menuDeselected(MenuEvent e) {
+            }
+
+            @Override
+            public void menuCanceled(MenuEvent e) {
+            }
+        });
+        fileMenu.add(recentMenu);
 
-        // Open Document
-        JMenuItem openItem = new JMenuItem("Open");
-        openItem.setMnemonic(KeyEvent.VK_O);
-        openItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_O, KeyEvent.CTRL_DOWN_MASK));
-        openItem.addActionListener(e -> fileController.openDocument());
-        fileMenu.add(openItem);
+        // Fuzzy search over every file in the workspace folder
+        fileMenu.add(item("file.goToFile", KeyEvent.VK_G));
 
         fileMenu.addSeparator(); // Visual separator
 
-        // Save Document
-        JMenuItem saveItem = new JMenuItem("Save");
-        saveItem.setMnemonic(KeyEvent.VK_S);
-        saveItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_S, KeyEvent.CTRL_DOWN_MASK));
-        saveItem.addActionListener(e -> fileController.saveDocument());
-        fileMenu.add(saveItem);
-
-        // Save As
-        JMenuItem saveAsItem = new JMenuItem("Save As...");
-        saveAsItem.setMnemonic(KeyEvent.VK_A);
-        saveAsItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_S,
-                KeyEvent.CTRL_DOWN_MASK | KeyEvent.SHIFT_DOWN_MASK));
-        saveAsItem.addActionListener(e -> fileController.saveDocumentAs());
-        fileMenu.add(saveAsItem);
+        fileMenu.add(item("file.save", KeyEvent.VK_S));
+        fileMenu.add(item("file.saveAs", KeyEvent.VK_A));
+        fileMenu.add(item("file.export", KeyEvent.VK_E));
+
+        fileMenu.addSeparator();
+
+        // Compare (like a diff view in version control)
+        fileMenu.add(item("file.compareSaved", KeyEvent.VK_C));
+        fileMenu.add(item("file.compareTab", KeyEvent.VK_T));
 
         fileMenu.addSeparator();
 
-        // Exit Application
-        JMenuItem exitItem = new JMenuItem("Exit");
-        exitItem.setMnemonic(KeyEvent.VK_X);
-        exitItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Q, KeyEvent.CTRL_DOWN_MASK));
-        exitItem.addActionListener(e -> System.exit(0));
-        fileMenu.add(exitItem);
+        fileMenu.add(item("file.exit", KeyEvent.VK_X));
 
         return fileMenu;
     }
 
+    // One item per recent file, numbered for keyboard access, plus a way to clear the list
+
+    private void fillRecentMenu(JMenu recentMenu) {
+        recentMenu.removeAll();
+        List<File> files = fileController.getRecentFiles();
+        for (int i = 0; i < files.size(); i++) {
+            File file = files.get(i);
+            String label = file.getName() + "  —  " + file.getParent();
+            JMenuItem item = new JMenuItem(i < 9 ? (i + 1) + "  " + label : label);
+            if (i < 9) {
+                item.setMnemonic(KeyEvent.VK_1 + i);
+            }
+            item.setToolTipText(file.getAbsolutePath());
+            item.addActionListener(e -> fileController.openFile(file));
+            recentMenu.add(item);
+        }
+        if (files.isEmpty()) {
+            JMenuItem emptyItem = new JMenuItem("No recent files");
+            emptyItem.setEnabled(false);
+            recentMenu.add(emptyItem);
+        } else {
+            recentMenu.addSeparator();
+            recentMenu.add(item("file.clearRecent", 0));
+        }
+        ThemeManager.getInstance().getCurrentTheme().getStyle().applyToMenu(recentMenu);
+    }
+
     // Create Edit menu with text editing operations
 
     private JMenu createEditMenu() {
         JMenu editMenu = new JMenu("Edit");
         editMenu.setMnemonic(KeyEvent.VK_E);
 
-        // Undo
-        JMenuItem undoItem = new JMenuItem("Undo");
-        undoItem.setMnemonic(KeyEvent.VK_U);
-        undoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, KeyEvent.CTRL_DOWN_MASK));
-        undoItem.addActionListener(e -> editController.undo());
-        editMenu.add(undoItem);
+        editMenu.add(item("edit.undo", KeyEvent.VK_U));
+        editMenu.add(item("edit.redo", KeyEvent.VK_R));
 
-        // Redo
-        JMenuItem redoItem = new JMenuItem("Redo");
-        redoItem.setMnemonic(KeyEvent.VK_R);
-        redoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, KeyEvent.CTRL_DOWN_MASK));
-        redoItem.addActionListener(e -> editController.redo());
-        editMenu.add(redoItem);
+        editMenu.addSeparator();
+
+        editMenu.add(item("edit.cut", KeyEvent.VK_T));
+        editMenu.add(item("edit.copy", KeyEvent.VK_C));
+        editMenu.add(item("edit.paste", KeyEvent.VK_P));
 
         editMenu.addSeparator();
 
-        // Cut
-        JMenuItem cutItem = new JMenuItem("Cut");
-        cutItem.setMnemonic(KeyEvent.VK_T);
-        cutItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_X, KeyEvent.CTRL_DOWN_MASK));
-        cutItem.addActionListener(e -> editController.cut());
-        editMenu.add(cutItem);
-
-        // Copy
-        JMenuItem copyItem = new JMenuItem("Copy");
-        copyItem.setMnemonic(KeyEvent.VK_C);
-        copyItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_C, KeyEvent.CTRL_DOWN_MASK));
-        copyItem.addActionListener(e -> editController.copy());
-        editMenu.add(copyItem);
-
-        // Paste
-        JMenuItem pasteItem = new JMenuItem("Paste");
-        pasteItem.setMnemonic(KeyEvent.VK_P);
-        pasteItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_V, KeyEvent.CTRL_DOWN_MASK));
-        pasteItem.addActionListener(e -> editController.paste());
-        editMenu.add(pasteItem);
+        editMenu.add(item("edit.selectAll", KeyEvent.VK_A));
 
         editMenu.addSeparator();
 
-        // Select All
-        JMenuItem selectAllItem = new JMenuItem("Select All");
-        selectAllItem.setMnemonic(KeyEvent.VK_A);
-        selectAllItem
-                .setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_A, KeyEvent.CTRL_DOWN_MASK));
-        selectAllItem.addActionListener(e -> editController.selectAll());
-        editMenu.add(selectAllItem);
+        editMenu.add(item("edit.findReplace", KeyEvent.VK_F));
 
         editMenu.addSeparator();
 
-        // Find & Replace
-        JMenuItem findReplaceItem = new JMenuItem("Find & Replace...");
-        findReplaceItem.setMnemonic(KeyEvent.VK_F);
-        findReplaceItem
-                .setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F, KeyEvent.CTRL_DOWN_MASK));
-        findReplaceItem.addActionListener(e -> editController.showFindReplaceDialog());
-        editMenu.add(findReplaceItem);
+        // Line endings and whitespace
+        JMenu lineEndingsMenu = new JMenu("Line Endings");
+        lineEndingsMenu.setMnemonic(KeyEvent.VK_L);
+        for (ActionRegistry.Command command : actions.getCommands()) {
+            if (command.getId().startsWith("edit.lineEndings.")) {
+                lineEndingsMenu.add(new JMenuItem(command));
+            }
+        }
+        editMenu.add(lineEndingsMenu);
+
+        editMenu.add(item("edit.trimWhitespace", KeyEvent.VK_W));
+
+        JMenu jsonMenu = new JMenu("JSON");
+        jsonMenu.setMnemonic(KeyEvent.VK_J);
+        jsonMenu.add(item("edit.json.pretty", KeyEvent.VK_P));
+        jsonMenu.add(item("edit.json.minify", KeyEvent.VK_M));
+        jsonMenu.add(item("edit.json.validate", KeyEvent.VK_V));
+        editMenu.add(jsonMenu);
 
         return editMenu;
     }
@@ -153,59 +184,42 @@ public class MenuBar extends JMenuBar {
         JMenu viewMenu = new JMenu("View");
         viewMenu.setMnemonic(KeyEvent.VK_V);
 
-        // Themes submenu
+        // Themes submenu, radio items that follow the selected state of their commands
         JMenu themesMenu = new JMenu("🎨 Pixelated Themes");
         themesMenu.setMnemonic(KeyEvent.VK_T);
-
-        // Get available themes from ThemeManager
-        ThemeManager themeManager = ThemeManager.getInstance();
         ButtonGroup themeGroup = new ButtonGroup();
-
-        for (int i = 0; i < themeManager.getAvailableThemes().size(); i++) {
-            PixelatedTheme theme = themeManager.getAvailableThemes().get(i);
-            JRadioButtonMenuItem themeItem = new JRadioButtonMenuItem(theme.getThemeName());
-
-            // Mark current theme as selected
-            if (theme == themeManager.getCurrentTheme()) {
-                themeItem.setSelected(true);
+        for (ActionRegistry.Command command : actions.getCommands()) {
+            if (command.getId().startsWith("view.theme.")) {
+                JRadioButtonMenuItem themeItem = new JRadioButtonMenuItem(command);
+                themeGroup.add(themeItem);
+                themesMenu.add(themeItem);
+                // a disabled theme command is a deleted user theme, not worth a greyed-out item
+                command.addPropertyChangeListener(e -> {
+                    if ("enabled".equals(e.getPropertyName())) {
+                        themeItem.setVisible(command.isEnabled());
+                    }
+                });
             }
-
-            final int themeIndex = i;
-            themeItem.addActionListener(e -> {
-                themeManager.switchTheme(themeIndex);
-                updateThemeMenuSelection(themesMenu, themeIndex);
-            });
-
-            themeGroup.add(themeItem);
-            themesMenu.add(themeItem);
         }
 
         viewMenu.add(themesMenu);
         viewMenu.addSeparator();
 
         // Apply Current Theme (useful for refreshing)
-        JMenuItem applyThemeItem = new JMenuItem("🔄 Refresh Theme");
-        applyThemeItem.setMnemonic(KeyEvent.VK_R);
-        applyThemeItem.addActionListener(e -> {
-            themeManager.applyCurrentTheme();
-            ThemedDialogs.showInfoDialog(this,
-                    "Theme refreshed: " + themeManager.getCurrentTheme().getThemeName(),
-                    "Theme Applied");
-        });
-        viewMenu.add(applyThemeItem);
+        viewMenu.add(item("view.refreshTheme", KeyEvent.VK_R));
+        viewMenu.addSeparator();
 
-        return viewMenu;
-    }
+        // Workspace file tree beside the tabs
+        viewMenu.add(withMnemonic(new JCheckBoxMenuItem(actions.get("view.fileTree")),
+                KeyEvent.VK_T));
+        viewMenu.add(item("view.commandPalette", KeyEvent.VK_C));
+        viewMenu.addSeparator();
 
-    // Update theme menu selection after theme change
+        // Live performance counters
+        viewMenu.add(item("view.performance", KeyEvent.VK_P));
+        viewMenu.add(item("view.flightRecording", 0));
 
-    private void updateThemeMenuSelection(JMenu themesMenu, int selectedIndex) {
-        for (int i = 0; i < themesMenu.getItemCount(); i++) {
-            JMenuItem item = themesMenu.getItem(i);
-            if (item instanceof JRadioButtonMenuItem) {
-                ((JRadioButtonMenuItem) item).setSelected(i == selectedIndex);
-            }
-        }
+        return viewMenu;
     }
 
     // Create Help menu
@@ -214,18 +228,9 @@ public class MenuBar extends JMenuBar {
         JMenu helpMenu = new JMenu("Help");
         helpMenu.setMnemonic(KeyEvent.VK_H);
 
-        // About Dialog
-        JMenuItem aboutItem = new JMenuItem("About");
-        aboutItem.setMnemonic(KeyEvent.VK_A);
-        aboutItem.addActionListener(e -> showAboutDialog());
-        helpMenu.add(aboutItem);
+        helpMenu.add(item("help.about", KeyEvent.VK_A));
+        helpMenu.add(item("help.quickHelp", KeyEvent.VK_Q));
 
         return helpMenu;
     }
-
-    // Show About dialog
-
-    private void showAboutDialog() {
-        ThemedDialogs.showAboutDialog(this);
-    }
 }
@@ -1,20 +1,28 @@
 package com.texteditor.ui;
 
+import com.texteditor.ui.themes.ThemeStyle;
+import com.texteditor.ui.themes.Themeable;
+
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 // Enhanced status bar with more information and better styling.
 
-public class StatusBar extends JPanel {
+public class StatusBar extends JPanel implements Themeable {
 
     private JLabel statusLabel;
     private JLabel positionLabel;
     private JLabel documentInfoLabel;
+    private JLabel fileFormatLabel;
     private JLabel timeLabel;
     private Timer timeUpdateTimer;
     private JPanel rightPanel;
+    private Color statusForeground; // normal status colour while a warning is shown
 
     public StatusBar() {
         initializeComponents();
@@ -50,6 +58,11 @@ public class StatusBar extends JPanel {
         positionLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
         positionLabel.setForeground(new Color(80, 80, 80));
 
+        // Encoding and line endings of the current file
+        fileFormatLabel = new JLabel("UTF-8 | LF");
+        fileFormatLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        fileFormatLabel.setForeground(new Color(80, 80, 80));
+
         timeLabel = new JLabel();
         timeLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
         timeLabel.setForeground(new Color(80, 80, 80));
@@ -57,6 +70,8 @@ public class StatusBar extends JPanel {
 
         rightPanel.add(positionLabel);
         rightPanel.add(createSeparator());
+        rightPanel.add(fileFormatLabel);
+        rightPanel.add(createSeparator());
         rightPanel.add(timeLabel);
     }
 
@@ -85,14 +100,54 @@ public class StatusBar extends JPanel {
         timeLabel.setText(timeText);
     }
 
+    @Override
+    public void applyTheme(ThemeStyle style) {
+        setBackground(style.getMenuBackground());
+        setBorder(style.getStatusBarBorder());
+
+        // labels sit directly in the bar or in the right-hand panel
+        List<Component> components = new ArrayList<>();
+        components.addAll(Arrays.asList(getComponents()));
+        components.addAll(Arrays.asList(rightPanel.getComponents()));
+        for (Component component : components) {
+            if (component instanceof JLabel) {
+                style.applyToLabel((JLabel) component, style.getMenuForeground());
+            }
+        }
+
+        // a warning keeps its colour, the new one is restored by the next setStatus
+        if (statusForeground != null) {
+            statusForeground = statusLabel.getForeground();
+            statusLabel.setForeground(new Color(200, 90, 0));
+        }
+    }
+
     public void setStatus(String status) {
+        if (statusForeground != null) {
+            statusLabel.setForeground(statusForeground);
+            statusForeground = null;
+        }
         statusLabel.setText(status);
     }
 
+    // highlighted status message, stays until the next setStatus
+    public void showWarning(String warning) {
+        if (statusForeground == null) {
+            statusForeground = statusLabel.getForeground();
+        }
+        statusLabel.setForeground(new Color(200, 90, 0));
+        statusLabel.setText("⚠ " + warning);
+        statusLabel.setToolTipText(warning);
+    }
+
     public void setPosition(int line, int column) {
         positionLabel.setText("Line: " + line + ", Column: " + column);
     }
 
+    public void setFileFormat(String charset, String lineEnding) {
+        fileFormatLabel.setText(charset + " | " + lineEnding);
+    }
+
     public void setDocumentInfo(int lines, int characters, int words) {
         documentInfoLabel
                 .setText("Lines: " + lines + " | Characters: " + characters + " | Words: " + words);
@@ -1,11 +1,17 @@
 package com.texteditor.ui;
 
 import com.texteditor.model.DocumentManager;
-import com.texteditor.ui.themes.ThemeManager;
-import com.texteditor.ui.themes.PixelatedTheme;
+import com.texteditor.model.FormattedDocument;
+import com.texteditor.service.EditorEvents;
+import com.texteditor.service.FileWatcher;
+import com.texteditor.service.RecoveryJournal;
+import com.texteditor.service.SessionStore;
+import com.texteditor.ui.themes.ThemeStyle;
+import com.texteditor.ui.themes.Themeable;
 
 import javax.swing.*;
 import javax.swing.text.*;
+import javax.swing.undo.CompoundEdit;
 import javax.swing.undo.UndoManager;
 import javax.swing.undo.UndoableEdit;
 import java.awt.*;
@@ -14,11 +20,14 @@ import java.awt.event.MouseEvent;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 // manages multiple text document tabs like in notepad++
-public class TabManager extends JTabbedPane {
+public class TabManager extends JTabbedPane implements Themeable {
 
     private MainWindow mainWindow;
     private Map<Integer, DocumentManager> documentManagers;
@@ -27,7 +36,16 @@ public class TabManager extends JTabbedPane {
     private Map<Integer, FormattingPopup> formattingPopups;
     private Map<Integer, UndoManager> undoManagers;
     private List<String> tabTitles;
+    private Map<Integer, ViewerTab> viewers = new HashMap<>(); // hex and other read-only tabs
     private int nextTabId = 1;
+    private static final String TAB_ID_PROPERTY = "tekst.tabId";
+
+    private boolean statusBarUpdatePending; // one queued status refresh covers a burst of edits
+    private CompoundEdit editGroup; // open single-undo group, see runAsSingleEdit
+    private boolean caretUpdatesSuspended; // a batch of edits is running, see runAsSingleEdit
+    private UndoManager editGroupOwner;
+    private boolean restoringSession; // suppresses lazy loading while placeholder tabs are added
+    private ThemeStyle appliedStyle; // null until the user switches theme, new tabs follow it
 
     public TabManager(MainWindow mainWindow) {
         this.mainWindow = mainWindow;
@@ -51,22 +69,233 @@ public class TabManager extends JTabbedPane {
         addChangeListener(e -> {
             int selectedIndex = getSelectedIndex();
             if (selectedIndex >= 0) {
+                // restored tabs only read their file the first time they are shown
+                if (!restoringSession && getComponentAt(selectedIndex) instanceof PendingTab) {
+                    loadPendingTab(selectedIndex);
+                }
                 updateMainWindowComponents();
             }
         });
     }
 
-    // create the initial "untitled" tab
+    // create the initial "untitled" tab, unless the last session or unsaved work from a crashed
+    // session comes back
     private void createInitialTab() {
-        createNewTab("Untitled-1", null);
+        Set<String> recoveredPaths = new HashSet<>();
+        int restored = restoreRecoveredTabs(recoveredPaths);
+        restored += restoreSession(recoveredPaths);
+        if (restored == 0) {
+            createNewTab("Untitled-1", null);
+        }
+    }
+
+    // replay crash-recovery journals into new (still unsaved) tabs
+    private int restoreRecoveredTabs(Set<String> recoveredPaths) {
+        RecoveryJournal journal = mainWindow.getRecoveryJournal();
+        if (journal == null) {
+            return 0;
+        }
+
+        List<RecoveryJournal.RecoveredTab> recovered = journal.recover();
+        for (RecoveryJournal.RecoveredTab tab : recovered) {
+            File file = tab.getFilePath() != null ? new File(tab.getFilePath()) : null;
+            if (file != null) {
+                recoveredPaths.add(file.getAbsolutePath());
+            }
+            int tabId = createNewTab(tab.getTitle(), file);
+
+            DocumentManager documentManager = documentManagers.get(tabId);
+            documentManager.setContent(tab.getText());
+            documentManager.setUnsavedChanges(true);
+            undoManagers.get(tabId).discardAllEdits();
+
+            // journal the restored text right away in case we crash again before the next edit
+            journal.checkpoint(tabId);
+        }
+        journal.deleteRecovered(recovered);
+
+        if (!recovered.isEmpty()) {
+            mainWindow.getStatusBar()
+                    .setStatus("Recovered " + recovered.size() + " unsaved tab(s)");
+        }
+        return recovered.size();
+    }
+
+    // reopen the files of the last session; only the active tab is read now, the others get a
+    // cheap placeholder and load on first selection so even huge sessions come back instantly
+    private int restoreSession(Set<String> skipPaths) {
+        SessionStore sessionStore = mainWindow.getSessionStore();
+        if (sessionStore == null) {
+            return 0;
+        }
+
+        SessionStore.Session session = sessionStore.load();
+        int firstIndex = getTabCount();
+        int activeIndex = -1;
+
+        restoringSession = true;
+        try {
+            for (int i = 0; i < session.getTabs().size(); i++) {
+                SessionStore.TabState state = session.getTabs().get(i);
+                File file = new File(state.getPath());
+                if (skipPaths.contains(file.getAbsolutePath()) || !file.isFile()) {
+                    continue;
+                }
+
+                int tabId = nextTabId++;
+                addTab(null, new PendingTab(tabId, state));
+                setTabComponentAt(getTabCount() - 1, createTabPanel(file.getName(), tabId));
+                if (i == session.getActiveIndex() || activeIndex < 0) {
+                    activeIndex = getTabCount() - 1;
+                }
+            }
+        } finally {
+            restoringSession = false;
+        }
+
+        if (activeIndex >= 0) {
+            if (getSelectedIndex() == activeIndex) {
+                loadPendingTab(activeIndex); // already selected, no change event will come
+                updateMainWindowComponents();
+            } else {
+                setSelectedIndex(activeIndex);
+            }
+        }
+        return getTabCount() - firstIndex;
+    }
+
+    // collect the file-backed tabs and their view positions for the next launch
+    public SessionStore.Session captureSession() {
+        SessionStore.Session session = new SessionStore.Session();
+        int selectedIndex = getSelectedIndex();
+
+        for (int i = 0; i < getTabCount(); i++) {
+            Component component = getComponentAt(i);
+            SessionStore.TabState state = null;
+
+            if (component instanceof PendingTab) {
+                state = ((PendingTab) component).state; // never opened, keep it as it was
+            } else if (component instanceof JScrollPane) {
+                JScrollPane scrollPane = (JScrollPane) component;
+                DocumentManager docManager = findDocumentManager(scrollPane);
+                if (docManager != null && docManager.getCurrentFile() != null) {
+                    Point viewPosition = scrollPane.getViewport().getViewPosition();
+                    state = new SessionStore.TabState(
+                            docManager.getCurrentFile().getAbsolutePath(),
+                            docManager.getTextComponent().getCaretPosition(), viewPosition.x,
+                            viewPosition.y);
+                }
+            }
+
+            if (state != null) {
+                if (i == selectedIndex) {
+                    session.setActiveIndex(session.getTabs().size());
+                }
+                session.getTabs().add(state);
+            }
+        }
+        return session;
+    }
+
+    // find the document manager behind a tab's scroll pane
+    private DocumentManager findDocumentManager(JScrollPane scrollPane) {
+        for (Map.Entry<Integer, JScrollPane> entry : scrollPanes.entrySet()) {
+            if (entry.getValue() == scrollPane) {
+                return documentManagers.get(entry.getKey());
+            }
+        }
+        return null;
+    }
+
+    // read a restored tab's file in the background; the placeholder says so until the file is
+    // in, then it is swapped for a real editor
+    private void loadPendingTab(int tabIndex) {
+        PendingTab pending = (PendingTab) getComponentAt(tabIndex);
+        if (pending.loading) {
+            return;
+        }
+        File file = new File(pending.state.getPath());
+        pending.showLoading(file.getName());
+        mainWindow.getFileController().readFileInto(file, pending.tabId,
+                () -> replacePendingTab(pending, file), () -> restoreView(pending));
+    }
+
+    // runs once the file is read; null when the tab was closed in the meantime
+    private DocumentManager replacePendingTab(PendingTab pending, File file) {
+        int tabIndex = indexOfComponent(pending);
+        if (tabIndex < 0) {
+            return null;
+        }
+        setComponentAt(tabIndex, createTabContent(pending.tabId, file.getName(), file));
+        return documentManagers.get(pending.tabId);
+    }
+
+    // put the caret and scroll position back once the view has been laid out
+    private void restoreView(PendingTab pending) {
+        undoManagers.get(pending.tabId).discardAllEdits();
+        JTextPane textPane = textPanes.get(pending.tabId);
+        JScrollPane scrollPane = scrollPanes.get(pending.tabId);
+        textPane.setCaretPosition(
+                Math.min(pending.state.getCaretPosition(), textPane.getDocument().getLength()));
+        SwingUtilities.invokeLater(() -> scrollPane.getViewport().setViewPosition(
+                new Point(pending.state.getScrollX(), pending.state.getScrollY())));
+        if (getCurrentTabId() == pending.tabId) {
+            updateMainWindowComponents();
+        }
     }
 
     // create a new tab with specified title and file
     public int createNewTab(String title, File file) {
         int tabId = nextTabId++;
+        EditorEvents.TabCreate event = new EditorEvents.TabCreate();
+        event.begin();
+        JScrollPane scrollPane = createTabContent(tabId, title, file);
+
+        // create tab with close button
+        JPanel tabPanel = createTabPanel(title, tabId);
+
+        // add tab to tabbed pane
+        addTab(null, scrollPane);
+        int tabIndex = getTabCount() - 1;
+        setTabComponentAt(tabIndex, tabPanel);
+
+        // select the new tab
+        setSelectedIndex(tabIndex);
+
+        // update main window components
+        updateMainWindowComponents();
+
+        event.tabId = tabId;
+        event.title = title;
+        event.commit();
+        return tabId;
+    }
+
+    // open a read-only viewer in a new tab and select it
+    public int openViewer(String title, ViewerTab viewer) {
+        int tabId = nextTabId++;
+        viewers.put(tabId, viewer);
+        if (appliedStyle != null) {
+            viewer.applyTheme(appliedStyle);
+        }
+        addTab(null, viewer.getComponent());
+        int tabIndex = getTabCount() - 1;
+        setTabComponentAt(tabIndex, createTabPanel(title, tabId));
+        setSelectedIndex(tabIndex);
+        updateMainWindowComponents();
+        return tabId;
+    }
 
-        // create new text pane (rich text component)
-        JTextPane textPane = new JTextPane();
+    // the viewer in the selected tab, null when it is an editor tab
+    public ViewerTab getCurrentViewer() {
+        int selectedIndex = getSelectedIndex();
+        return selectedIndex >= 0 ? viewers.get(tabIdAt(selectedIndex)) : null;
+    }
+
+    // build the editor components of a tab and register them under its id
+    private JScrollPane createTabContent(int tabId, String title, File file) {
+        // create new text pane (rich text component), formatting merges equal style runs
+        JTextPane textPane = new JTextPane(new FormattedDocument());
         setupTextPane(textPane);
 
         // create scroll pane for text area
@@ -88,7 +317,7 @@ public class TabManager extends JTabbedPane {
         FormattingPopup formattingPopup = new FormattingPopup(textPane);
 
         // create undo manager for this tab
-        UndoManager undoManager = new UndoManager();
+        UndoManager undoManager = new TabUndoManager();
         setupUndoSystem(textPane, undoManager);
 
         // store all components
@@ -98,28 +327,28 @@ public class TabManager extends JTabbedPane {
         formattingPopups.put(tabId, formattingPopup);
         undoManagers.put(tabId, undoManager);
 
-        // create tab with close button
-        JPanel tabPanel = createTabPanel(title, tabId);
-
-        // add tab to tabbed pane
-        addTab(null, scrollPane);
-        int tabIndex = getTabCount() - 1;
-        setTabComponentAt(tabIndex, tabPanel);
-
-        // select the new tab
-        setSelectedIndex(tabIndex);
+        if (appliedStyle != null) {
+            applyThemeToTab(tabId, appliedStyle);
+        }
 
-        // update main window components
-        updateMainWindowComponents();
+        // journal unsaved edits so a crash doesn't lose them
+        RecoveryJournal journal = mainWindow.getRecoveryJournal();
+        if (journal != null) {
+            journal.attach(tabId, title, documentManager);
+        }
 
-        return tabId;
+        return scrollPane;
     }
 
     // setup undo system for a text pane
     private void setupUndoSystem(JTextPane textPane, UndoManager undoManager) {
         textPane.getDocument().addUndoableEditListener(e -> {
             UndoableEdit edit = e.getEdit();
-            undoManager.addEdit(edit);
+            if (editGroup != null && editGroupOwner == undoManager) {
+                editGroup.addEdit(edit);
+            } else {
+                undoManager.addEdit(edit);
+            }
         });
     }
 
@@ -136,7 +365,9 @@ public class TabManager extends JTabbedPane {
         textPane.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
             @Override
             public void insertUpdate(javax.swing.event.DocumentEvent e) {
-                updateStatusBar();
+                if (!isAppending(e.getDocument())) {
+                    updateStatusBar();
+                }
             }
 
             @Override
@@ -152,25 +383,10 @@ public class TabManager extends JTabbedPane {
 
         // add caret listener for position updates and text selection
         textPane.addCaretListener(e -> {
-            try {
-                int caretPos = textPane.getCaretPosition();
-                String text = textPane.getText();
-                int line = 1;
-                int column = 1;
-
-                for (int i = 0; i < caretPos && i < text.length(); i++) {
-                    if (text.charAt(i) == '\n') {
-                        line++;
-                        column = 1;
-                    } else {
-                        column++;
-                    }
-                }
-
-                mainWindow.getStatusBar().setPosition(line, column);
-            } catch (Exception ex) {
-                mainWindow.getStatusBar().setPosition(1, 1);
+            if (caretUpdatesSuspended || isAppending(textPane.getDocument())) {
+                return; // one update once the batch or the streamed output is done
             }
+            updateCaretPosition(textPane);
 
             // handle text selection for formatting popup
             SwingUtilities.invokeLater(() -> handleTextSelection(textPane));
@@ -191,6 +407,7 @@ public class TabManager extends JTabbedPane {
     private JPanel createTabPanel(String title, int tabId) {
         JPanel tabPanel = new JPanel(new BorderLayout());
         tabPanel.setOpaque(false);
+        tabPanel.putClientProperty(TAB_ID_PROPERTY, tabId);
 
         // tab title label
         JLabel titleLabel = new JLabel(title);
@@ -216,25 +433,25 @@ public class TabManager extends JTabbedPane {
     // close tab by tab id
     public void closeTab(int tabId) {
         // find tab index
-        int tabIndex = -1;
-        for (int i = 0; i < getTabCount(); i++) {
-            Component tabComponent = getTabComponentAt(i);
-            if (tabComponent instanceof JPanel) {
-                // would need to store tabId somehow, for now use index
-                tabIndex = i;
-                break;
-            }
-        }
+        int tabIndex = indexOfTabId(tabId);
 
         if (tabIndex >= 0) {
+            EditorEvents.TabClose event = new EditorEvents.TabClose();
+            event.begin();
+            event.tabId = tabId;
+
             // check for unsaved changes
-            DocumentManager docManager = getCurrentDocumentManager();
+            DocumentManager docManager = documentManagers.get(tabId);
+            Document document = docManager != null ? docManager.getDocument() : null;
+            event.documentLength = document != null ? document.getLength() : 0;
             if (docManager != null && docManager.hasUnsavedChanges()) {
+                setSelectedIndex(tabIndex); // save acts on the selected tab
                 int option = JOptionPane.showConfirmDialog(this,
                         "Do you want to save changes before closing this tab?", "Unsaved Changes",
                         JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
 
                 if (option == JOptionPane.CANCEL_OPTION) {
+                    event.commit();
                     return; // don't close
                 }
 
@@ -247,6 +464,21 @@ public class TabManager extends JTabbedPane {
             // remove tab
             removeTabAt(tabIndex);
 
+            // closed tabs have nothing left to recover
+            RecoveryJournal journal = mainWindow.getRecoveryJournal();
+            if (journal != null) {
+                journal.detach(tabId);
+            }
+            FileWatcher fileWatcher = mainWindow.getFileWatcher();
+            if (fileWatcher != null && docManager != null && docManager.getCurrentFile() != null) {
+                fileWatcher.unwatch(docManager.getCurrentFile().toPath());
+            }
+
+            ViewerTab viewer = viewers.remove(tabId);
+            if (viewer != null) {
+                viewer.close();
+            }
+
             // remove from maps
             textPanes.remove(tabId);
             scrollPanes.remove(tabId);
@@ -260,9 +492,202 @@ public class TabManager extends JTabbedPane {
             }
 
             updateMainWindowComponents();
+
+            event.closed = true;
+            event.commit();
+        }
+    }
+
+    // id of the selected tab, -1 if there is none
+    public int getCurrentTabId() {
+        int selectedIndex = getSelectedIndex();
+        return selectedIndex >= 0 ? tabIdAt(selectedIndex) : -1;
+    }
+
+    // select a tab by id; false when it has been closed
+    public boolean selectTab(int tabId) {
+        int tabIndex = indexOfTabId(tabId);
+        if (tabIndex >= 0) {
+            setSelectedIndex(tabIndex);
+        }
+        return tabIndex >= 0;
+    }
+
+    public boolean isTabOpen(int tabId) {
+        return indexOfTabId(tabId) >= 0;
+    }
+
+    // a message in the status bar, e.g. progress of a background job
+    public void showStatus(String message) {
+        mainWindow.getStatusBar().setStatus(message);
+    }
+
+    // rough per-tab heap use for View > Performance (call on the EDT). Swing doesn't expose real
+    // object sizes, so this multiplies what it can count by typical per-object costs: 2 bytes per
+    // character in the gap buffer, one element and one paragraph view per line, and a document
+    // event plus its undo record per undoable edit
+    public List<TabMemory> estimateMemory() {
+        List<TabMemory> estimates = new ArrayList<>();
+        for (int i = 0; i < getTabCount(); i++) {
+            int tabId = tabIdAt(i);
+            DocumentManager docManager = documentManagers.get(tabId);
+            UndoManager undoManager = undoManagers.get(tabId);
+            if (docManager == null || docManager.getDocument() == null) {
+                estimates.add(new TabMemory(tabTitleAt(i), 0, 0, 0)); // not loaded yet
+                continue;
+            }
+
+            Document document = docManager.getDocument();
+            long lines = document.getDefaultRootElement().getElementCount();
+            long documentBytes = document.getLength() * 2L + lines * 160;
+            long viewBytes = lines * 240;
+            long undoBytes = undoManager instanceof TabUndoManager
+                    ? ((TabUndoManager) undoManager).getEditCount() * 200L : 0;
+            estimates.add(new TabMemory(tabTitleAt(i), documentBytes, undoBytes, viewBytes));
+        }
+        return estimates;
+    }
+
+    // the documents of all loaded tabs, for View > Performance to measure off the EDT
+    public List<Document> getLoadedDocuments() {
+        List<Document> documents = new ArrayList<>();
+        for (DocumentManager docManager : documentManagers.values()) {
+            if (docManager != null && docManager.getDocument() != null) {
+                documents.add(docManager.getDocument());
+            }
+        }
+        return documents;
+    }
+
+    // loaded tabs other than the current one by title, in tab order, for File > Compare with Tab.
+    // a title that repeats gets its tab number appended
+    public Map<String, DocumentManager> getOtherLoadedDocuments() {
+        Map<String, DocumentManager> documents = new LinkedHashMap<>();
+        for (int i = 0; i < getTabCount(); i++) {
+            DocumentManager docManager = documentManagers.get(tabIdAt(i));
+            if (i == getSelectedIndex() || docManager == null
+                    || docManager.getDocument() == null) {
+                continue;
+            }
+            String title = tabTitleAt(i);
+            documents.put(documents.containsKey(title) ? title + " (" + (i + 1) + ")" : title,
+                    docManager);
+        }
+        return documents;
+    }
+
+    // select the tab showing a file, loaded or still a restored placeholder. false if none does
+    public boolean selectTabForFile(File file) {
+        File target = file.getAbsoluteFile();
+        for (int i = 0; i < getTabCount(); i++) {
+            Component component = getComponentAt(i);
+            File shown = null;
+            if (component instanceof PendingTab) {
+                shown = new File(((PendingTab) component).state.getPath());
+            } else if (viewers.containsKey(tabIdAt(i))) {
+                shown = viewers.get(tabIdAt(i)).getFile();
+            } else {
+                DocumentManager docManager = documentManagers.get(tabIdAt(i));
+                shown = docManager != null ? docManager.getCurrentFile() : null;
+            }
+            if (shown != null && shown.getAbsoluteFile().equals(target)) {
+                setSelectedIndex(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // loaded tabs showing a file, for reacting to changes made to it by other programs
+    public List<DocumentManager> findDocuments(File file) {
+        List<DocumentManager> documents = new ArrayList<>();
+        File target = file.getAbsoluteFile();
+        for (DocumentManager docManager : documentManagers.values()) {
+            if (docManager != null && docManager.getCurrentFile() != null
+                    && docManager.getCurrentFile().getAbsoluteFile().equals(target)) {
+                documents.add(docManager);
+            }
+        }
+        return documents;
+    }
+
+    // estimated memory of one tab, in bytes
+    public static class TabMemory {
+        private final String title;
+        private final long documentBytes;
+        private final long undoBytes;
+        private final long viewBytes;
+
+        public TabMemory(String title, long documentBytes, long undoBytes, long viewBytes) {
+            this.title = title;
+            this.documentBytes = documentBytes;
+            this.undoBytes = undoBytes;
+            this.viewBytes = viewBytes;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public long getDocumentBytes() {
+            return documentBytes;
+        }
+
+        public long getUndoBytes() {
+            return undoBytes;
+        }
+
+        public long getViewBytes() {
+            return viewBytes;
+        }
+
+        public long getTotalBytes() {
+            return documentBytes + undoBytes + viewBytes;
+        }
+    }
+
+    // undo manager that can report how many edits it holds
+    private static class TabUndoManager extends UndoManager {
+        synchronized int getEditCount() {
+            return edits.size();
         }
     }
 
+    // find the tab index of a tab id, -1 if it is gone
+    private int indexOfTabId(int tabId) {
+        for (int i = 0; i < getTabCount(); i++) {
+            if (tabIdAt(i) == tabId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // tab id stored on the tab header at an index, -1 if there is none
+    private int tabIdAt(int tabIndex) {
+        Component tabComponent = getTabComponentAt(tabIndex);
+        if (tabComponent instanceof JComponent) {
+            Object tabId = ((JComponent) tabComponent).getClientProperty(TAB_ID_PROPERTY);
+            if (tabId instanceof Integer) {
+                return (Integer) tabId;
+            }
+        }
+        return -1;
+    }
+
+    // title shown on the tab header at an index
+    private String tabTitleAt(int tabIndex) {
+        Component tabComponent = getTabComponentAt(tabIndex);
+        if (tabComponent instanceof JPanel) {
+            for (Component component : ((JPanel) tabComponent).getComponents()) {
+                if (component instanceof JLabel) {
+                    return ((JLabel) component).getText();
+                }
+            }
+        }
+        return getTitleAt(tabIndex);
+    }
+
     // get current active text pane
     public JTextPane getCurrentTextPane() {
         int selectedIndex = getSelectedIndex();
@@ -342,6 +767,48 @@ public class TabManager extends JTabbedPane {
         return false;
     }
 
+    // run a batch of document changes on the current tab so that one undo reverts all of them
+    public void runAsSingleEdit(Runnable changes) {
+        UndoManager undoManager = getCurrentUndoManager();
+        if (undoManager == null || editGroup != null) {
+            changes.run();
+            return;
+        }
+
+        // every edit of the batch moves the caret; the status bar follows once at the end
+        editGroup = new CompoundEdit();
+        editGroupOwner = undoManager;
+        caretUpdatesSuspended = true;
+        try {
+            changes.run();
+        } finally {
+            caretUpdatesSuspended = false;
+            JTextPane currentPane = getCurrentTextPane();
+            if (currentPane != null) {
+                updateCaretPosition(currentPane);
+            }
+            CompoundEdit group = editGroup;
+            editGroup = null;
+            editGroupOwner = null;
+            group.end();
+            if (group.isSignificant()) {
+                undoManager.addEdit(group);
+            }
+        }
+    }
+
+    // add an edit that is not a document change (e.g. the line-ending style) to the undo history
+    public void addUndoableEdit(UndoableEdit edit) {
+        if (editGroup != null) {
+            editGroup.addEdit(edit);
+        } else {
+            UndoManager undoManager = getCurrentUndoManager();
+            if (undoManager != null) {
+                undoManager.addEdit(edit);
+            }
+        }
+    }
+
     // check if current tab can undo
     public boolean canUndo() {
         UndoManager undoManager = getCurrentUndoManager();
@@ -369,18 +836,56 @@ public class TabManager extends JTabbedPane {
         }
     }
 
-    // update status bar with current document info
-    private void updateStatusBar() {
-        JTextPane currentPane = getCurrentTextPane();
-        if (currentPane != null) {
-            SwingUtilities.invokeLater(() -> {
-                mainWindow.getStatusBar().updateDocumentStats(currentPane.getText());
-            });
+    // 1-based line and column of a caret offset. the document's root element already holds one
+    // child per line, so this is a binary search instead of a scan over a copy of the text
+    public static int[] caretLineColumn(Document document, int caretPos) {
+        Element root = document.getDefaultRootElement();
+        int offset = Math.max(0, Math.min(caretPos, document.getLength()));
+        int line = root.getElementIndex(offset);
+        return new int[] {line + 1, offset - root.getElement(line).getStartOffset() + 1};
+    }
+
+    private void updateCaretPosition(JTextPane textPane) {
+        int[] position = caretLineColumn(textPane.getDocument(), textPane.getCaretPosition());
+        mainWindow.getStatusBar().setPosition(position[0], position[1]);
+    }
+
+    // update status bar with current document info; bulk edits fire thousands of document
+    // events, so only one refresh is queued at a time
+    public void updateStatusBar() {
+        if (statusBarUpdatePending) {
+            return;
+        }
+        statusBarUpdatePending = true;
+        SwingUtilities.invokeLater(() -> {
+            statusBarUpdatePending = false;
+            JTextPane currentPane = getCurrentTextPane();
+            DocumentManager currentDocManager = getCurrentDocumentManager();
+            if (currentPane != null && currentDocManager != null) {
+                StatusBar statusBar = mainWindow.getStatusBar();
+                statusBar.updateDocumentStats(currentPane.getText());
+                statusBar.setFileFormat(currentDocManager.getCharset().displayName(),
+                        currentDocManager.getLineEnding().getDisplayName());
+            }
+        });
+    }
+
+    // output streamed in by DocumentManager.appendText refreshes the status bar and the caret
+    // position once at the end instead of after every chunk
+    private boolean isAppending(Document document) {
+        for (DocumentManager documentManager : documentManagers.values()) {
+            if (documentManager.getDocument() == document) {
+                return documentManager.isAppending();
+            }
         }
+        return false;
     }
 
     // handle text selection for formatting popup
     private void handleTextSelection(JTextPane textPane) {
+        if (!textPane.isEditable()) {
+            return; // nothing to format in a read-only tab
+        }
         String selectedText = textPane.getSelectedText();
         if (selectedText != null && !selectedText.trim().isEmpty() && selectedText.length() > 1) {
             showFormattingPopupForSelection(textPane);
@@ -390,7 +895,7 @@ public class TabManager extends JTabbedPane {
     // show formatting popup if text is selected (for right-click)
     private void showFormattingPopupIfTextSelected(JTextPane textPane, int x, int y) {
         String selectedText = textPane.getSelectedText();
-        if (selectedText != null && !selectedText.trim().isEmpty()) {
+        if (textPane.isEditable() && selectedText != null && !selectedText.trim().isEmpty()) {
             FormattingPopup popup = getCurrentFormattingPopup();
             if (popup != null) {
                 int selStart = textPane.getSelectionStart();
@@ -440,32 +945,43 @@ public class TabManager extends JTabbedPane {
     }
 
     // apply current theme to all tabs
-    public void applyTheme() {
-        ThemeManager themeManager = ThemeManager.getInstance();
-        PixelatedTheme currentTheme = themeManager.getCurrentTheme();
+    @Override
+    public void applyTheme(ThemeStyle style) {
+        appliedStyle = style;
 
         // apply theme to tab pane itself
-        setBackground(currentTheme.getBackgroundColor());
-        setForeground(currentTheme.getForegroundColor());
+        setBackground(style.getBackground());
+        setForeground(style.getForeground());
 
-        // apply theme to all text panes
-        for (JTextPane textPane : textPanes.values()) {
-            currentTheme.applyToTextPane(textPane);
+        // one pass over the open tabs; formatting popups restyle themselves when shown
+        for (Integer tabId : textPanes.keySet()) {
+            applyThemeToTab(tabId, style);
         }
-
-        // apply theme to all formatting popups
-        for (FormattingPopup popup : formattingPopups.values()) {
-            popup.applyTheme();
+        for (ViewerTab viewer : viewers.values()) {
+            viewer.applyTheme(style);
         }
+    }
+
+    private void applyThemeToTab(int tabId, ThemeStyle style) {
+        style.applyToTextPane(textPanes.get(tabId));
 
-        repaint();
+        JScrollPane scrollPane = scrollPanes.get(tabId);
+        scrollPane.setBackground(style.getBackground());
+        scrollPane.getViewport().setBackground(style.getTextBackground());
+        scrollPane.setBorder(style.getPanelBorder());
     }
 
     // update tab title when document is saved/modified
     public void updateTabTitle(String newTitle) {
-        int selectedIndex = getSelectedIndex();
-        if (selectedIndex >= 0) {
-            Component tabComponent = getTabComponentAt(selectedIndex);
+        updateTabTitle(getCurrentTabId(), newTitle);
+    }
+
+    // update the title of a given tab, which need not be the selected one (a load finishing in
+    // the background)
+    public void updateTabTitle(int tabId, String newTitle) {
+        int tabIndex = indexOfTabId(tabId);
+        if (tabIndex >= 0) {
+            Component tabComponent = getTabComponentAt(tabIndex);
             if (tabComponent instanceof JPanel) {
                 JPanel tabPanel = (JPanel) tabComponent;
                 Component[] components = tabPanel.getComponents();
@@ -477,6 +993,10 @@ public class TabManager extends JTabbedPane {
                     }
                 }
             }
+            RecoveryJournal journal = mainWindow.getRecoveryJournal();
+            if (journal != null) {
+                journal.rename(tabId, newTitle);
+            }
         }
     }
 
@@ -543,4 +1063,23 @@ public class TabManager extends JTabbedPane {
         int nextTabNumber = getTabCount() + 1;
         createNewTab("Untitled-" + nextTabNumber, null);
     }
+
+    // placeholder for a restored tab whose file has not been read yet
+    private static class PendingTab extends JPanel {
+        private final int tabId;
+        private final SessionStore.TabState state;
+        private boolean loading; // its file is being read
+
+        PendingTab(int tabId, SessionStore.TabState state) {
+            super(new GridBagLayout());
+            this.tabId = tabId;
+            this.state = state;
+        }
+
+        void showLoading(String name) {
+            loading = true;
+            add(new JLabel("Loading " + name + "…"));
+            revalidate();
+        }
+    }
 }
@@ -1,22 +1,20 @@
 package com.texteditor.ui;
 
-import com.texteditor.controller.FileController;
-import com.texteditor.controller.EditController;
-import com.texteditor.ui.themes.ThemedDialogs;
+import com.texteditor.ui.themes.ThemeStyle;
+import com.texteditor.ui.themes.Themeable;
 
 import javax.swing.*;
 import java.awt.*;
 
-// Enhanced toolbar with icons and better styling.
+// Enhanced toolbar with icons and better styling. each button runs a command of the
+// ActionRegistry and takes its tooltip from the command's description and shortcut
 
-public class ToolBar extends JToolBar {
+public class ToolBar extends JToolBar implements Themeable {
 
-    private final FileController fileController;
-    private final EditController editController;
+    private final ActionRegistry actions;
 
-    public ToolBar(FileController fileController, EditController editController) {
-        this.fileController = fileController;
-        this.editController = editController;
+    public ToolBar(ActionRegistry actions) {
+        this.actions = actions;
         initializeToolbar();
         createButtons();
     }
@@ -31,60 +29,56 @@ public class ToolBar extends JToolBar {
                 BorderFactory.createEmptyBorder(5, 5, 5, 5)));
     }
 
+    @Override
+    public void applyTheme(ThemeStyle style) {
+        setBackground(style.getMenuBackground());
+        setBorder(style.getPanelBorder());
+
+        // Apply to all buttons in toolbar
+        for (Component component : getComponents()) {
+            if (component instanceof AbstractButton) {
+                style.applyToButton((AbstractButton) component);
+            }
+        }
+    }
+
     private void createButtons() {
         // New Document Button
-        JButton newButton = createToolbarButton("📄", "New", "Create new document (Ctrl+N)",
-                e -> fileController.newDocument());
-        add(newButton);
+        add(createToolbarButton("📄", "New", "file.new"));
 
         // Open Document Button
-        JButton openButton = createToolbarButton("📁", "Open", "Open document (Ctrl+O)",
-                e -> fileController.openDocument());
-        add(openButton);
+        add(createToolbarButton("📁", "Open", "file.open"));
 
         // Save Document Button
-        JButton saveButton = createToolbarButton("💾", "Save", "Save document (Ctrl+S)",
-                e -> fileController.saveDocument());
-        add(saveButton);
+        add(createToolbarButton("💾", "Save", "file.save"));
 
         addSeparator(); // Visual separator
 
         // Additional useful buttons
-        JButton saveAsButton = createToolbarButton("📋", "Save As",
-                "Save document with new name (Ctrl+Shift+S)", e -> fileController.saveDocumentAs());
-        add(saveAsButton);
+        add(createToolbarButton("📋", "Save As", "file.saveAs"));
 
         addSeparator();
 
         // Edit operation buttons
-        JButton undoButton = createToolbarButton("↶", "Undo", "Undo last action (Ctrl+Z)",
-                e -> editController.undo());
-        add(undoButton);
-
-        JButton redoButton = createToolbarButton("↷", "Redo", "Redo last action (Ctrl+Y)",
-                e -> editController.redo());
-        add(redoButton);
+        add(createToolbarButton("↶", "Undo", "edit.undo"));
+        add(createToolbarButton("↷", "Redo", "edit.redo"));
 
         addSeparator();
 
         // Find button
-        JButton findButton = createToolbarButton("🔍", "Find", "Find and replace text (Ctrl+F)",
-                e -> editController.showFindReplaceDialog());
-        add(findButton);
+        add(createToolbarButton("🔍", "Find", "edit.findReplace"));
 
         // Add flexible space to push help button to the right
         add(Box.createHorizontalGlue());
 
         // Help button on the far right
-        JButton helpButton =
-                createToolbarButton("❓", "Help", "Show help information", e -> showQuickHelp());
-        add(helpButton);
+        add(createToolbarButton("❓", "Help", "help.quickHelp"));
     }
 
     // Creates a styled toolbar button with icon and text
     
-    private JButton createToolbarButton(String icon, String text, String tooltip,
-            java.awt.event.ActionListener action) {
+    private JButton createToolbarButton(String icon, String text, String commandId) {
+        ActionRegistry.Command command = actions.get(commandId);
         JButton button = new JButton();
 
         // Create a label with icon and text
@@ -93,7 +87,7 @@ public class ToolBar extends JToolBar {
         button.setText(buttonText);
 
         // Styling
-        button.setToolTipText(tooltip);
+        button.setToolTipText(command.getToolTip());
         button.setFocusable(false);
         button.setPreferredSize(new Dimension(70, 55));
         button.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 16));
@@ -111,11 +105,7 @@ public class ToolBar extends JToolBar {
             }
         });
 
-        button.addActionListener(action);
+        button.addActionListener(command);
         return button;
     }
-
-    private void showQuickHelp() {
-        ThemedDialogs.showQuickHelpDialog(this);
-    }
 }
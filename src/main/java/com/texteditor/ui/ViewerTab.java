@@ -0,0 +1,27 @@
+package com.texteditor.ui;
+
+import com.texteditor.ui.themes.Themeable;
+
+import javax.swing.*;
+import java.io.File;
+
+// a read-only tab that shows a file as something other than text, like the hex viewer. TabManager
+// keeps these apart from the editor tabs: they have no document, undo history or formatting, and
+// the edit commands either go to the viewer (copy, find) or do nothing
+public interface ViewerTab extends Themeable {
+
+    // what goes in the tab
+    JComponent getComponent();
+
+    // the file shown, so opening it again selects this tab
+    File getFile();
+
+    // Edit > Find & Replace while the tab is selected: focus the viewer's own search
+    void showFind();
+
+    // Edit > Copy: put the selection on the clipboard, false if nothing is selected
+    boolean copySelection();
+
+    // the tab was closed; let go of the file
+    void close();
+}
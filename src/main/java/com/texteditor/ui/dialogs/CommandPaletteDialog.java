@@ -0,0 +1,61 @@
+package com.texteditor.ui.dialogs;
+
+import com.texteditor.model.FuzzyMatcher;
+import com.texteditor.ui.ActionRegistry;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+// the command palette (View > Command Palette..., Ctrl+Shift+P), like the one in a code editor:
+// every command of the ActionRegistry can be found by typing a few letters of its name, with
+// its category and shortcut next to it. there are only a few dozen commands and their match data
+// is prepared when they are registered, so each keystroke is searched right away on the EDT.
+// with an empty query the commands run last come first
+public class CommandPaletteDialog extends PaletteDialog {
+
+    private static final int LIMIT = 100;
+
+    private final ActionRegistry actions;
+    private FuzzyMatcher matcher = new FuzzyMatcher("");
+    private List<ActionRegistry.Command> shown = List.of();
+
+    public CommandPaletteDialog(Window owner, ActionRegistry actions) {
+        super(owner, "Command Palette");
+        this.actions = actions;
+        queryChanged("");
+    }
+
+    @Override
+    protected void queryChanged(String query) {
+        matcher = new FuzzyMatcher(query);
+        shown = actions.search(matcher, LIMIT);
+        showRows(shown.size());
+        statusLabel.setText(matcher.isEmpty() ? actions.getCommands().size() + " commands"
+                : shown.size() + " found");
+    }
+
+    @Override
+    protected void rowChosen(int row) {
+        ActionRegistry.Command command = shown.get(row);
+        // after the palette has gone, so dialogs the command opens get the focus
+        SwingUtilities.invokeLater(() -> actions.invoke(command.getId()));
+    }
+
+    // "Category: Title" with the category dimmed
+    @Override
+    protected void renderRow(int row, StringBuilder html) {
+        ActionRegistry.Command command = shown.get(row);
+        String label = command.getLabel();
+        int[] positions = command.matchPositions(matcher);
+        html.append("<font color='").append(getDimColor()).append("'>");
+        appendHighlighted(html, label, 0, command.getTitleStart(), positions);
+        html.append("</font>");
+        appendHighlighted(html, label, command.getTitleStart(), label.length(), positions);
+    }
+
+    @Override
+    protected String rowDetail(int row) {
+        return shown.get(row).getShortcutText();
+    }
+}
@@ -0,0 +1,270 @@
+package com.texteditor.ui.dialogs;
+
+import com.texteditor.model.LineDiff;
+import com.texteditor.ui.themes.ThemeManager;
+import com.texteditor.ui.themes.ThemeStyle;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+// side-by-side view of a LineDiff, like the split view of a pull request: unchanged lines face
+// each other, removed lines are red on the left, added lines green on the right and replaced
+// lines yellow on both, with blank filler rows keeping the two sides level. both lists share one
+// scroll bar model, so they always scroll together. the rows are plain int arrays and the lists
+// use a fixed row height, so a million-line comparison opens without measuring any lines
+public class CompareDialog extends JDialog {
+
+    private static final int FILLER = -1; // a row with no line on that side
+    private static final byte SAME = 0;
+    private static final byte REMOVED = 1;
+    private static final byte ADDED = 2;
+    private static final byte CHANGED = 3;
+    private static final String TAB = "    ";
+
+    private final LineDiff diff;
+    private int[] leftRows; // line number shown on each row, or FILLER
+    private int[] rightRows;
+    private byte[] kinds;
+    private int rowCount;
+    private final int[] changeRows; // first row of each hunk
+    private int currentChange = -1;
+    private final int numberDigits;
+
+    private final JList<Integer> leftList;
+    private final JList<Integer> rightList;
+    private final JScrollPane leftScroll;
+    private final JScrollPane rightScroll;
+    private final JLabel summaryLabel = new JLabel();
+    private final JButton previousButton = new JButton("▲ Previous");
+    private final JButton nextButton = new JButton("▼ Next");
+    private final JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+    private final JLabel leftTitle;
+    private final JLabel rightTitle;
+    private Color removedColor;
+    private Color addedColor;
+    private Color changedColor;
+    private Color fillerColor;
+
+    public CompareDialog(Window owner, String leftName, String rightName, LineDiff diff) {
+        super(owner, "Compare: " + leftName + " ↔ " + rightName, ModalityType.MODELESS);
+        this.diff = diff;
+        changeRows = new int[diff.getHunks().size()];
+        numberDigits = Integer.toString(
+                Math.max(diff.getLeftLineCount(), diff.getRightLineCount())).length();
+        buildRows();
+
+        leftList = createList(true);
+        rightList = createList(false);
+        leftScroll = new JScrollPane(leftList);
+        rightScroll = new JScrollPane(rightList);
+        // one model for both vertical bars, like a shared scroll position in state
+        rightScroll.getVerticalScrollBar().setModel(leftScroll.getVerticalScrollBar().getModel());
+        leftScroll.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER);
+        leftScroll.setWheelScrollingEnabled(false);
+        leftScroll.addMouseWheelListener(event -> rightScroll.dispatchEvent(
+                SwingUtilities.convertMouseEvent(leftScroll, event, rightScroll)));
+
+        leftTitle = new JLabel(leftName);
+        rightTitle = new JLabel(rightName);
+        JPanel sides = new JPanel(new GridLayout(1, 2, 4, 0));
+        sides.add(titled(leftTitle, leftScroll));
+        sides.add(titled(rightTitle, rightScroll));
+
+        previousButton.addActionListener(e -> jumpToChange(false));
+        nextButton.addActionListener(e -> jumpToChange(true));
+        previousButton.setEnabled(changeRows.length > 0);
+        nextButton.setEnabled(changeRows.length > 0);
+        summaryLabel.setText(summarize());
+        toolbar.add(previousButton);
+        toolbar.add(nextButton);
+        toolbar.add(summaryLabel);
+
+        add(toolbar, BorderLayout.NORTH);
+        add(sides, BorderLayout.CENTER);
+        applyCurrentTheme();
+        setSize(1100, 700);
+        setLocationRelativeTo(owner);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        if (changeRows.length > 0) {
+            SwingUtilities.invokeLater(() -> jumpToChange(true));
+        }
+    }
+
+    // line up both sides: equal stretches row by row, each hunk as its longer side with the
+    // shorter side padded by filler rows
+    private void buildRows() {
+        int capacity = Math.max(diff.getLeftLineCount(), diff.getRightLineCount()) + 16;
+        leftRows = new int[capacity];
+        rightRows = new int[capacity];
+        kinds = new byte[capacity];
+        int left = 0;
+        int right = 0;
+        List<LineDiff.Hunk> hunks = diff.getHunks();
+        for (int h = 0; h < hunks.size(); h++) {
+            LineDiff.Hunk hunk = hunks.get(h);
+            while (left < hunk.getLeftStart()) {
+                addRow(left++, right++, SAME);
+            }
+            changeRows[h] = rowCount;
+            int removed = hunk.getLeftEnd() - hunk.getLeftStart();
+            int added = hunk.getRightEnd() - hunk.getRightStart();
+            byte kind = removed == 0 ? ADDED : added == 0 ? REMOVED : CHANGED;
+            for (int i = 0; i < Math.max(removed, added); i++) {
+                addRow(i < removed ? left + i : FILLER, i < added ? right + i : FILLER, kind);
+            }
+            left = hunk.getLeftEnd();
+            right = hunk.getRightEnd();
+        }
+        while (left < diff.getLeftLineCount()) {
+            addRow(left++, right++, SAME);
+        }
+    }
+
+    private void addRow(int left, int right, byte kind) {
+        if (rowCount == kinds.length) {
+            int capacity = rowCount + (rowCount >> 1);
+            leftRows = Arrays.copyOf(leftRows, capacity);
+            rightRows = Arrays.copyOf(rightRows, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+        leftRows[rowCount] = left;
+        rightRows[rowCount] = right;
+        kinds[rowCount] = kind;
+        rowCount++;
+    }
+
+    // a list over the row indexes; the text is only fetched for rows being painted
+    private JList<Integer> createList(boolean leftSide) {
+        AbstractListModel<Integer> model = new AbstractListModel<Integer>() {
+            @Override
+            public int getSize() {
+                return rowCount;
+            }
+
+            @Override
+            public Integer getElementAt(int index) {
+                return index;
+            }
+        };
+        JList<Integer> list = new JList<>(model);
+        list.setCellRenderer(new RowRenderer(leftSide));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        return list;
+    }
+
+    private static JPanel titled(JLabel title, JScrollPane scrollPane) {
+        JPanel panel = new JPanel(new BorderLayout());
+        title.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        panel.add(title, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        return panel;
+    }
+
+    // scroll to the next or previous hunk and select it on both sides
+    private void jumpToChange(boolean forward) {
+        if (changeRows.length == 0) {
+            return;
+        }
+        currentChange = forward ? Math.min(currentChange + 1, changeRows.length - 1)
+                : Math.max(currentChange - 1, 0);
+        int row = changeRows[currentChange];
+        JScrollBar bar = rightScroll.getVerticalScrollBar();
+        bar.setValue(Math.max(0, row - 3) * leftList.getFixedCellHeight()); // context above
+        leftList.setSelectedIndex(row);
+        rightList.setSelectedIndex(row);
+        summaryLabel.setText("Change " + (currentChange + 1) + " of " + changeRows.length
+                + " · " + summarize());
+    }
+
+    private String summarize() {
+        if (diff.isIdentical()) {
+            return "No differences";
+        }
+        int removed = 0;
+        int added = 0;
+        for (LineDiff.Hunk hunk : diff.getHunks()) {
+            removed += hunk.getLeftEnd() - hunk.getLeftStart();
+            added += hunk.getRightEnd() - hunk.getRightStart();
+        }
+        return String.format("%d changes, %d lines removed, %d added", changeRows.length,
+                removed, added);
+    }
+
+    private void applyCurrentTheme() {
+        ThemeStyle style = ThemeManager.getInstance().getCurrentTheme().getStyle();
+        Color background = style.getTextBackground();
+        removedColor = blend(background, new Color(0xE5, 0x39, 0x35), 0.25);
+        addedColor = blend(background, new Color(0x43, 0xA0, 0x47), 0.25);
+        changedColor = blend(background, new Color(0xF9, 0xA8, 0x25), 0.25);
+        fillerColor = blend(background, style.getForeground(), 0.06);
+
+        Font font = new Font(Font.MONOSPACED, Font.PLAIN, style.getTextFont().getSize());
+        FontMetrics metrics = getFontMetrics(font);
+        int gutter = metrics.charWidth('0') * (numberDigits + 2);
+        int width = gutter + metrics.charWidth('m') * (diff.getLongestLineLength() + 2);
+        for (JList<Integer> list : Arrays.asList(leftList, rightList)) {
+            list.setFont(font);
+            list.setBackground(background);
+            list.setForeground(style.getTextForeground());
+            list.setSelectionBackground(style.getSelection());
+            // fixed sizes, or JList would measure every row for its preferred size
+            list.setFixedCellHeight(metrics.getHeight() + 2);
+            list.setFixedCellWidth(width);
+        }
+        getContentPane().setBackground(style.getBackground());
+        toolbar.setBackground(style.getBackground());
+        for (JComponent label : Arrays.asList(summaryLabel, leftTitle, rightTitle)) {
+            label.setForeground(style.getForeground());
+            label.setFont(style.getComponentFont());
+        }
+    }
+
+    private static Color blend(Color base, Color tint, double amount) {
+        return new Color(
+                (int) Math.round(base.getRed() + (tint.getRed() - base.getRed()) * amount),
+                (int) Math.round(base.getGreen() + (tint.getGreen() - base.getGreen()) * amount),
+                (int) Math.round(base.getBlue() + (tint.getBlue() - base.getBlue()) * amount));
+    }
+
+    // one label reused for every row, like a virtualized list item
+    private final class RowRenderer extends JLabel implements ListCellRenderer<Integer> {
+        private final boolean leftSide;
+        private final StringBuilder text = new StringBuilder();
+
+        RowRenderer(boolean leftSide) {
+            this.leftSide = leftSide;
+            setOpaque(true);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Integer> list, Integer row,
+                int index, boolean isSelected, boolean cellHasFocus) {
+            int line = leftSide ? leftRows[row] : rightRows[row];
+            text.setLength(0);
+            if (line == FILLER) {
+                setBackground(fillerColor);
+            } else {
+                String number = Integer.toString(line + 1);
+                for (int i = number.length(); i < numberDigits; i++) {
+                    text.append(' ');
+                }
+                text.append(number).append("  ");
+                String content = leftSide ? diff.getLeftLine(line) : diff.getRightLine(line);
+                text.append(content.replace("\t", TAB)); // JLabel draws tabs as nothing
+                byte kind = kinds[row];
+                setBackground(kind == SAME ? list.getBackground()
+                        : kind == CHANGED ? changedColor
+                        : kind == REMOVED ? removedColor : addedColor);
+            }
+            if (isSelected && line != FILLER) {
+                setBackground(blend(getBackground(), list.getSelectionBackground(), 0.5));
+            }
+            setText(text.length() == 0 ? " " : text.toString());
+            setFont(list.getFont());
+            setForeground(list.getForeground());
+            return this;
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.texteditor.ui.dialogs;
 
 import com.texteditor.model.DocumentManager;
 import com.texteditor.ui.themes.ThemeManager;
-import com.texteditor.ui.themes.PixelatedTheme;
+import com.texteditor.ui.themes.ThemeStyle;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyEvent;
@@ -158,20 +158,17 @@ public class FindReplaceDialog extends JDialog {
     // Apply the current theme to all dialog components
     
     private void applyCurrentTheme() {
-        ThemeManager themeManager = ThemeManager.getInstance();
-        PixelatedTheme theme = themeManager.getCurrentTheme();
+        ThemeStyle style = ThemeManager.getInstance().getCurrentTheme().getStyle();
 
         // Apply theme to the dialog
-        getContentPane().setBackground(theme.getBackgroundColor());
+        getContentPane().setBackground(style.getBackground());
 
         // Apply theme to all components
-        applyThemeToComponents(this, theme);
+        applyThemeToComponents(this, style);
 
         // Special border for pixelated themes
-        if (!(theme.getThemeName().equals("Normal (Default)"))) {
-            getRootPane().setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(theme.getAccentColor(), 3),
-                    BorderFactory.createLineBorder(theme.getBorderColor(), 1)));
+        if (style.isPixelated()) {
+            getRootPane().setBorder(style.getFrameBorder());
         }
 
         // Revalidate and repaint
@@ -181,54 +178,29 @@ public class FindReplaceDialog extends JDialog {
 
     // Recursively apply theme to all components in a container
     
-    private void applyThemeToComponents(Container container, PixelatedTheme theme) {
+    private void applyThemeToComponents(Container container, ThemeStyle style) {
         for (Component component : container.getComponents()) {
             if (component instanceof JTextField) {
-                JTextField field = (JTextField) component;
-                field.setBackground(theme.getTextAreaBackgroundColor());
-                field.setForeground(theme.getTextAreaForegroundColor());
-                field.setCaretColor(theme.getCaretColor());
-                field.setSelectionColor(theme.getSelectionColor());
-                field.setSelectedTextColor(theme.getBackgroundColor());
-
-                if (theme.getThemeName().equals("Normal (Default)")) {
-                    field.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-                    field.setBorder(UIManager.getBorder("TextField.border"));
-                } else {
-                    field.setFont(PixelatedTheme.PIXELATED_FONT_MEDIUM);
-                    field.setBorder(BorderFactory.createLineBorder(theme.getBorderColor(), 2));
-                }
+                style.applyToTextField((JTextField) component);
             } else if (component instanceof JButton) {
-                theme.applyToButton((JButton) component);
+                style.applyToButton((JButton) component);
             } else if (component instanceof JCheckBox) {
                 JCheckBox checkBox = (JCheckBox) component;
-                checkBox.setBackground(theme.getBackgroundColor());
-                checkBox.setForeground(theme.getForegroundColor());
+                checkBox.setBackground(style.getBackground());
+                checkBox.setForeground(style.getForeground());
+                checkBox.setFont(style.getSmallFont());
                 checkBox.setOpaque(true);
-
-                if (theme.getThemeName().equals("Normal (Default)")) {
-                    checkBox.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-                } else {
-                    checkBox.setFont(PixelatedTheme.PIXELATED_FONT_SMALL);
-                }
             } else if (component instanceof JLabel) {
-                JLabel label = (JLabel) component;
-                label.setForeground(theme.getForegroundColor());
-
-                if (theme.getThemeName().equals("Normal (Default)")) {
-                    label.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-                } else {
-                    label.setFont(PixelatedTheme.PIXELATED_FONT_SMALL);
-                }
+                style.applyToLabel((JLabel) component, style.getForeground());
             } else if (component instanceof JPanel) {
                 JPanel panel = (JPanel) component;
-                panel.setBackground(theme.getBackgroundColor());
+                panel.setBackground(style.getBackground());
                 panel.setOpaque(true);
             }
 
             // Recursively apply to child containers
             if (component instanceof Container) {
-                applyThemeToComponents((Container) component, theme);
+                applyThemeToComponents((Container) component, style);
             }
         }
     }
@@ -0,0 +1,269 @@
+package com.texteditor.ui.dialogs;
+
+import com.texteditor.ui.themes.ThemeManager;
+import com.texteditor.ui.themes.ThemeStyle;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+// the box shared by quick open and the command palette, like a reusable modal component: a query
+// field over a list of results, without a title bar, near the top of the window. the caret stays
+// in the field while the arrow keys move through the list; Enter picks the selected row, Escape
+// or clicking elsewhere closes the box. subclasses search when the query changes, say how many
+// rows there are and render each one as HTML; the list only ever renders the rows on screen
+public abstract class PaletteDialog extends JDialog {
+
+    protected final JTextField queryField = new JTextField();
+    protected final JLabel statusLabel = new JLabel();
+    private final RowModel rows = new RowModel();
+    private final JList<Integer> resultList = new JList<>(rows);
+    private final JPanel header = new JPanel(new BorderLayout(8, 0));
+    private String dimColor = "#808080";
+    private boolean closed;
+
+    protected PaletteDialog(Window owner, String title) {
+        super(owner, title, ModalityType.MODELESS);
+        setUndecorated(true);
+
+        queryField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                queryChanged(queryField.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                queryChanged(queryField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        bindKey(KeyEvent.VK_DOWN, "next", () -> moveSelection(1));
+        bindKey(KeyEvent.VK_UP, "previous", () -> moveSelection(-1));
+        bindKey(KeyEvent.VK_PAGE_DOWN, "pageDown", () -> moveSelection(pageSize()));
+        bindKey(KeyEvent.VK_PAGE_UP, "pageUp", () -> moveSelection(-pageSize()));
+        bindKey(KeyEvent.VK_ENTER, "choose", this::chooseSelected);
+        bindKey(KeyEvent.VK_ESCAPE, "close", this::dispose);
+
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setFocusable(false);
+        resultList.setCellRenderer(new RowRenderer());
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    chooseSelected();
+                }
+            }
+        });
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowDeactivated(WindowEvent e) {
+                dispose(); // clicked somewhere else
+            }
+        });
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 6));
+        header.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
+        header.add(queryField, BorderLayout.CENTER);
+        header.add(statusLabel, BorderLayout.EAST);
+        JScrollPane scrollPane = new JScrollPane(resultList);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        add(header, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        applyCurrentTheme();
+
+        setSize(640, 420);
+        if (owner != null) {
+            setLocation(owner.getX() + (owner.getWidth() - getWidth()) / 2, owner.getY() + 80);
+        }
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+    }
+
+    // called on the EDT after every edit of the query
+    protected abstract void queryChanged(String query);
+
+    // the user picked a row; the box is already closed
+    protected abstract void rowChosen(int row);
+
+    // append the row's text, HTML without the <html> tag
+    protected abstract void renderRow(int row, StringBuilder html);
+
+    // shown at the right edge of a row, e.g. a keyboard shortcut. null for nothing
+    protected String rowDetail(int row) {
+        return null;
+    }
+
+    // the list now has this many rows; the first one is selected
+    protected void showRows(int count) {
+        rows.setSize(count);
+        if (count > 0) {
+            resultList.setSelectedIndex(0);
+            resultList.ensureIndexIsVisible(0);
+        }
+    }
+
+    protected boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void dispose() {
+        closed = true;
+        super.dispose();
+    }
+
+    // text[from..to) escaped for HTML, with the characters at the sorted positions in bold
+    protected static void appendHighlighted(StringBuilder html, String text, int from, int to,
+            int[] positions) {
+        int next = 0;
+        while (positions != null && next < positions.length && positions[next] < from) {
+            next++;
+        }
+        for (int i = from; i < to; i++) {
+            boolean matched = positions != null && next < positions.length
+                    && positions[next] == i;
+            if (matched) {
+                html.append("<b>");
+                next++;
+            }
+            char c = text.charAt(i);
+            html.append(c == '<' ? "&lt;" : c == '>' ? "&gt;" : c == '&' ? "&amp;"
+                    : String.valueOf(c));
+            if (matched) {
+                html.append("</b>");
+            }
+        }
+    }
+
+    // a colour halfway between text and background, for secondary text in a row
+    protected String getDimColor() {
+        return dimColor;
+    }
+
+    private void bindKey(int keyCode, String name, Runnable action) {
+        queryField.getInputMap().put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        queryField.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    private void moveSelection(int delta) {
+        int size = rows.getSize();
+        if (size == 0) {
+            return;
+        }
+        int selected = Math.max(0, Math.min(size - 1, resultList.getSelectedIndex() + delta));
+        resultList.setSelectedIndex(selected);
+        resultList.ensureIndexIsVisible(selected);
+    }
+
+    private int pageSize() {
+        int height = Math.max(1, resultList.getFixedCellHeight());
+        return Math.max(1, resultList.getVisibleRect().height / height - 1);
+    }
+
+    private void chooseSelected() {
+        int selected = resultList.getSelectedIndex();
+        if (selected >= 0) {
+            dispose();
+            rowChosen(selected);
+        }
+    }
+
+    private void applyCurrentTheme() {
+        ThemeStyle style = ThemeManager.getInstance().getCurrentTheme().getStyle();
+        getContentPane().setBackground(style.getTextBackground());
+        getRootPane().setBorder(BorderFactory.createLineBorder(style.getAccent(), 2));
+        header.setBackground(style.getMenuBackground());
+        queryField.setFont(style.getTextFont());
+        queryField.setBackground(style.getTextBackground());
+        queryField.setForeground(style.getTextForeground());
+        queryField.setCaretColor(style.getTextForeground());
+        statusLabel.setFont(style.getSmallFont());
+        statusLabel.setForeground(style.getMenuForeground());
+        resultList.setFont(style.getComponentFont());
+        resultList.setBackground(style.getTextBackground());
+        resultList.setForeground(style.getTextForeground());
+        resultList.setSelectionBackground(style.getSelection());
+        resultList.setSelectionForeground(style.getTextForeground());
+        // fixed height, so the list never measures its rows
+        resultList.setFixedCellHeight(getFontMetrics(style.getComponentFont()).getHeight() + 6);
+        Color foreground = style.getTextForeground();
+        Color background = style.getTextBackground();
+        dimColor = String.format("#%02x%02x%02x",
+                (foreground.getRed() + background.getRed()) / 2,
+                (foreground.getGreen() + background.getGreen()) / 2,
+                (foreground.getBlue() + background.getBlue()) / 2);
+    }
+
+    // rows are just their numbers; subclasses keep what each one shows
+    private static final class RowModel extends AbstractListModel<Integer> {
+        private int size;
+
+        void setSize(int newSize) {
+            int oldSize = size;
+            size = newSize;
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+            if (newSize > 0) {
+                fireIntervalAdded(this, 0, newSize - 1);
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public Integer getElementAt(int index) {
+            return index;
+        }
+    }
+
+    // one panel reused for every row: the HTML text on the left, the detail on the right
+    private final class RowRenderer extends JPanel implements ListCellRenderer<Integer> {
+        private final JLabel text = new JLabel();
+        private final JLabel detail = new JLabel();
+        private final StringBuilder html = new StringBuilder();
+
+        RowRenderer() {
+            super(new BorderLayout(8, 0));
+            setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 8));
+            add(text, BorderLayout.CENTER);
+            add(detail, BorderLayout.EAST);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Integer> list, Integer row,
+                int index, boolean isSelected, boolean cellHasFocus) {
+            html.setLength(0);
+            html.append("<html><nobr>");
+            renderRow(row, html);
+            html.append("</nobr></html>");
+            text.setText(html.toString());
+            String rowDetail = rowDetail(row);
+            detail.setText(rowDetail != null ? rowDetail : "");
+            setBackground(isSelected ? list.getSelectionBackground() : list.getBackground());
+            text.setForeground(isSelected ? list.getSelectionForeground() : list.getForeground());
+            detail.setForeground(statusLabel.getForeground());
+            text.setFont(list.getFont());
+            detail.setFont(statusLabel.getFont());
+            return this;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.texteditor.ui.dialogs;
+
+import com.texteditor.model.AttributePool;
+import com.texteditor.service.CacheStats;
+import com.texteditor.service.EdtWatchdog;
+import com.texteditor.service.PerformanceMonitor;
+import com.texteditor.ui.MainWindow;
+import com.texteditor.ui.TabManager;
+import com.texteditor.ui.themes.ThemeManager;
+import com.texteditor.ui.themes.ThemeStyle;
+
+import javax.swing.*;
+import javax.swing.text.DefaultCaret;
+import javax.swing.text.Document;
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.InvocationTargetException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// View > Performance: a live readout of heap per tab, recent operation latencies, EDT delay, GC
+// pauses and cache hit rates, like the performance monitor in browser dev tools. the numbers are
+// gathered and formatted on a background thread once a second; the EDT only counts the tabs and
+// sets the finished text, and style runs are only counted again in documents that changed, so
+// the panel can stay open while working
+public class PerformanceDialog extends JDialog {
+
+    private static final long REFRESH_MS = 1000;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final MainWindow mainWindow;
+    private final PerformanceMonitor monitor = new PerformanceMonitor();
+    private final JTextArea reportArea = new JTextArea();
+    private ScheduledExecutorService refresher;
+
+    public PerformanceDialog(MainWindow mainWindow) {
+        super(mainWindow, "Performance", ModalityType.MODELESS);
+        this.mainWindow = mainWindow;
+
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        reportArea.setMargin(new Insets(8, 8, 8, 8));
+        ((DefaultCaret) reportArea.getCaret()).setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+        add(new JScrollPane(reportArea), BorderLayout.CENTER);
+
+        setSize(640, 560);
+        setDefaultCloseOperation(HIDE_ON_CLOSE); // goes through setVisible(false)
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        if (visible) {
+            applyCurrentTheme();
+            setLocationRelativeTo(getParent());
+            startRefreshing();
+        } else {
+            stopRefreshing();
+        }
+        super.setVisible(visible);
+    }
+
+    private void startRefreshing() {
+        if (refresher != null) {
+            return;
+        }
+        monitor.start();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "performance-panel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, REFRESH_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopRefreshing() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+            monitor.stop();
+        }
+    }
+
+    // runs on the refresher thread
+    private void refresh() {
+        try {
+            List<TabManager.TabMemory> tabs = new ArrayList<>();
+            List<Document> documents = new ArrayList<>();
+            SwingUtilities.invokeAndWait(() -> {
+                tabs.addAll(mainWindow.getTabManager().estimateMemory());
+                documents.addAll(mainWindow.getTabManager().getLoadedDocuments());
+            });
+            AttributePool.Usage attributes = AttributePool.shared().measure(documents);
+            String report = buildReport(tabs, attributes);
+            SwingUtilities.invokeLater(() -> reportArea.setText(report));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            System.err.println("Could not refresh performance panel: " + e.getCause());
+        }
+    }
+
+    private String buildReport(List<TabManager.TabMemory> tabs, AttributePool.Usage attributes) {
+        StringBuilder out = new StringBuilder();
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        out.append(String.format(Locale.ROOT, "Heap       %s used of %s committed, max %s%n",
+                bytes(heap.getUsed()), bytes(heap.getCommitted()), bytes(heap.getMax())));
+
+        // the EDT has no public queue size, so report how long a posted event waits instead
+        EdtWatchdog watchdog = mainWindow.getEdtWatchdog();
+        if (watchdog != null) {
+            out.append(String.format(Locale.ROOT,
+                    "EDT        %d ms queue delay, %d stalls (longest %d ms)%n",
+                    watchdog.getCurrentDelayMs(), watchdog.getStallCount(),
+                    watchdog.getLongestStallMs()));
+        }
+
+        out.append(String.format(Locale.ROOT, "%n%-32s %10s %10s %10s %10s%n",
+                "Tabs (estimated)", "document", "undo", "view", "total"));
+        long total = 0;
+        for (TabManager.TabMemory tab : tabs) {
+            out.append(String.format(Locale.ROOT, "  %-30s %10s %10s %10s %10s%n",
+                    shorten(tab.getTitle(), 30), bytes(tab.getDocumentBytes()),
+                    bytes(tab.getUndoBytes()), bytes(tab.getViewBytes()),
+                    bytes(tab.getTotalBytes())));
+            total += tab.getTotalBytes();
+        }
+        out.append(String.format(Locale.ROOT, "  %-30s %43s%n", "all tabs", bytes(total)));
+
+        // equal attribute sets are shared through AttributePool, duplicates should stay at 0
+        out.append(String.format(Locale.ROOT,
+                "%nStyle runs %d runs using %d attribute sets (%d duplicates), %d pooled%n",
+                attributes.getRuns(), attributes.getInstances(),
+                attributes.getInstances() - attributes.getValues(), attributes.getPooled()));
+
+        out.append(String.format("%nRecent operations%n"));
+        List<PerformanceMonitor.Sample> operations = monitor.getRecentOperations();
+        if (operations.isEmpty()) {
+            out.append("  none yet\n");
+        }
+        for (PerformanceMonitor.Sample sample : operations) {
+            out.append(String.format(Locale.ROOT, "  %s  %-14s %9.2f ms  %s%n",
+                    TIME.format(sample.getTime()), sample.getName(), sample.getMillis(),
+                    sample.getDetail()));
+        }
+
+        out.append(String.format("%nGarbage collection%n"));
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.append(String.format(Locale.ROOT, "  %-24s %6d collections %8d ms total%n",
+                    gc.getName(), gc.getCollectionCount(), gc.getCollectionTime()));
+        }
+        for (PerformanceMonitor.Sample pause : monitor.getRecentPauses()) {
+            out.append(String.format(Locale.ROOT, "  %s  %-24s %6.0f ms  %s%n",
+                    TIME.format(pause.getTime()), pause.getName(), pause.getMillis(),
+                    pause.getDetail()));
+        }
+
+        out.append(String.format("%nCaches%n"));
+        for (CacheStats cache : CacheStats.all()) {
+            double hitRate = cache.getHitRate();
+            out.append(String.format(Locale.ROOT, "  %-24s %s  (%d hits, %d misses)%n",
+                    cache.getName(),
+                    hitRate < 0 ? "   -  " : String.format(Locale.ROOT, "%5.1f%%", hitRate * 100),
+                    cache.getHits(), cache.getMisses()));
+        }
+        return out.toString();
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes < 0) {
+            return "-";
+        }
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        if (bytes < 1024L * 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+        }
+        return String.format(Locale.ROOT, "%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+    private static String shorten(String text, int length) {
+        return text.length() <= length ? text : text.substring(0, length - 1) + "…";
+    }
+
+    private void applyCurrentTheme() {
+        ThemeStyle style = ThemeManager.getInstance().getCurrentTheme().getStyle();
+        reportArea.setBackground(style.getTextBackground());
+        reportArea.setForeground(style.getTextForeground());
+        getContentPane().setBackground(style.getBackground());
+    }
+}
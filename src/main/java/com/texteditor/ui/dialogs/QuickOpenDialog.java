@@ -0,0 +1,110 @@
+package com.texteditor.ui.dialogs;
+
+import com.texteditor.controller.FileController;
+import com.texteditor.model.FuzzyMatcher;
+import com.texteditor.service.PathIndex;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// quick open (File > Go to File...), like the file search of an IDE: type a few letters of a
+// path and the best matches from the workspace's PathIndex are listed while typing. searches
+// run on a background thread, a search overtaken by newer typing is dropped before it starts,
+// and while the query only grows each search goes on from the previous results. the chosen
+// file opens in a tab
+public class QuickOpenDialog extends PaletteDialog {
+
+    private static final int LIMIT = 50;
+
+    private final FileController fileController;
+    private final ExecutorService searcher;
+    private final AtomicInteger generation = new AtomicInteger(); // the latest query
+    private PathIndex index; // null while the workspace is first indexed
+    private PathIndex.Matches shown; // results in the list, null when the query is empty
+
+    public QuickOpenDialog(Window owner, FileController fileController) {
+        super(owner, "Go to File");
+        this.fileController = fileController;
+        searcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quick-open-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        statusLabel.setText("Indexing…");
+    }
+
+    // the workspace index to search, called again whenever a fresher one has been built
+    public void setIndex(PathIndex index) {
+        if (isClosed()) {
+            return; // a rebuilt index arriving after the palette was closed
+        }
+        this.index = index; // the old results stay listed until the new index has been searched
+        queryChanged(queryField.getText());
+    }
+
+    @Override
+    public void dispose() {
+        searcher.shutdownNow();
+        super.dispose();
+    }
+
+    @Override
+    protected void queryChanged(String query) {
+        int current = generation.incrementAndGet();
+        if (index == null) {
+            return;
+        }
+        FuzzyMatcher matcher = new FuzzyMatcher(query);
+        if (matcher.isEmpty()) {
+            shown = null;
+            showRows(0);
+            statusLabel.setText(String.format("%,d files", index.size()));
+            return;
+        }
+        PathIndex searched = index;
+        PathIndex.Matches previous = shown;
+        searcher.execute(() -> {
+            if (generation.get() != current) {
+                return; // more has been typed since
+            }
+            long start = System.nanoTime();
+            PathIndex.Matches matches = searched.search(matcher, previous, LIMIT);
+            long micros = (System.nanoTime() - start) / 1000;
+            SwingUtilities.invokeLater(() -> {
+                if (generation.get() == current && searched == index) {
+                    show(matches, micros);
+                }
+            });
+        });
+    }
+
+    private void show(PathIndex.Matches matches, long micros) {
+        shown = matches;
+        showRows(matches.getBest().length);
+        statusLabel.setText(String.format("%,d of %,d · %.1f ms", matches.getCount(),
+                index.size(), micros / 1000.0));
+    }
+
+    @Override
+    protected void rowChosen(int row) {
+        fileController.openFile(shown.getIndex().getFile(shown.getBest()[row]));
+    }
+
+    // file name first and its folder after it, dimmed
+    @Override
+    protected void renderRow(int row, StringBuilder html) {
+        int path = shown.getBest()[row];
+        String text = shown.getIndex().getPath(path);
+        int[] positions = shown.getIndex().matchPositions(shown.getMatcher(), path);
+        int nameStart = text.lastIndexOf('/') + 1;
+        appendHighlighted(html, text, nameStart, text.length(), positions);
+        if (nameStart > 0) {
+            html.append("&nbsp;&nbsp;<font color='").append(getDimColor()).append("'>");
+            appendHighlighted(html, text, 0, nameStart - 1, positions);
+            html.append("</font>");
+        }
+    }
+}
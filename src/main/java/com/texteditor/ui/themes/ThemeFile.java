@@ -0,0 +1,143 @@
+package com.texteditor.ui.themes;
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+// a theme defined by a small text file instead of a class, like a CSS variables sheet. bundled
+// themes live in src/main/resources/themes and a file with the same name in ~/.tekst/themes
+// overrides one. the format is one "key = value" per line with # comments:
+//
+//     pixelated = false        (optional, defaults to true)
+//     background = #0D1117     (every colour key below is required)
+public class ThemeFile extends PixelatedTheme {
+
+    static final String EXTENSION = ".theme";
+
+    private static final String[] COLOR_KEYS = {"background", "foreground", "accent", "secondary",
+            "selection", "border", "menu.background", "menu.foreground", "button.background",
+            "button.foreground", "text.background", "text.foreground", "caret"};
+
+    private final String name;
+    private final boolean pixelated;
+    private final Map<String, Color> colors;
+
+    private ThemeFile(String name, boolean pixelated, Map<String, Color> colors) {
+        this.name = name;
+        this.pixelated = pixelated;
+        this.colors = colors;
+    }
+
+    // parse a theme file; source names the file in error messages
+    public static ThemeFile parse(String name, Reader reader, String source) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.indexOf('=');
+            if (separator < 0) {
+                throw new IOException(source + ":" + lineNumber + ": expected key = value");
+            }
+            values.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+        }
+
+        Map<String, Color> colors = new HashMap<>();
+        for (String key : COLOR_KEYS) {
+            String value = values.get(key);
+            if (value == null) {
+                throw new IOException(source + ": missing colour '" + key + "'");
+            }
+            try {
+                colors.put(key, Color.decode(value));
+            } catch (NumberFormatException e) {
+                throw new IOException(source + ": '" + value + "' is not a colour for " + key);
+            }
+        }
+        boolean pixelated = !"false".equalsIgnoreCase(values.get("pixelated"));
+        return new ThemeFile(name, pixelated, colors);
+    }
+
+    @Override
+    public String getThemeName() {
+        return name;
+    }
+
+    @Override
+    public boolean isPixelated() {
+        return pixelated;
+    }
+
+    @Override
+    public Color getBackgroundColor() {
+        return colors.get("background");
+    }
+
+    @Override
+    public Color getForegroundColor() {
+        return colors.get("foreground");
+    }
+
+    @Override
+    public Color getAccentColor() {
+        return colors.get("accent");
+    }
+
+    @Override
+    public Color getSecondaryColor() {
+        return colors.get("secondary");
+    }
+
+    @Override
+    public Color getSelectionColor() {
+        return colors.get("selection");
+    }
+
+    @Override
+    public Color getBorderColor() {
+        return colors.get("border");
+    }
+
+    @Override
+    public Color getMenuBackgroundColor() {
+        return colors.get("menu.background");
+    }
+
+    @Override
+    public Color getMenuForegroundColor() {
+        return colors.get("menu.foreground");
+    }
+
+    @Override
+    public Color getButtonBackgroundColor() {
+        return colors.get("button.background");
+    }
+
+    @Override
+    public Color getButtonForegroundColor() {
+        return colors.get("button.foreground");
+    }
+
+    @Override
+    public Color getTextAreaBackgroundColor() {
+        return colors.get("text.background");
+    }
+
+    @Override
+    public Color getTextAreaForegroundColor() {
+        return colors.get("text.foreground");
+    }
+
+    @Override
+    public Color getCaretColor() {
+        return colors.get("caret");
+    }
+}
@@ -1,24 +1,58 @@
 package com.texteditor.ui.themes;
 
+import com.texteditor.service.AppPaths;
+import com.texteditor.service.CacheStats;
+import com.texteditor.service.EditorEvents;
 import com.texteditor.ui.MainWindow;
 import javax.swing.*;
-import java.awt.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 // manages pixelated themes for the text editor
 public class ThemeManager {
 
+    private static final String BUNDLED_THEMES = "/themes/";
+
     private static ThemeManager instance;
     private PixelatedTheme currentTheme;
-    private List<PixelatedTheme> availableThemes;
+    private int currentThemeIndex;
+    private final List<String> themeIds; // theme file names without .theme
+    private final List<String> themeNames;
+    private final List<PixelatedTheme> loadedThemes; // null until a theme is first used
+    private final Set<String> bundledIds = new HashSet<>();
+    private final Set<String> deletedIds = new HashSet<>(); // user-only themes whose file is gone
+    private final Path userThemeDir = AppPaths.resolve("themes");
+    private Thread themeWatcher;
     private MainWindow mainWindow;
+    private final CacheStats themeCacheStats = CacheStats.register("Themes");
+    private final Set<Themeable> themedComponents =
+            Collections.newSetFromMap(new WeakHashMap<>());
 
     private ThemeManager() {
-        availableThemes = new ArrayList<>();
+        themeIds = new ArrayList<>();
+        themeNames = new ArrayList<>();
+        loadedThemes = new ArrayList<>();
         initializeThemes();
         // Start with Normal theme as default (index 0)
-        currentTheme = availableThemes.get(0);
+        currentThemeIndex = 0;
+        currentTheme = getTheme(0);
     }
 
     public static ThemeManager getInstance() {
@@ -28,328 +62,306 @@ public class ThemeManager {
         return instance;
     }
 
-    // Initialize all available themes
+    // Register all available themes from the bundled index plus any extra files in
+    // ~/.tekst/themes. only names are read here; a theme file is parsed the first time the theme
+    // is used, so startup pays for the default theme alone and adding themes costs nothing
 
     private void initializeThemes() {
-        availableThemes.add(new NormalTheme()); // Default normal theme
-        availableThemes.add(new DarkRetroTheme()); // Dark pixelated retro theme
-        availableThemes.add(new NeonSynthwaveTheme()); // Neon synthwave theme
-        availableThemes.add(new ForestPixelTheme()); // Forest pixel theme
-        availableThemes.add(new OceanWaveTheme()); // Ocean wave theme
-        availableThemes.add(new SunsetArcadeTheme()); // Sunset arcade theme
-        availableThemes.add(new MatrixHackerTheme()); // Matrix hacker theme
-    }
-
-    // Set the main window reference for theme application
+        try (BufferedReader index = openResource(BUNDLED_THEMES + "themes.index")) {
+            String line;
+            while ((line = index.readLine()) != null) {
+                line = line.trim();
+                int separator = line.indexOf('=');
+                if (!line.isEmpty() && !line.startsWith("#") && separator > 0) {
+                    String id = line.substring(0, separator).trim();
+                    bundledIds.add(id);
+                    registerTheme(id, line.substring(separator + 1).trim());
+                }
+            }
+        } catch (IOException e) {
+            // the index ships inside the jar, without it there is no theme at all
+            throw new IllegalStateException("Could not read the theme index", e);
+        }
 
-    public void setMainWindow(MainWindow mainWindow) {
-        this.mainWindow = mainWindow;
+        // user themes that don't override a bundled one show up under their file name
+        if (Files.isDirectory(userThemeDir)) {
+            try (DirectoryStream<Path> files =
+                    Files.newDirectoryStream(userThemeDir, "*" + ThemeFile.EXTENSION)) {
+                for (Path file : files) {
+                    String id = themeId(file);
+                    if (!themeIds.contains(id)) {
+                        registerTheme(id, id);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Could not list user themes: " + e.getMessage());
+            }
+        }
     }
 
-    // Get current active theme
-
-    public PixelatedTheme getCurrentTheme() {
-        return currentTheme;
+    private void registerTheme(String id, String name) {
+        themeIds.add(id);
+        themeNames.add(name);
+        loadedThemes.add(null);
     }
 
-    // Get all available themes
+    // Get a theme by index, parsing its file on first use
 
-    public List<PixelatedTheme> getAvailableThemes() {
-        return new ArrayList<>(availableThemes);
+    private PixelatedTheme getTheme(int themeIndex) {
+        PixelatedTheme theme = loadedThemes.get(themeIndex);
+        if (theme == null) {
+            themeCacheStats.miss();
+            theme = loadTheme(themeIndex);
+            loadedThemes.set(themeIndex, theme);
+        } else {
+            themeCacheStats.hit();
+        }
+        return theme;
     }
 
-    // Switch to a specific theme by name
-
-    public void switchTheme(String themeName) {
-        for (PixelatedTheme theme : availableThemes) {
-            if (theme.getThemeName().equals(themeName)) {
-                currentTheme = theme;
-                applyCurrentTheme();
-                break;
+    // the user's copy wins over the bundled one; a broken file falls back to the bundled theme,
+    // or to the default theme when there is nothing usable bundled under that name
+
+    private PixelatedTheme loadTheme(int themeIndex) {
+        String id = themeIds.get(themeIndex);
+        String name = themeNames.get(themeIndex);
+        Path userFile = userThemeDir.resolve(id + ThemeFile.EXTENSION);
+        if (Files.isRegularFile(userFile)) {
+            try (BufferedReader reader =
+                    Files.newBufferedReader(userFile, StandardCharsets.UTF_8)) {
+                return ThemeFile.parse(name, reader, userFile.toString());
+            } catch (IOException e) {
+                System.err.println("Could not load theme, using the bundled one: "
+                        + e.getMessage());
+            }
+        }
+        String resource = BUNDLED_THEMES + id + ThemeFile.EXTENSION;
+        try (BufferedReader reader = openResource(resource)) {
+            return ThemeFile.parse(name, reader, resource);
+        } catch (IOException e) {
+            if (themeIndex == 0) {
+                throw new IllegalStateException("Could not load the default theme", e);
             }
+            System.err.println("Could not load theme: " + e.getMessage());
+            return getTheme(0);
         }
     }
 
-    // Switch to a specific theme by index
-
-    public void switchTheme(int themeIndex) {
-        if (themeIndex >= 0 && themeIndex < availableThemes.size()) {
-            currentTheme = availableThemes.get(themeIndex);
-            applyCurrentTheme();
+    private static BufferedReader openResource(String resource) throws IOException {
+        InputStream in = ThemeManager.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException(resource + " not found");
         }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
     }
 
-    // Apply the current theme to all UI components
+    private static String themeId(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.length() - ThemeFile.EXTENSION.length());
+    }
 
-    public void applyCurrentTheme() {
-        if (mainWindow == null || currentTheme == null) {
+    // Watch ~/.tekst/themes and re-apply a theme when its file is saved, so themes can be edited
+    // live. deleting a file drops the theme from the menu (or falls back to the bundled copy).
+    // nothing is watched when the folder doesn't exist; new files are listed next start
+
+    private void startWatchingUserThemes() {
+        if (themeWatcher != null || !Files.isDirectory(userThemeDir)) {
             return;
         }
+        try {
+            WatchService watchService = userThemeDir.getFileSystem().newWatchService();
+            userThemeDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            themeWatcher = new Thread(() -> watchUserThemes(watchService), "theme-watcher");
+            themeWatcher.setDaemon(true);
+            themeWatcher.start();
+        } catch (IOException e) {
+            System.err.println("Theme hot reload unavailable: " + e.getMessage());
+        }
+    }
 
-        SwingUtilities.invokeLater(() -> {
-            try {
-                // Apply to main window
-                applyThemeToMainWindow();
-
-                // Refresh the UI
-                mainWindow.revalidate();
-                mainWindow.repaint();
-
-                System.out.println("Applied theme: " + currentTheme.getThemeName());
-            } catch (Exception e) {
-                System.err.println("Error applying theme: " + e.getMessage());
-                e.printStackTrace();
+    private void watchUserThemes(WatchService watchService) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<String> changed = new HashSet<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path
+                            && context.toString().endsWith(ThemeFile.EXTENSION)) {
+                        changed.add(themeId((Path) context));
+                    }
+                }
+                key.reset();
+                if (!changed.isEmpty()) {
+                    SwingUtilities.invokeLater(() -> reloadThemes(changed));
+                }
             }
-        });
+        } catch (InterruptedException e) {
+            // shutting down
+        }
     }
 
-    // Apply theme to main window and all its components
-
-    private void applyThemeToMainWindow() {
-        // Force override FlatLaf defaults by setting UIManager properties
-        setUIManagerDefaults();
-
-        // Set main window background
-        mainWindow.getContentPane().setBackground(currentTheme.getBackgroundColor());
+    // drop the cached copies of changed themes; the active one is parsed and applied again.
+    // whether a file was deleted is decided by looking at it now, since editors that save by
+    // replacing the file send a delete and a create for one save
 
-        // Apply to menu bar
-        JMenuBar menuBar = mainWindow.getJMenuBar();
-        if (menuBar != null) {
-            currentTheme.applyToMenuBar(menuBar);
-        }
-
-        // Apply to text area
-        JTextArea textArea = getTextAreaFromMainWindow();
-        if (textArea != null) {
-            currentTheme.applyToTextArea(textArea);
-            // Force the text area to use our colors
-            forceTextAreaColors(textArea);
+    private void reloadThemes(Set<String> changedIds) {
+        for (String id : changedIds) {
+            int themeIndex = themeIds.indexOf(id);
+            if (themeIndex < 0) {
+                continue;
+            }
+            loadedThemes.set(themeIndex, null);
+            boolean available = bundledIds.contains(id)
+                    || Files.isRegularFile(userThemeDir.resolve(id + ThemeFile.EXTENSION));
+            boolean wasAvailable = !deletedIds.contains(id);
+            if (available) {
+                deletedIds.remove(id);
+            } else {
+                deletedIds.add(id);
+            }
+            if (available != wasAvailable && mainWindow != null) {
+                mainWindow.setThemeAvailable(themeIndex, available);
+            }
+            if (themeIndex == currentThemeIndex && available) {
+                currentTheme = getTheme(themeIndex);
+                applyCurrentTheme();
+            }
         }
+    }
 
-        // Apply to toolbar
-        applyThemeToToolbar();
-
-        // Apply to status bar
-        applyThemeToStatusBar();
-
-        // Apply to scroll pane
-        applyThemeToScrollPane();
+    // false for a user theme whose file was deleted while the editor runs
 
-        // Force repaint of all components
-        forceRepaintAll();
+    public boolean isThemeAvailable(int themeIndex) {
+        return !deletedIds.contains(themeIds.get(themeIndex));
     }
 
-    // Set UIManager defaults to override FlatLaf
+    // Set the main window reference for theme application
 
-    private void setUIManagerDefaults() {
-        UIManager.put("TextArea.background", currentTheme.getTextAreaBackgroundColor());
-        UIManager.put("TextArea.foreground", currentTheme.getTextAreaForegroundColor());
-        UIManager.put("TextArea.caretForeground", currentTheme.getCaretColor());
-        UIManager.put("TextArea.selectionBackground", currentTheme.getSelectionColor());
-        UIManager.put("TextArea.selectionForeground", currentTheme.getBackgroundColor());
+    public void setMainWindow(MainWindow mainWindow) {
+        this.mainWindow = mainWindow;
+        startWatchingUserThemes();
+    }
 
-        UIManager.put("MenuBar.background", currentTheme.getMenuBackgroundColor());
-        UIManager.put("MenuBar.foreground", currentTheme.getMenuForegroundColor());
-        UIManager.put("Menu.background", currentTheme.getMenuBackgroundColor());
-        UIManager.put("Menu.foreground", currentTheme.getMenuForegroundColor());
-        UIManager.put("MenuItem.background", currentTheme.getMenuBackgroundColor());
-        UIManager.put("MenuItem.foreground", currentTheme.getMenuForegroundColor());
+    // Get current active theme
 
-        UIManager.put("Button.background", currentTheme.getButtonBackgroundColor());
-        UIManager.put("Button.foreground", currentTheme.getButtonForegroundColor());
+    public PixelatedTheme getCurrentTheme() {
+        return currentTheme;
+    }
 
-        UIManager.put("Panel.background", currentTheme.getBackgroundColor());
-        UIManager.put("Panel.foreground", currentTheme.getForegroundColor());
+    // Get the index of the current theme in getThemeNames()
 
-        UIManager.put("Label.foreground", currentTheme.getForegroundColor());
+    public int getCurrentThemeIndex() {
+        return currentThemeIndex;
     }
 
-    // Force text area colors to override FlatLaf
-
-    private void forceTextAreaColors(JTextArea textArea) {
-        // Apply colors multiple times to ensure they stick
-        textArea.setBackground(currentTheme.getTextAreaBackgroundColor());
-        textArea.setForeground(currentTheme.getTextAreaForegroundColor());
-        textArea.setCaretColor(currentTheme.getCaretColor());
-        textArea.setSelectionColor(currentTheme.getSelectionColor());
-        textArea.setSelectedTextColor(currentTheme.getBackgroundColor());
+    // Get the display names of all themes without loading them (for menus)
 
-        // Use appropriate font based on theme
-        if (currentTheme.getThemeName().equals("Normal (Default)")) {
-            textArea.setFont(new Font("Consolas", Font.PLAIN, 14));
-        } else {
-            textArea.setFont(PixelatedTheme.PIXELATED_FONT_MEDIUM);
-        }
+    public List<String> getThemeNames() {
+        return new ArrayList<>(themeNames);
+    }
 
-        // Force the document to update colors
-        textArea.setOpaque(true);
-        textArea.revalidate();
-        textArea.repaint();
+    // Get all available themes (loads every theme, prefer getThemeNames() for listings)
 
-        // Apply to the document as well
-        if (textArea.getDocument() != null) {
-            textArea.getDocument().putProperty("foreground",
-                    currentTheme.getTextAreaForegroundColor());
+    public List<PixelatedTheme> getAvailableThemes() {
+        List<PixelatedTheme> themes = new ArrayList<>();
+        for (int i = 0; i < themeNames.size(); i++) {
+            themes.add(getTheme(i));
         }
+        return themes;
     }
 
-    // Force repaint of all components
-
-    private void forceRepaintAll() {
-        SwingUtilities.invokeLater(() -> {
-            mainWindow.invalidate();
-            mainWindow.validate();
-            mainWindow.repaint();
+    // Switch to a specific theme by name
 
-            // Force update of all child components
-            updateComponentTreeUI(mainWindow);
-        });
+    public void switchTheme(String themeName) {
+        int themeIndex = themeNames.indexOf(themeName);
+        if (themeIndex >= 0) {
+            switchTheme(themeIndex);
+        }
     }
 
-    // Recursively update component tree UI
+    // Switch to a specific theme by index
 
-    private void updateComponentTreeUI(Container container) {
-        for (Component component : container.getComponents()) {
-            if (component instanceof JComponent) {
-                JComponent jcomp = (JComponent) component;
-                SwingUtilities.updateComponentTreeUI(jcomp);
-                jcomp.revalidate();
-                jcomp.repaint();
-            }
-            if (component instanceof Container) {
-                updateComponentTreeUI((Container) component);
-            }
+    public void switchTheme(int themeIndex) {
+        if (themeIndex >= 0 && themeIndex < themeNames.size() && isThemeAvailable(themeIndex)) {
+            currentThemeIndex = themeIndex;
+            currentTheme = getTheme(themeIndex);
+            applyCurrentTheme();
         }
     }
 
-    // Get text area from main window
+    // Register a component to be restyled on every theme switch. held weakly, so a closed dialog
+    // or tab does not have to unregister
 
-    private JTextArea getTextAreaFromMainWindow() {
-        return findTextAreaInContainer(mainWindow);
+    public void register(Themeable component) {
+        themedComponents.add(component);
     }
 
-    // Recursively find JTextArea in container
-
-    private JTextArea findTextAreaInContainer(Container container) {
-        for (Component component : container.getComponents()) {
-            if (component instanceof JTextArea) {
-                return (JTextArea) component;
-            } else if (component instanceof Container) {
-                JTextArea found = findTextAreaInContainer((Container) component);
-                if (found != null) {
-                    return found;
-                }
-            }
-        }
-        return null;
+    public void unregister(Themeable component) {
+        themedComponents.remove(component);
     }
 
-    // Apply theme to toolbar components
-
-    private void applyThemeToToolbar() {
-        JToolBar toolBar = findToolBarInContainer(mainWindow);
-        if (toolBar != null) {
-            toolBar.setBackground(currentTheme.getMenuBackgroundColor());
-            toolBar.setBorder(BorderFactory.createLineBorder(currentTheme.getBorderColor(), 2));
+    // Apply the current theme to all registered components: one pass over the registry, each
+    // component restyles exactly what it owns and the window is repainted once at the end
 
-            // Apply to all buttons in toolbar
-            for (Component component : toolBar.getComponents()) {
-                if (component instanceof AbstractButton) {
-                    currentTheme.applyToButton((AbstractButton) component);
-                }
-            }
+    public void applyCurrentTheme() {
+        if (mainWindow == null || currentTheme == null) {
+            return;
         }
-    }
 
-    // Apply theme to status bar
-
-    private void applyThemeToStatusBar() {
-        JPanel statusBar = findStatusBarInContainer(mainWindow);
-        if (statusBar != null) {
-            statusBar.setBackground(currentTheme.getMenuBackgroundColor());
-            statusBar.setBorder(BorderFactory.createLineBorder(currentTheme.getBorderColor(), 1));
+        SwingUtilities.invokeLater(() -> {
+            EditorEvents.ThemeSwitch event = new EditorEvents.ThemeSwitch();
+            event.begin();
+            try {
+                ThemeStyle style = currentTheme.getStyle();
 
-            // Apply to all labels in status bar
-            applyThemeToLabelsInContainer(statusBar);
-        }
-    }
+                // Defaults for components created later (dialogs, new menus)
+                setUIManagerDefaults(style);
 
-    // Apply theme to scroll pane
+                mainWindow.getContentPane().setBackground(style.getBackground());
+                for (Themeable component : new ArrayList<>(themedComponents)) {
+                    component.applyTheme(style);
+                }
 
-    private void applyThemeToScrollPane() {
-        JScrollPane scrollPane = findScrollPaneInContainer(mainWindow);
-        if (scrollPane != null) {
-            scrollPane.setBackground(currentTheme.getBackgroundColor());
-            scrollPane.getViewport().setBackground(currentTheme.getTextAreaBackgroundColor());
-            scrollPane.setBorder(BorderFactory.createLineBorder(currentTheme.getBorderColor(), 2));
-        }
-    }
+                // Refresh the UI
+                mainWindow.revalidate();
+                mainWindow.repaint();
 
-    // Helper method to find toolbar
+                event.theme = currentTheme.getThemeName();
+                event.tabs = mainWindow.getTabManager().getTabCount();
+                event.commit();
 
-    private JToolBar findToolBarInContainer(Container container) {
-        for (Component component : container.getComponents()) {
-            if (component instanceof JToolBar) {
-                return (JToolBar) component;
-            } else if (component instanceof Container) {
-                JToolBar found = findToolBarInContainer((Container) component);
-                if (found != null) {
-                    return found;
-                }
+                System.out.println("Applied theme: " + currentTheme.getThemeName());
+            } catch (Exception e) {
+                System.err.println("Error applying theme: " + e.getMessage());
+                e.printStackTrace();
             }
-        }
-        return null;
+        });
     }
 
-    // Helper method to find status bar
-
-    private JPanel findStatusBarInContainer(Container container) {
-        for (Component component : container.getComponents()) {
-            if (component instanceof JPanel && component.getName() != null
-                    && component.getName().toLowerCase().contains("status")) {
-                return (JPanel) component;
-            } else if (component instanceof Container) {
-                JPanel found = findStatusBarInContainer((Container) component);
-                if (found != null) {
-                    return found;
-                }
-            }
-        }
-        return null;
-    }
+    // Set UIManager defaults to override FlatLaf
 
-    // Helper method to find scroll pane
+    private void setUIManagerDefaults(ThemeStyle style) {
+        UIManager.put("TextArea.background", style.getTextBackground());
+        UIManager.put("TextArea.foreground", style.getTextForeground());
+        UIManager.put("TextArea.caretForeground", style.getCaret());
+        UIManager.put("TextArea.selectionBackground", style.getSelection());
+        UIManager.put("TextArea.selectionForeground", style.getBackground());
 
-    private JScrollPane findScrollPaneInContainer(Container container) {
-        for (Component component : container.getComponents()) {
-            if (component instanceof JScrollPane) {
-                return (JScrollPane) component;
-            } else if (component instanceof Container) {
-                JScrollPane found = findScrollPaneInContainer((Container) component);
-                if (found != null) {
-                    return found;
-                }
-            }
-        }
-        return null;
-    }
+        UIManager.put("MenuBar.background", style.getMenuBackground());
+        UIManager.put("MenuBar.foreground", style.getMenuForeground());
+        UIManager.put("Menu.background", style.getMenuBackground());
+        UIManager.put("Menu.foreground", style.getMenuForeground());
+        UIManager.put("MenuItem.background", style.getMenuBackground());
+        UIManager.put("MenuItem.foreground", style.getMenuForeground());
 
-    // Apply theme to all labels in a container
+        UIManager.put("Button.background", style.getButtonBackground());
+        UIManager.put("Button.foreground", style.getButtonForeground());
 
-    private void applyThemeToLabelsInContainer(Container container) {
-        for (Component component : container.getComponents()) {
-            if (component instanceof JLabel) {
-                JLabel label = (JLabel) component;
-                label.setForeground(currentTheme.getMenuForegroundColor());
+        UIManager.put("Panel.background", style.getBackground());
+        UIManager.put("Panel.foreground", style.getForeground());
 
-                if (currentTheme.getThemeName().equals("Normal (Default)")) {
-                    label.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-                } else {
-                    label.setFont(PixelatedTheme.PIXELATED_FONT_SMALL);
-                }
-            } else if (component instanceof Container) {
-                applyThemeToLabelsInContainer((Container) component);
-            }
-        }
+        UIManager.put("Label.foreground", style.getForeground());
     }
 }
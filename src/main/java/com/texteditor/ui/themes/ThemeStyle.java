@@ -0,0 +1,330 @@
+package com.texteditor.ui.themes;
+
+import javax.swing.AbstractButton;
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.JTextPane;
+import javax.swing.UIManager;
+import javax.swing.border.Border;
+import java.awt.Color;
+import java.awt.Font;
+
+// a theme compiled into its final values, like a CSS stylesheet after the cascade is resolved.
+// built once per theme (see PixelatedTheme.getStyle) and immutable afterwards, so restyling a
+// component only copies shared fonts, colours and borders instead of allocating new ones or
+// checking which theme is active. borders are stateless in Swing and safe to share
+public final class ThemeStyle {
+
+    // fonts of the normal theme, the pixelated themes use PixelatedTheme.PIXELATED_FONT_*
+    private static final Font NORMAL_TEXT_FONT = new Font("Consolas", Font.PLAIN, 14);
+    private static final Font NORMAL_COMPONENT_FONT = new Font("Segoe UI", Font.PLAIN, 12);
+    private static final Font NORMAL_SMALL_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+
+    private final String themeName;
+    private final boolean pixelated;
+
+    // colours
+    private final Color background;
+    private final Color foreground;
+    private final Color accent;
+    private final Color selection;
+    private final Color border;
+    private final Color menuBackground;
+    private final Color menuForeground;
+    private final Color buttonBackground;
+    private final Color buttonForeground;
+    private final Color textBackground;
+    private final Color textForeground;
+    private final Color caret;
+
+    // fonts
+    private final Font textFont; // document text
+    private final Font componentFont; // input fields and generic components
+    private final Font menuFont;
+    private final Font smallFont; // menu items, buttons, labels, check boxes
+
+    // borders, null means "keep the look and feel's own border"
+    private final Border componentBorder;
+    private final Border textAreaBorder;
+    private final Border fieldBorder;
+    private final Border buttonBorder;
+    private final Border thinBorder; // 1px, combo boxes and colour swatches
+    private final Border panelBorder; // 2px, menu bar, toolbar, popups, scroll panes
+    private final Border statusBarBorder;
+    private final Border frameBorder; // accent frame around dialogs
+    private final Border messageBorder; // padded frame around message dialog text
+
+    ThemeStyle(PixelatedTheme theme) {
+        themeName = theme.getThemeName();
+        pixelated = theme.isPixelated();
+
+        background = theme.getBackgroundColor();
+        foreground = theme.getForegroundColor();
+        accent = theme.getAccentColor();
+        selection = theme.getSelectionColor();
+        border = theme.getBorderColor();
+        menuBackground = theme.getMenuBackgroundColor();
+        menuForeground = theme.getMenuForegroundColor();
+        buttonBackground = theme.getButtonBackgroundColor();
+        buttonForeground = theme.getButtonForegroundColor();
+        textBackground = theme.getTextAreaBackgroundColor();
+        textForeground = theme.getTextAreaForegroundColor();
+        caret = theme.getCaretColor();
+
+        menuFont = PixelatedTheme.PIXELATED_FONT_MEDIUM;
+        thinBorder = BorderFactory.createLineBorder(border, 1);
+        panelBorder = BorderFactory.createLineBorder(border, 2);
+        statusBarBorder = thinBorder;
+        messageBorder = BorderFactory.createCompoundBorder(panelBorder,
+                BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        frameBorder = BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(accent, 3), thinBorder);
+
+        if (pixelated) {
+            textFont = PixelatedTheme.PIXELATED_FONT_MEDIUM;
+            componentFont = PixelatedTheme.PIXELATED_FONT_MEDIUM;
+            smallFont = PixelatedTheme.PIXELATED_FONT_SMALL;
+
+            componentBorder = BorderFactory.createCompoundBorder(panelBorder,
+                    BorderFactory.createEmptyBorder(4, 4, 4, 4));
+            textAreaBorder = BorderFactory.createCompoundBorder(
+                    BorderFactory.createLineBorder(border, 3),
+                    BorderFactory.createEmptyBorder(8, 8, 8, 8));
+            fieldBorder = panelBorder;
+            buttonBorder = BorderFactory.createCompoundBorder(panelBorder,
+                    BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        } else {
+            textFont = NORMAL_TEXT_FONT;
+            componentFont = NORMAL_COMPONENT_FONT;
+            smallFont = NORMAL_SMALL_FONT;
+
+            componentBorder = null;
+            textAreaBorder = BorderFactory.createCompoundBorder(thinBorder,
+                    BorderFactory.createEmptyBorder(4, 4, 4, 4));
+            fieldBorder = UIManager.getBorder("TextField.border");
+            buttonBorder = UIManager.getBorder("Button.border");
+        }
+    }
+
+    public String getThemeName() {
+        return themeName;
+    }
+
+    // false for the normal theme, which keeps the look and feel's fonts and borders
+    public boolean isPixelated() {
+        return pixelated;
+    }
+
+    public Color getBackground() {
+        return background;
+    }
+
+    public Color getForeground() {
+        return foreground;
+    }
+
+    public Color getAccent() {
+        return accent;
+    }
+
+    public Color getSelection() {
+        return selection;
+    }
+
+    public Color getBorderColor() {
+        return border;
+    }
+
+    public Color getMenuBackground() {
+        return menuBackground;
+    }
+
+    public Color getMenuForeground() {
+        return menuForeground;
+    }
+
+    public Color getButtonBackground() {
+        return buttonBackground;
+    }
+
+    public Color getButtonForeground() {
+        return buttonForeground;
+    }
+
+    public Color getTextBackground() {
+        return textBackground;
+    }
+
+    public Color getTextForeground() {
+        return textForeground;
+    }
+
+    public Color getCaret() {
+        return caret;
+    }
+
+    public Font getTextFont() {
+        return textFont;
+    }
+
+    public Font getComponentFont() {
+        return componentFont;
+    }
+
+    public Font getMenuFont() {
+        return menuFont;
+    }
+
+    public Font getSmallFont() {
+        return smallFont;
+    }
+
+    public Border getComponentBorder() {
+        return componentBorder;
+    }
+
+    public Border getTextAreaBorder() {
+        return textAreaBorder;
+    }
+
+    public Border getFieldBorder() {
+        return fieldBorder;
+    }
+
+    public Border getButtonBorder() {
+        return buttonBorder;
+    }
+
+    public Border getThinBorder() {
+        return thinBorder;
+    }
+
+    public Border getPanelBorder() {
+        return panelBorder;
+    }
+
+    public Border getStatusBarBorder() {
+        return statusBarBorder;
+    }
+
+    public Border getFrameBorder() {
+        return frameBorder;
+    }
+
+    public Border getMessageBorder() {
+        return messageBorder;
+    }
+
+    // Apply this style to a component
+
+    public void applyToComponent(JComponent component) {
+        component.setBackground(background);
+        component.setForeground(foreground);
+        component.setFont(componentFont);
+        if (componentBorder != null) {
+            component.setBorder(componentBorder);
+        }
+    }
+
+    // Apply style to text area specifically
+
+    public void applyToTextArea(JTextArea textArea) {
+        textArea.setBackground(textBackground);
+        textArea.setForeground(textForeground);
+        textArea.setCaretColor(caret);
+        textArea.setSelectionColor(selection);
+        textArea.setSelectedTextColor(background);
+        textArea.setFont(textFont);
+        textArea.setBorder(textAreaBorder);
+
+        // Make sure the component is opaque so background shows
+        textArea.setOpaque(true);
+        textArea.repaint();
+    }
+
+    // Apply style to text pane (rich text component)
+
+    public void applyToTextPane(JTextPane textPane) {
+        textPane.setBackground(textBackground);
+        textPane.setForeground(textForeground);
+        textPane.setCaretColor(caret);
+        textPane.setSelectionColor(selection);
+        textPane.setSelectedTextColor(background);
+        textPane.setFont(textFont);
+        textPane.setOpaque(true);
+        textPane.repaint();
+    }
+
+    // Apply style to a text field (dialog inputs)
+
+    public void applyToTextField(JTextField field) {
+        field.setBackground(textBackground);
+        field.setForeground(textForeground);
+        field.setCaretColor(caret);
+        field.setSelectionColor(selection);
+        field.setSelectedTextColor(background);
+        field.setFont(componentFont);
+        field.setBorder(fieldBorder);
+    }
+
+    // Apply style to menu bar and all of its menus
+
+    public void applyToMenuBar(JMenuBar menuBar) {
+        menuBar.setBackground(menuBackground);
+        menuBar.setForeground(menuForeground);
+        menuBar.setBorder(panelBorder);
+        menuBar.setOpaque(true);
+
+        for (int i = 0; i < menuBar.getMenuCount(); i++) {
+            applyToMenu(menuBar.getMenu(i));
+        }
+        menuBar.repaint();
+    }
+
+    // Apply style to individual menu
+
+    public void applyToMenu(JMenu menu) {
+        menu.setBackground(menuBackground);
+        menu.setForeground(menuForeground);
+        menu.setFont(menuFont);
+        menu.setOpaque(true);
+
+        for (int i = 0; i < menu.getItemCount(); i++) {
+            JMenuItem item = menu.getItem(i); // null for separators
+            if (item != null) {
+                item.setBackground(menuBackground);
+                item.setForeground(menuForeground);
+                item.setFont(smallFont);
+                item.setOpaque(true);
+            }
+        }
+
+        // Force menu popup colors
+        menu.getPopupMenu().setBackground(menuBackground);
+        menu.getPopupMenu().setForeground(menuForeground);
+        menu.getPopupMenu().setOpaque(true);
+    }
+
+    // Apply style to buttons
+
+    public void applyToButton(AbstractButton button) {
+        button.setBackground(buttonBackground);
+        button.setForeground(buttonForeground);
+        button.setFont(smallFont);
+        button.setFocusPainted(!pixelated);
+        button.setBorder(buttonBorder);
+    }
+
+    // Apply style to a small label (status bar, popups, dialogs)
+
+    public void applyToLabel(JLabel label, Color color) {
+        label.setForeground(color);
+        label.setFont(smallFont);
+    }
+}
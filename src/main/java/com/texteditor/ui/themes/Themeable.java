@@ -0,0 +1,11 @@
+package com.texteditor.ui.themes;
+
+// a component that styles itself from the current theme. ThemeManager keeps a registry of these
+// (like components subscribed to a theme context in React) and hands each one the precomputed
+// style sheet once per switch, instead of searching the whole component tree and re-installing
+// look-and-feel delegates
+public interface Themeable {
+
+    // restyle with the given style sheet; called on the EDT
+    void applyTheme(ThemeStyle style);
+}
@@ -101,9 +101,7 @@ public class ThemedDialogs {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(theme.getBackgroundColor());
         panel.setForeground(theme.getForegroundColor());
-        panel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(theme.getBorderColor(), 2),
-                BorderFactory.createEmptyBorder(10, 10, 10, 10)));
+        panel.setBorder(theme.getStyle().getMessageBorder());
         panel.add(label, BorderLayout.CENTER);
 
         return panel;
@@ -128,10 +126,7 @@ public class ThemedDialogs {
         dialog.setBackground(theme.getBackgroundColor());
 
         // Apply pixelated border
-        dialog.getRootPane()
-                .setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(theme.getAccentColor(), 3),
-                        BorderFactory.createLineBorder(theme.getBorderColor(), 1)));
+        dialog.getRootPane().setBorder(theme.getStyle().getFrameBorder());
 
         // Apply theme to all components in the dialog
         applyThemeToContainer(dialog.getContentPane(), theme);
@@ -142,7 +137,7 @@ public class ThemedDialogs {
     private static void applyThemeToContainer(Container container, PixelatedTheme theme) {
         for (Component component : container.getComponents()) {
             if (component instanceof JButton) {
-                theme.applyToButton((JButton) component);
+                theme.getStyle().applyToButton((JButton) component);
             } else if (component instanceof JLabel) {
                 JLabel label = (JLabel) component;
                 label.setForeground(theme.getForegroundColor());
@@ -209,7 +204,7 @@ public class ThemedDialogs {
 
         // Close button
         JButton closeButton = new JButton("🚀 Awesome!");
-        theme.applyToButton(closeButton);
+        theme.getStyle().applyToButton(closeButton);
         closeButton.addActionListener(e -> dialog.dispose());
 
         JPanel buttonPanel = new JPanel();
@@ -275,7 +270,7 @@ public class ThemedDialogs {
 
         // Close button
         JButton closeButton = new JButton("✨ Got it!");
-        theme.applyToButton(closeButton);
+        theme.getStyle().applyToButton(closeButton);
         closeButton.addActionListener(e -> dialog.dispose());
 
         JPanel buttonPanel = new JPanel();
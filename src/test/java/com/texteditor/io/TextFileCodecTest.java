@@ -0,0 +1,61 @@
+package com.texteditor.io;
+
+import com.texteditor.model.DocumentManager;
+import com.texteditor.model.FormattedDocument;
+import com.texteditor.model.LineEnding;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.*;
+import javax.swing.text.Document;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// a file loaded into a tab and saved again must come out byte for byte as it was read
+class TextFileCodecTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void mixedLineEndingsSurviveATab() throws Exception {
+        byte[] original = "a\r\nb\nc\r\nd\re\n".getBytes(StandardCharsets.UTF_8);
+        Path file = folder.resolve("mixed.txt");
+        Files.write(file, original);
+
+        TextFileCodec.DecodedText decoded = TextFileCodec.read(file);
+        assertEquals(LineEnding.MIXED, decoded.getLineEnding());
+
+        DocumentManager docManager = new DocumentManager();
+        docManager.setTextPane(new JTextPane(new FormattedDocument()));
+        docManager.setContent(decoded.getText());
+        Document document = docManager.getDocument();
+        assertEquals("a\r\nb\nc\r\nd\re\n", document.getText(0, document.getLength()));
+
+        TextFileCodec.write(file, document, decoded.getCharset(), decoded.hasByteOrderMark(),
+                decoded.getLineEnding());
+        assertArrayEquals(original, Files.readAllBytes(file));
+    }
+
+    @Test
+    void singleStyleIsNormalizedAndWrittenBack() throws Exception {
+        byte[] original = "one\r\ntwo\r\n\r\nthree".getBytes(StandardCharsets.UTF_8);
+        Path file = folder.resolve("crlf.txt");
+        Files.write(file, original);
+
+        TextFileCodec.DecodedText decoded = TextFileCodec.read(file);
+        assertEquals(LineEnding.CRLF, decoded.getLineEnding());
+        assertEquals("one\ntwo\n\nthree", decoded.getText());
+
+        DocumentManager docManager = new DocumentManager();
+        docManager.setTextPane(new JTextPane(new FormattedDocument()));
+        docManager.setContent(decoded.getText());
+        TextFileCodec.write(file, docManager.getDocument(), decoded.getCharset(),
+                decoded.hasByteOrderMark(), decoded.getLineEnding());
+        assertArrayEquals(original, Files.readAllBytes(file));
+    }
+}
@@ -0,0 +1,79 @@
+package com.texteditor.model;
+
+import com.texteditor.io.TextFileCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// a document loaded with mixed line endings keeps its '\r' characters, and converting it to one
+// style must leave exactly one '\n' per line break
+class TextNormalizerTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void unifiesMixedLineBreaks() throws Exception {
+        Document document = documentWith("a\r\nb\nc\rd\r\r\ne  \r\nf\t\r");
+        assertEquals(6, TextNormalizer.normalize(document, true, false));
+        assertEquals("a\nb\nc\nd\n\ne  \nf\t\n", textOf(document));
+    }
+
+    @Test
+    void unifiesAndTrimsInOnePass() throws Exception {
+        Document document = documentWith("a \r\nb\t\nc  \rd\r\r\ne  \r\nf\t\r");
+        TextNormalizer.normalize(document, true, true);
+        assertEquals("a\nb\nc\nd\n\ne\nf\n", textOf(document));
+    }
+
+    @Test
+    void trimsBeforeCarriageReturnsWithoutUnifying() throws Exception {
+        Document document = documentWith("a \r\nb\t\rc  \n");
+        TextNormalizer.normalize(document, false, true);
+        assertEquals("a\r\nb\rc\n", textOf(document));
+    }
+
+    @Test
+    void keepsCrLfTogetherAcrossChunks() throws Exception {
+        String line = "x".repeat(64 * 1024 - 1);
+        Document document = documentWith(line + "\r\n" + line + "\r");
+        assertEquals(2, TextNormalizer.normalize(document, true, false));
+        assertEquals(line + "\n" + line + "\n", textOf(document));
+    }
+
+    @Test
+    void convertedMixedFileSavesInTheNewStyle() throws Exception {
+        Path file = folder.resolve("mixed.txt");
+        Files.write(file, "a\r\nb\nc\rd\n".getBytes(StandardCharsets.UTF_8));
+        TextFileCodec.DecodedText decoded = TextFileCodec.read(file);
+        assertEquals(LineEnding.MIXED, decoded.getLineEnding());
+
+        DocumentManager docManager = new DocumentManager();
+        docManager.setTextPane(new JTextPane(new FormattedDocument()));
+        docManager.setContent(decoded.getText());
+        TextNormalizer.normalize(docManager.getDocument(), true, false);
+        TextFileCodec.write(file, docManager.getDocument(), decoded.getCharset(), false,
+                LineEnding.CRLF);
+        assertArrayEquals("a\r\nb\r\nc\r\nd\r\n".getBytes(StandardCharsets.UTF_8),
+                Files.readAllBytes(file));
+    }
+
+    private static Document documentWith(String text) throws BadLocationException {
+        Document document = new FormattedDocument();
+        document.insertString(0, text, null);
+        return document;
+    }
+
+    private static String textOf(Document document) throws BadLocationException {
+        return document.getText(0, document.getLength());
+    }
+}